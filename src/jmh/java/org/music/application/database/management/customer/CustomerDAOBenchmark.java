@@ -0,0 +1,84 @@
+package org.music.application.database.management.customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures each CustomerDAOImplementation operation against the embedded database, reporting throughput and,
+ * through sample time, latency percentiles. Run with {@code -prof gc} for the allocation rate per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CustomerDAOBenchmark {
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1_000_000_000);  // Ids for inserted customers
+
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+    }
+
+    private int existingId(CustomerDatabaseState db) {
+        return random.nextInt(db.rows) + 1;
+    }
+
+    @Benchmark
+    public Customer get(CustomerDatabaseState db) throws SQLException {
+        return db.dao.get(existingId(db));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Customer> getAll(CustomerDatabaseState db) throws SQLException {
+        return db.dao.getAll();
+    }
+
+    @Benchmark
+    public int insert(CustomerDatabaseState db) throws SQLException {
+        return db.dao.insert(TestDatabase.customer(NEXT_ID.incrementAndGet()));
+    }
+
+    @Benchmark
+    public int update(CustomerDatabaseState db) throws SQLException {
+        Customer customer = TestDatabase.customer(existingId(db));
+        customer.setCity("City" + random.nextInt(100));
+        return db.dao.update(customer);
+    }
+
+    @Benchmark
+    public int save(CustomerDatabaseState db) throws SQLException {
+        Customer customer = TestDatabase.customer(existingId(db));
+        customer.setCity("City" + random.nextInt(100));
+        return db.dao.save(customer);
+    }
+
+    /**
+     * Deletes a customer and inserts it again, so the table keeps its size; subtract the insert score for the
+     * cost of the delete alone.
+     */
+    @Benchmark
+    public int delete(CustomerDatabaseState db) throws SQLException {
+        Customer customer = TestDatabase.customer(existingId(db));
+        return db.dao.delete(customer) + db.dao.insert(customer);
+    }
+}
@@ -0,0 +1,49 @@
+package org.music.application.database.management.customer;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.stream.IntStream;
+
+/**
+ * An embedded H2 database in MySQL mode seeded with {@code rows} Chinook-style customers, shared by all
+ * benchmark threads. Customers created by a benchmark iteration are removed after it, so every iteration
+ * starts from the same table.
+ */
+@State(Scope.Benchmark)
+public class CustomerDatabaseState {
+
+    @Param("10000")
+    public int rows;
+
+    ConnectionPool pool;
+    CustomerDAOImplementation dao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        pool = TestDatabase.create("jmh_" + rows);
+        dao = new CustomerDAOImplementation(pool);
+        dao.insertAll(IntStream.rangeClosed(1, rows).mapToObj(TestDatabase::customer).toList());
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeCreatedCustomers() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement("DELETE FROM Customer WHERE CustomerId > ?")) {
+            prepStatement.setInt(1, rows);
+            prepStatement.executeUpdate();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+}
@@ -0,0 +1,103 @@
+package org.music.application.database.management.customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the per-row cost of mapping customers by column label, by resolved column position through
+ * {@link CustomerRowMapper}, and onto a {@link CustomerContact} projection through {@link RecordRowMapper}.
+ * Each operation scans a table of {@code rows} customers; scores are per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    private ConnectionPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        pool = TestDatabase.create("jmh_row_mapper");
+        new CustomerDAOImplementation(pool).insertAll(IntStream.rangeClosed(1, ROWS)
+                .mapToObj(TestDatabase::customer).toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byLabel(Blackhole blackhole) throws SQLException {
+        scan("SELECT * FROM Customer", resultSet -> RowMapperBenchmark::mapByLabel, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byIndex(Blackhole blackhole) throws SQLException {
+        scan("SELECT * FROM Customer", CustomerRowMapper.FACTORY, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void contactProjection(Blackhole blackhole) throws SQLException {
+        scan("SELECT CustomerId, Email, SupportRepId FROM Customer", RecordRowMapper.of(CustomerContact.class),
+                blackhole);
+    }
+
+    private <T> void scan(String sql, RowMapper.Factory<T> factory, Blackhole blackhole) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(sql);
+             ResultSet resultSet = prepStatement.executeQuery()) {
+            RowMapper<T> rowMapper = factory.forResultSet(resultSet);
+            while (resultSet.next()) {
+                blackhole.consume(rowMapper.mapRow(resultSet));
+            }
+        }
+    }
+
+    // The label-based mapping CustomerDAOImplementation used before CustomerRowMapper.
+    private static Customer mapByLabel(ResultSet resultSet) throws SQLException {
+        return new Customer(
+                resultSet.getInt("CustomerId"),
+                resultSet.getString("FirstName"),
+                resultSet.getString("LastName"),
+                resultSet.getString("Company"),
+                resultSet.getString("Address"),
+                resultSet.getString("City"),
+                resultSet.getString("State"),
+                resultSet.getString("Country"),
+                resultSet.getString("PostalCode"),
+                resultSet.getString("Phone"),
+                resultSet.getString("Fax"),
+                resultSet.getString("Email"),
+                resultSet.getInt("SupportRepId")
+        );
+    }
+}
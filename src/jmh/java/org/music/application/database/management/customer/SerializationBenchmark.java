@@ -0,0 +1,98 @@
+package org.music.application.database.management.customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and reading a single customer with Java serialization, for plain and compact customers,
+ * against {@link CustomerCodec}. The codec is measured both into a fresh array and into a reused buffer, and
+ * both into a new customer and into a held copy of the same customer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private Customer customer;
+    private CompactCustomer compactCustomer;
+    private byte[] serializedCustomer;
+    private byte[] encodedCustomer;
+    private ByteBuffer buffer;
+    private Customer heldCustomer;
+
+    @Setup
+    public void setUp() throws IOException {
+        customer = TestDatabase.customer(4711);
+        compactCustomer = new CompactCustomer(customer);
+        serializedCustomer = serialize(customer);
+        encodedCustomer = CustomerCodec.toBytes(customer);
+        buffer = ByteBuffer.allocate(1_024);
+        heldCustomer = new Customer(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomer() throws IOException {
+        return serialize(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactCustomer() throws IOException {
+        return serialize(compactCustomer);
+    }
+
+    @Benchmark
+    public Object deserializeCustomer() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedCustomer))) {
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeCustomer() {
+        return CustomerCodec.toBytes(customer);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeCustomerIntoBuffer() {
+        buffer.clear();
+        CustomerCodec.encode(customer, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Customer decodeCustomer() {
+        return CustomerCodec.fromBytes(encodedCustomer);
+    }
+
+    @Benchmark
+    public Customer decodeIntoHeldCustomer() {
+        return CustomerCodec.decode(ByteBuffer.wrap(encodedCustomer), heldCustomer);
+    }
+
+    private static byte[] serialize(Customer customer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(customer);
+        }
+        return bytes.toByteArray();
+    }
+}
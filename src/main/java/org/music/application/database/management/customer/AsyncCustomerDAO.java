@@ -0,0 +1,249 @@
+/**
+ * Asynchronous front end for a {@link CustomerDAO}.
+ * Each operation runs the blocking DAO call on a worker and returns a {@link CompletableFuture}. At most
+ * {@code maxConcurrency} calls run at once, so a burst of callers queues for a permit instead of exhausting the
+ * connection pool. When a future is cancelled or times out, the statements its call has open are cancelled
+ * with {@link java.sql.Statement#cancel()}, which requires the DAO to borrow from a {@link ConnectionPool}.
+ */
+package org.music.application.database.management.customer;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncCustomerDAO implements AutoCloseable {
+
+    private final CustomerDAO delegate;  // The blocking DAO the calls are made on
+    private final ExecutorService executor;  // Runs the blocking calls
+    private final boolean ownsExecutor;  // Whether close() shuts the executor down
+    private final Semaphore permits;  // Bounds the calls running at once
+    private final Duration timeout;  // Per-call timeout, or null for none
+
+    /**
+     * Constructs a new AsyncCustomerDAO whose concurrency matches the maximum size of the given pool.
+     * Calls run on virtual threads when the runtime supports them, and otherwise on a fixed pool of
+     * platform threads of that size.
+     *
+     * @param delegate The blocking DAO, borrowing connections from the pool.
+     * @param pool     The pool the DAO borrows from.
+     * @param timeout  How long a call may take before it is cancelled, or null for no timeout.
+     */
+    public AsyncCustomerDAO(CustomerDAO delegate, ConnectionPool pool, Duration timeout) {
+        this(delegate, pool.getConfig().getMaxSize(), timeout);
+    }
+
+    /**
+     * Constructs a new AsyncCustomerDAO running at most the given number of calls at once.
+     * Calls run on virtual threads when the runtime supports them, and otherwise on a fixed pool of
+     * platform threads of that size.
+     *
+     * @param delegate       The blocking DAO.
+     * @param maxConcurrency The maximum number of calls running at once.
+     * @param timeout        How long a call may take before it is cancelled, or null for no timeout.
+     */
+    public AsyncCustomerDAO(CustomerDAO delegate, int maxConcurrency, Duration timeout) {
+        this(delegate, newDefaultExecutor(maxConcurrency), true, maxConcurrency, timeout);
+    }
+
+    /**
+     * Constructs a new AsyncCustomerDAO running calls on the given executor.
+     * The executor is not shut down when this DAO is closed.
+     *
+     * @param delegate       The blocking DAO.
+     * @param executor       The executor to run the blocking calls on.
+     * @param maxConcurrency The maximum number of calls running at once.
+     * @param timeout        How long a call may take before it is cancelled, or null for no timeout.
+     */
+    public AsyncCustomerDAO(CustomerDAO delegate, ExecutorService executor, int maxConcurrency, Duration timeout) {
+        this(delegate, executor, false, maxConcurrency, timeout);
+    }
+
+    private AsyncCustomerDAO(CustomerDAO delegate, ExecutorService executor, boolean ownsExecutor,
+                             int maxConcurrency, Duration timeout) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1: " + maxConcurrency);
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeout = timeout;
+    }
+
+    // Virtual threads need Java 21; look the factory up reflectively so the code still runs on Java 17.
+    private static ExecutorService newDefaultExecutor(int maxConcurrency) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "async-customer-dao-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public CompletableFuture<Customer> get(int customerId) {
+        return submit(() -> delegate.get(customerId));
+    }
+
+    public CompletableFuture<IntObjectMap<Customer>> getMany(int[] ids) {
+        return submit(() -> delegate.getMany(ids));
+    }
+
+    public CompletableFuture<List<Customer>> getAll() {
+        return submit(delegate::getAll);
+    }
+
+    public CompletableFuture<List<Customer>> getAll(Set<CustomerColumn> columns) {
+        return submit(() -> delegate.getAll(columns));
+    }
+
+    public <R extends Record> CompletableFuture<R> get(int customerId, Class<R> recordType) {
+        return submit(() -> delegate.get(customerId, recordType));
+    }
+
+    public <R extends Record> CompletableFuture<List<R>> getAll(Class<R> recordType) {
+        return submit(() -> delegate.getAll(recordType));
+    }
+
+    public CompletableFuture<Customer> findByEmail(String email) {
+        return submit(() -> delegate.findByEmail(email));
+    }
+
+    public CompletableFuture<List<Customer>> findByCountry(String country) {
+        return submit(() -> delegate.findByCountry(country));
+    }
+
+    public CompletableFuture<List<Customer>> findBySupportRepId(int supportRepId) {
+        return submit(() -> delegate.findBySupportRepId(supportRepId));
+    }
+
+    public CompletableFuture<Page<Customer>> getPage(String pageToken, int pageSize, CustomerFilter filter) {
+        return submit(() -> delegate.getPage(pageToken, pageSize, filter));
+    }
+
+    public CompletableFuture<CustomerChanges> getChangedSince(String syncToken) {
+        return submit(() -> delegate.getChangedSince(syncToken));
+    }
+
+    public CompletableFuture<Integer> save(Customer customer) {
+        return submit(() -> delegate.save(customer));
+    }
+
+    public CompletableFuture<Integer> insert(Customer customer) {
+        return submit(() -> delegate.insert(customer));
+    }
+
+    public CompletableFuture<Integer> update(Customer customer) {
+        return submit(() -> delegate.update(customer));
+    }
+
+    public CompletableFuture<Integer> delete(Customer customer) {
+        return submit(() -> delegate.delete(customer));
+    }
+
+    public CompletableFuture<BatchResult<Customer>> insertAll(Collection<Customer> customers) {
+        return submit(() -> delegate.insertAll(customers));
+    }
+
+    public CompletableFuture<BatchResult<Customer>> saveAll(Collection<Customer> customers) {
+        return submit(() -> delegate.saveAll(customers));
+    }
+
+    public CompletableFuture<BatchResult<Customer>> updateAll(Collection<Customer> customers) {
+        return submit(() -> delegate.updateAll(customers));
+    }
+
+    public CompletableFuture<BatchResult<Customer>> deleteAll(Collection<Customer> customers) {
+        return submit(() -> delegate.deleteAll(customers));
+    }
+
+    /**
+     * Runs the given call once a permit is available. The returned future completes with the result of the call;
+     * cancelling it, or letting it time out, cancels the statements the call has open.
+     *
+     * @param call The blocking call.
+     * @param <R>  The type of the result.
+     * @return A future for the result of the call.
+     */
+    private <R> CompletableFuture<R> submit(DaoCall<R> call) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        QueryCancellation cancellation = new QueryCancellation();
+        Runnable task = () -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                if (future.isDone()) {
+                    return;  // Cancelled or timed out while queued
+                }
+                cancellation.enter();
+                try {
+                    future.complete(call.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    cancellation.exit();
+                }
+            } finally {
+                permits.release();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                cancellation.cancel();
+            }
+        });
+        if (timeout != null) {
+            future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Returns the number of calls currently waiting for a permit.
+     *
+     * @return An estimate of the queued calls.
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Shuts down the executor if this DAO created it. Calls already submitted still run.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    // A blocking DAO call.
+    @FunctionalInterface
+    private interface DaoCall<R> {
+        R call() throws Exception;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Controls how bulk writes are split into JDBC batches and transactions.
+ * Rows are sent to the database in batches of {@code batchSize}, and the open transaction is committed
+ * once at least {@code rowsPerTransaction} rows have been sent, so commits always fall on batch boundaries.
+ */
+package org.music.application.database.management.customer;
+
+public class BatchOptions {
+
+    private int batchSize = 500;  // Rows sent per executeBatch call
+    private int rowsPerTransaction = 5_000;  // Rows written before each commit
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getRowsPerTransaction() {
+        return rowsPerTransaction;
+    }
+
+    public void setRowsPerTransaction(int rowsPerTransaction) {
+        if (rowsPerTransaction < 1) {
+            throw new IllegalArgumentException("rowsPerTransaction must be at least 1: " + rowsPerTransaction);
+        }
+        this.rowsPerTransaction = rowsPerTransaction;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOptions{" +
+                "batchSize=" + batchSize +
+                ", rowsPerTransaction=" + rowsPerTransaction +
+                '}';
+    }
+}
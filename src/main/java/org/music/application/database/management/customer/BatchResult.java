@@ -0,0 +1,140 @@
+/**
+ * The outcome of a bulk insert, update or delete.
+ * Reports the update count of every row in the order the rows were given, along with the rows that failed.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchResult<T> {
+
+    private final int[] updateCounts;  // Per-row update count, SUCCESS_NO_INFO or EXECUTE_FAILED
+    private final List<Failure<T>> failures;  // Rows that could not be written
+
+    /**
+     * Constructs a new BatchResult.
+     *
+     * @param updateCounts The update count of each row, using the {@link Statement} constants for rows
+     *                     without a count or that failed.
+     * @param failures     The rows that failed.
+     */
+    public BatchResult(int[] updateCounts, List<Failure<T>> failures) {
+        this.updateCounts = updateCounts;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Applies the given single-row operation to each item in turn, recording a failure for every item that throws.
+     * Used by DAOs that do not provide a native batch implementation.
+     *
+     * @param items     The items to write.
+     * @param operation The single-row operation, such as {@code DAO::insert}.
+     * @param <T>       The type of the items.
+     * @return The result of the operation on each item.
+     */
+    public static <T> BatchResult<T> ofEach(Collection<T> items, RowOperation<T> operation) {
+        int[] updateCounts = new int[items.size()];
+        List<Failure<T>> failures = new ArrayList<>();
+        int index = 0;
+        for (T item : items) {
+            try {
+                updateCounts[index] = operation.apply(item);
+            } catch (SQLException e) {
+                updateCounts[index] = Statement.EXECUTE_FAILED;
+                failures.add(new Failure<>(index, item, e));
+            } catch (RuntimeException e) {
+                if (!(e.getCause() instanceof SQLException cause)) {
+                    throw e;
+                }
+                updateCounts[index] = Statement.EXECUTE_FAILED;
+                failures.add(new Failure<>(index, item, cause));
+            }
+            index++;
+        }
+        return new BatchResult<>(updateCounts, failures);
+    }
+
+    /**
+     * Returns the update count of every row, in the order the rows were given.
+     * Drivers that rewrite batches into multi-row statements report {@link Statement#SUCCESS_NO_INFO}
+     * instead of a count; failed rows are reported as {@link Statement#EXECUTE_FAILED}.
+     *
+     * @return A copy of the per-row update counts.
+     */
+    public int[] getUpdateCounts() {
+        return updateCounts.clone();
+    }
+
+    /**
+     * Returns the number of rows in the batch.
+     *
+     * @return The number of rows.
+     */
+    public int getRowCount() {
+        return updateCounts.length;
+    }
+
+    /**
+     * Returns the number of rows that were written without error.
+     *
+     * @return The number of successful rows.
+     */
+    public int getSucceededCount() {
+        return updateCounts.length - failures.size();
+    }
+
+    /**
+     * Returns the total number of rows affected, counting rows reported without a count as one row each.
+     *
+     * @return The number of affected rows.
+     */
+    public long getAffectedRows() {
+        return Arrays.stream(updateCounts)
+                .mapToLong(count -> count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0))
+                .sum();
+    }
+
+    public List<Failure<T>> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "rows=" + updateCounts.length +
+                ", affectedRows=" + getAffectedRows() +
+                ", failures=" + failures.size() +
+                '}';
+    }
+
+    /**
+     * A row that could not be written.
+     *
+     * @param index The position of the row in the batch.
+     * @param item  The row itself.
+     * @param cause The error reported for the row.
+     * @param <T>   The type of the row.
+     */
+    public record Failure<T>(int index, T item, SQLException cause) {
+    }
+
+    /**
+     * A single-row write operation, such as {@link DAO#insert(Object)}.
+     *
+     * @param <T> The type of the row.
+     */
+    @FunctionalInterface
+    public interface RowOperation<T> {
+        int apply(T t) throws SQLException;
+    }
+}
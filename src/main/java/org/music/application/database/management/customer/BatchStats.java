@@ -0,0 +1,44 @@
+/**
+ * A point-in-time snapshot of the counters of a {@link BatchingCustomerDAO}.
+ *
+ * @param requests          Calls to {@code get} that joined a batch.
+ * @param batches           Batches loaded from the underlying DAO, successful or not.
+ * @param keysLoaded        Distinct identifiers across those batches.
+ * @param largestBatch      Distinct identifiers in the largest batch.
+ * @param batchSizeBuckets  Batch counts by size: bucket {@code i} counts the batches of
+ *                          {@code 2^i} to {@code 2^(i+1) - 1} distinct identifiers.
+ * @param totalLoadNanos    Time spent in the batch loads.
+ */
+package org.music.application.database.management.customer;
+
+public record BatchStats(long requests, long batches, long keysLoaded, int largestBatch, long[] batchSizeBuckets,
+                         long totalLoadNanos) {
+
+    /**
+     * Returns the average number of distinct identifiers per batch.
+     *
+     * @return The average batch size; 0 if nothing has been loaded.
+     */
+    public double averageBatchSize() {
+        return batches == 0 ? 0 : (double) keysLoaded / batches;
+    }
+
+    /**
+     * Returns the number of {@code get} calls answered per round trip, which grows both with batching and with
+     * callers asking for the same customer.
+     *
+     * @return The requests per batch; 0 if nothing has been loaded.
+     */
+    public double requestsPerBatch() {
+        return batches == 0 ? 0 : (double) requests / batches;
+    }
+
+    /**
+     * Returns the average time spent loading a batch from the underlying DAO.
+     *
+     * @return The average load latency in milliseconds; 0 if nothing has been loaded.
+     */
+    public double averageLoadMillis() {
+        return batches == 0 ? 0 : totalLoadNanos / 1_000_000.0 / batches;
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * A CustomerDAO decorator that coalesces concurrent {@link #get(int)} calls into batched
+ * {@link CustomerDAO#getMany(int[])} loads. The first caller of a batch waits up to the batching window for
+ * others to join, or until the batch holds the maximum number of distinct identifiers, then loads the whole
+ * batch with one query and hands every caller its customer. Callers asking for the same customer share one
+ * lookup. A lone caller pays the window as added latency, so keep it well below a round trip.
+ * Callers inside a {@link Transaction} bypass batching, so they see their own writes and never share theirs.
+ * All other operations are forwarded unchanged.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class BatchingCustomerDAO extends ForwardingCustomerDAO {
+
+    private final long windowNanos;  // How long the first caller of a batch waits for others to join
+    private final int maxBatchSize;  // Distinct identifiers at which a batch is loaded without waiting further
+    private final ReentrantLock lock = new ReentrantLock();  // Guards the open batch
+    private Batch open;  // The batch new callers join, or null if none is open
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keysLoaded = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final AtomicLongArray batchSizeBuckets = new AtomicLongArray(Integer.SIZE);
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    /**
+     * Constructs a new BatchingCustomerDAO.
+     *
+     * @param delegate     The DAO to load batches from and to forward all other calls to.
+     * @param window       How long the first caller of a batch waits for others to join.
+     * @param maxBatchSize The number of distinct identifiers at which a batch is loaded at once.
+     */
+    public BatchingCustomerDAO(CustomerDAO delegate, Duration window, int maxBatchSize) {
+        super(delegate);
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("window must not be negative: " + window);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1: " + maxBatchSize);
+        }
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Retrieves a customer as part of a batch with the other callers asking at about the same time.
+     * Callers asking for the same customer in the same batch share one lookup but receive their own copy.
+     *
+     * @param customerId The unique identifier of the customer to retrieve.
+     * @return The customer, or null if no customer with the given identifier exists.
+     * @throws SQLException If an SQL exception occurs while loading the batch.
+     */
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        if (Transaction.current() != null) {
+            return delegate.get(customerId);
+        }
+        requests.increment();
+        Batch batch;
+        CompletableFuture<Customer> result;
+        boolean leader = false;
+        lock.lock();
+        try {
+            if (open == null) {
+                open = new Batch(lock.newCondition());
+                leader = true;
+            }
+            batch = open;
+            result = batch.results.get(customerId);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                batch.results.put(customerId, result);
+                if (batch.results.size() >= maxBatchSize) {
+                    open = null;  // Full; later callers start a new batch
+                    batch.ready.signal();
+                }
+            }
+            if (leader) {
+                awaitBatch(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) {
+            load(batch);
+        }
+        return join(result);
+    }
+
+    // Waits until the batch is full or its window has passed, then closes it; the caller holds the lock.
+    private void awaitBatch(Batch batch) {
+        long remaining = windowNanos;
+        boolean interrupted = false;
+        while (open == batch && remaining > 0) {
+            try {
+                remaining = batch.ready.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                interrupted = true;  // Load the batch now; other callers are waiting on it
+                remaining = 0;
+            }
+        }
+        if (open == batch) {
+            open = null;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Loads a closed batch and completes the results of its callers.
+    private void load(Batch batch) {
+        int[] ids = batch.results.keys();
+        recordBatchSize(ids.length);
+        long start = System.nanoTime();
+        try {
+            IntObjectMap<Customer> customers = delegate.getMany(ids);
+            batch.results.forEach((id, future) -> future.complete(customers.get(id)));
+        } catch (Throwable t) {
+            batch.results.forEach((id, future) -> future.completeExceptionally(t));
+        } finally {
+            totalLoadNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void recordBatchSize(int size) {
+        batches.increment();
+        keysLoaded.add(size);
+        batchSizeBuckets.incrementAndGet(31 - Integer.numberOfLeadingZeros(size));
+        largestBatch.accumulateAndGet(size, Math::max);
+    }
+
+    private static Customer join(CompletableFuture<Customer> result) throws SQLException {
+        try {
+            Customer customer = result.get();
+            return customer == null ? null : new Customer(customer);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Batch load failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a batch load", e);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the batching counters, for tuning the window and the maximum batch size.
+     *
+     * @return The current batching statistics.
+     */
+    public BatchStats getStats() {
+        long[] buckets = new long[batchSizeBuckets.length()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = batchSizeBuckets.get(i);
+        }
+        return new BatchStats(requests.sum(), batches.sum(), keysLoaded.sum(), largestBatch.get(), buckets,
+                totalLoadNanos.sum());
+    }
+
+    // The callers of one batch, by the customer they asked for.
+    private static final class Batch {
+        final IntObjectMap<CompletableFuture<Customer>> results = new IntObjectMap<>();  // Guarded by the lock
+        final Condition ready;  // Signalled when the batch is full
+
+        Batch(Condition ready) {
+            this.ready = ready;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * A point-in-time snapshot of the counters of a {@link CachingCustomerDAO}.
+ *
+ * @param hits           Lookups answered from the cache, including cached misses.
+ * @param misses         Lookups that had to load from the underlying DAO.
+ * @param evictions      Entries removed to keep the cache within its maximum size.
+ * @param loadCount      Loads from the underlying DAO, successful or not.
+ * @param totalLoadNanos Time spent in those loads.
+ * @param size           Entries currently cached.
+ */
+package org.music.application.database.management.customer;
+
+public record CacheStats(long hits, long misses, long evictions, long loadCount, long totalLoadNanos, int size) {
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return The hit ratio between 0 and 1; 0 if there have been no lookups.
+     */
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /**
+     * Returns the average time spent loading an entry from the underlying DAO.
+     *
+     * @return The average load latency in milliseconds; 0 if nothing has been loaded.
+     */
+    public double averageLoadMillis() {
+        return loadCount == 0 ? 0 : totalLoadNanos / 1_000_000.0 / loadCount;
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * A CustomerDAO decorator that serves {@link #get(int)} from a bounded in-process cache.
+ * Entries are evicted least recently used first and may expire after a time-to-live. Lookups of missing
+ * customers can be cached as well. Every write through this DAO invalidates the affected entries;
+ * writes made by other processes are only picked up once the entry expires or is evicted.
+ *
+ * Inside a {@link Transaction}, lookups bypass the cache so they see the transaction's own writes and nothing
+ * uncommitted is cached, and written entries are invalidated again once the transaction commits, dropping any
+ * entry another thread loaded before the write became visible.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CachingCustomerDAO extends ForwardingCustomerDAO {
+
+    private final int maxSize;  // Maximum number of cached entries
+    private final long ttlNanos;  // Time an entry stays valid, or 0 for no expiry
+    private final boolean cacheMissing;  // Whether lookups of missing customers are cached
+    private final LinkedHashMap<Integer, Entry> entries;  // Guarded by itself; iteration order is least recent first
+    private final AtomicLong writeEpoch = new AtomicLong();  // Bumped by every write so racing loads are not cached
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    /**
+     * Constructs a new CachingCustomerDAO without expiry that also caches missing customers.
+     *
+     * @param delegate The DAO to load customers from and to send writes to.
+     * @param maxSize  The maximum number of cached entries.
+     */
+    public CachingCustomerDAO(CustomerDAO delegate, int maxSize) {
+        this(delegate, maxSize, null, true);
+    }
+
+    /**
+     * Constructs a new CachingCustomerDAO.
+     *
+     * @param delegate     The DAO to load customers from and to send writes to.
+     * @param maxSize      The maximum number of cached entries.
+     * @param ttl          How long an entry stays valid after it was loaded, or null for no expiry.
+     * @param cacheMissing Whether lookups of customers that do not exist are cached.
+     */
+    public CachingCustomerDAO(CustomerDAO delegate, int maxSize, Duration ttl, boolean cacheMissing) {
+        super(delegate);
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        this.cacheMissing = cacheMissing;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > CachingCustomerDAO.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retrieves a customer from the cache, loading it from the underlying DAO on a miss.
+     * The returned object is a copy, so changing it does not affect the cache.
+     *
+     * @param customerId The unique identifier of the customer to retrieve.
+     * @return The customer, or null if no customer with the given identifier exists.
+     * @throws SQLException If an SQL exception occurs while loading the customer.
+     */
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        if (Transaction.current() != null) {
+            return delegate.get(customerId);
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(customerId);
+            if (entry != null) {
+                if (ttlNanos == 0 || System.nanoTime() - entry.expiresAtNanos < 0) {
+                    hits.increment();
+                    return entry.customer == null ? null : new Customer(entry.customer);
+                }
+                entries.remove(customerId);
+            }
+        }
+        misses.increment();
+
+        long epoch = writeEpoch.get();
+        long start = System.nanoTime();
+        Customer loaded;
+        try {
+            loaded = delegate.get(customerId);
+        } finally {
+            loadCount.increment();
+            totalLoadNanos.add(System.nanoTime() - start);
+        }
+
+        if (loaded != null || cacheMissing) {
+            Entry entry = new Entry(loaded == null ? null : new Customer(loaded),
+                    System.nanoTime() + ttlNanos);
+            synchronized (entries) {
+                // A write that raced with the load may have made it stale.
+                if (writeEpoch.get() == epoch) {
+                    entries.put(customerId, entry);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Retrieves the given customers, serving cached ones from the cache and loading the rest from the
+     * underlying DAO with a single {@link CustomerDAO#getMany(int[])} call.
+     *
+     * @param ids The unique identifiers of the customers to retrieve.
+     * @return Copies of the customers that exist, keyed by CustomerId.
+     * @throws SQLException If an SQL exception occurs while loading the customers.
+     */
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        if (Transaction.current() != null) {
+            return delegate.getMany(ids);
+        }
+        int[] distinctIds = Arrays.stream(ids).distinct().toArray();
+        IntObjectMap<Customer> found = new IntObjectMap<>(distinctIds.length);
+        int[] missing = new int[distinctIds.length];
+        int missingCount = 0;
+        synchronized (entries) {
+            long now = System.nanoTime();
+            for (int id : distinctIds) {
+                Entry entry = entries.get(id);
+                if (entry != null && (ttlNanos == 0 || now - entry.expiresAtNanos < 0)) {
+                    hits.increment();
+                    if (entry.customer != null) {
+                        found.put(id, new Customer(entry.customer));
+                    }
+                } else {
+                    missing[missingCount++] = id;
+                }
+            }
+        }
+        if (missingCount == 0) {
+            return found;
+        }
+        misses.add(missingCount);
+
+        int[] toLoad = Arrays.copyOf(missing, missingCount);
+        long epoch = writeEpoch.get();
+        long start = System.nanoTime();
+        IntObjectMap<Customer> loaded;
+        try {
+            loaded = delegate.getMany(toLoad);
+        } finally {
+            loadCount.increment();
+            totalLoadNanos.add(System.nanoTime() - start);
+        }
+
+        long expiresAt = System.nanoTime() + ttlNanos;
+        synchronized (entries) {
+            // A write that raced with the load may have made it stale.
+            boolean cacheable = writeEpoch.get() == epoch;
+            for (int id : toLoad) {
+                Customer customer = loaded.get(id);
+                if (customer != null) {
+                    found.put(id, customer);
+                }
+                if (cacheable && (customer != null || cacheMissing)) {
+                    entries.put(id, new Entry(customer == null ? null : new Customer(customer), expiresAt));
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public int save(Customer customer) throws SQLException {
+        try {
+            return delegate.save(customer);
+        } finally {
+            invalidateWritten(customer.getCustomerId());
+        }
+    }
+
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        try {
+            return delegate.insert(customer);
+        } finally {
+            invalidateWritten(customer.getCustomerId());
+        }
+    }
+
+    @Override
+    public int update(Customer customer) throws SQLException {
+        try {
+            return delegate.update(customer);
+        } finally {
+            invalidateWritten(customer.getCustomerId());
+        }
+    }
+
+    @Override
+    public int delete(Customer customer) {
+        try {
+            return delegate.delete(customer);
+        } finally {
+            invalidateWritten(customer.getCustomerId());
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.insertAll(customers);
+        } finally {
+            invalidateWritten(customers);
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.saveAll(customers);
+        } finally {
+            invalidateWritten(customers);
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.updateAll(customers);
+        } finally {
+            invalidateWritten(customers);
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.deleteAll(customers);
+        } finally {
+            invalidateWritten(customers);
+        }
+    }
+
+    /**
+     * Removes the cached entry of the given customer, if any.
+     *
+     * @param customerId The unique identifier of the customer.
+     */
+    public void invalidate(int customerId) {
+        synchronized (entries) {
+            writeEpoch.incrementAndGet();
+            entries.remove(customerId);
+        }
+    }
+
+    // Invalidates written customers now and, inside a transaction, again once it commits.
+    private void invalidateWritten(int... customerIds) {
+        invalidate(customerIds);
+        Transaction tx = Transaction.current();
+        if (tx != null) {
+            tx.afterCommit(() -> invalidate(customerIds));
+        }
+    }
+
+    private void invalidateWritten(Collection<Customer> customers) {
+        invalidateWritten(customers.stream().mapToInt(Customer::getCustomerId).toArray());
+    }
+
+    private void invalidate(int[] customerIds) {
+        synchronized (entries) {
+            writeEpoch.incrementAndGet();
+            for (int customerId : customerIds) {
+                entries.remove(customerId);
+            }
+        }
+    }
+
+    /**
+     * Removes every cached entry.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            writeEpoch.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache counters, for sizing the cache.
+     *
+     * @return The current cache statistics.
+     */
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), loadCount.sum(), totalLoadNanos.sum(), size);
+    }
+
+    // A cached lookup result; customer is null for a customer that does not exist.
+    private record Entry(Customer customer, long expiresAtNanos) {
+    }
+}
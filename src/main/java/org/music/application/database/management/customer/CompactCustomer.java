@@ -0,0 +1,208 @@
+/**
+ * A {@link Customer} that takes a fraction of the heap, for bulk loads and in-process snapshots.
+ * Company, City, State, Country and PostalCode repeat across many customers, so they are replaced by canonical
+ * instances from shared {@link StringDictionary}s, one per column so that a column with many distinct values
+ * cannot crowd out the others. The remaining strings are packed into a single UTF-8 byte
+ * array and decoded by their getters on every call, so reads cost a decode and allocate a new string.
+ * Setters re-encode the array. Use {@code new Customer(compact)} to get an ordinary customer for hot paths.
+ */
+package org.music.application.database.management.customer;
+
+import java.nio.charset.StandardCharsets;
+
+public class CompactCustomer extends Customer {
+    private static final long serialVersionUID = 1L;
+
+    // Dictionaries shared by all compact customers; beyond their size, values are kept but no longer shared
+    static final StringDictionary COMPANIES = new StringDictionary(1 << 14);
+    static final StringDictionary CITIES = new StringDictionary(1 << 14);
+    static final StringDictionary STATES = new StringDictionary(1 << 10);
+    static final StringDictionary COUNTRIES = new StringDictionary(1 << 10);
+    static final StringDictionary POSTAL_CODES = new StringDictionary(1 << 14);
+
+    // Positions of the packed strings
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int ADDRESS = 2;
+    private static final int PHONE = 3;
+    private static final int FAX = 4;
+    private static final int EMAIL = 5;
+    private static final int PACKED_FIELDS = 6;
+
+    private byte[] packed;  // Each packed string as a varint of its UTF-8 length plus one (0 for null), then the bytes
+
+    /**
+     * Constructs a new CompactCustomer with the same details as the given customer.
+     *
+     * @param other The customer to copy.
+     */
+    public CompactCustomer(Customer other) {
+        super(other.getCustomerId(), null, null, COMPANIES.canonicalize(other.getCompany()), null,
+                CITIES.canonicalize(other.getCity()), STATES.canonicalize(other.getState()),
+                COUNTRIES.canonicalize(other.getCountry()), POSTAL_CODES.canonicalize(other.getPostalCode()),
+                null, null, null, other.getSupportRepId());
+        packed = pack(other.getFirstName(), other.getLastName(), other.getAddress(), other.getPhone(),
+                other.getFax(), other.getEmail());
+    }
+
+    @Override
+    public String getFirstName() {
+        return unpack(FIRST_NAME);
+    }
+
+    @Override
+    public void setFirstName(String firstName) {
+        repack(FIRST_NAME, firstName);
+    }
+
+    @Override
+    public String getLastName() {
+        return unpack(LAST_NAME);
+    }
+
+    @Override
+    public void setLastName(String lastName) {
+        repack(LAST_NAME, lastName);
+    }
+
+    @Override
+    public void setCompany(String company) {
+        super.setCompany(COMPANIES.canonicalize(company));
+    }
+
+    @Override
+    public String getAddress() {
+        return unpack(ADDRESS);
+    }
+
+    @Override
+    public void setAddress(String address) {
+        repack(ADDRESS, address);
+    }
+
+    @Override
+    public void setCity(String city) {
+        super.setCity(CITIES.canonicalize(city));
+    }
+
+    @Override
+    public void setState(String state) {
+        super.setState(STATES.canonicalize(state));
+    }
+
+    @Override
+    public void setCountry(String country) {
+        super.setCountry(COUNTRIES.canonicalize(country));
+    }
+
+    @Override
+    public void setPostalCode(String postalCode) {
+        super.setPostalCode(POSTAL_CODES.canonicalize(postalCode));
+    }
+
+    @Override
+    public String getPhone() {
+        return unpack(PHONE);
+    }
+
+    @Override
+    public void setPhone(String phone) {
+        repack(PHONE, phone);
+    }
+
+    @Override
+    public String getFax() {
+        return unpack(FAX);
+    }
+
+    @Override
+    public void setFax(String fax) {
+        repack(FAX, fax);
+    }
+
+    @Override
+    public String getEmail() {
+        return unpack(EMAIL);
+    }
+
+    @Override
+    public void setEmail(String email) {
+        repack(EMAIL, email);
+    }
+
+    private static byte[] pack(String... values) {
+        byte[][] encoded = new byte[values.length][];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+                length += encoded[i].length;
+            }
+            length += varintLength(encoded[i] == null ? 0 : encoded[i].length + 1);
+        }
+        byte[] packed = new byte[length];
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            offset = writeVarint(packed, offset, bytes == null ? 0 : bytes.length + 1);
+            if (bytes != null) {
+                System.arraycopy(bytes, 0, packed, offset, bytes.length);
+                offset += bytes.length;
+            }
+        }
+        return packed;
+    }
+
+    private String unpack(int field) {
+        byte[] bytes = packed;
+        int offset = 0;
+        for (int i = 0; ; i++) {
+            int header = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                header |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int length = header == 0 ? 0 : header - 1;
+            if (i == field) {
+                return header == 0 ? null : new String(bytes, offset, length, StandardCharsets.UTF_8);
+            }
+            offset += length;
+        }
+    }
+
+    private void repack(int field, String value) {
+        String[] values = new String[PACKED_FIELDS];
+        for (int i = 0; i < PACKED_FIELDS; i++) {
+            values[i] = i == field ? value : unpack(i);
+        }
+        packed = pack(values);
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int writeVarint(byte[] target, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * Returns the number of bytes the packed strings take, for footprint measurements.
+     *
+     * @return The length of the packed array.
+     */
+    public int getPackedLength() {
+        return packed.length;
+    }
+}
@@ -0,0 +1,464 @@
+/**
+ * A bounded pool of physical database connections exposed as a {@link DataSource}.
+ * Connections are opened lazily up to the configured maximum, validated when borrowed, and closed again
+ * once they have been idle for longer than the idle timeout. Borrowers that find the pool exhausted wait
+ * for a returned connection up to the configured maximum wait.
+ */
+package org.music.application.database.management.customer;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ConnectionPool implements DataSource, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final PoolConfig config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();  // Most recently returned first
+    private final ScheduledExecutorService maintenance;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LatencyHistogram connectionWait = new LatencyHistogram();  // Time getConnection took, when it succeeded
+    private final LongAdder connectionTimeouts = new LongAdder();
+    private final LongAdder transactionRetries = new LongAdder();
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();  // Transaction open on each thread
+    private final StatementTracer tracer;  // Traces sampled statements, or null when tracing is disabled
+    private int total;  // Open connections, idle or borrowed, including ones being opened
+    private boolean closed;
+
+    /**
+     * Constructs a new connection pool and opens the configured minimum of idle connections in the background.
+     *
+     * @param config The pool configuration.
+     */
+    public ConnectionPool(PoolConfig config) {
+        if (config.getMinIdle() > config.getMaxSize()) {
+            throw new IllegalArgumentException("minIdle must not exceed maxSize: " + config);
+        }
+        this.config = config;
+        this.tracer = config.getTraceSampleRate() > 0
+                ? new StatementTracer(config.getTraceSampleRate(), config.getSlowQueryThresholdMillis(),
+                config.getRedactedColumns())
+                : null;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.execute(this::fillToMinIdle);
+        maintenance.scheduleWithFixedDelay(this::evictIdle, config.getEvictionIntervalMillis(),
+                config.getEvictionIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if none is idle and the pool is below its maximum size.
+     * Closing the returned connection hands it back to the pool. Inside {@link #inTransaction(TransactionWork)},
+     * the transaction's connection is returned instead, and closing it has no effect.
+     *
+     * @return A pooled connection.
+     * @throws SQLException If the pool is closed, no connection became available within the maximum wait,
+     *                      or a new connection could not be opened.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Transaction tx = transaction.get();
+        if (tx != null) {
+            return tx.getConnection();
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+        while (true) {
+            PooledConnection candidate;
+            lock.lock();
+            try {
+                candidate = takeIdleOrReserve(deadline);
+            } finally {
+                lock.unlock();
+            }
+
+            if (candidate == null) {
+                // A slot was reserved for a new physical connection.
+                PooledConnection created = openReserved();
+                created.touch();
+                connectionWait.recordSince(start);
+                return created.newHandle();
+            }
+            if (isUsable(candidate)) {
+                candidate.touch();
+                connectionWait.recordSince(start);
+                return candidate.newHandle();
+            }
+            discard(candidate);
+        }
+    }
+
+    /**
+     * Runs work in a transaction with the default {@link TransactionOptions}.
+     *
+     * @param work The work to run.
+     * @param <T>  The type of the work's result.
+     * @return The result of the work.
+     * @throws SQLException If the work or the commit failed, after any retries.
+     * @see #inTransaction(TransactionOptions, TransactionWork)
+     */
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        return inTransaction(new TransactionOptions(), work);
+    }
+
+    /**
+     * Runs work in a transaction on one connection from this pool. DAO calls on this pool made by the work share the
+     * connection and are committed together once the work returns, so multi-row changes pay for one commit instead
+     * of one per call. If the work throws, everything it did is rolled back. Deadlocks, lock wait timeouts and
+     * serialization failures roll back and run the work again, as described in {@link Transaction}.
+     *
+     * If a transaction on this pool is already open on the calling thread, the work joins it and the options are
+     * ignored. Streams returned by DAO calls inside the work must be consumed before the work returns.
+     *
+     * @param options How to run the transaction.
+     * @param work    The work to run.
+     * @param <T>     The type of the work's result.
+     * @return The result of the work.
+     * @throws SQLException If the work or the commit failed, after any retries.
+     */
+    public <T> T inTransaction(TransactionOptions options, TransactionWork<T> work) throws SQLException {
+        Transaction outer = transaction.get();
+        if (outer != null) {
+            return work.execute(outer);
+        }
+        return Transaction.run(this, options, work);
+    }
+
+    // Makes the pool hand out the transaction's connection on this thread until unbind is called.
+    void bind(Transaction tx) {
+        transaction.set(tx);
+    }
+
+    void unbind() {
+        transaction.remove();
+    }
+
+    void recordTransactionRetry() {
+        transactionRetries.increment();
+    }
+
+    // Returns an idle connection, or null after reserving a slot for a new one. Must hold the lock.
+    private PooledConnection takeIdleOrReserve(long deadline) throws SQLException {
+        while (true) {
+            if (closed) {
+                throw new SQLException("Connection pool is closed", "08003");
+            }
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled != null) {
+                return pooled;
+            }
+            if (total < config.getMaxSize()) {
+                total++;
+                return null;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                connectionTimeouts.increment();
+                throw new SQLTransientConnectionException("Timed out after " + config.getMaxWaitMillis()
+                        + " ms waiting for a connection; all " + total + " connections are in use", "08001");
+            }
+            try {
+                available.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a connection", "08001", e);
+            }
+        }
+    }
+
+    // Opens a physical connection for a slot already counted in total, releasing the slot on failure.
+    private PooledConnection openReserved() throws SQLException {
+        try {
+            Properties properties = new Properties();
+            properties.putAll(config.getConnectionProperties());
+            if (config.getUsername() != null) {
+                properties.setProperty("user", config.getUsername());
+            }
+            if (config.getPassword() != null) {
+                properties.setProperty("password", config.getPassword());
+            }
+            StatementCache statementCache = config.getStatementCacheSize() > 0
+                    ? new StatementCache(config.getStatementCacheSize(), statementCacheHits, statementCacheMisses)
+                    : null;
+            return new PooledConnection(this, DriverManager.getConnection(config.getUrl(), properties), statementCache,
+                    tracer);
+        } catch (SQLException | RuntimeException e) {
+            releaseSlot();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (!config.isValidateOnBorrow()) {
+            return true;
+        }
+        long idleNanos = System.nanoTime() - pooled.getLastUsedNanos();
+        if (idleNanos < TimeUnit.MILLISECONDS.toNanos(config.getValidationIntervalMillis())) {
+            return true;
+        }
+        try {
+            return pooled.getPhysical().isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool. Called by the connection handle when the borrower closes it.
+     *
+     * @param pooled The connection being returned.
+     */
+    void release(PooledConnection pooled) {
+        if (!pooled.isBroken()) {
+            try {
+                pooled.reset();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Discarding connection that could not be reset", e);
+                discard(pooled);
+                return;
+            }
+            pooled.touch();
+            lock.lock();
+            try {
+                if (!closed) {
+                    idle.offerFirst(pooled);
+                    available.signal();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        discard(pooled);
+    }
+
+    private void discard(PooledConnection pooled) {
+        pooled.closePhysical();
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Closes connections above minIdle that have been idle longer than the idle timeout, oldest first.
+    private void evictIdle() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && total - evicted.size() > config.getMinIdle()) {
+                PooledConnection pooled = oldestFirst.next();
+                if (now - pooled.getLastUsedNanos() < timeoutNanos) {
+                    break;
+                }
+                oldestFirst.remove();
+                evicted.add(pooled);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : evicted) {
+            discard(pooled);
+        }
+        fillToMinIdle();
+    }
+
+    private void fillToMinIdle() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || total >= config.getMinIdle()) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                release(openReserved());
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Could not open idle connection for " + config.getUrl(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of open connections, both idle and borrowed.
+     *
+     * @return The total number of connections.
+     */
+    public int getTotalConnections() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of open connections that are currently not borrowed.
+     *
+     * @return The number of idle connections.
+     */
+    public int getIdleConnections() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many {@code prepareStatement(String)} calls were served from a connection's statement cache.
+     *
+     * @return The number of statement cache hits across all connections.
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Returns how many {@code prepareStatement(String)} calls had to prepare a new statement.
+     *
+     * @return The number of statement cache misses across all connections.
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Returns how long successful {@link #getConnection()} calls took, including validating an idle connection
+     * or opening a new one.
+     *
+     * @return The connection wait statistics.
+     */
+    public LatencyStats getConnectionWait() {
+        return connectionWait.snapshot();
+    }
+
+    /**
+     * Returns how many {@link #getConnection()} calls gave up after the maximum wait.
+     *
+     * @return The number of connection timeouts.
+     */
+    public long getConnectionTimeouts() {
+        return connectionTimeouts.sum();
+    }
+
+    /**
+     * Returns how many times a transaction was run again after a deadlock, lock wait timeout or serialization
+     * failure.
+     *
+     * @return The number of transaction retries.
+     */
+    public long getTransactionRetries() {
+        return transactionRetries.sum();
+    }
+
+    /**
+     * Closes the pool and all idle connections. Borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        maintenance.shutdownNow();
+        for (PooledConnection pooled : toClose) {
+            discard(pooled);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the configured credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return logger;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
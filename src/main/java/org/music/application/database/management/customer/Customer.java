@@ -8,6 +8,7 @@ import java.io.Serializable;
 import java.util.Objects;
 
 public class Customer implements Serializable {
+    private static final long serialVersionUID = 3984150962125523190L;  // As computed before it was pinned
 
     private final int customerId;  // Unique identifier for the customer
     private String firstName;  // First name of the customer
@@ -56,6 +57,17 @@ public class Customer implements Serializable {
         this.SupportRepId = supportRepId;
     }
 
+    /**
+     * Constructs a new Customer with the same details as the given customer.
+     *
+     * @param other The customer to copy.
+     */
+    public Customer(Customer other) {
+        this(other.getCustomerId(), other.getFirstName(), other.getLastName(), other.getCompany(), other.getAddress(),
+                other.getCity(), other.getState(), other.getCountry(), other.getPostalCode(), other.getPhone(),
+                other.getFax(), other.getEmail(), other.getSupportRepId());
+    }
+
     public int getCustomerId() {
         return customerId;
     }
@@ -160,30 +172,30 @@ public class Customer implements Serializable {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Customer customer)) return false;
-        return customerId == customer.customerId && Objects.equals(phone, customer.phone) && Objects.equals(email, customer.email);
+        return getCustomerId() == customer.getCustomerId() && Objects.equals(getPhone(), customer.getPhone()) && Objects.equals(getEmail(), customer.getEmail());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(customerId, phone, email);
+        return Objects.hash(getCustomerId(), getPhone(), getEmail());
     }
 
     @Override
     public String toString() {
         return "Customer{" +
-                "customerId=" + customerId +
-                ", firstName='" + firstName + '\'' +
-                ", lastName='" + lastName + '\'' +
-                ", company='" + company + '\'' +
-                ", address='" + address + '\'' +
-                ", city='" + city + '\'' +
-                ", state='" + state + '\'' +
-                ", country='" + country + '\'' +
-                ", postalCode='" + postalCode + '\'' +
-                ", phone='" + phone + '\'' +
-                ", fax='" + fax + '\'' +
-                ", email='" + email + '\'' +
-                ", SupportRepId='" + SupportRepId + '\'' +
+                "customerId=" + getCustomerId() +
+                ", firstName='" + getFirstName() + '\'' +
+                ", lastName='" + getLastName() + '\'' +
+                ", company='" + getCompany() + '\'' +
+                ", address='" + getAddress() + '\'' +
+                ", city='" + getCity() + '\'' +
+                ", state='" + getState() + '\'' +
+                ", country='" + getCountry() + '\'' +
+                ", postalCode='" + getPostalCode() + '\'' +
+                ", phone='" + getPhone() + '\'' +
+                ", fax='" + getFax() + '\'' +
+                ", email='" + getEmail() + '\'' +
+                ", SupportRepId='" + getSupportRepId() + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,63 @@
+/**
+ * The customers changed since a sync token, as returned by {@link CustomerDAO#getChangedSince(String)}.
+ * Carries the current state of every customer inserted or updated, the identifiers of the customers deleted,
+ * and the token to pass to the next sync. Applying the same changes twice is harmless, so a caller may replay a
+ * sync whose results it failed to apply.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Collections;
+import java.util.List;
+
+public class CustomerChanges {
+
+    private final List<Customer> upserted;  // Current state of the inserted and updated customers, in CustomerId order
+    private final int[] deletedIds;  // Identifiers of the deleted customers, in ascending order
+    private final String syncToken;  // Token for the next sync
+    private final boolean hasMore;  // Whether more changes were already waiting when this batch was read
+
+    /**
+     * Constructs a new CustomerChanges.
+     *
+     * @param upserted   The current state of the inserted and updated customers, in CustomerId order.
+     * @param deletedIds The identifiers of the deleted customers, in ascending order.
+     * @param syncToken  The token for the next sync.
+     * @param hasMore    Whether more changes are waiting and the caller should sync again straight away.
+     */
+    public CustomerChanges(List<Customer> upserted, int[] deletedIds, String syncToken, boolean hasMore) {
+        this.upserted = Collections.unmodifiableList(upserted);
+        this.deletedIds = deletedIds.clone();
+        this.syncToken = syncToken;
+        this.hasMore = hasMore;
+    }
+
+    public List<Customer> getUpserted() {
+        return upserted;
+    }
+
+    public int[] getDeletedIds() {
+        return deletedIds.clone();
+    }
+
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public boolean isEmpty() {
+        return upserted.isEmpty() && deletedIds.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerChanges{" +
+                "upserted=" + upserted.size() +
+                ", deleted=" + deletedIds.length +
+                ", syncToken='" + syncToken + '\'' +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
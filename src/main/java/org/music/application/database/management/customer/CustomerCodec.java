@@ -0,0 +1,390 @@
+/**
+ * A compact, versioned binary encoding of {@link Customer}, for caching customers and shipping them between
+ * processes without Java serialization. A record is a varint of its body length, then the body: a format version
+ * byte followed by tagged fields. Each tag is a varint of the field number shifted left by one, with the low bit
+ * telling a varint value (0) from a length-prefixed UTF-8 string (1). Null strings are omitted. Readers skip
+ * fields they do not know and leave fields that are absent null, so columns can be added without breaking
+ * readers or writers of either age; the version byte is only raised for changes that readers cannot skip.
+ * Everything is read and written directly on a {@link ByteBuffer}, and encoding allocates nothing.
+ */
+package org.music.application.database.management.customer;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class CustomerCodec {
+
+    /**
+     * The format version written by this codec, and the highest one it reads.
+     */
+    public static final int VERSION = 1;
+
+    // Field numbers; never reuse the number of a removed field
+    private static final int CUSTOMER_ID = 1;
+    private static final int FIRST_NAME = 2;
+    private static final int LAST_NAME = 3;
+    private static final int COMPANY = 4;
+    private static final int ADDRESS = 5;
+    private static final int CITY = 6;
+    private static final int STATE = 7;
+    private static final int COUNTRY = 8;
+    private static final int POSTAL_CODE = 9;
+    private static final int PHONE = 10;
+    private static final int FAX = 11;
+    private static final int EMAIL = 12;
+    private static final int SUPPORT_REP_ID = 13;
+    private static final int MAX_FIELD = 13;
+
+    // Wire types, in the low bit of a tag
+    private static final int VARINT = 0;
+    private static final int STRING = 1;
+
+    private CustomerCodec() {
+    }
+
+    /**
+     * Returns the number of bytes {@link #encode} writes for the customer, including the length prefix.
+     *
+     * @param customer The customer.
+     * @return The encoded size in bytes.
+     */
+    public static int encodedSize(Customer customer) {
+        int body = bodySize(customer);
+        return varintSize(body) + body;
+    }
+
+    /**
+     * Writes the customer at the buffer's position, advancing it past the record.
+     *
+     * @param customer The customer to encode.
+     * @param buffer   The buffer to write to.
+     * @throws BufferOverflowException If the buffer has fewer than {@link #encodedSize} bytes remaining; nothing
+     *                                 is written in that case.
+     */
+    public static void encode(Customer customer, ByteBuffer buffer) {
+        int body = bodySize(customer);
+        if (buffer.remaining() < varintSize(body) + body) {
+            throw new BufferOverflowException();
+        }
+        writeVarint(buffer, body);
+        buffer.put((byte) VERSION);
+        writeVarintField(buffer, CUSTOMER_ID, zigZag(customer.getCustomerId()));
+        writeStringField(buffer, FIRST_NAME, customer.getFirstName());
+        writeStringField(buffer, LAST_NAME, customer.getLastName());
+        writeStringField(buffer, COMPANY, customer.getCompany());
+        writeStringField(buffer, ADDRESS, customer.getAddress());
+        writeStringField(buffer, CITY, customer.getCity());
+        writeStringField(buffer, STATE, customer.getState());
+        writeStringField(buffer, COUNTRY, customer.getCountry());
+        writeStringField(buffer, POSTAL_CODE, customer.getPostalCode());
+        writeStringField(buffer, PHONE, customer.getPhone());
+        writeStringField(buffer, FAX, customer.getFax());
+        writeStringField(buffer, EMAIL, customer.getEmail());
+        writeVarintField(buffer, SUPPORT_REP_ID, zigZag(customer.getSupportRepId()));
+    }
+
+    /**
+     * Encodes the customer into a new array.
+     *
+     * @param customer The customer to encode.
+     * @return The encoded record.
+     */
+    public static byte[] toBytes(Customer customer) {
+        byte[] bytes = new byte[encodedSize(customer)];
+        encode(customer, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Decodes a customer from an array holding one record.
+     *
+     * @param bytes The encoded record.
+     * @return The decoded customer.
+     */
+    public static Customer fromBytes(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes), null);
+    }
+
+    /**
+     * Returns the length of the record at the buffer's position, including its length prefix, without moving the
+     * position. Stream readers use this to tell whether the whole record has been read into the buffer.
+     *
+     * @param buffer The buffer positioned at a record.
+     * @return The record length in bytes, or -1 if the buffer does not yet hold the whole length prefix.
+     */
+    public static int recordLength(ByteBuffer buffer) {
+        int position = buffer.position();
+        int length = 0;
+        for (int shift = 0, i = 0; i < 5; shift += 7, i++) {
+            if (position + i >= buffer.limit()) {
+                return -1;
+            }
+            byte b = buffer.get(position + i);
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return i + 1 + length;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt customer record: length prefix longer than 5 bytes");
+    }
+
+    /**
+     * Decodes the customer at the buffer's position, advancing it past the record.
+     *
+     * @param buffer The buffer to read from.
+     * @return The decoded customer.
+     * @throws BufferUnderflowException If the buffer ends before the record does.
+     * @throws IllegalArgumentException If the record is corrupt or written in a newer format version.
+     */
+    public static Customer decode(ByteBuffer buffer) {
+        return decode(buffer, null);
+    }
+
+    /**
+     * Decodes the customer at the buffer's position into the given instance if it is the same customer, so that
+     * refreshing a held copy allocates no new Customer, and keeps the instance's strings where they are unchanged.
+     * A new customer is returned if the instance is null or holds a different CustomerId.
+     *
+     * @param buffer The buffer to read from.
+     * @param reuse  An instance to decode into, or null.
+     * @return The decoded customer: {@code reuse} if it was reused, a new customer otherwise.
+     * @throws BufferUnderflowException If the buffer ends before the record does.
+     * @throws IllegalArgumentException If the record is corrupt or written in a newer format version.
+     */
+    public static Customer decode(ByteBuffer buffer, Customer reuse) {
+        int length = readVarint(buffer);
+        if (length < 1 || length > buffer.remaining()) {
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            throw new IllegalArgumentException("Corrupt customer record: body length " + length);
+        }
+        int end = buffer.position() + length;
+        int version = buffer.get() & 0xFF;
+        if (version > VERSION) {
+            buffer.position(end);
+            throw new IllegalArgumentException("Customer record version " + version + " is newer than " + VERSION);
+        }
+
+        int customerId = 0;
+        int supportRepId = 0;
+        String[] strings = new String[MAX_FIELD + 1];
+        int limit = buffer.limit();
+        buffer.limit(end);
+        try {
+            while (buffer.hasRemaining()) {
+                int tag = readVarint(buffer);
+                int field = tag >>> 1;
+                if ((tag & 1) == VARINT) {
+                    int value = readVarint(buffer);
+                    if (field == CUSTOMER_ID) {
+                        customerId = unZigZag(value);
+                    } else if (field == SUPPORT_REP_ID) {
+                        supportRepId = unZigZag(value);
+                    }
+                } else {
+                    int size = readVarint(buffer);
+                    if (size < 0 || size > buffer.remaining()) {
+                        throw new IllegalArgumentException("Corrupt customer record: string of " + size + " bytes");
+                    }
+                    if (field >= FIRST_NAME && field <= EMAIL) {
+                        String current = reuse == null ? null : current(reuse, field);
+                        strings[field] = readString(buffer, size, current);
+                    } else {
+                        buffer.position(buffer.position() + size);  // A field added by a newer writer
+                    }
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Corrupt customer record: field runs past the record", e);
+        } finally {
+            buffer.limit(limit);
+        }
+
+        if (reuse == null || reuse.getCustomerId() != customerId) {
+            return new Customer(customerId, strings[FIRST_NAME], strings[LAST_NAME], strings[COMPANY],
+                    strings[ADDRESS], strings[CITY], strings[STATE], strings[COUNTRY], strings[POSTAL_CODE],
+                    strings[PHONE], strings[FAX], strings[EMAIL], supportRepId);
+        }
+        reuse.setFirstName(strings[FIRST_NAME]);
+        reuse.setLastName(strings[LAST_NAME]);
+        reuse.setCompany(strings[COMPANY]);
+        reuse.setAddress(strings[ADDRESS]);
+        reuse.setCity(strings[CITY]);
+        reuse.setState(strings[STATE]);
+        reuse.setCountry(strings[COUNTRY]);
+        reuse.setPostalCode(strings[POSTAL_CODE]);
+        reuse.setPhone(strings[PHONE]);
+        reuse.setFax(strings[FAX]);
+        reuse.setEmail(strings[EMAIL]);
+        reuse.setSupportRepId(supportRepId);
+        return reuse;
+    }
+
+    private static String current(Customer customer, int field) {
+        return switch (field) {
+            case FIRST_NAME -> customer.getFirstName();
+            case LAST_NAME -> customer.getLastName();
+            case COMPANY -> customer.getCompany();
+            case ADDRESS -> customer.getAddress();
+            case CITY -> customer.getCity();
+            case STATE -> customer.getState();
+            case COUNTRY -> customer.getCountry();
+            case POSTAL_CODE -> customer.getPostalCode();
+            case PHONE -> customer.getPhone();
+            case FAX -> customer.getFax();
+            case EMAIL -> customer.getEmail();
+            default -> null;
+        };
+    }
+
+    private static int bodySize(Customer customer) {
+        return 1
+                + varintFieldSize(CUSTOMER_ID, zigZag(customer.getCustomerId()))
+                + stringFieldSize(FIRST_NAME, customer.getFirstName())
+                + stringFieldSize(LAST_NAME, customer.getLastName())
+                + stringFieldSize(COMPANY, customer.getCompany())
+                + stringFieldSize(ADDRESS, customer.getAddress())
+                + stringFieldSize(CITY, customer.getCity())
+                + stringFieldSize(STATE, customer.getState())
+                + stringFieldSize(COUNTRY, customer.getCountry())
+                + stringFieldSize(POSTAL_CODE, customer.getPostalCode())
+                + stringFieldSize(PHONE, customer.getPhone())
+                + stringFieldSize(FAX, customer.getFax())
+                + stringFieldSize(EMAIL, customer.getEmail())
+                + varintFieldSize(SUPPORT_REP_ID, zigZag(customer.getSupportRepId()));
+    }
+
+    private static int varintFieldSize(int field, int value) {
+        return varintSize(field << 1 | VARINT) + varintSize(value);
+    }
+
+    private static int stringFieldSize(int field, String value) {
+        if (value == null) {
+            return 0;
+        }
+        int size = utf8Length(value);
+        return varintSize(field << 1 | STRING) + varintSize(size) + size;
+    }
+
+    private static void writeVarintField(ByteBuffer buffer, int field, int value) {
+        writeVarint(buffer, field << 1 | VARINT);
+        writeVarint(buffer, value);
+    }
+
+    // Writes the string as UTF-8 straight into the buffer, without an intermediate array.
+    private static void writeStringField(ByteBuffer buffer, int field, String value) {
+        if (value == null) {
+            return;
+        }
+        writeVarint(buffer, field << 1 | STRING);
+        writeVarint(buffer, utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >>> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >>> 18));
+                buffer.put((byte) (0x80 | codePoint >>> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >>> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');  // An unpaired surrogate, encoded as String.getBytes would
+            } else {
+                buffer.put((byte) (0xE0 | c >>> 12));
+                buffer.put((byte) (0x80 | c >>> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    // The length of the string in UTF-8, matching what writeStringField writes.
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 2;  // Four bytes for the pair's two chars
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    // Reads a string, returning the current value instead if it is the same ASCII text.
+    private static String readString(ByteBuffer buffer, int size, String current) {
+        int start = buffer.position();
+        if (current != null && current.length() == size && sameAscii(buffer, start, current)) {
+            buffer.position(start + size);
+            return current;
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + start, size, StandardCharsets.UTF_8);
+            buffer.position(start + size);
+            return value;
+        }
+        byte[] bytes = new byte[size];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean sameAscii(ByteBuffer buffer, int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || buffer.get(start + i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int zigZag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    private static int unZigZag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt customer record: varint longer than 5 bytes");
+    }
+}
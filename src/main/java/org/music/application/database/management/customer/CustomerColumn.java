@@ -0,0 +1,66 @@
+/**
+ * The columns of the Customer table, for queries that select only some of them.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.stream.Collectors;
+
+public enum CustomerColumn {
+    CUSTOMER_ID("CustomerId"),
+    FIRST_NAME("FirstName"),
+    LAST_NAME("LastName"),
+    COMPANY("Company"),
+    ADDRESS("Address"),
+    CITY("City"),
+    STATE("State"),
+    COUNTRY("Country"),
+    POSTAL_CODE("PostalCode"),
+    PHONE("Phone"),
+    FAX("Fax"),
+    EMAIL("Email"),
+    SUPPORT_REP_ID("SupportRepId");
+
+    private final String columnName;  // Name of the column in the Customer table
+
+    CustomerColumn(String columnName) {
+        this.columnName = columnName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * Looks up a column by its name, ignoring case, so that a record component such as {@code supportRepId}
+     * matches the {@code SupportRepId} column.
+     *
+     * @param name The column name.
+     * @return The column.
+     * @throws IllegalArgumentException If the Customer table has no column of that name.
+     */
+    public static CustomerColumn forName(String name) {
+        for (CustomerColumn column : values()) {
+            if (column.columnName.equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Customer has no column named " + name);
+    }
+
+    /**
+     * Builds the select list for the given columns, in table order.
+     *
+     * @param columns The columns to select; must not be empty.
+     * @return The comma-separated column names.
+     */
+    static String selectList(Collection<CustomerColumn> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column must be selected");
+        }
+        return EnumSet.copyOf(columns).stream()
+                .map(CustomerColumn::getColumnName)
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * The contact details of a customer: just enough to email a customer or route them to their support
+ * representative, without loading the full {@link Customer}.
+ *
+ * @param customerId   The unique identifier of the customer.
+ * @param email        The email address of the customer.
+ * @param supportRepId The identifier of the support representative assigned to the customer.
+ */
+package org.music.application.database.management.customer;
+
+public record CustomerContact(int customerId, String email, int supportRepId) {
+}
@@ -4,5 +4,143 @@
  */
 package org.music.application.database.management.customer;
 
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
 public interface CustomerDAO extends DAO<Customer> {
+
+    /**
+     * Retrieves one page of customers in CustomerId order, seeking past the previous page by key rather than
+     * skipping rows, so every page costs the same regardless of how deep it is.
+     *
+     * @param pageToken The token of the page to fetch, as returned by {@link Page#getNextPageToken()};
+     *                  null for the first page.
+     * @param pageSize  The maximum number of customers on the page.
+     * @param filter    Criteria the customers must match; unset criteria match every customer.
+     * @return The page of customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) throws SQLException;
+
+    /**
+     * Retrieves one page of all customers in CustomerId order.
+     *
+     * @param pageToken The token of the page to fetch; null for the first page.
+     * @param pageSize  The maximum number of customers on the page.
+     * @return The page of customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    default Page<Customer> getPage(String pageToken, int pageSize) throws SQLException {
+        return getPage(pageToken, pageSize, new CustomerFilter());
+    }
+
+    /**
+     * Retrieves the customers inserted, updated or deleted since the given sync token, so that a local copy of the
+     * Customer table can be kept current without reloading it. A null token starts a full sync: every customer is
+     * returned as upserted, along with the token to continue from. Each upserted customer carries its current
+     * state, however many times it changed; a customer inserted and deleted since the token is reported as deleted.
+     * Callers should keep syncing while {@link CustomerChanges#hasMore()} is true.
+     *
+     * @param syncToken The token returned by the previous sync, or null for a full sync.
+     * @return The changes and the token for the next sync.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     * @throws UnsupportedOperationException If the implementation does not track changes.
+     */
+    CustomerChanges getChangedSince(String syncToken) throws SQLException;
+
+    /**
+     * Retrieves all customers, reading only the given columns. CustomerId is always read; the other fields of
+     * the returned customers are null (or 0 for SupportRepId) unless their column was selected.
+     *
+     * @param columns The columns to read.
+     * @return A list of partially populated customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    List<Customer> getAll(Set<CustomerColumn> columns) throws SQLException;
+
+    /**
+     * Retrieves a customer as a record holding only the columns named by its components, such as
+     * {@link CustomerContact}. Each component must be named after a Customer column, ignoring case.
+     *
+     * @param customerId The unique identifier of the customer to retrieve.
+     * @param recordType The record type to project the customer onto.
+     * @param <R>        The record type.
+     * @return The projected customer, or null if there is no customer with that identifier.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    <R extends Record> R get(int customerId, Class<R> recordType) throws SQLException;
+
+    /**
+     * Retrieves all customers as records holding only the columns named by their components.
+     *
+     * @param recordType The record type to project the customers onto.
+     * @param <R>        The record type.
+     * @return A list of projected customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    <R extends Record> List<R> getAll(Class<R> recordType) throws SQLException;
+
+    /**
+     * Streams all customers as records holding only the columns named by their components.
+     * The stream must be closed to release the resources it holds.
+     *
+     * @param recordType The record type to project the customers onto.
+     * @param <R>        The record type.
+     * @return A stream of projected customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    default <R extends Record> Stream<R> streamAll(Class<R> recordType) throws SQLException {
+        return getAll(recordType).stream();
+    }
+
+    /**
+     * Finds the customer with the given email address, ignoring case as MySQL's default collation does.
+     * The default implementation scans {@link #streamAll()}; implementations should use an index.
+     *
+     * @param email The email address to look up.
+     * @return The customer with the lowest CustomerId among those with the email address, or null if there is none.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    default Customer findByEmail(String email) throws SQLException {
+        try (Stream<Customer> customers = streamAll()) {
+            return customers.filter(customer -> email.equalsIgnoreCase(customer.getEmail()))
+                    .min(Comparator.comparingInt(Customer::getCustomerId))
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * Finds the customers in the given country, ignoring case, in CustomerId order.
+     * The default implementation scans {@link #streamAll()}; implementations should use an index.
+     *
+     * @param country The country to look up.
+     * @return The customers in the country.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    default List<Customer> findByCountry(String country) throws SQLException {
+        try (Stream<Customer> customers = streamAll()) {
+            return customers.filter(customer -> country.equalsIgnoreCase(customer.getCountry()))
+                    .sorted(Comparator.comparingInt(Customer::getCustomerId))
+                    .toList();
+        }
+    }
+
+    /**
+     * Finds the customers assigned to the given support representative, in CustomerId order.
+     * The default implementation scans {@link #streamAll()}; implementations should use an index.
+     *
+     * @param supportRepId The identifier of the support representative.
+     * @return The customers assigned to the support representative.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    default List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        try (Stream<Customer> customers = streamAll()) {
+            return customers.filter(customer -> customer.getSupportRepId() == supportRepId)
+                    .sorted(Comparator.comparingInt(Customer::getCustomerId))
+                    .toList();
+        }
+    }
 }
@@ -4,14 +4,146 @@
  */
 package org.music.application.database.management.customer;
 
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class CustomerDAOImplementation implements CustomerDAO {
+    /**
+     * Fetch size that makes the MySQL driver stream a result set row by row instead of buffering it in memory.
+     */
+    public static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    // The DAO's fixed SQL. Each text is prepared once per pooled connection and reused through its statement cache.
+    private static final String SELECT_BY_ID_SQL = "SELECT * FROM Customer WHERE CustomerId = ?";
+    private static final String SELECT_ALL_SQL = "SELECT * FROM Customer";
+    private static final String SELECT_BY_EMAIL_SQL = "SELECT * FROM Customer WHERE Email = ? ORDER BY CustomerId LIMIT 1";
+    private static final String SELECT_BY_COUNTRY_SQL = "SELECT * FROM Customer WHERE Country = ? ORDER BY CustomerId";
+    private static final String SELECT_BY_SUPPORT_REP_SQL = "SELECT * FROM Customer WHERE SupportRepId = ? ORDER BY CustomerId";
+    private static final String INSERT_SQL = "INSERT INTO Customer (CustomerId, FirstName, LastName, Company, Address, City, State, Country, PostalCode, Phone, Fax, Email, SupportRepId) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    private static final String UPDATE_SQL = "UPDATE Customer SET FirstName = ?, LastName = ?, Company = ?, Address = ?, City = ?, State = ?, Country = ?, PostalCode = ?, Phone = ?, Fax = ?, Email = ?, SupportRepId = ? WHERE CustomerId = ?";
+    private static final String DELETE_SQL = "DELETE FROM Customer WHERE CustomerId = ?";
+    // Placeholders of each further row of a multi-row insert or upsert
+    private static final String INSERT_ROW_SQL = ",(?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    private static final int INSERT_PARAMETERS = 13;  // Placeholders per row of an insert or upsert
+    private static final int MAX_ROWS_PER_UPSERT = 65_535 / INSERT_PARAMETERS;  // MySQL's placeholder limit
+    // Upsert for MySQL 8.0.19 and later, which deprecate VALUES(col) in favour of a row alias
+    private static final String UPSERT_SQL = INSERT_SQL + " AS new ON DUPLICATE KEY UPDATE FirstName = new.FirstName, LastName = new.LastName, Company = new.Company, Address = new.Address, City = new.City, State = new.State, Country = new.Country, PostalCode = new.PostalCode, Phone = new.Phone, Fax = new.Fax, Email = new.Email, SupportRepId = new.SupportRepId";
+    // Upsert for servers without row aliases: MySQL before 8.0.19, MariaDB and H2
+    private static final String UPSERT_VALUES_SQL = INSERT_SQL + " ON DUPLICATE KEY UPDATE FirstName = VALUES(FirstName), LastName = VALUES(LastName), Company = VALUES(Company), Address = VALUES(Address), City = VALUES(City), State = VALUES(State), Country = VALUES(Country), PostalCode = VALUES(PostalCode), Phone = VALUES(Phone), Fax = VALUES(Fax), Email = VALUES(Email), SupportRepId = VALUES(SupportRepId)";
+
+    /**
+     * Sizes of the IN lists {@link #getMany(int[])} sends. A chunk is padded up to the next size by repeating its
+     * last identifier, so only this many distinct statements are ever prepared and each stays in the statement cache.
+     */
+    private static final int[] IN_LIST_SIZES = {1, 4, 16, 64, 256};
+    private static final String[] SELECT_BY_IDS_SQL = Arrays.stream(IN_LIST_SIZES)
+            .mapToObj(size -> "SELECT * FROM Customer WHERE CustomerId IN (" + "?,".repeat(size - 1) + "?)")
+            .toArray(String[]::new);
+
+    // Changes since a watermark, flagging those old enough that no transaction still writing can commit before them
+    private static final String SELECT_CHANGES_SQL = "SELECT ChangeId, CustomerId, "
+            + "ChangedAt <= TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3)) AS Settled "
+            + "FROM CustomerChange WHERE ChangeId > ? ORDER BY ChangeId LIMIT ?";
+    private static final String SELECT_SETTLED_WATERMARK_SQL = "SELECT MAX(ChangeId) FROM CustomerChange "
+            + "WHERE ChangedAt <= TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))";
+
+    private final DataSource dataSource;  // Source of pooled connections
+    private volatile BatchOptions batchOptions = new BatchOptions();  // Batching of insertAll, updateAll and deleteAll
+    private volatile int streamFetchSize = MYSQL_STREAMING_FETCH_SIZE;  // Fetch size of the streamAll cursor
+    private volatile long changeSettleMillis = 5_000;  // Age after which a change is assumed committed in order
+    private volatile int changeBatchSize = 10_000;  // Maximum change log entries one getChangedSince call reads
+    private volatile String upsertSql;  // UPSERT_SQL or UPSERT_VALUES_SQL, chosen for the server on first use
+
+    /**
+     * Constructs a new CustomerDAOImplementation that borrows connections from the shared {@link Database} pool.
+     */
+    public CustomerDAOImplementation() {
+        this(Database.getDataSource());
+    }
+
+    /**
+     * Constructs a new CustomerDAOImplementation that borrows connections from the given data source.
+     *
+     * @param dataSource The data source to obtain connections from.
+     */
+    public CustomerDAOImplementation(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public BatchOptions getBatchOptions() {
+        return batchOptions;
+    }
+
+    public void setBatchOptions(BatchOptions batchOptions) {
+        this.batchOptions = batchOptions;
+    }
+
+    public int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    /**
+     * Sets the fetch size used by {@link #streamAll()}. The default, {@link #MYSQL_STREAMING_FETCH_SIZE}, makes the
+     * MySQL driver stream rows one at a time. A positive value fetches rows in blocks of that size from drivers that
+     * support it, or from MySQL when the connection has {@code useCursorFetch=true}.
+     *
+     * @param streamFetchSize The fetch size hint passed to the driver.
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    public long getChangeSettleMillis() {
+        return changeSettleMillis;
+    }
+
+    /**
+     * Sets how old a change log entry must be before {@link #getChangedSince(String)} moves its watermark past it.
+     * ChangeIds are assigned when a row is written, not when its transaction commits, so a slow transaction can
+     * commit an entry below one a reader has already seen. Entries younger than this are still returned, but the
+     * watermark stops short of them so the next sync reads them again. Set it above the longest write transaction.
+     *
+     * @param changeSettleMillis The settle time in milliseconds.
+     */
+    public void setChangeSettleMillis(long changeSettleMillis) {
+        if (changeSettleMillis < 0) {
+            throw new IllegalArgumentException("changeSettleMillis must not be negative: " + changeSettleMillis);
+        }
+        this.changeSettleMillis = changeSettleMillis;
+    }
+
+    public int getChangeBatchSize() {
+        return changeBatchSize;
+    }
+
+    public void setChangeBatchSize(int changeBatchSize) {
+        if (changeBatchSize < 1) {
+            throw new IllegalArgumentException("changeBatchSize must be at least 1: " + changeBatchSize);
+        }
+        this.changeBatchSize = changeBatchSize;
+    }
+
     // CRUD - Retrieve one
     /**
      * Retrieves a customer from the database based on the provided customer ID.
@@ -22,19 +154,70 @@ public class CustomerDAOImplementation implements CustomerDAO {
      */
     @Override
     public Customer get(int customerId) throws SQLException {
-        try (Connection conn = Database.getConnection();
-             PreparedStatement prepStatement = conn.prepareStatement("SELECT * FROM Customer WHERE CustomerId = ?")) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(SELECT_BY_ID_SQL)) {
 
             prepStatement.setInt(1, customerId);
             try (ResultSet resultSet = prepStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return extractCustomerFromResultSet(resultSet);
+                    return CustomerRowMapper.FACTORY.forResultSet(resultSet).mapRow(resultSet);
                 }
             }
         }
         return null; // No customer with given customerId found
     }
 
+    // CRUD - Retrieve many
+    /**
+     * Retrieves the customers with the given identifiers in chunked {@code WHERE CustomerId IN (...)} queries on a
+     * single connection. The identifiers are deduplicated and sorted first, so each chunk reads a narrow range of
+     * the primary key.
+     *
+     * @param ids The unique identifiers of the customers to retrieve.
+     * @return The retrieved customers, keyed by CustomerId.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        int[] sortedIds = Arrays.stream(ids).distinct().sorted().toArray();
+        IntObjectMap<Customer> customers = new IntObjectMap<>(sortedIds.length);
+        if (sortedIds.length == 0) {
+            return customers;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            int from = 0;
+            while (from < sortedIds.length) {
+                int bucket = inListBucket(sortedIds.length - from);
+                int size = IN_LIST_SIZES[bucket];
+                int count = Math.min(size, sortedIds.length - from);
+                try (PreparedStatement prepStatement = conn.prepareStatement(SELECT_BY_IDS_SQL[bucket])) {
+                    for (int i = 0; i < size; i++) {
+                        prepStatement.setInt(i + 1, sortedIds[from + Math.min(i, count - 1)]);
+                    }
+                    try (ResultSet resultSet = prepStatement.executeQuery()) {
+                        RowMapper<Customer> rowMapper = CustomerRowMapper.FACTORY.forResultSet(resultSet);
+                        while (resultSet.next()) {
+                            Customer customer = rowMapper.mapRow(resultSet);
+                            customers.put(customer.getCustomerId(), customer);
+                        }
+                    }
+                }
+                from += count;
+            }
+        }
+        return customers;
+    }
+
+    // The smallest IN list size that holds the remaining identifiers, or the largest size.
+    private static int inListBucket(int remaining) {
+        for (int bucket = 0; bucket < IN_LIST_SIZES.length; bucket++) {
+            if (IN_LIST_SIZES[bucket] >= remaining) {
+                return bucket;
+            }
+        }
+        return IN_LIST_SIZES.length - 1;
+    }
+
     // CRUD - Retrieve all
     /**
      * Retrieves all customers from the database.
@@ -44,16 +227,316 @@ public class CustomerDAOImplementation implements CustomerDAO {
      */
     @Override
     public List<Customer> getAll() throws SQLException {
-        List<Customer> customers = new ArrayList<>();
-        try (Connection conn = Database.getConnection();
-             PreparedStatement prepStatement = conn.prepareStatement("SELECT * FROM Customer");
-             ResultSet resultSet = prepStatement.executeQuery()) {
+        return queryAll(SELECT_ALL_SQL, CustomerRowMapper.FACTORY);
+    }
+
+    // CRUD - Retrieve all, streaming
+    /**
+     * Streams all customers from the database through a forward-only, read-only cursor.
+     * Rows are mapped as the stream is consumed, so memory use stays flat regardless of the size of the table.
+     * The stream owns a connection and statement until it is closed or fully consumed; use it in a
+     * try-with-resources block. With MySQL streaming, the connection cannot run other statements while the
+     * stream is open, and closing it early still reads the remaining rows off the wire.
+     *
+     * @return A stream of all customers; close it to release its connection.
+     * @throws SQLException If an SQL exception occurs while starting the query.
+     */
+    @Override
+    public Stream<Customer> streamAll() throws SQLException {
+        return stream(SELECT_ALL_SQL, CustomerRowMapper.FACTORY);
+    }
 
-            while (resultSet.next()) {
-                    customers.add(extractCustomerFromResultSet(resultSet));
+    // Runs a query through a forward-only cursor, mapping rows as the stream is consumed.
+    private <T> Stream<T> stream(String sql, RowMapper.Factory<T> factory) throws SQLException {
+        Connection conn = dataSource.getConnection();
+        PreparedStatement prepStatement = null;
+        try {
+            prepStatement = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            prepStatement.setFetchSize(streamFetchSize);
+            ResultSet resultSet = prepStatement.executeQuery();
+            CursorSpliterator<T> cursor = new CursorSpliterator<>(conn, prepStatement, resultSet,
+                    factory.forResultSet(resultSet));
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            Database.closePreparedStatement(prepStatement);
+            Database.closeConnection(conn);
+            throw e;
+        }
+    }
+
+    // Retrieve by page
+    /**
+     * Retrieves one page of customers using a keyset seek of the form
+     * {@code WHERE CustomerId > ? ORDER BY CustomerId LIMIT ?}, so deep pages cost the same as the first one.
+     * Filters are added as equality predicates ahead of the seek. They stay index-friendly as long as the
+     * filtered column has an index; InnoDB secondary indexes carry the primary key, so an index on
+     * {@code Country} or {@code SupportRepId} already orders its entries by CustomerId.
+     *
+     * @param pageToken The token of the page to fetch; null for the first page.
+     * @param pageSize  The maximum number of customers on the page.
+     * @param filter    Criteria the customers must match.
+     * @return The page of customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) throws SQLException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1: " + pageSize);
+        }
+        StringBuilder sqlQuery = new StringBuilder("SELECT * FROM Customer WHERE CustomerId > ?");
+        if (filter.getCountry() != null) {
+            sqlQuery.append(" AND Country = ?");
+        }
+        if (filter.getSupportRepId() != null) {
+            sqlQuery.append(" AND SupportRepId = ?");
+        }
+        sqlQuery.append(" ORDER BY CustomerId LIMIT ?");
+
+        List<Customer> customers = new ArrayList<>(pageSize + 1);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(sqlQuery.toString())) {
+            int index = 1;
+            prepStatement.setInt(index++, PageToken.lastCustomerId(pageToken));
+            if (filter.getCountry() != null) {
+                prepStatement.setString(index++, filter.getCountry());
+            }
+            if (filter.getSupportRepId() != null) {
+                prepStatement.setInt(index++, filter.getSupportRepId());
+            }
+            // One extra row tells whether another page follows.
+            prepStatement.setInt(index, pageSize + 1);
+            try (ResultSet resultSet = prepStatement.executeQuery()) {
+                RowMapper<Customer> rowMapper = CustomerRowMapper.FACTORY.forResultSet(resultSet);
+                while (resultSet.next()) {
+                    customers.add(rowMapper.mapRow(resultSet));
+                }
             }
         }
-        return customers;
+
+        if (customers.size() <= pageSize) {
+            return new Page<>(customers, null);
+        }
+        customers.remove(pageSize);
+        return new Page<>(customers, PageToken.after(customers.get(pageSize - 1).getCustomerId()));
+    }
+
+    // Retrieve changes
+    /**
+     * Retrieves the customers changed since the given sync token from the {@code CustomerChange} log, which the
+     * triggers in {@code db/customer_change_log.sql} maintain. The changed identifiers are read in ChangeId order,
+     * up to the change batch size, and their current rows are loaded with {@link #getMany(int[])}; identifiers
+     * with no row left are reported as deleted. A full sync reads the watermark before the table, so changes made
+     * while it runs are picked up again by the next sync.
+     *
+     * @param syncToken The token returned by the previous sync, or null for a full sync.
+     * @return The changes and the token for the next sync.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public CustomerChanges getChangedSince(String syncToken) throws SQLException {
+        long settleMicros = -TimeUnit.MILLISECONDS.toMicros(changeSettleMillis);
+        if (syncToken == null) {
+            long watermark;
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement prepStatement = conn.prepareStatement(SELECT_SETTLED_WATERMARK_SQL)) {
+                prepStatement.setLong(1, settleMicros);
+                try (ResultSet resultSet = prepStatement.executeQuery()) {
+                    resultSet.next();
+                    watermark = resultSet.getLong(1);
+                }
+            }
+            return new CustomerChanges(getAll(), new int[0], SyncToken.after(watermark), false);
+        }
+
+        long lastChangeId = SyncToken.lastChangeId(syncToken);
+        int batchSize = changeBatchSize;
+        long watermark = lastChangeId;
+        boolean settled = true;
+        int[] changedIds = new int[16];
+        int changes = 0;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(SELECT_CHANGES_SQL)) {
+            prepStatement.setLong(1, settleMicros);
+            prepStatement.setLong(2, lastChangeId);
+            // One extra row tells whether more changes are waiting.
+            prepStatement.setInt(3, batchSize + 1);
+            try (ResultSet resultSet = prepStatement.executeQuery()) {
+                while (changes < batchSize && resultSet.next()) {
+                    // The watermark stops at the first change that may still have uncommitted changes before it.
+                    settled = settled && resultSet.getBoolean(3);
+                    if (settled) {
+                        watermark = resultSet.getLong(1);
+                    }
+                    if (changes == changedIds.length) {
+                        changedIds = Arrays.copyOf(changedIds, changes * 2);
+                    }
+                    changedIds[changes++] = resultSet.getInt(2);
+                }
+                // Only worth syncing again at once if the watermark reached the end of a full batch.
+                boolean hasMore = settled && resultSet.next();
+                return changes(Arrays.copyOf(changedIds, changes), SyncToken.after(watermark), hasMore);
+            }
+        }
+    }
+
+    // Loads the current rows of the changed customers; the ones without a row were deleted.
+    private CustomerChanges changes(int[] changedIds, String syncToken, boolean hasMore) throws SQLException {
+        IntObjectMap<Customer> current = getMany(changedIds);
+        int[] ids = IntStream.of(changedIds).sorted().distinct().toArray();
+        List<Customer> upserted = new ArrayList<>(current.size());
+        int[] deletedIds = new int[ids.length - current.size()];
+        int deleted = 0;
+        for (int id : ids) {
+            Customer customer = current.get(id);
+            if (customer != null) {
+                upserted.add(customer);
+            } else {
+                deletedIds[deleted++] = id;
+            }
+        }
+        return new CustomerChanges(upserted, deletedIds, syncToken, hasMore);
+    }
+
+    // Retrieve by secondary key
+    /**
+     * Finds the customer with the given email address. Chinook has no index on {@code Email}; add one
+     * ({@code CREATE INDEX IFK_CustomerEmail ON Customer (Email)}) before using this on a hot path.
+     *
+     * @param email The email address to look up.
+     * @return The customer with the lowest CustomerId among those with the email address, or null if there is none.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public Customer findByEmail(String email) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(SELECT_BY_EMAIL_SQL)) {
+
+            prepStatement.setString(1, email);
+            try (ResultSet resultSet = prepStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return CustomerRowMapper.FACTORY.forResultSet(resultSet).mapRow(resultSet);
+                }
+            }
+        }
+        return null; // No customer with given email found
+    }
+
+    /**
+     * Finds the customers in the given country, in CustomerId order.
+     *
+     * @param country The country to look up.
+     * @return The customers in the country.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public List<Customer> findByCountry(String country) throws SQLException {
+        return queryAll(SELECT_BY_COUNTRY_SQL, CustomerRowMapper.FACTORY, country);
+    }
+
+    /**
+     * Finds the customers assigned to the given support representative, in CustomerId order.
+     * Chinook indexes {@code SupportRepId} as {@code IFK_CustomerSupportRepId}.
+     *
+     * @param supportRepId The identifier of the support representative.
+     * @return The customers assigned to the support representative.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        return queryAll(SELECT_BY_SUPPORT_REP_SQL, CustomerRowMapper.FACTORY, supportRepId);
+    }
+
+    // Retrieve projections
+    /**
+     * Retrieves all customers, selecting only the given columns plus CustomerId. Unselected fields are left
+     * null, or 0 for SupportRepId.
+     *
+     * @param columns The columns to read.
+     * @return A list of partially populated customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public List<Customer> getAll(Set<CustomerColumn> columns) throws SQLException {
+        Set<CustomerColumn> selected = EnumSet.of(CustomerColumn.CUSTOMER_ID);
+        selected.addAll(columns);
+        return queryAll("SELECT " + CustomerColumn.selectList(selected) + " FROM Customer", CustomerRowMapper.FACTORY);
+    }
+
+    /**
+     * Retrieves a customer as a record, selecting only the columns its components are named after.
+     *
+     * @param customerId The unique identifier of the customer to retrieve.
+     * @param recordType The record type to project the customer onto.
+     * @return The projected customer, or null if there is no customer with that identifier.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public <R extends Record> R get(int customerId, Class<R> recordType) throws SQLException {
+        RecordRowMapper<R> factory = RecordRowMapper.of(recordType);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(
+                     "SELECT " + selectList(factory) + " FROM Customer WHERE CustomerId = ?")) {
+
+            prepStatement.setInt(1, customerId);
+            try (ResultSet resultSet = prepStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return factory.forResultSet(resultSet).mapRow(resultSet);
+                }
+            }
+        }
+        return null; // No customer with given customerId found
+    }
+
+    /**
+     * Retrieves all customers as records, selecting only the columns their components are named after.
+     *
+     * @param recordType The record type to project the customers onto.
+     * @return A list of projected customers.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public <R extends Record> List<R> getAll(Class<R> recordType) throws SQLException {
+        RecordRowMapper<R> factory = RecordRowMapper.of(recordType);
+        return queryAll("SELECT " + selectList(factory) + " FROM Customer", factory);
+    }
+
+    /**
+     * Streams all customers as records through a forward-only, read-only cursor, selecting only the columns
+     * their components are named after. The stream holds a connection until it is closed or fully consumed,
+     * as with {@link #streamAll()}.
+     *
+     * @param recordType The record type to project the customers onto.
+     * @return A stream of projected customers; close it to release its connection.
+     * @throws SQLException If an SQL exception occurs while starting the query.
+     */
+    @Override
+    public <R extends Record> Stream<R> streamAll(Class<R> recordType) throws SQLException {
+        RecordRowMapper<R> factory = RecordRowMapper.of(recordType);
+        return stream("SELECT " + selectList(factory) + " FROM Customer", factory);
+    }
+
+    // The select list for a record projection; rejects components that name no Customer column.
+    private static String selectList(RecordRowMapper<?> factory) {
+        return CustomerColumn.selectList(factory.getComponentNames().stream().map(CustomerColumn::forName).toList());
+    }
+
+    // Runs a query with the given parameters and maps every row of its result set.
+    private <T> List<T> queryAll(String sql, RowMapper.Factory<T> factory, Object... parameters) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < parameters.length; i++) {
+                prepStatement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = prepStatement.executeQuery()) {
+                RowMapper<T> rowMapper = factory.forResultSet(resultSet);
+                while (resultSet.next()) {
+                    rows.add(rowMapper.mapRow(resultSet));
+                }
+            }
+        }
+        return rows;
     }
 
     // CRUD - Create
@@ -66,23 +549,9 @@ public class CustomerDAOImplementation implements CustomerDAO {
      */
     @Override
     public int insert(Customer customer) throws SQLException {
-        String sqlQuery = "INSERT INTO Customer (CustomerId, FirstName, LastName, Company, Address, City, State, Country, PostalCode, Phone, Fax, Email, SupportRepId) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?)";
-        try (Connection conn = Database.getConnection();
-        PreparedStatement prepStatement = conn.prepareStatement(sqlQuery)) {
-            prepStatement.setInt(1, customer.getCustomerId());
-            prepStatement.setString(2, customer.getFirstName());
-            prepStatement.setString(3, customer.getLastName());
-            prepStatement.setString(4, customer.getCompany());
-            prepStatement.setString(5, customer.getAddress());
-            prepStatement.setString(6, customer.getCity());
-            prepStatement.setString(7, customer.getState());
-            prepStatement.setString(8, customer.getCountry());
-            prepStatement.setString(9, customer.getPostalCode());
-            prepStatement.setString(10, customer.getPhone());
-            prepStatement.setString(11, customer.getFax());
-            prepStatement.setString(12, customer.getEmail());
-            prepStatement.setInt(13, customer.getSupportRepId());
-
+        try (Connection conn = dataSource.getConnection();
+        PreparedStatement prepStatement = conn.prepareStatement(INSERT_SQL)) {
+            bindInsert(prepStatement, customer);
             return prepStatement.executeUpdate();
         }
     }
@@ -92,28 +561,15 @@ public class CustomerDAOImplementation implements CustomerDAO {
      * Updates an existing customer in the database with the provided customer information.
      *
      * @param customer The updated customer object containing new information.
-     * @return The number of rows affected by the update operation.
+     * @return The number of rows affected by the update operation. A row that already held the same values counts
+     *         as affected unless the pool enables {@link PoolConfig#setUseAffectedRows(boolean)}.
      * @throws SQLException If an SQL exception occurs while accessing the database.
      */
     @Override
     public int update(Customer customer) throws SQLException {
-        String sqlQuery = "UPDATE Customer SET FirstName = ?, LastName = ?, Company = ?, Address = ?, City = ?, State = ?, Country = ?, PostalCode = ?, Phone = ?, Fax = ?, Email = ?, SupportRepId = ? WHERE CustomerId = ?";
-        try (Connection conn = Database.getConnection();
-        PreparedStatement prepStatement = conn.prepareStatement(sqlQuery)) {
-            prepStatement.setString(1, customer.getFirstName());
-            prepStatement.setString(2, customer.getLastName());
-            prepStatement.setString(3, customer.getCompany());
-            prepStatement.setString(4, customer.getAddress());
-            prepStatement.setString(5, customer.getCity());
-            prepStatement.setString(6, customer.getState());
-            prepStatement.setString(7, customer.getCountry());
-            prepStatement.setString(8, customer.getPostalCode());
-            prepStatement.setString(9, customer.getPhone());
-            prepStatement.setString(10, customer.getFax());
-            prepStatement.setString(11, customer.getEmail());
-            prepStatement.setInt(12, customer.getSupportRepId());
-            prepStatement.setInt(13, customer.getCustomerId());
-
+        try (Connection conn = dataSource.getConnection();
+        PreparedStatement prepStatement = conn.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(prepStatement, customer);
             return prepStatement.executeUpdate();
         }
     }
@@ -128,107 +584,392 @@ public class CustomerDAOImplementation implements CustomerDAO {
      */
     @Override
     public int delete(Customer customer) {
-        try {
-            Connection conn = Database.getConnection();
-            PreparedStatement prepStatement = conn.prepareStatement("DELETE FROM Customer WHERE CustomerId = ?");
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(DELETE_SQL)) {
             prepStatement.setInt(1, customer.getCustomerId());
-            int result = prepStatement.executeUpdate();
-
-            Database.closePreparedStatement(prepStatement);
-            Database.closeConnection(conn);
+            return prepStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            return result;
+    // CRUD - Create or update
+    /**
+     * Saves a customer with a single upsert: the customer is inserted if no row with its CustomerId exists,
+     * and the existing row is updated otherwise. Use {@link UpsertOutcome#of(int)} on the returned count to tell
+     * which happened.
+     *
+     * @param customer The customer object to save.
+     * @return The number of rows affected: 1 if the customer was inserted, 2 if an existing row was updated, and
+     *         0 if the row already held the same values (1 unless the pool enables
+     *         {@link PoolConfig#setUseAffectedRows(boolean)}).
+     * @throws RuntimeException If an SQL exception occurs while accessing the database.
+     */
+    @Override
+    public int save(Customer customer) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(upsertSql(conn))) {
+            bindInsert(prepStatement, customer);
+            return prepStatement.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    // Helper function to extract a Customer object from a given ResultSet object.
+    // CRUD - Bulk create
     /**
-     * Extracts a customer object from the given result set.
+     * Inserts the given customers using JDBC batches, committing according to the configured {@link BatchOptions}.
+     * Enable {@link PoolConfig#setRewriteBatchedStatements(boolean)} to have the MySQL driver send each batch as a
+     * single multi-row INSERT.
      *
-     * @param resultSet The result set containing the customer data.
-     * @return The customer object extracted from the result set.
-     * @throws SQLException If an SQL exception occurs while accessing the result set.
+     * @param customers The customers to insert.
+     * @return The per-row outcome of the insert, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
      */
-    private Customer extractCustomerFromResultSet(ResultSet resultSet) throws SQLException {
-        return new Customer(
-                resultSet.getInt("CustomerId"),
-                resultSet.getString("FirstName"),
-                resultSet.getString("LastName"),
-                resultSet.getString("Company"),
-                resultSet.getString("Address"),
-                resultSet.getString("City"),
-                resultSet.getString("State"),
-                resultSet.getString("Country"),
-                resultSet.getString("PostalCode"),
-                resultSet.getString("Phone"),
-                resultSet.getString("Fax"),
-                resultSet.getString("Email"),
-                resultSet.getInt("SupportRepId")
-        );
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        return executeBatch(INSERT_SQL, customers, CustomerDAOImplementation::bindInsert);
     }
 
-    // CRUD - Create or update
+    // CRUD - Bulk create or update
     /**
-     * Saves a customer by performing either a create or update operation.
-     * If the customer object has a valid CustomerId, it updates the existing record in the database.
-     * If the customer object does not have a valid CustomerId, it creates a new record in the database.
+     * Upserts the given customers, sending each batch of the configured {@link BatchOptions} size as one multi-row
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE} and committing according to the same options. The server reports
+     * one count for the whole statement, so rows written this way have the update count
+     * {@link Statement#SUCCESS_NO_INFO} and the outcome {@link UpsertOutcome#UNKNOWN}; use {@link #save(Customer)}
+     * where the outcome of each row matters. If the server rejects a batch, its rows are upserted again one
+     * statement each in a JDBC batch, so that only the offending rows fail and the others report their outcome.
      *
-     * @param customer The customer object to save.
-     * @return The number of rows affected. If the customer object was newly created, 1 is returned. If it was updated, the number of updated rows is returned.
-     * @throws RuntimeException If a runtime exception occurs while accessing the database.
+     * @param customers The customers to save.
+     * @return The per-row outcome of the upsert, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
      */
     @Override
-    public int save(Customer customer) {
-        try {
-            Connection conn = Database.getConnection();
-            int result;
-            if (customer.getCustomerId() > 0) {
-                // Perform an update operation
-                String sqlUpdateQuery = "UPDATE Customer SET FirstName = ?, LastName = ?, Company = ?, Address = ?, City = ?, State = ?, Country = ?, PostalCode = ?, Phone = ?, Fax = ?, Email = ?, SupportRepId = ? WHERE CustomerId = ?";
-                PreparedStatement updateStatement = conn.prepareStatement(sqlUpdateQuery);
-                updateStatement.setString(1, customer.getFirstName());
-                updateStatement.setString(2, customer.getLastName());
-                updateStatement.setString(3, customer.getCompany());
-                updateStatement.setString(4, customer.getAddress());
-                updateStatement.setString(5, customer.getCity());
-                updateStatement.setString(6, customer.getState());
-                updateStatement.setString(7, customer.getCountry());
-                updateStatement.setString(8, customer.getPostalCode());
-                updateStatement.setString(9, customer.getPhone());
-                updateStatement.setString(10, customer.getFax());
-                updateStatement.setString(11, customer.getEmail());
-                updateStatement.setInt(12, customer.getSupportRepId());
-                updateStatement.setInt(13, customer.getCustomerId());
-
-                result = updateStatement.executeUpdate();
-                Database.closePreparedStatement(updateStatement);
-            } else {
-                // Perform a create operation
-                String sqlInsertQuery = "INSERT INTO Customer (CustomerId, FirstName, LastName, Company, Address, City, State, Country, PostalCode, Phone, Fax, Email, SupportRepId) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?)";
-                PreparedStatement insertStatement = conn.prepareStatement(sqlInsertQuery);
-                insertStatement.setInt(1, customer.getCustomerId());
-                insertStatement.setString(2, customer.getFirstName());
-                insertStatement.setString(3, customer.getLastName());
-                insertStatement.setString(4, customer.getCompany());
-                insertStatement.setString(5, customer.getAddress());
-                insertStatement.setString(6, customer.getCity());
-                insertStatement.setString(7, customer.getState());
-                insertStatement.setString(8, customer.getCountry());
-                insertStatement.setString(9, customer.getPostalCode());
-                insertStatement.setString(10, customer.getPhone());
-                insertStatement.setString(11, customer.getFax());
-                insertStatement.setString(12, customer.getEmail());
-                insertStatement.setInt(13, customer.getSupportRepId());
-
-                result = insertStatement.executeUpdate();
-                Database.closePreparedStatement(insertStatement);
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        String sql = upsertSql;
+        if (sql == null) {
+            try (Connection conn = dataSource.getConnection()) {
+                sql = upsertSql(conn);
+            }
+        }
+        String upsert = sql;
+        return executeInChunks(customers, MAX_ROWS_PER_UPSERT,
+                (conn, chunk, counts) -> upsertRows(conn, upsert, chunk, counts));
+    }
+
+    // Sends a chunk of customers as one multi-row upsert, falling back to a batch of single-row upserts when the
+    // server rejects it.
+    private static SQLException upsertRows(Connection conn, String upsert, List<Customer> chunk, int[] counts)
+            throws SQLException {
+        if (chunk.size() > 1) {
+            String sql = INSERT_SQL + INSERT_ROW_SQL.repeat(chunk.size() - 1) + upsert.substring(INSERT_SQL.length());
+            try (PreparedStatement prepStatement = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    bindInsert(prepStatement, i * INSERT_PARAMETERS, chunk.get(i));
+                }
+                prepStatement.executeUpdate();
+                Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                return null;
+            } catch (SQLException e) {
+                if (Transaction.isRetryable(e)) {
+                    throw e;
+                }
+                // A rejected statement leaves no rows behind; find the offending rows one by one.
+            }
+        }
+        return executeRows(conn, upsert, chunk, CustomerDAOImplementation::bindInsert, counts);
+    }
+
+    // CRUD - Bulk update
+    /**
+     * Updates the given customers using JDBC batches, committing according to the configured {@link BatchOptions}.
+     *
+     * @param customers The customers to update.
+     * @return The per-row outcome of the update, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     */
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        return executeBatch(UPDATE_SQL, customers, CustomerDAOImplementation::bindUpdate);
+    }
+
+    // CRUD - Bulk delete
+    /**
+     * Deletes the given customers using JDBC batches, committing according to the configured {@link BatchOptions}.
+     *
+     * @param customers The customers to delete.
+     * @return The per-row outcome of the delete, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     */
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        return executeBatch(DELETE_SQL, customers,
+                (prepStatement, customer) -> prepStatement.setInt(1, customer.getCustomerId()));
+    }
+
+    // Helper function to pick the upsert the server understands.
+    private String upsertSql(Connection conn) throws SQLException {
+        String sql = upsertSql;
+        if (sql == null) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            sql = supportsRowAlias(metaData.getDatabaseProductName(), metaData.getDatabaseProductVersion())
+                    ? UPSERT_SQL : UPSERT_VALUES_SQL;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * Returns whether a server accepts a row alias in {@code INSERT ... ON DUPLICATE KEY UPDATE}, which MySQL added
+     * in 8.0.19. MariaDB reports itself to the MySQL driver with a version starting {@code 5.5.5-}, so it is
+     * treated as an old MySQL.
+     *
+     * @param productName    The database product name reported by the driver.
+     * @param productVersion The database version reported by the driver.
+     * @return Whether the row alias form of the upsert can be used.
+     */
+    static boolean supportsRowAlias(String productName, String productVersion) {
+        if (!"MySQL".equalsIgnoreCase(productName) || productVersion == null
+                || productVersion.toLowerCase().contains("mariadb")) {
+            return false;
+        }
+        Matcher version = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)").matcher(productVersion);
+        if (!version.find()) {
+            return false;
+        }
+        int major = Integer.parseInt(version.group(1));
+        int minor = Integer.parseInt(version.group(2));
+        int patch = Integer.parseInt(version.group(3));
+        return major > 8 || major == 8 && (minor > 0 || patch >= 19);
+    }
+
+    // Helper function to run one statement over many customers in batches.
+    /**
+     * Executes the given statement once per customer, sending the rows in batches of the configured size and
+     * committing whenever the configured number of rows per transaction has been sent. Rows rejected by the
+     * database are reported in the result; the remaining rows are still committed.
+     *
+     * @param sql       The statement to execute.
+     * @param customers The customers to bind, one per execution.
+     * @param binder    Binds a customer to the statement parameters.
+     * @return The per-row outcome.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     * @see #executeInChunks(Collection, int, ChunkWriter)
+     */
+    private BatchResult<Customer> executeBatch(String sql, Collection<Customer> customers, StatementBinder binder)
+            throws SQLException {
+        return executeInChunks(customers, Integer.MAX_VALUE,
+                (conn, chunk, counts) -> executeRows(conn, sql, chunk, binder, counts));
+    }
+
+    /**
+     * Writes the customers in chunks of the configured batch size, or of maxChunkSize if smaller, committing
+     * whenever the configured number of rows per transaction has been written. Rows rejected by the database are
+     * reported in the result; the remaining rows are still committed.
+     * If an error occurs that is not tied to a row, the open transaction is rolled back and the error is thrown;
+     * rows committed by earlier transactions stay committed. A deadlock or lock wait timeout counts as such an error,
+     * since the database has rolled back more than the row that hit it.
+     * Inside {@link ConnectionPool#inTransaction(TransactionWork)}, nothing is committed or rolled back here; the rows
+     * are committed with the rest of the transaction.
+     *
+     * @param customers    The customers to write.
+     * @param maxChunkSize The most customers the writer can take at once.
+     * @param writer       Writes one chunk and reports its update counts.
+     * @return The per-row outcome.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     */
+    private BatchResult<Customer> executeInChunks(Collection<Customer> customers, int maxChunkSize,
+                                                  ChunkWriter writer) throws SQLException {
+        List<Customer> rows = new ArrayList<>(customers);
+        int[] updateCounts = new int[rows.size()];
+        List<BatchResult.Failure<Customer>> failures = new ArrayList<>();
+        if (rows.isEmpty()) {
+            return new BatchResult<>(updateCounts, failures);
+        }
+        BatchOptions options = batchOptions;
+        int batchSize = Math.min(options.getBatchSize(), maxChunkSize);
+        int rowsPerTransaction = Math.max(batchSize, options.getRowsPerTransaction());
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean ownsTransaction = conn.getAutoCommit();  // False inside a transaction started by the caller
+            if (ownsTransaction) {
+                conn.setAutoCommit(false);
             }
+            try {
+                int uncommitted = 0;
+                for (int start = 0; start < rows.size(); start += batchSize) {
+                    int end = Math.min(rows.size(), start + batchSize);
+                    int[] chunkCounts = new int[end - start];
+                    SQLException chunkError = writer.write(conn, rows.subList(start, end), chunkCounts);
+                    for (int i = start; i < end; i++) {
+                        int count = chunkCounts[i - start];
+                        updateCounts[i] = count;
+                        if (count == Statement.EXECUTE_FAILED) {
+                            failures.add(new BatchResult.Failure<>(i, rows.get(i), chunkError));
+                        }
+                    }
+
+                    uncommitted += end - start;
+                    if (ownsTransaction && (uncommitted >= rowsPerTransaction || end == rows.size())) {
+                        conn.commit();
+                        uncommitted = 0;
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (ownsTransaction) {
+                    conn.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownsTransaction) {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+        return new BatchResult<>(updateCounts, failures);
+    }
+
+    // Executes the statement once per customer in one JDBC batch. Rows the driver did not report on were not
+    // executed and are marked failed; the batch error is returned for them.
+    private static SQLException executeRows(Connection conn, String sql, List<Customer> chunk, StatementBinder binder,
+                                            int[] counts) throws SQLException {
+        try (PreparedStatement prepStatement = conn.prepareStatement(sql)) {
+            for (Customer customer : chunk) {
+                binder.bind(prepStatement, customer);
+                prepStatement.addBatch();
+            }
+            int[] batchCounts;
+            SQLException batchError = null;
+            try {
+                batchCounts = prepStatement.executeBatch();
+            } catch (BatchUpdateException e) {
+                prepStatement.clearBatch();
+                if (Transaction.isRetryable(e)) {
+                    throw e;
+                }
+                batchCounts = e.getUpdateCounts() != null ? e.getUpdateCounts() : new int[0];
+                batchError = e;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = i < batchCounts.length ? batchCounts[i] : Statement.EXECUTE_FAILED;
+            }
+            return batchError;
+        }
+    }
+
+    // Reads rows off an open cursor and releases the cursor's resources once exhausted or closed.
+    private static final class CursorSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final PreparedStatement prepStatement;
+        private final ResultSet resultSet;
+        private final RowMapper<T> rowMapper;
+        private boolean closed;
+
+        private CursorSpliterator(Connection conn, PreparedStatement prepStatement, ResultSet resultSet,
+                                  RowMapper<T> rowMapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.conn = conn;
+            this.prepStatement = prepStatement;
+            this.resultSet = resultSet;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!resultSet.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(rowMapper.mapRow(resultSet));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                resultSet.close();
+            } catch (SQLException ignored) {
+                // The statement and connection are closed below regardless.
+            }
+            Database.closePreparedStatement(prepStatement);
             Database.closeConnection(conn);
-            return result;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
     }
+
+    // Binds one customer to the parameters of a statement.
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement prepStatement, Customer customer) throws SQLException;
+    }
+
+    // Writes a chunk of customers on the connection, filling in one update count per customer, and returns the error
+    // behind the rows it marks Statement.EXECUTE_FAILED, if any.
+    @FunctionalInterface
+    private interface ChunkWriter {
+        SQLException write(Connection conn, List<Customer> chunk, int[] counts) throws SQLException;
+    }
+
+    // Helper functions to bind a Customer object to the parameters of the fixed SQL statements.
+    /**
+     * Binds the given customer to the parameters of {@link #INSERT_SQL} or one of the upserts.
+     *
+     * @param prepStatement The prepared insert statement.
+     * @param customer      The customer whose fields are bound.
+     * @throws SQLException If an SQL exception occurs while binding the parameters.
+     */
+    private static void bindInsert(PreparedStatement prepStatement, Customer customer) throws SQLException {
+        bindInsert(prepStatement, 0, customer);
+    }
+
+    // Binds a customer to the row of a multi-row insert whose placeholders follow the first offset parameters.
+    private static void bindInsert(PreparedStatement prepStatement, int offset, Customer customer)
+            throws SQLException {
+        prepStatement.setInt(offset + 1, customer.getCustomerId());
+        prepStatement.setString(offset + 2, customer.getFirstName());
+        prepStatement.setString(offset + 3, customer.getLastName());
+        prepStatement.setString(offset + 4, customer.getCompany());
+        prepStatement.setString(offset + 5, customer.getAddress());
+        prepStatement.setString(offset + 6, customer.getCity());
+        prepStatement.setString(offset + 7, customer.getState());
+        prepStatement.setString(offset + 8, customer.getCountry());
+        prepStatement.setString(offset + 9, customer.getPostalCode());
+        prepStatement.setString(offset + 10, customer.getPhone());
+        prepStatement.setString(offset + 11, customer.getFax());
+        prepStatement.setString(offset + 12, customer.getEmail());
+        prepStatement.setInt(offset + 13, customer.getSupportRepId());
+    }
+
+    /**
+     * Binds the given customer to the parameters of {@link #UPDATE_SQL}.
+     *
+     * @param prepStatement The prepared update statement.
+     * @param customer      The customer whose fields are bound.
+     * @throws SQLException If an SQL exception occurs while binding the parameters.
+     */
+    private static void bindUpdate(PreparedStatement prepStatement, Customer customer) throws SQLException {
+        prepStatement.setString(1, customer.getFirstName());
+        prepStatement.setString(2, customer.getLastName());
+        prepStatement.setString(3, customer.getCompany());
+        prepStatement.setString(4, customer.getAddress());
+        prepStatement.setString(5, customer.getCity());
+        prepStatement.setString(6, customer.getState());
+        prepStatement.setString(7, customer.getCountry());
+        prepStatement.setString(8, customer.getPostalCode());
+        prepStatement.setString(9, customer.getPhone());
+        prepStatement.setString(10, customer.getFax());
+        prepStatement.setString(11, customer.getEmail());
+        prepStatement.setInt(12, customer.getSupportRepId());
+        prepStatement.setInt(13, customer.getCustomerId());
+    }
 }
@@ -0,0 +1,61 @@
+/**
+ * Optional equality filters for customer listings.
+ * Unset criteria match every customer.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Objects;
+
+public class CustomerFilter {
+
+    private String country;  // Country the customers must be in, or null for any
+    private Integer supportRepId;  // Support representative the customers must be assigned to, or null for any
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public Integer getSupportRepId() {
+        return supportRepId;
+    }
+
+    public void setSupportRepId(Integer supportRepId) {
+        this.supportRepId = supportRepId;
+    }
+
+    /**
+     * Returns whether the given customer matches every criterion of this filter. Countries are compared ignoring
+     * case, as the Customer table's collation and {@link IndexedCustomerDAO#findByCountry(String)} do.
+     *
+     * @param customer The customer to test.
+     * @return True if the customer matches.
+     */
+    public boolean matches(Customer customer) {
+        return (country == null || country.equalsIgnoreCase(customer.getCountry()))
+                && (supportRepId == null || supportRepId == customer.getSupportRepId());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CustomerFilter that)) return false;
+        return Objects.equals(country, that.country) && Objects.equals(supportRepId, that.supportRepId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(country, supportRepId);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerFilter{" +
+                "country='" + country + '\'' +
+                ", supportRepId=" + supportRepId +
+                '}';
+    }
+}
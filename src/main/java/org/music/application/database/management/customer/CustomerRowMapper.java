@@ -0,0 +1,82 @@
+/**
+ * Maps rows of the Customer table to {@link Customer} objects by column position.
+ * Positions are resolved once per result set, so mapping a row does no per-column label lookups.
+ * Columns missing from the result set are left null (or 0 for numeric columns), which allows queries
+ * that select only some of the columns.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+public final class CustomerRowMapper implements RowMapper<Customer> {
+
+    /**
+     * Creates Customer mappers for any result set over the Customer table.
+     */
+    public static final RowMapper.Factory<Customer> FACTORY = CustomerRowMapper::new;
+
+    private static final String[] COLUMNS = Arrays.stream(CustomerColumn.values())
+            .map(CustomerColumn::getColumnName)
+            .toArray(String[]::new);
+
+    private final int customerId;
+    private final int firstName;
+    private final int lastName;
+    private final int company;
+    private final int address;
+    private final int city;
+    private final int state;
+    private final int country;
+    private final int postalCode;
+    private final int phone;
+    private final int fax;
+    private final int email;
+    private final int supportRepId;
+
+    private CustomerRowMapper(ResultSetMetaData metaData) throws SQLException {
+        int[] positions = RowMapper.resolveColumns(metaData, COLUMNS);
+        customerId = positions[0];
+        firstName = positions[1];
+        lastName = positions[2];
+        company = positions[3];
+        address = positions[4];
+        city = positions[5];
+        state = positions[6];
+        country = positions[7];
+        postalCode = positions[8];
+        phone = positions[9];
+        fax = positions[10];
+        email = positions[11];
+        supportRepId = positions[12];
+    }
+
+    @Override
+    public Customer mapRow(ResultSet resultSet) throws SQLException {
+        return new Customer(
+                readInt(resultSet, customerId),
+                readString(resultSet, firstName),
+                readString(resultSet, lastName),
+                readString(resultSet, company),
+                readString(resultSet, address),
+                readString(resultSet, city),
+                readString(resultSet, state),
+                readString(resultSet, country),
+                readString(resultSet, postalCode),
+                readString(resultSet, phone),
+                readString(resultSet, fax),
+                readString(resultSet, email),
+                readInt(resultSet, supportRepId)
+        );
+    }
+
+    private static String readString(ResultSet resultSet, int position) throws SQLException {
+        return position == 0 ? null : resultSet.getString(position);
+    }
+
+    private static int readInt(ResultSet resultSet, int position) throws SQLException {
+        return position == 0 ? 0 : resultSet.getInt(position);
+    }
+}
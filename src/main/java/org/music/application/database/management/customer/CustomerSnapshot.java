@@ -0,0 +1,378 @@
+/**
+ * A read-only snapshot of the Customer table in a memory-mapped file, so that a process can start serving
+ * lookups without loading the table onto its heap. The file holds a header, a fixed-layout record per customer
+ * in CustomerId order, an index of the CustomerIds in the same order, and a heap of the UTF-8 strings the records
+ * point into; repeated strings, such as countries, are stored once. A lookup binary-searches the mapped index and
+ * reads the record in place, so only the customer returned is allocated. The snapshot also records the sync token
+ * of the table state it holds, for catching up with {@link CustomerDAO#getChangedSince(String)}.
+ * The whole file must stay under 2 GiB, a little over 15 million Chinook customers.
+ */
+package org.music.application.database.management.customer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public final class CustomerSnapshot {
+
+    private static final int MAGIC = 0x43534E50;  // "CSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    private static final int STRING_COLUMNS = 11;  // FirstName to Email, in table order
+    private static final int RECORD_SIZE = 2 * Integer.BYTES + STRING_COLUMNS * 2 * Integer.BYTES;
+    private static final int MAX_SHARED_STRINGS = 1 << 16;  // Distinct strings the writer stores only once
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    // Header fields, by byte offset
+    private static final int HEADER_ROWS = 8;
+    private static final int HEADER_INDEX = 12;
+    private static final int HEADER_STRINGS = 20;
+    private static final int HEADER_STRINGS_LENGTH = 28;
+    private static final int HEADER_SYNC_TOKEN = 36;  // Heap offset and length of the sync token
+
+    private final MappedByteBuffer mapped;  // The whole file; only ever read with absolute gets
+    private final int rows;  // Customers in the snapshot
+    private final int indexOffset;  // Where the CustomerIds start
+    private final int stringsOffset;  // Where the string heap starts
+    private final String syncToken;  // Sync token of the state the snapshot holds, or null
+
+    private CustomerSnapshot(MappedByteBuffer mapped, int rows, int indexOffset, int stringsOffset, String syncToken) {
+        this.mapped = mapped;
+        this.rows = rows;
+        this.indexOffset = indexOffset;
+        this.stringsOffset = stringsOffset;
+        this.syncToken = syncToken;
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file The snapshot file.
+     * @return The mapped snapshot.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static CustomerSnapshot open(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a customer snapshot: " + file + " is " + size + " bytes");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a customer snapshot: " + file);
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IOException("Unsupported customer snapshot version " + mapped.getInt(4) + ": " + file);
+        }
+        int rows = mapped.getInt(HEADER_ROWS);
+        long indexOffset = mapped.getLong(HEADER_INDEX);
+        long stringsOffset = mapped.getLong(HEADER_STRINGS);
+        long stringsLength = mapped.getLong(HEADER_STRINGS_LENGTH);
+        if (rows < 0 || indexOffset != HEADER_SIZE + (long) rows * RECORD_SIZE
+                || stringsOffset != indexOffset + (long) rows * Integer.BYTES
+                || stringsOffset + stringsLength != mapped.capacity()) {
+            throw new IOException("Corrupt customer snapshot: " + file);
+        }
+        CustomerSnapshot snapshot = new CustomerSnapshot(mapped, rows, (int) indexOffset, (int) stringsOffset, null);
+        String syncToken = snapshot.string(mapped.getInt(HEADER_SYNC_TOKEN), mapped.getInt(HEADER_SYNC_TOKEN + 4));
+        return new CustomerSnapshot(mapped, rows, (int) indexOffset, (int) stringsOffset, syncToken);
+    }
+
+    /**
+     * Writes a snapshot file from customers in ascending CustomerId order. The file is written to a temporary file
+     * of its own beside the target and moved into place, so a reader never maps a half-written snapshot and
+     * concurrent writers of the same target cannot write into each other's file; the last move wins. Readers of the
+     * previous file keep their mapping.
+     *
+     * @param file      The snapshot file to write.
+     * @param customers The customers, in ascending CustomerId order.
+     * @param syncToken The sync token of the state the customers reflect, or null.
+     * @throws IOException              If the file cannot be written or would exceed 2 GiB.
+     * @throws IllegalArgumentException If the customers are not in ascending CustomerId order.
+     */
+    public static void write(Path file, Iterator<Customer> customers, String syncToken) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        String name = file.getFileName().toString();
+        Path temporary = Files.createTempFile(directory, name + ".", ".tmp");
+        Path stringsFile;
+        try {
+            stringsFile = Files.createTempFile(directory, name + ".", ".strings.tmp");
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             StringHeap strings = new StringHeap(stringsFile)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            int[] ids = new int[1_024];
+            int rows = 0;
+            channel.position(HEADER_SIZE);
+            while (customers.hasNext()) {
+                Customer customer = customers.next();
+                if (rows > 0 && customer.getCustomerId() <= ids[rows - 1]) {
+                    throw new IllegalArgumentException("Customers must be in ascending CustomerId order: "
+                            + customer.getCustomerId() + " after " + ids[rows - 1]);
+                }
+                if (rows == ids.length) {
+                    ids = Arrays.copyOf(ids, rows * 2);
+                }
+                ids[rows++] = customer.getCustomerId();
+                if (buffer.remaining() < RECORD_SIZE) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(customer.getCustomerId());
+                buffer.putInt(customer.getSupportRepId());
+                for (String value : new String[]{customer.getFirstName(), customer.getLastName(),
+                        customer.getCompany(), customer.getAddress(), customer.getCity(), customer.getState(),
+                        customer.getCountry(), customer.getPostalCode(), customer.getPhone(), customer.getFax(),
+                        customer.getEmail()}) {
+                    strings.putRef(buffer, value);
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(ids[i]);
+            }
+            drain(channel, buffer);
+            int tokenOffset = (int) strings.length();
+            int tokenLength = strings.add(syncToken);
+
+            long indexOffset = HEADER_SIZE + (long) rows * RECORD_SIZE;
+            long stringsOffset = indexOffset + (long) rows * Integer.BYTES;
+            if (stringsOffset + strings.length() > Integer.MAX_VALUE) {
+                throw new IOException("Customer snapshot would exceed 2 GiB: " + rows + " customers");
+            }
+            strings.transferTo(channel);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putLong(indexOffset).putLong(stringsOffset)
+                    .putLong(strings.length()).putInt(tokenOffset).putInt(tokenLength);
+            buffer.flip();
+            channel.position(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            Files.deleteIfExists(stringsFile);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a customer from the mapped file.
+     *
+     * @param customerId The unique identifier of the customer.
+     * @return A new customer, or null if the snapshot holds no customer with that identifier.
+     */
+    public Customer get(int customerId) {
+        int position = indexOf(customerId);
+        return position < 0 ? null : read(position);
+    }
+
+    /**
+     * Returns whether the snapshot holds the customer.
+     *
+     * @param customerId The unique identifier of the customer.
+     * @return Whether the customer is in the snapshot.
+     */
+    public boolean contains(int customerId) {
+        return indexOf(customerId) >= 0;
+    }
+
+    /**
+     * Returns the customers of the snapshot in CustomerId order, reading each from the mapped file as the iterator
+     * reaches it.
+     *
+     * @return An iterator over new customers.
+     */
+    public Iterator<Customer> iterator() {
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < rows;
+            }
+
+            @Override
+            public Customer next() {
+                if (position >= rows) {
+                    throw new NoSuchElementException();
+                }
+                return read(position++);
+            }
+        };
+    }
+
+    /**
+     * Returns the CustomerId at a position of the snapshot, for walking it in order alongside other data.
+     *
+     * @param position The position, from 0 to {@link #size()} - 1.
+     * @return The CustomerId at the position.
+     */
+    public int idAt(int position) {
+        return mapped.getInt(indexOffset + position * Integer.BYTES);
+    }
+
+    /**
+     * Reads the customer at a position of the snapshot.
+     *
+     * @param position The position, from 0 to {@link #size()} - 1.
+     * @return A new customer.
+     */
+    public Customer customerAt(int position) {
+        if (position < 0 || position >= rows) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + rows);
+        }
+        return read(position);
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    // Binary search of the mapped CustomerIds.
+    private int indexOf(int customerId) {
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = idAt(middle);
+            if (id < customerId) {
+                low = middle + 1;
+            } else if (id > customerId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private Customer read(int position) {
+        int record = HEADER_SIZE + position * RECORD_SIZE;
+        String[] values = new String[STRING_COLUMNS];
+        int ref = record + 2 * Integer.BYTES;
+        for (int i = 0; i < STRING_COLUMNS; i++, ref += 2 * Integer.BYTES) {
+            values[i] = string(mapped.getInt(ref), mapped.getInt(ref + Integer.BYTES));
+        }
+        return new Customer(mapped.getInt(record), values[0], values[1], values[2], values[3], values[4], values[5],
+                values[6], values[7], values[8], values[9], values[10], mapped.getInt(record + Integer.BYTES));
+    }
+
+    // Decodes a string of the heap; a length of -1 marks null.
+    private String string(int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        mapped.get(stringsOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // The string heap being written, spooled to its own file and storing each of the first MAX_SHARED_STRINGS
+    // distinct strings once.
+    private static final class StringHeap implements AutoCloseable {
+        private final Path file;  // Spool file, appended to the snapshot once the records are written
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final Map<String, Long> refs = new HashMap<>();  // Offset and length of each shared string
+        private long length;  // Bytes in the heap
+
+        StringHeap(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        // Puts the heap offset and length of the value into a record, adding the value to the heap if needed.
+        void putRef(ByteBuffer record, String value) throws IOException {
+            if (value == null) {
+                record.putInt(0).putInt(-1);
+                return;
+            }
+            Long ref = refs.get(value);
+            if (ref == null) {
+                int offset = (int) length;
+                ref = (long) offset << 32 | add(value);
+                if (refs.size() < MAX_SHARED_STRINGS) {
+                    refs.put(value, ref);
+                }
+            }
+            record.putInt((int) (ref >>> 32)).putInt((int) (long) ref);
+        }
+
+        // Appends the value, returning its length in bytes, or -1 for null.
+        int add(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (length + encoded.length > Integer.MAX_VALUE) {
+                throw new IOException("Customer snapshot string heap would exceed 2 GiB");
+            }
+            if (buffer.remaining() < encoded.length) {
+                drain(channel, buffer);
+            }
+            if (encoded.length > buffer.capacity()) {
+                ByteBuffer wrapped = ByteBuffer.wrap(encoded);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            } else {
+                buffer.put(encoded);
+            }
+            length += encoded.length;
+            return encoded.length;
+        }
+
+        long length() {
+            return length;
+        }
+
+        // Appends the heap to the end of the snapshot.
+        void transferTo(FileChannel target) throws IOException {
+            drain(channel, buffer);
+            long position = 0;
+            long start = target.size();
+            while (position < length) {
+                position += channel.transferTo(position, length - position, target.position(start + position));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,560 @@
+/**
+ * Bulk export and import of the Customer table, for nightly dumps and for loading analytics and staging copies.
+ * Export streams the table through the {@link CustomerDAO#streamAll()} cursor into a CSV or compact binary file,
+ * writing through a large NIO buffer. Import parses the file on the calling thread and hands chunks of rows to a
+ * pool of loader threads, each writing its chunk with {@link CustomerDAO#insertAll}, so JDBC batching, manual
+ * commits and the configured {@link BatchOptions} apply. Against MySQL a CSV export can instead be loaded by the
+ * server with {@link #loadCsv(Path)}. Progress is reported every {@link #setProgressInterval(long) interval} rows.
+ */
+package org.music.application.database.management.customer;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CustomerTransfer {
+    private static final Logger logger = Logger.getLogger(CustomerTransfer.class.getName());
+
+    private static final int BUFFER_SIZE = 1 << 20;  // Bytes buffered between the file channel and the rows
+    private static final int BINARY_MAGIC = 0x43555332;  // "CUS2", the first four bytes of a binary export
+    private static final String CSV_HEADER = Arrays.stream(CustomerColumn.values())
+            .map(CustomerColumn::getColumnName)
+            .collect(Collectors.joining(","));
+
+    /**
+     * The file formats of an export.
+     */
+    public enum Format {
+        /**
+         * Comma-separated values with a header row. Every non-null string is enclosed in double quotes, with
+         * embedded quotes doubled; NULL is written as the bare word {@code NULL}, as MySQL's
+         * {@code LOAD DATA ... ESCAPED BY ''} expects.
+         */
+        CSV,
+        /**
+         * A compact binary file: a four-byte magic number, then each customer as a {@link CustomerCodec} record.
+         */
+        BINARY
+    }
+
+    private final CustomerDAO dao;  // DAO the table is streamed from and inserted through
+    private final DataSource dataSource;  // Source of the connection LOAD DATA runs on, or null
+    private int chunkSize = 5_000;  // Rows each loader task inserts
+    private int loaderThreads = 4;  // Chunks inserted in parallel
+    private long progressInterval = 100_000;  // Rows between progress reports
+    private TransferListener listener = CustomerTransfer::logProgress;  // Receives the progress reports
+
+    /**
+     * Constructs a new CustomerTransfer over a CustomerDAOImplementation of the given data source.
+     *
+     * @param dataSource The data source of the Customer table.
+     */
+    public CustomerTransfer(DataSource dataSource) {
+        this(new CustomerDAOImplementation(dataSource), dataSource);
+    }
+
+    /**
+     * Constructs a new CustomerTransfer.
+     *
+     * @param dao        The DAO to export from and import through.
+     * @param dataSource The data source {@link #loadCsv(Path)} runs on, or null if it is not used.
+     */
+    public CustomerTransfer(CustomerDAO dao, DataSource dataSource) {
+        this.dao = dao;
+        this.dataSource = dataSource;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getLoaderThreads() {
+        return loaderThreads;
+    }
+
+    public void setLoaderThreads(int loaderThreads) {
+        if (loaderThreads < 1) {
+            throw new IllegalArgumentException("loaderThreads must be at least 1: " + loaderThreads);
+        }
+        this.loaderThreads = loaderThreads;
+    }
+
+    public long getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(long progressInterval) {
+        if (progressInterval < 1) {
+            throw new IllegalArgumentException("progressInterval must be at least 1: " + progressInterval);
+        }
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Sets the listener that receives progress reports. By default progress is logged at INFO.
+     *
+     * @param listener The listener.
+     */
+    public void setListener(TransferListener listener) {
+        this.listener = listener;
+    }
+
+    // Export
+    /**
+     * Writes every customer to the file, replacing its contents.
+     *
+     * @param file   The file to write.
+     * @param format The format to write.
+     * @return The number of rows written and the time taken.
+     * @throws SQLException If an SQL exception occurs while reading the table.
+     * @throws IOException  If the file could not be written.
+     */
+    public TransferStats export(Path file, Format format) throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Stream<Customer> customers = dao.streamAll();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelWriter writer = new ChannelWriter(channel);
+            if (format == Format.CSV) {
+                writer.write((CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            } else {
+                writer.ensure(Integer.BYTES).putInt(BINARY_MAGIC);
+            }
+            Iterator<Customer> iterator = customers.iterator();
+            while (iterator.hasNext()) {
+                Customer customer = iterator.next();
+                if (format == Format.CSV) {
+                    writer.write(toCsv(customer).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    writeBinary(writer, customer);
+                }
+                if (++rows % progressInterval == 0) {
+                    listener.onProgress("export", rows, System.nanoTime() - start);
+                }
+            }
+            writer.flush();
+        }
+        long elapsed = System.nanoTime() - start;
+        listener.onProgress("export", rows, elapsed);
+        return new TransferStats(rows, 0, elapsed);
+    }
+
+    // Import
+    /**
+     * Inserts every customer in the file, parsing it on the calling thread and inserting chunks of
+     * {@link #getChunkSize()} rows on {@link #getLoaderThreads()} threads. At most two chunks per loader are held
+     * in memory at once. Rows the database rejects, such as duplicates, are counted as failed; an exception that
+     * is not specific to a row stops the import, leaving the chunks already committed in place.
+     *
+     * @param file   The file to read.
+     * @param format The format of the file.
+     * @return The number of rows inserted and failed, and the time taken.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     * @throws IOException  If the file could not be read or is malformed.
+     */
+    public TransferStats importFile(Path file, Format format) throws SQLException, IOException {
+        long start = System.nanoTime();
+        AtomicLong inserted = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        Semaphore inFlight = new Semaphore(loaderThreads * 2);
+        List<Future<?>> tasks = new ArrayList<>();
+        ExecutorService loaders = Executors.newFixedThreadPool(loaderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "customer-import-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RowSource source = format == Format.CSV ? new CsvSource(channel) : new BinarySource(channel);
+            List<Customer> chunk = new ArrayList<>(chunkSize);
+            Customer customer;
+            while ((customer = source.next()) != null) {
+                chunk.add(customer);
+                if (chunk.size() == chunkSize) {
+                    tasks.add(submit(loaders, inFlight, chunk, inserted, failed, start));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                if (tasks.size() > 0 && tasks.get(0).isDone()) {
+                    await(tasks.remove(0));  // Surface a failed chunk without waiting for the whole file
+                }
+            }
+            if (!chunk.isEmpty()) {
+                tasks.add(submit(loaders, inFlight, chunk, inserted, failed, start));
+            }
+            for (Future<?> task : tasks) {
+                await(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while importing " + file, e);
+        } finally {
+            loaders.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        listener.onProgress("import", inserted.get(), elapsed);
+        return new TransferStats(inserted.get(), failed.get(), elapsed);
+    }
+
+    private Future<?> submit(ExecutorService loaders, Semaphore inFlight, List<Customer> chunk, AtomicLong inserted,
+                             AtomicLong failed, long start) throws InterruptedException {
+        inFlight.acquire();
+        return loaders.submit(() -> {
+            try {
+                BatchResult<Customer> result = dao.insertAll(chunk);
+                failed.addAndGet(result.getFailures().size());
+                long before = inserted.getAndAdd(result.getSucceededCount());
+                long after = before + result.getSucceededCount();
+                if (after / progressInterval != before / progressInterval) {
+                    listener.onProgress("import", after, System.nanoTime() - start);
+                }
+                return null;
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private static void await(Future<?> task) throws SQLException, InterruptedException {
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Import chunk failed", cause);
+        }
+    }
+
+    /**
+     * Loads a CSV export with MySQL's {@code LOAD DATA LOCAL INFILE}, which parses and inserts the rows on the
+     * server and is typically several times faster than batched inserts. The connection must allow local files:
+     * set {@code allowLoadLocalInfile=true} in {@link PoolConfig#getConnectionProperties()}, and enable
+     * {@code local_infile} on the server. Rows whose CustomerId already exists are skipped.
+     *
+     * @param file The CSV file to load.
+     * @return The number of rows loaded and the time taken.
+     * @throws SQLException If an SQL exception occurs while loading the file.
+     */
+    public TransferStats loadCsv(Path file) throws SQLException {
+        if (dataSource == null) {
+            throw new IllegalStateException("loadCsv needs a data source");
+        }
+        String path = file.toAbsolutePath().toString().replace("\\", "\\\\").replace("'", "\\'");
+        String sql = "LOAD DATA LOCAL INFILE '" + path + "' IGNORE INTO TABLE Customer CHARACTER SET utf8mb4"
+                + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY ''"
+                + " LINES TERMINATED BY '\\n' IGNORE 1 LINES (" + CSV_HEADER + ")";
+        long start = System.nanoTime();
+        long rows;
+        try (Connection conn = dataSource.getConnection(); Statement statement = conn.createStatement()) {
+            rows = statement.executeLargeUpdate(sql);
+        }
+        long elapsed = System.nanoTime() - start;
+        listener.onProgress("load", rows, elapsed);
+        return new TransferStats(rows, 0, elapsed);
+    }
+
+    private static void logProgress(String phase, long rows, long elapsedNanos) {
+        logger.info(String.format(Locale.ROOT, "%s: %d rows in %.1f s (%.0f rows/s)", phase, rows,
+                elapsedNanos / 1e9, TransferStats.rowsPerSecond(rows, elapsedNanos)));
+    }
+
+    // CSV
+    private static String toCsv(Customer customer) {
+        StringBuilder line = new StringBuilder(256);
+        line.append(customer.getCustomerId());
+        for (String value : new String[]{customer.getFirstName(), customer.getLastName(), customer.getCompany(),
+                customer.getAddress(), customer.getCity(), customer.getState(), customer.getCountry(),
+                customer.getPostalCode(), customer.getPhone(), customer.getFax(), customer.getEmail()}) {
+            line.append(',');
+            if (value == null) {
+                line.append("NULL");
+            } else {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        return line.append(',').append(customer.getSupportRepId()).append('\n').toString();
+    }
+
+    // Binary
+    private static void writeBinary(ChannelWriter writer, Customer customer) throws IOException {
+        int size = CustomerCodec.encodedSize(customer);
+        if (size > BUFFER_SIZE) {
+            writer.write(CustomerCodec.toBytes(customer));
+        } else {
+            CustomerCodec.encode(customer, writer.ensure(size));
+        }
+    }
+
+    // Writes through one reusable buffer, draining it to the channel when it fills.
+    private static final class ChannelWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Makes room for the given number of bytes and returns the buffer to put them in.
+        ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length).put(bytes);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    // Parses customers from an export file, returning null at its end.
+    private interface RowSource {
+        Customer next() throws IOException;
+    }
+
+    private static final class CsvSource implements RowSource {
+        private final Reader reader;
+        private final List<String> fields = new ArrayList<>(CustomerColumn.values().length);
+        private final StringBuilder field = new StringBuilder();
+        private long line = 1;  // Line of the current row, for error messages
+
+        CsvSource(FileChannel channel) throws IOException {
+            reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE / 2);
+            if (!readRow() || !String.join(",", fields).equalsIgnoreCase(CSV_HEADER)) {
+                throw new IOException("Not a customer CSV export: missing header " + CSV_HEADER);
+            }
+        }
+
+        @Override
+        public Customer next() throws IOException {
+            if (!readRow()) {
+                return null;
+            }
+            if (fields.size() != CustomerColumn.values().length) {
+                throw new IOException("Line " + line + ": expected " + CustomerColumn.values().length
+                        + " fields but found " + fields.size());
+            }
+            try {
+                return new Customer(Integer.parseInt(fields.get(0)), fields.get(1), fields.get(2), fields.get(3),
+                        fields.get(4), fields.get(5), fields.get(6), fields.get(7), fields.get(8), fields.get(9),
+                        fields.get(10), fields.get(11), fields.get(12) == null ? 0 : Integer.parseInt(fields.get(12)));
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + line + ": " + e.getMessage(), e);
+            }
+        }
+
+        // Reads the fields of the next row; a bare NULL field is read as null.
+        private boolean readRow() throws IOException {
+            fields.clear();
+            int c = reader.read();
+            if (c == -1) {
+                return false;
+            }
+            while (true) {
+                field.setLength(0);
+                boolean quoted = c == '"';
+                if (quoted) {
+                    while (true) {
+                        c = reader.read();
+                        if (c == -1) {
+                            throw new IOException("Line " + line + ": unterminated quoted field");
+                        }
+                        if (c == '"') {
+                            c = reader.read();
+                            if (c != '"') {
+                                break;
+                            }
+                        } else if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else {
+                    while (c != ',' && c != '\n' && c != -1) {
+                        if (c != '\r') {
+                            field.append((char) c);
+                        }
+                        c = reader.read();
+                    }
+                }
+                fields.add(!quoted && field.toString().equals("NULL") ? null : field.toString());
+                if (c == ',') {
+                    c = reader.read();
+                } else if (c == '\n' || c == -1) {
+                    line++;
+                    return true;
+                } else if (c == '\r') {
+                    c = reader.read();
+                    if (c == '\n' || c == -1) {
+                        line++;
+                        return true;
+                    }
+                    throw new IOException("Line " + line + ": unexpected character after quoted field");
+                } else {
+                    throw new IOException("Line " + line + ": unexpected character after quoted field");
+                }
+            }
+        }
+    }
+
+    private static final class BinarySource implements RowSource {
+        private static final int MAX_LENGTH_PREFIX = 5;  // Bytes in the longest varint record length
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        BinarySource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.flip();
+            if (!fill(Integer.BYTES) || buffer.getInt() != BINARY_MAGIC) {
+                throw new IOException("Not a customer binary export");
+            }
+        }
+
+        @Override
+        public Customer next() throws IOException {
+            fill(MAX_LENGTH_PREFIX);
+            if (!buffer.hasRemaining()) {
+                return null;
+            }
+            int length;
+            try {
+                length = CustomerCodec.recordLength(buffer);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt customer binary export", e);
+            }
+            if (length < 0 || length > buffer.capacity()) {
+                throw new IOException("Corrupt customer binary export: record of " + length + " bytes");
+            }
+            if (!fill(length)) {
+                throw new IOException("Truncated customer binary export");
+            }
+            try {
+                return CustomerCodec.decode(buffer);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt customer binary export", e);
+            }
+        }
+
+        // Makes at least the given number of bytes readable, returning false if the file ends first.
+        private boolean fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    buffer.flip();
+                    return false;
+                }
+            }
+            buffer.flip();
+            return true;
+        }
+    }
+
+    /**
+     * Receives progress reports from a transfer.
+     */
+    @FunctionalInterface
+    public interface TransferListener {
+        /**
+         * Called every progress interval and once more when the transfer finishes. Imports call it from their
+         * loader threads.
+         *
+         * @param phase        The transfer running: export, import or load.
+         * @param rows         The rows transferred so far.
+         * @param elapsedNanos The time since the transfer started.
+         */
+        void onProgress(String phase, long rows, long elapsedNanos);
+    }
+
+    /**
+     * Exports or imports the Customer table of the default database.
+     * Usage: {@code export csv|binary <file>}, {@code import csv|binary <file> [threads]} or {@code load <file>}.
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || !args[0].equals("load") && args.length < 3) {
+            System.err.println("Usage: CustomerTransfer export csv|binary <file>");
+            System.err.println("       CustomerTransfer import csv|binary <file> [threads]");
+            System.err.println("       CustomerTransfer load <file>");
+            System.exit(2);
+        }
+        try {
+            CustomerTransfer transfer = new CustomerTransfer(Database.getDataSource());
+            TransferStats stats;
+            if (args[0].equals("load")) {
+                stats = transfer.loadCsv(Path.of(args[1]));
+            } else {
+                Format format = Format.valueOf(args[1].toUpperCase(Locale.ROOT));
+                Path file = Path.of(args[2]);
+                if (args[0].equals("export")) {
+                    stats = transfer.export(file, format);
+                } else {
+                    if (args.length > 3) {
+                        transfer.setLoaderThreads(Integer.parseInt(args[3]));
+                    }
+                    stats = transfer.importFile(file, format);
+                }
+            }
+            logger.info(stats.toString());
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+        } finally {
+            Database.shutdown();
+        }
+    }
+}
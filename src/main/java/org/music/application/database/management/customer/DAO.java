@@ -1,7 +1,10 @@
 package org.music.application.database.management.customer;
 
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object (DAO) interface for generic database operations.
@@ -21,6 +24,28 @@ public interface DAO<T> {
      */
     T get(int id) throws SQLException;
 
+    /**
+     * Retrieves the objects with the given unique identifiers. Duplicate identifiers are looked up once, and
+     * identifiers with no object are left out of the result.
+     * The default implementation calls {@link #get(int)} once per identifier; implementations should fetch
+     * the objects in a few set-based queries.
+     *
+     * @param ids The unique identifiers of the objects to retrieve.
+     * @return The retrieved objects, keyed by identifier.
+     * @throws SQLException If an SQL exception occurs while accessing the database.
+     */
+    default IntObjectMap<T> getMany(int[] ids) throws SQLException {
+        int[] distinctIds = Arrays.stream(ids).distinct().toArray();
+        IntObjectMap<T> found = new IntObjectMap<>(distinctIds.length);
+        for (int id : distinctIds) {
+            T t = get(id);
+            if (t != null) {
+                found.put(id, t);
+            }
+        }
+        return found;
+    }
+
     /**
      * Retrieves all objects of type T from the database.
      *
@@ -29,6 +54,19 @@ public interface DAO<T> {
      */
     List<T> getAll() throws SQLException;
 
+    /**
+     * Streams all objects of type T from the database.
+     * The stream holds database resources until it is closed, so it should be used in a try-with-resources block.
+     * The default implementation streams the result of {@link #getAll()}; implementations should read the rows
+     * lazily so that memory use does not grow with the size of the table.
+     *
+     * @return A stream of all objects of type T; close it to release its database resources.
+     * @throws SQLException If an SQL exception occurs while starting the query.
+     */
+    default Stream<T> streamAll() throws SQLException {
+        return getAll().stream();
+    }
+
     /**
      * Saves an object to the database.
      *
@@ -63,5 +101,52 @@ public interface DAO<T> {
      * @return The number of rows affected by the delete operation.
      */
     int delete(T t);
-}
 
+    /**
+     * Inserts all given objects into the database.
+     * The default implementation inserts the objects one at a time; implementations should send them in batches.
+     *
+     * @param items The objects to insert.
+     * @return The per-row outcome of the insert, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     */
+    default BatchResult<T> insertAll(Collection<T> items) throws SQLException {
+        return BatchResult.ofEach(items, this::insert);
+    }
+
+    /**
+     * Saves all given objects to the database, inserting the ones that do not exist and updating the rest.
+     * The default implementation saves the objects one at a time; implementations should send them in batches.
+     *
+     * @param items The objects to save.
+     * @return The per-row outcome of the save, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     */
+    default BatchResult<T> saveAll(Collection<T> items) throws SQLException {
+        return BatchResult.ofEach(items, this::save);
+    }
+
+    /**
+     * Updates all given objects in the database.
+     * The default implementation updates the objects one at a time; implementations should send them in batches.
+     *
+     * @param items The objects to update.
+     * @return The per-row outcome of the update, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     */
+    default BatchResult<T> updateAll(Collection<T> items) throws SQLException {
+        return BatchResult.ofEach(items, this::update);
+    }
+
+    /**
+     * Deletes all given objects from the database.
+     * The default implementation deletes the objects one at a time; implementations should send them in batches.
+     *
+     * @param items The objects to delete.
+     * @return The per-row outcome of the delete, including the rows that failed.
+     * @throws SQLException If an SQL exception occurs that is not specific to a single row.
+     */
+    default BatchResult<T> deleteAll(Collection<T> items) throws SQLException {
+        return BatchResult.ofEach(items, this::delete);
+    }
+}
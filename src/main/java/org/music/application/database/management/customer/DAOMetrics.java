@@ -0,0 +1,167 @@
+/**
+ * Latency histograms and row and error counters for each {@link DAOOperation}, together with the connection
+ * wait time of the pool the DAO borrows from. Comparing an operation's latency with the connection wait tells
+ * time spent queueing for a connection apart from time spent executing SQL and mapping rows.
+ * Recording is lock-free and does not allocate. The metrics can be read directly or registered as a JMX MXBean.
+ */
+package org.music.application.database.management.customer;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DAOMetrics implements DAOMetricsMXBean {
+
+    private static final DAOOperation[] OPERATIONS = DAOOperation.values();
+
+    private final ConnectionPool pool;  // Pool whose connection wait is reported, or null
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];  // By operation ordinal
+    private final LongAdder[] errors = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] rowsRead = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] rowsWritten = new LongAdder[OPERATIONS.length];
+
+    /**
+     * Constructs new metrics that are not tied to a connection pool.
+     */
+    public DAOMetrics() {
+        this(null);
+    }
+
+    /**
+     * Constructs new metrics that also report the connection wait time of the given pool.
+     *
+     * @param pool The pool the instrumented DAO borrows connections from, or null.
+     */
+    public DAOMetrics(ConnectionPool pool) {
+        this.pool = pool;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            errors[i] = new LongAdder();
+            rowsRead[i] = new LongAdder();
+            rowsWritten[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a call that returned normally.
+     *
+     * @param operation   The operation called.
+     * @param startNanos  A {@link System#nanoTime()} reading taken when the call started.
+     * @param read        The number of rows the call returned.
+     * @param written     The number of rows the call reported as affected.
+     */
+    public void recordSuccess(DAOOperation operation, long startNanos, long read, long written) {
+        int index = operation.ordinal();
+        latencies[index].recordSince(startNanos);
+        if (read != 0) {
+            rowsRead[index].add(read);
+        }
+        if (written != 0) {
+            rowsWritten[index].add(written);
+        }
+    }
+
+    /**
+     * Records a call that threw.
+     *
+     * @param operation  The operation called.
+     * @param startNanos A {@link System#nanoTime()} reading taken when the call started.
+     */
+    public void recordFailure(DAOOperation operation, long startNanos) {
+        int index = operation.ordinal();
+        latencies[index].recordSince(startNanos);
+        errors[index].increment();
+    }
+
+    /**
+     * Records rows read after the call that returned them, as a stream does while it is consumed.
+     *
+     * @param operation The operation that returned the rows.
+     * @param read      The number of rows read.
+     */
+    public void recordRowsRead(DAOOperation operation, long read) {
+        rowsRead[operation.ordinal()].add(read);
+    }
+
+    /**
+     * Returns the statistics of one operation.
+     *
+     * @param operation The operation.
+     * @return The statistics of the operation.
+     */
+    public OperationStats getOperation(DAOOperation operation) {
+        int index = operation.ordinal();
+        return new OperationStats(errors[index].sum(), rowsRead[index].sum(), rowsWritten[index].sum(),
+                latencies[index].snapshot());
+    }
+
+    @Override
+    public Map<String, OperationStats> getOperations() {
+        Map<String, OperationStats> operations = new TreeMap<>();
+        for (DAOOperation operation : OPERATIONS) {
+            OperationStats stats = getOperation(operation);
+            if (stats.getCalls() > 0) {
+                operations.put(operation.name(), stats);
+            }
+        }
+        return operations;
+    }
+
+    @Override
+    public long getRowsRead() {
+        return sum(rowsRead);
+    }
+
+    @Override
+    public long getRowsWritten() {
+        return sum(rowsWritten);
+    }
+
+    @Override
+    public long getErrors() {
+        return sum(errors);
+    }
+
+    @Override
+    public LatencyStats getConnectionWait() {
+        return pool == null ? new LatencyHistogram().snapshot() : pool.getConnectionWait();
+    }
+
+    @Override
+    public long getConnectionTimeouts() {
+        return pool == null ? 0 : pool.getConnectionTimeouts();
+    }
+
+    private static long sum(LongAdder[] adders) {
+        long sum = 0;
+        for (LongAdder adder : adders) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under
+     * {@code org.music.application:type=DAOMetrics,name=<name>}, replacing any metrics registered under that name.
+     *
+     * @param name The name that tells this DAO's metrics apart from others.
+     * @return The object name the metrics were registered under.
+     * @throws JMException If the metrics could not be registered.
+     */
+    public ObjectName register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("org.music.application:type=DAOMetrics,name=" + ObjectName.quote(name));
+        try {
+            server.registerMBean(this, objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            server.unregisterMBean(objectName);
+            server.registerMBean(this, objectName);
+        }
+        return objectName;
+    }
+}
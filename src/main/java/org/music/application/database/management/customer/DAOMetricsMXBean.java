@@ -0,0 +1,37 @@
+/**
+ * JMX view of the metrics of an instrumented DAO.
+ * Every attribute is computed when it is read, so a JMX console sees current values.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Map;
+
+public interface DAOMetricsMXBean {
+
+    /**
+     * Returns the statistics of every operation that has been called, keyed by operation name.
+     *
+     * @return The per-operation statistics.
+     */
+    Map<String, OperationStats> getOperations();
+
+    long getRowsRead();
+
+    long getRowsWritten();
+
+    long getErrors();
+
+    /**
+     * Returns how long calls waited to borrow a connection from the pool.
+     *
+     * @return The connection wait statistics; empty if the metrics are not tied to a pool.
+     */
+    LatencyStats getConnectionWait();
+
+    /**
+     * Returns how many calls gave up waiting for a connection.
+     *
+     * @return The number of connection timeouts; 0 if the metrics are not tied to a pool.
+     */
+    long getConnectionTimeouts();
+}
@@ -0,0 +1,23 @@
+/**
+ * The DAO operations {@link DAOMetrics} keeps separate statistics for.
+ */
+package org.music.application.database.management.customer;
+
+public enum DAOOperation {
+    GET,
+    GET_MANY,
+    GET_ALL,
+    STREAM_ALL,
+    GET_PAGE,
+    GET_CHANGES,
+    PROJECTION,
+    FIND,
+    SAVE,
+    INSERT,
+    UPDATE,
+    DELETE,
+    INSERT_ALL,
+    SAVE_ALL,
+    UPDATE_ALL,
+    DELETE_ALL
+}
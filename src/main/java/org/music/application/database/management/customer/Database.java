@@ -0,0 +1,131 @@
+/**
+ * Provides access to the Music App database.
+ * Connections are borrowed from a shared {@link ConnectionPool}; closing a connection obtained here returns it
+ * to the pool rather than closing the underlying physical connection.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class Database {
+    private static final Logger logger = Logger.getLogger(Database.class.getName());
+
+    private static volatile ConnectionPool pool;  // Shared pool, created on first use
+
+    private Database() {
+    }
+
+    /**
+     * Borrows a connection from the shared pool.
+     *
+     * @return A pooled connection; close it to return it to the pool.
+     * @throws SQLException If no connection could be obtained within the configured maximum wait.
+     */
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Runs work in a transaction on the shared pool. DAO calls made by the work share one connection and commit
+     * together.
+     *
+     * @param work The work to run.
+     * @param <T>  The type of the work's result.
+     * @return The result of the work.
+     * @throws SQLException If the work or the commit failed, after any retries.
+     * @see ConnectionPool#inTransaction(TransactionOptions, TransactionWork)
+     */
+    public static <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        return getDataSource().inTransaction(work);
+    }
+
+    /**
+     * Runs work in a transaction on the shared pool with the given isolation, read-only mode and retry settings.
+     *
+     * @param options How to run the transaction.
+     * @param work    The work to run.
+     * @param <T>     The type of the work's result.
+     * @return The result of the work.
+     * @throws SQLException If the work or the commit failed, after any retries.
+     * @see ConnectionPool#inTransaction(TransactionOptions, TransactionWork)
+     */
+    public static <T> T inTransaction(TransactionOptions options, TransactionWork<T> work) throws SQLException {
+        return getDataSource().inTransaction(options, work);
+    }
+
+    /**
+     * Returns the shared connection pool, creating it with {@link PoolConfig#defaults()} on first use.
+     *
+     * @return The shared connection pool.
+     */
+    public static ConnectionPool getDataSource() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (Database.class) {
+            if (pool == null) {
+                pool = new ConnectionPool(PoolConfig.defaults());
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Replaces the shared connection pool with one built from the given configuration.
+     * The previous pool, if any, is closed.
+     *
+     * @param config The configuration of the new pool.
+     */
+    public static synchronized void configure(PoolConfig config) {
+        ConnectionPool previous = pool;
+        pool = new ConnectionPool(config);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Closes the shared connection pool. A new pool is created if a connection is requested afterwards.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /**
+     * Closes the given connection, returning it to the pool. Errors are logged and otherwise ignored.
+     *
+     * @param conn The connection to close; may be null.
+     */
+    public static void closeConnection(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to close connection", e);
+            }
+        }
+    }
+
+    /**
+     * Closes the given prepared statement. Errors are logged and otherwise ignored.
+     *
+     * @param prepStatement The prepared statement to close; may be null.
+     */
+    public static void closePreparedStatement(PreparedStatement prepStatement) {
+        if (prepStatement != null) {
+            try {
+                prepStatement.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to close prepared statement", e);
+            }
+        }
+    }
+}
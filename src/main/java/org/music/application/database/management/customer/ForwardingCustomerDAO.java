@@ -0,0 +1,130 @@
+/**
+ * A CustomerDAO that forwards every call to another CustomerDAO. Decorators extend it and override only the
+ * operations they change.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public abstract class ForwardingCustomerDAO implements CustomerDAO {
+
+    protected final CustomerDAO delegate;  // DAO every call is forwarded to
+
+    /**
+     * Constructs a new ForwardingCustomerDAO.
+     *
+     * @param delegate The DAO to forward calls to.
+     */
+    protected ForwardingCustomerDAO(CustomerDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        return delegate.get(customerId);
+    }
+
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        return delegate.getMany(ids);
+    }
+
+    @Override
+    public List<Customer> getAll() throws SQLException {
+        return delegate.getAll();
+    }
+
+    @Override
+    public Stream<Customer> streamAll() throws SQLException {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Customer> getAll(Set<CustomerColumn> columns) throws SQLException {
+        return delegate.getAll(columns);
+    }
+
+    @Override
+    public <R extends Record> R get(int customerId, Class<R> recordType) throws SQLException {
+        return delegate.get(customerId, recordType);
+    }
+
+    @Override
+    public <R extends Record> List<R> getAll(Class<R> recordType) throws SQLException {
+        return delegate.getAll(recordType);
+    }
+
+    @Override
+    public <R extends Record> Stream<R> streamAll(Class<R> recordType) throws SQLException {
+        return delegate.streamAll(recordType);
+    }
+
+    @Override
+    public Customer findByEmail(String email) throws SQLException {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<Customer> findByCountry(String country) throws SQLException {
+        return delegate.findByCountry(country);
+    }
+
+    @Override
+    public List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        return delegate.findBySupportRepId(supportRepId);
+    }
+
+    @Override
+    public Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) throws SQLException {
+        return delegate.getPage(pageToken, pageSize, filter);
+    }
+
+    @Override
+    public CustomerChanges getChangedSince(String syncToken) throws SQLException {
+        return delegate.getChangedSince(syncToken);
+    }
+
+    @Override
+    public int save(Customer customer) throws SQLException {
+        return delegate.save(customer);
+    }
+
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        return delegate.insert(customer);
+    }
+
+    @Override
+    public int update(Customer customer) throws SQLException {
+        return delegate.update(customer);
+    }
+
+    @Override
+    public int delete(Customer customer) {
+        return delegate.delete(customer);
+    }
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        return delegate.insertAll(customers);
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        return delegate.saveAll(customers);
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        return delegate.updateAll(customers);
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        return delegate.deleteAll(customers);
+    }
+}
@@ -0,0 +1,605 @@
+/**
+ * A CustomerDAO decorator that answers lookups from secondary indexes over an in-process snapshot of the
+ * Customer table. The snapshot is loaded on the first lookup; after that, {@link #get(int)}, {@link #getMany},
+ * {@link #findByEmail}, {@link #findByCountry} and {@link #findBySupportRepId} never touch the database.
+ * Email is held in a hash index; Country and SupportRepId in sorted indexes whose entries list customers in
+ * CustomerId order. Writes through this DAO update the indexes once the underlying DAO accepts them. A write
+ * that fails drops the snapshot, so the next lookup reloads it. Writes made by other processes are only picked
+ * up by {@link #refresh()}, which reloads the whole table or, with incremental refresh enabled, applies only the
+ * changes reported by {@link CustomerDAO#getChangedSince(String)} since the previous refresh. A write made through
+ * this DAO while a refresh runs is not undone by it: customers written during a reload are read again once it is
+ * installed, and changes read by an incremental refresh skip customers written since they were read. Only one
+ * refresh runs at a time, so concurrent first lookups share one load.
+ *
+ * A write made inside a {@link Transaction} updates the indexes only once the transaction commits, so lookups never
+ * see uncommitted rows, including lookups made inside the transaction itself. If it rolls back, the write is
+ * dropped; a write that committed regardless, because its DAO uses another pool, is picked up by the next refresh.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class IndexedCustomerDAO extends ForwardingCustomerDAO {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();  // Guards the snapshot and its indexes
+    private final Lock refreshLock = new ReentrantLock();  // Lets one refresh or first load run at a time
+    private final boolean compact;  // Whether the snapshot holds CompactCustomers
+    private boolean loaded;  // Whether the snapshot is loaded
+    private String syncToken;  // Where the next incremental refresh continues, or null to reload the table
+    private long generation;  // Bumped when the snapshot is dropped, so a load that raced a failed write is discarded
+    private Set<Integer> writtenDuringRefresh;  // CustomerIds written while a refresh runs, or null when none runs
+    private volatile boolean incrementalRefresh;  // Whether refresh reads only the changes since the last one
+    private final Map<Integer, Customer> byId = new HashMap<>();  // The snapshot, by CustomerId
+    private final Map<String, NavigableMap<Integer, Customer>> byEmail = new HashMap<>();  // Keyed by lower-cased email
+    private final NavigableMap<String, NavigableMap<Integer, Customer>> byCountry =
+            new TreeMap<>(String.CASE_INSENSITIVE_ORDER);  // Country to customers in CustomerId order
+    private final NavigableMap<Integer, NavigableMap<Integer, Customer>> bySupportRepId =
+            new TreeMap<>();  // SupportRepId to customers in CustomerId order
+
+    /**
+     * Constructs a new IndexedCustomerDAO. The snapshot is loaded on the first lookup.
+     *
+     * @param delegate The DAO to load the snapshot from and to send writes to.
+     */
+    public IndexedCustomerDAO(CustomerDAO delegate) {
+        this(delegate, false);
+    }
+
+    /**
+     * Constructs a new IndexedCustomerDAO, optionally holding the snapshot as {@link CompactCustomer}s.
+     * A compact snapshot takes a fraction of the heap, at the cost of decoding strings on every lookup.
+     *
+     * @param delegate The DAO to load the snapshot from and to send writes to.
+     * @param compact  Whether to hold the snapshot in compact form.
+     */
+    public IndexedCustomerDAO(CustomerDAO delegate, boolean compact) {
+        super(delegate);
+        this.compact = compact;
+    }
+
+    /**
+     * Retrieves a customer from the snapshot.
+     * The returned object is a copy, so changing it does not affect the indexes.
+     *
+     * @param customerId The unique identifier of the customer to retrieve.
+     * @return The customer, or null if no customer with the given identifier exists.
+     * @throws SQLException If an SQL exception occurs while loading the snapshot.
+     */
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return copy(byId.get(customerId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntObjectMap<Customer> found = new IntObjectMap<>(ids.length);
+            for (int id : ids) {
+                Customer customer = byId.get(id);
+                if (customer != null) {
+                    found.put(id, new Customer(customer));
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Customer findByEmail(String email) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            NavigableMap<Integer, Customer> customers = byEmail.get(email.toLowerCase(Locale.ROOT));
+            return customers == null ? null : copy(customers.firstEntry().getValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Customer> findByCountry(String country) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return copyAll(byCountry.get(country));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return copyAll(bySupportRepId.get(supportRepId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of customers in each country, in country order, for reporting.
+     *
+     * @return The customer count of every country that has customers.
+     * @throws SQLException If an SQL exception occurs while loading the snapshot.
+     */
+    public NavigableMap<String, Integer> countByCountry() throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            byCountry.forEach((country, customers) -> counts.put(country, customers.size()));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int save(Customer customer) throws SQLException {
+        try {
+            int rows = delegate.save(customer);
+            index(customer);  // Saving leaves the row as given even when nothing changed
+            return rows;
+        } catch (SQLException | RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        try {
+            int rows = delegate.insert(customer);
+            if (rows > 0) {
+                index(customer);
+            }
+            return rows;
+        } catch (SQLException | RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public int update(Customer customer) throws SQLException {
+        try {
+            int rows = delegate.update(customer);
+            if (rows > 0) {
+                index(customer);
+            }
+            return rows;
+        } catch (SQLException | RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public int delete(Customer customer) {
+        try {
+            int rows = delegate.delete(customer);
+            deindex(customer.getCustomerId());
+            return rows;
+        } catch (RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        return applyBatch(customers, delegate::insertAll, WriteKind.CONDITIONAL);
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        return applyBatch(customers, delegate::saveAll, WriteKind.UNCONDITIONAL);
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        return applyBatch(customers, delegate::updateAll, WriteKind.CONDITIONAL);
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        return applyBatch(customers, delegate::deleteAll, WriteKind.DELETE);
+    }
+
+    // Runs a batch write and applies the rows it reports as written to the indexes.
+    private BatchResult<Customer> applyBatch(Collection<Customer> customers, BatchWrite write, WriteKind kind)
+            throws SQLException {
+        BatchResult<Customer> result;
+        try {
+            result = write.apply(customers);
+        } catch (SQLException | RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+        applyBatch(customers, result.getUpdateCounts(), kind);
+        return result;
+    }
+
+    // Applies the rows a batch write reports as written to the indexes now or, inside a transaction, once it commits.
+    private void applyBatch(Collection<Customer> customers, int[] updateCounts, WriteKind kind) {
+        Transaction tx = Transaction.current();
+        if (tx != null) {
+            List<Customer> written = customers.stream().map(Customer::new).toList();
+            tx.afterCommit(() -> applyBatch(written, updateCounts, kind));
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int index = 0;
+            for (Customer customer : customers) {
+                int count = index < updateCounts.length ? updateCounts[index] : Statement.EXECUTE_FAILED;
+                index++;
+                if (count == Statement.EXECUTE_FAILED) {
+                    continue;
+                }
+                noteWritten(customer.getCustomerId());
+                if (!loaded) {
+                    continue;
+                }
+                if (kind == WriteKind.DELETE) {
+                    unindex(customer.getCustomerId());
+                } else if (count != 0 || kind == WriteKind.UNCONDITIONAL) {
+                    indexLocked(customer);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isIncrementalRefresh() {
+        return incrementalRefresh;
+    }
+
+    /**
+     * Makes {@link #refresh()} apply only the changes since the previous refresh instead of reloading the table.
+     * The underlying DAO must support {@link CustomerDAO#getChangedSince(String)}; for a database DAO that means
+     * the change log in {@code db/customer_change_log.sql} is installed.
+     *
+     * @param incrementalRefresh Whether refresh should be incremental.
+     */
+    public void setIncrementalRefresh(boolean incrementalRefresh) {
+        this.incrementalRefresh = incrementalRefresh;
+    }
+
+    /**
+     * Brings the snapshot up to date with the underlying DAO, picking up writes made by other processes.
+     * The table is reloaded unless incremental refresh is enabled and the snapshot is already loaded, in which
+     * case only the customers changed since the previous refresh are read.
+     *
+     * @throws SQLException If an SQL exception occurs while loading the snapshot or its changes.
+     */
+    public void refresh() throws SQLException {
+        refreshLock.lock();
+        try {
+            refreshLocked();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Refreshes the snapshot; the caller holds the refresh lock.
+    private void refreshLocked() throws SQLException {
+        String token = null;
+        if (incrementalRefresh) {
+            lock.readLock().lock();
+            try {
+                token = loaded ? syncToken : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        if (token != null) {
+            catchUp(token);
+        } else {
+            reload();
+        }
+    }
+
+    // Loads the whole table and installs it. The load may have read a customer before a write through this DAO
+    // committed, and installing it wipes what such writes indexed, so the customers written meanwhile are read
+    // again afterwards. A load that overlapped a failed write, which drops the snapshot, is discarded and repeated.
+    private void reload() throws SQLException {
+        Set<Integer> written;
+        while (true) {
+            long startGeneration = startTracking();
+            List<Customer> customers;
+            String nextToken = null;
+            try {
+                if (incrementalRefresh) {
+                    CustomerChanges changes = delegate.getChangedSince(null);
+                    customers = changes.getUpserted();
+                    nextToken = changes.getSyncToken();
+                } else {
+                    customers = delegate.getAll();
+                }
+            } catch (SQLException | RuntimeException e) {
+                stopTracking();
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                if (generation == startGeneration) {
+                    clear();
+                    customers.forEach(this::indexLocked);
+                    loaded = true;
+                    syncToken = nextToken;
+                    written = writtenDuringRefresh;
+                    writtenDuringRefresh = new HashSet<>();  // Writes from here on are indexed directly
+                    break;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        IntObjectMap<Customer> current = null;
+        try {
+            if (!written.isEmpty()) {
+                current = delegate.getMany(written.stream().mapToInt(Integer::intValue).toArray());
+            }
+        } catch (SQLException | RuntimeException e) {
+            stopTracking();
+            invalidateAll();
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded && current != null) {
+                for (int customerId : written) {
+                    if (writtenDuringRefresh.contains(customerId)) {
+                        continue;  // Indexed by a write after the install, which is at least as recent
+                    }
+                    Customer customer = current.get(customerId);
+                    if (customer != null) {
+                        indexLocked(customer);
+                    } else {
+                        unindex(customerId);
+                    }
+                }
+            }
+            writtenDuringRefresh = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Applies the changes after the token until the underlying DAO has no more waiting. A customer written through
+    // this DAO while a page of changes was read keeps what the write indexed, as the page may predate the write.
+    private void catchUp(String token) throws SQLException {
+        try {
+            CustomerChanges changes;
+            do {
+                startTracking();
+                changes = delegate.getChangedSince(token);
+                lock.writeLock().lock();
+                try {
+                    if (!loaded || !token.equals(syncToken)) {
+                        return;  // Dropped meanwhile
+                    }
+                    for (Customer customer : changes.getUpserted()) {
+                        if (!writtenDuringRefresh.contains(customer.getCustomerId())) {
+                            indexLocked(customer);
+                        }
+                    }
+                    for (int customerId : changes.getDeletedIds()) {
+                        if (!writtenDuringRefresh.contains(customerId)) {
+                            unindex(customerId);
+                        }
+                    }
+                    syncToken = changes.getSyncToken();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                token = changes.getSyncToken();
+            } while (changes.hasMore());
+        } finally {
+            stopTracking();
+        }
+    }
+
+    // Starts recording the customers written through this DAO, and returns the snapshot generation.
+    private long startTracking() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringRefresh = new HashSet<>();
+            return generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopTracking() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringRefresh = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Records a write for the refresh in progress, if any; the caller holds the write lock.
+    private void noteWritten(int customerId) {
+        if (writtenDuringRefresh != null) {
+            writtenDuringRefresh.add(customerId);
+        }
+    }
+
+    /**
+     * Drops the snapshot; the next lookup reloads it.
+     */
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+            syncToken = null;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() throws SQLException {
+        if (isLoaded()) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            if (!isLoaded()) {  // Callers that waited for another caller's load find it done
+                refreshLocked();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds or replaces a written customer now or, inside a transaction, once it commits.
+    private void index(Customer customer) {
+        Transaction tx = Transaction.current();
+        if (tx != null) {
+            Customer written = new Customer(customer);
+            tx.afterCommit(() -> index(written));
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            noteWritten(customer.getCustomerId());
+            if (loaded) {
+                indexLocked(customer);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removes a deleted customer now or, inside a transaction, once it commits.
+    private void deindex(int customerId) {
+        Transaction tx = Transaction.current();
+        if (tx != null) {
+            tx.afterCommit(() -> deindex(customerId));
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            noteWritten(customerId);
+            unindex(customerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds or replaces a customer in every index; the caller holds the write lock.
+    private void indexLocked(Customer customer) {
+        unindex(customer.getCustomerId());
+        Customer copy = compact ? new CompactCustomer(customer) : new Customer(customer);
+        byId.put(copy.getCustomerId(), copy);
+        if (copy.getEmail() != null) {
+            byEmail.computeIfAbsent(copy.getEmail().toLowerCase(Locale.ROOT), key -> new TreeMap<>())
+                    .put(copy.getCustomerId(), copy);
+        }
+        if (copy.getCountry() != null) {
+            byCountry.computeIfAbsent(copy.getCountry(), key -> new TreeMap<>()).put(copy.getCustomerId(), copy);
+        }
+        bySupportRepId.computeIfAbsent(copy.getSupportRepId(), key -> new TreeMap<>())
+                .put(copy.getCustomerId(), copy);
+    }
+
+    // Removes a customer from every index; the caller holds the write lock.
+    private void unindex(int customerId) {
+        Customer previous = byId.remove(customerId);
+        if (previous == null) {
+            return;
+        }
+        if (previous.getEmail() != null) {
+            remove(byEmail, previous.getEmail().toLowerCase(Locale.ROOT), customerId);
+        }
+        if (previous.getCountry() != null) {
+            remove(byCountry, previous.getCountry(), customerId);
+        }
+        remove(bySupportRepId, previous.getSupportRepId(), customerId);
+    }
+
+    private static <K> void remove(Map<K, NavigableMap<Integer, Customer>> index, K key, int customerId) {
+        NavigableMap<Integer, Customer> customers = index.get(key);
+        if (customers != null) {
+            customers.remove(customerId);
+            if (customers.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void clear() {
+        byId.clear();
+        byEmail.clear();
+        byCountry.clear();
+        bySupportRepId.clear();
+    }
+
+    private static Customer copy(Customer customer) {
+        return customer == null ? null : new Customer(customer);
+    }
+
+    private static List<Customer> copyAll(NavigableMap<Integer, Customer> customers) {
+        List<Customer> copies = new ArrayList<>(customers == null ? 0 : customers.size());
+        if (customers != null) {
+            customers.values().forEach(customer -> copies.add(new Customer(customer)));
+        }
+        return copies;
+    }
+
+    // How a written row is applied to the indexes.
+    private enum WriteKind {
+        CONDITIONAL,  // Indexed only if the row was written, as for insert and update
+        UNCONDITIONAL,  // Indexed whatever the update count, as for save
+        DELETE  // Removed from the indexes
+    }
+
+    // A batch write on the underlying DAO.
+    @FunctionalInterface
+    private interface BatchWrite {
+        BatchResult<Customer> apply(Collection<Customer> customers) throws SQLException;
+    }
+}
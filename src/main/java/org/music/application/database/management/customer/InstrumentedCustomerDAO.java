@@ -0,0 +1,313 @@
+/**
+ * A CustomerDAO decorator that records the latency, rows and errors of every call in {@link DAOMetrics}.
+ * Each call costs two {@link System#nanoTime()} readings and a few lock-free counter updates, and allocates
+ * nothing, so it can stay enabled in production.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class InstrumentedCustomerDAO extends ForwardingCustomerDAO {
+
+    private final DAOMetrics metrics;  // Where the calls are recorded
+
+    /**
+     * Constructs a new InstrumentedCustomerDAO.
+     *
+     * @param delegate The DAO to forward calls to.
+     * @param metrics  The metrics to record the calls in.
+     */
+    public InstrumentedCustomerDAO(CustomerDAO delegate, DAOMetrics metrics) {
+        super(delegate);
+        this.metrics = metrics;
+    }
+
+    public DAOMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Customer result = delegate.get(customerId);
+            metrics.recordSuccess(DAOOperation.GET, start, result == null ? 0 : 1, 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.GET, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            IntObjectMap<Customer> result = delegate.getMany(ids);
+            metrics.recordSuccess(DAOOperation.GET_MANY, start, result.size(), 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.GET_MANY, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Customer> getAll() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Customer> result = delegate.getAll();
+            metrics.recordSuccess(DAOOperation.GET_ALL, start, result.size(), 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.GET_ALL, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Streams all customers. The recorded latency is the time to start the query; rows are counted as the stream
+     * is consumed.
+     *
+     * @return A stream of all customers; close it to release its database resources.
+     * @throws SQLException If an SQL exception occurs while starting the query.
+     */
+    @Override
+    public Stream<Customer> streamAll() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Stream<Customer> result = delegate.streamAll();
+            metrics.recordSuccess(DAOOperation.STREAM_ALL, start, 0, 0);
+            return result.peek(customer -> metrics.recordRowsRead(DAOOperation.STREAM_ALL, 1));
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.STREAM_ALL, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public <R extends Record> Stream<R> streamAll(Class<R> recordType) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Stream<R> result = delegate.streamAll(recordType);
+            metrics.recordSuccess(DAOOperation.STREAM_ALL, start, 0, 0);
+            return result.peek(row -> metrics.recordRowsRead(DAOOperation.STREAM_ALL, 1));
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.STREAM_ALL, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Customer> getAll(Set<CustomerColumn> columns) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Customer> result = delegate.getAll(columns);
+            metrics.recordSuccess(DAOOperation.PROJECTION, start, result.size(), 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.PROJECTION, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public <R extends Record> R get(int customerId, Class<R> recordType) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            R result = delegate.get(customerId, recordType);
+            metrics.recordSuccess(DAOOperation.PROJECTION, start, result == null ? 0 : 1, 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.PROJECTION, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public <R extends Record> List<R> getAll(Class<R> recordType) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<R> result = delegate.getAll(recordType);
+            metrics.recordSuccess(DAOOperation.PROJECTION, start, result.size(), 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.PROJECTION, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Customer findByEmail(String email) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Customer result = delegate.findByEmail(email);
+            metrics.recordSuccess(DAOOperation.FIND, start, result == null ? 0 : 1, 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.FIND, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Customer> findByCountry(String country) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Customer> result = delegate.findByCountry(country);
+            metrics.recordSuccess(DAOOperation.FIND, start, result.size(), 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.FIND, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Customer> result = delegate.findBySupportRepId(supportRepId);
+            metrics.recordSuccess(DAOOperation.FIND, start, result.size(), 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.FIND, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Page<Customer> result = delegate.getPage(pageToken, pageSize, filter);
+            metrics.recordSuccess(DAOOperation.GET_PAGE, start, result.getItems().size(), 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.GET_PAGE, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerChanges getChangedSince(String syncToken) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            CustomerChanges result = delegate.getChangedSince(syncToken);
+            metrics.recordSuccess(DAOOperation.GET_CHANGES, start,
+                    result.getUpserted().size() + result.getDeletedIds().length, 0);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.GET_CHANGES, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int save(Customer customer) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            int result = delegate.save(customer);
+            metrics.recordSuccess(DAOOperation.SAVE, start, 0, result);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.SAVE, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            int result = delegate.insert(customer);
+            metrics.recordSuccess(DAOOperation.INSERT, start, 0, result);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.INSERT, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int update(Customer customer) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            int result = delegate.update(customer);
+            metrics.recordSuccess(DAOOperation.UPDATE, start, 0, result);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.UPDATE, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int delete(Customer customer) {
+        long start = System.nanoTime();
+        try {
+            int result = delegate.delete(customer);
+            metrics.recordSuccess(DAOOperation.DELETE, start, 0, result);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(DAOOperation.DELETE, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            BatchResult<Customer> result = delegate.insertAll(customers);
+            metrics.recordSuccess(DAOOperation.INSERT_ALL, start, 0, result.getAffectedRows());
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.INSERT_ALL, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            BatchResult<Customer> result = delegate.saveAll(customers);
+            metrics.recordSuccess(DAOOperation.SAVE_ALL, start, 0, result.getAffectedRows());
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.SAVE_ALL, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            BatchResult<Customer> result = delegate.updateAll(customers);
+            metrics.recordSuccess(DAOOperation.UPDATE_ALL, start, 0, result.getAffectedRows());
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.UPDATE_ALL, start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            BatchResult<Customer> result = delegate.deleteAll(customers);
+            metrics.recordSuccess(DAOOperation.DELETE_ALL, start, 0, result.getAffectedRows());
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordFailure(DAOOperation.DELETE_ALL, start);
+            throw e;
+        }
+    }
+}
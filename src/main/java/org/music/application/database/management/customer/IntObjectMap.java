@@ -0,0 +1,186 @@
+/**
+ * A hash map from primitive int keys to objects, using open addressing with linear probing so that keys are
+ * never boxed. Intended for large batches of rows keyed by identifier; it is not thread-safe and does not
+ * support removal.
+ *
+ * @param <V> The type of the values.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Arrays;
+
+public final class IntObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;  // Keys of the occupied slots
+    private Object[] values;  // Values of the slots; null marks a free slot
+    private int size;  // Number of entries
+
+    /**
+     * Constructs a new IntObjectMap sized to hold the given number of entries without resizing.
+     *
+     * @param expectedSize The number of entries expected.
+     */
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     *
+     * @param key   The key.
+     * @param value The value; must not be null.
+     * @return The previous value, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        int slot = slot(key);
+        V previous = (V) values[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        if (previous == null && ++size > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+        return previous;
+    }
+
+    /**
+     * Returns the value of the key.
+     *
+     * @param key The key.
+     * @return The value, or null if the map has no entry for the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) values[slot(key)];
+    }
+
+    public boolean containsKey(int key) {
+        return values[slot(key)] != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the keys of the map, in no particular order.
+     *
+     * @return A new array of the keys.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                result[index++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes every entry to the consumer, in no particular order.
+     *
+     * @param consumer The consumer of the entries.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    // The slot holding the key, or the free slot where it would go.
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Spreads sequential identifiers across the table.
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                int target = slot(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntObjectMap<?> other) || other.size != size) return false;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && !values[slot].equals(other.get(keys[slot]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                hash += keys[slot] ^ values[slot].hashCode();
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        int[] sortedKeys = keys();
+        Arrays.sort(sortedKeys);
+        StringBuilder builder = new StringBuilder("{");
+        for (int key : sortedKeys) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(get(key));
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Receives the entries of an IntObjectMap.
+     *
+     * @param <V> The type of the values.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * A concurrent latency histogram in the style of HdrHistogram. Values are counted in log-linear buckets: each
+ * power of two is split into 16 sub-buckets, so any recorded value is known to within about 6%, from
+ * nanoseconds up to the full range of a long, in a fixed array of counters.
+ * Recording is lock-free and does not allocate, so it can sit on every DAO call.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);  // Recorded values per bucket
+    private final LongAdder totalNanos = new LongAdder();  // Sum of the recorded values
+    private final AtomicLong maxNanos = new AtomicLong();  // Largest recorded value
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        totalNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since the given start.
+     *
+     * @param startNanos A {@link System#nanoTime()} reading taken when the operation started.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the count, mean, maximum and percentiles of the values recorded so far. Percentiles are reported
+     * as the upper bound of the bucket they fall in, capped at the maximum, so they never understate latency.
+     * Values recorded while the snapshot is taken may or may not be included.
+     *
+     * @return The latency statistics.
+     */
+    public LatencyStats snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        long max = maxNanos.get();
+        double mean = count == 0 ? 0 : (double) totalNanos.sum() / count;
+        return new LatencyStats(count, mean / 1_000.0,
+                percentile(snapshot, count, max, 0.50) / 1_000.0,
+                percentile(snapshot, count, max, 0.90) / 1_000.0,
+                percentile(snapshot, count, max, 0.99) / 1_000.0,
+                percentile(snapshot, count, max, 0.999) / 1_000.0,
+                max / 1_000.0);
+    }
+
+    private static long percentile(long[] counts, long count, long max, double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Bucket of a non-negative value: values below 16 have their own bucket, larger ones keep 4 significant bits.
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    // Largest value that falls in the given bucket.
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
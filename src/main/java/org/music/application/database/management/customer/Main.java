@@ -2,9 +2,9 @@ package org.music.application.database.management.customer;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.List;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 public class Main {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
@@ -19,9 +19,8 @@ public class Main {
             Customer customer = customerDAO.get(5);
             logger.info(customer.toString());
 
-            List<Customer> customers = customerDAO.getAll();
-            for (Customer c : customers) {
-                logger.info(c.toString());
+            try (Stream<Customer> customers = customerDAO.streamAll()) {
+                customers.forEach(c -> logger.info(c.toString()));
             }
 
 //            Customer customer1 = new Customer(60, "Songyun", "Tan",
@@ -47,6 +46,8 @@ public class Main {
 //        System.out.println(result);
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            Database.shutdown();
         }
     }
 }
@@ -0,0 +1,48 @@
+/**
+ * A point-in-time summary of one DAO operation recorded by {@link DAOMetrics}.
+ * Exposed through JMX as composite data.
+ */
+package org.music.application.database.management.customer;
+
+import javax.management.ConstructorParameters;
+
+public final class OperationStats {
+
+    private final long errors;  // Calls that threw
+    private final long rowsRead;  // Rows returned by the calls
+    private final long rowsWritten;  // Rows the calls reported as affected
+    private final LatencyStats latency;  // Latency of all calls, successful or not
+
+    @ConstructorParameters({"errors", "rowsRead", "rowsWritten", "latency"})
+    public OperationStats(long errors, long rowsRead, long rowsWritten, LatencyStats latency) {
+        this.errors = errors;
+        this.rowsRead = rowsRead;
+        this.rowsWritten = rowsWritten;
+        this.latency = latency;
+    }
+
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public LatencyStats getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return "errors=" + errors + " rowsRead=" + rowsRead + " rowsWritten=" + rowsWritten + " " + latency;
+    }
+}
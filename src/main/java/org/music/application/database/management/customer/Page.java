@@ -0,0 +1,45 @@
+/**
+ * One page of results from a keyset-paginated query.
+ * Carries the items of the page and an opaque continuation token that fetches the page after it.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Collections;
+import java.util.List;
+
+public class Page<T> {
+
+    private final List<T> items;  // Items on this page, in key order
+    private final String nextPageToken;  // Token for the following page, or null if this is the last page
+
+    /**
+     * Constructs a new Page.
+     *
+     * @param items         The items on this page, in key order.
+     * @param nextPageToken The token for the following page, or null if this is the last page.
+     */
+    public Page(List<T> items, String nextPageToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", nextPageToken='" + nextPageToken + '\'' +
+                '}';
+    }
+}
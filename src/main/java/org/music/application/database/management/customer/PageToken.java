@@ -0,0 +1,49 @@
+/**
+ * Encodes and decodes the continuation tokens of keyset-paginated customer queries.
+ * A token records the last CustomerId of a page; the next page seeks to the rows after it.
+ */
+package org.music.application.database.management.customer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class PageToken {
+
+    private static final String PREFIX = "CustomerId:";
+
+    private PageToken() {
+    }
+
+    /**
+     * Encodes a token that continues after the given customer.
+     *
+     * @param lastCustomerId The CustomerId of the last customer on the current page.
+     * @return The continuation token.
+     */
+    public static String after(int lastCustomerId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastCustomerId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes the CustomerId a token continues after.
+     *
+     * @param token The continuation token, or null for the first page.
+     * @return The CustomerId to seek after; {@link Integer#MIN_VALUE} for the first page.
+     * @throws IllegalArgumentException If the token is malformed.
+     */
+    public static int lastCustomerId(String token) {
+        if (token == null) {
+            return Integer.MIN_VALUE;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid page token: " + token);
+            }
+            return Integer.parseInt(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+    }
+}
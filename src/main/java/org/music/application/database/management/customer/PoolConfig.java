@@ -0,0 +1,258 @@
+/**
+ * Configuration for the {@link ConnectionPool} backing {@link Database}.
+ * Holds the JDBC connection settings along with the sizing, eviction, validation and wait limits of the pool.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Properties;
+import java.util.Set;
+
+public class PoolConfig {
+
+    public static final String URL_PROPERTY = "music.db.url";
+    public static final String USER_PROPERTY = "music.db.user";
+    public static final String PASSWORD_PROPERTY = "music.db.password";
+
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/music_app";
+    private static final String DEFAULT_USER = "root";
+    private static final String DEFAULT_PASSWORD = "root123";
+
+    private final String url;  // JDBC URL of the database
+    private final String username;  // User to connect as
+    private final String password;  // Password of the user
+    private final Properties connectionProperties = new Properties();  // Extra driver properties
+    private int minIdle = 2;  // Connections kept open even when idle
+    private int maxSize = 10;  // Upper bound on open connections
+    private long maxWaitMillis = 30_000;  // How long a borrower waits for a free connection
+    private long idleTimeoutMillis = 600_000;  // Idle time after which connections above minIdle are closed
+    private long evictionIntervalMillis = 30_000;  // How often the idle eviction task runs
+    private boolean validateOnBorrow = true;  // Whether connections are checked before being handed out
+    private long validationIntervalMillis = 500;  // Connections used more recently than this skip validation
+    private int validationTimeoutSeconds = 2;  // Timeout passed to Connection.isValid
+    private int statementCacheSize = 32;  // Prepared statements cached per connection; 0 disables the cache
+    private double traceSampleRate = 0;  // Fraction of prepared statements traced; 0 disables tracing
+    private long slowQueryThresholdMillis = 1_000;  // Traced statements at least this slow are logged as slow
+    private Set<String> redactedColumns = Set.of("Email", "Phone", "Fax");  // Columns whose bind values are not logged
+
+    /**
+     * Constructs a new pool configuration for the given database.
+     *
+     * @param url      The JDBC URL of the database.
+     * @param username The user to connect as.
+     * @param password The password of the user.
+     */
+    public PoolConfig(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Creates the default configuration for the Music App database.
+     * The connection settings can be overridden with the {@code music.db.url}, {@code music.db.user}
+     * and {@code music.db.password} system properties.
+     *
+     * @return The default pool configuration.
+     */
+    public static PoolConfig defaults() {
+        return new PoolConfig(System.getProperty(URL_PROPERTY, DEFAULT_URL),
+                System.getProperty(USER_PROPERTY, DEFAULT_USER),
+                System.getProperty(PASSWORD_PROPERTY, DEFAULT_PASSWORD));
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Returns the extra driver properties passed when a physical connection is opened.
+     * The returned object is live; properties set on it apply to connections opened afterwards.
+     *
+     * @return The driver properties.
+     */
+    public Properties getConnectionProperties() {
+        return connectionProperties;
+    }
+
+    /**
+     * Enables or disables the MySQL driver's rewriting of JDBC batches into multi-row statements
+     * ({@code rewriteBatchedStatements}). With rewriting enabled a batch of inserts is sent as a single
+     * multi-row INSERT, at the cost of the driver reporting {@link java.sql.Statement#SUCCESS_NO_INFO}
+     * instead of a per-row update count.
+     *
+     * @param rewriteBatchedStatements Whether batches should be rewritten.
+     */
+    public void setRewriteBatchedStatements(boolean rewriteBatchedStatements) {
+        connectionProperties.setProperty("rewriteBatchedStatements", Boolean.toString(rewriteBatchedStatements));
+    }
+
+    public boolean isRewriteBatchedStatements() {
+        return Boolean.parseBoolean(connectionProperties.getProperty("rewriteBatchedStatements"));
+    }
+
+    /**
+     * Makes the MySQL driver report the rows actually changed by a statement rather than the rows matched
+     * ({@code useAffectedRows}). This lets upserts report rows that already held the same values as unchanged,
+     * but also makes an UPDATE that changes nothing report 0, for {@link CustomerDAO#update(Customer)} and
+     * {@link CustomerDAO#updateAll(java.util.Collection)} alike. Off by default.
+     *
+     * @param useAffectedRows Whether statements report changed rather than matched rows.
+     */
+    public void setUseAffectedRows(boolean useAffectedRows) {
+        connectionProperties.setProperty("useAffectedRows", Boolean.toString(useAffectedRows));
+    }
+
+    public boolean isUseAffectedRows() {
+        return Boolean.parseBoolean(connectionProperties.getProperty("useAffectedRows"));
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        if (minIdle < 0) {
+            throw new IllegalArgumentException("minIdle must not be negative: " + minIdle);
+        }
+        this.minIdle = minIdle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getEvictionIntervalMillis() {
+        return evictionIntervalMillis;
+    }
+
+    public void setEvictionIntervalMillis(long evictionIntervalMillis) {
+        this.evictionIntervalMillis = evictionIntervalMillis;
+    }
+
+    public boolean isValidateOnBorrow() {
+        return validateOnBorrow;
+    }
+
+    public void setValidateOnBorrow(boolean validateOnBorrow) {
+        this.validateOnBorrow = validateOnBorrow;
+    }
+
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must not be negative: " + statementCacheSize);
+        }
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public double getTraceSampleRate() {
+        return traceSampleRate;
+    }
+
+    /**
+     * Sets the fraction of prepared statements whose SQL, bind values, row counts and timings are traced.
+     * Every traced execution is logged at DEBUG to {@code org.music.application.database.sql.trace}, and those
+     * slower than the slow-query threshold at WARN to {@code org.music.application.database.sql.slow}.
+     * Statements that are not sampled run unwrapped.
+     *
+     * @param traceSampleRate A fraction from 0, which disables tracing, to 1, which traces every statement.
+     */
+    public void setTraceSampleRate(double traceSampleRate) {
+        if (!(traceSampleRate >= 0 && traceSampleRate <= 1)) {
+            throw new IllegalArgumentException("traceSampleRate must be between 0 and 1: " + traceSampleRate);
+        }
+        this.traceSampleRate = traceSampleRate;
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        if (slowQueryThresholdMillis < 0) {
+            throw new IllegalArgumentException("slowQueryThresholdMillis must not be negative: "
+                    + slowQueryThresholdMillis);
+        }
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    public Set<String> getRedactedColumns() {
+        return redactedColumns;
+    }
+
+    /**
+     * Sets the columns whose bind values are logged as {@code <redacted>} in traces. Column names are matched
+     * case-insensitively. Values that look like email addresses are redacted whatever their column.
+     *
+     * @param redactedColumns The names of the columns to redact.
+     */
+    public void setRedactedColumns(Set<String> redactedColumns) {
+        this.redactedColumns = Set.copyOf(redactedColumns);
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig{" +
+                "url='" + url + '\'' +
+                ", username='" + username + '\'' +
+                ", minIdle=" + minIdle +
+                ", maxSize=" + maxSize +
+                ", maxWaitMillis=" + maxWaitMillis +
+                ", idleTimeoutMillis=" + idleTimeoutMillis +
+                ", validateOnBorrow=" + validateOnBorrow +
+                ", statementCacheSize=" + statementCacheSize +
+                ", traceSampleRate=" + traceSampleRate +
+                ", slowQueryThresholdMillis=" + slowQueryThresholdMillis +
+                '}';
+    }
+}
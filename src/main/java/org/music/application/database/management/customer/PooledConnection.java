@@ -0,0 +1,175 @@
+/**
+ * A physical database connection owned by a {@link ConnectionPool}.
+ * Borrowers never see this object directly; they receive a proxy handle whose {@code close()}
+ * hands the physical connection back to the pool instead of closing it.
+ */
+package org.music.application.database.management.customer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+class PooledConnection {
+
+    private final ConnectionPool pool;  // Pool this connection belongs to
+    private final Connection physical;  // The underlying driver connection
+    private final boolean defaultAutoCommit;  // Auto-commit mode at creation time
+    private final boolean defaultReadOnly;  // Read-only mode at creation time
+    private final int defaultIsolation;  // Transaction isolation at creation time
+    private final StatementCache statementCache;  // Prepared statements kept open on this connection, or null
+    private final StatementTracer tracer;  // Traces a sample of the prepared statements, or null
+    private volatile long lastUsedNanos;  // When the connection was last borrowed or returned
+    private boolean dirty;  // Whether a borrower changed session state that must be reset
+    private boolean broken;  // Whether the connection reported a fatal error
+
+    PooledConnection(ConnectionPool pool, Connection physical, StatementCache statementCache,
+                     StatementTracer tracer) throws SQLException {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = statementCache;
+        this.tracer = tracer;
+        this.defaultAutoCommit = physical.getAutoCommit();
+        this.defaultReadOnly = physical.isReadOnly();
+        this.defaultIsolation = physical.getTransactionIsolation();
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    void touch() {
+        lastUsedNanos = System.nanoTime();
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    /**
+     * Creates a new borrower-facing handle for this connection.
+     *
+     * @return A connection proxy that returns this connection to the pool when closed.
+     */
+    Connection newHandle() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Handle());
+    }
+
+    /**
+     * Restores the session state a borrower may have changed, rolling back any open transaction.
+     *
+     * @throws SQLException If the connection could not be reset.
+     */
+    void reset() throws SQLException {
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+        }
+        if (dirty) {
+            physical.setAutoCommit(defaultAutoCommit);
+            physical.setReadOnly(defaultReadOnly);
+            physical.setTransactionIsolation(defaultIsolation);
+            dirty = false;
+        }
+        physical.clearWarnings();
+    }
+
+    /**
+     * Closes the physical connection, ignoring any error.
+     */
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.closeAll();
+        }
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            // The connection is being discarded anyway.
+        }
+    }
+
+    // Tracks whether an exception means the physical connection can no longer be used.
+    private void inspect(Throwable cause) {
+        if (cause instanceof SQLException sqlException) {
+            String sqlState = sqlException.getSQLState();
+            if (sqlState != null && sqlState.startsWith("08")) {
+                broken = true;
+            }
+        }
+    }
+
+    // Borrower-facing view of the connection. Each borrow gets its own handle so that a stale
+    // reference cannot be used once it has been returned to the pool.
+    private final class Handle implements InvocationHandler {
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + (closed ? ", closed]" : "]");
+                case "prepareStatement":
+                    if (!closed && statementCache != null && args.length == 1) {
+                        PreparedStatement statement;
+                        try {
+                            statement = statementCache.prepare((Connection) proxy, physical, (String) args[0]);
+                        } catch (SQLException e) {
+                            inspect(e);
+                            throw e;
+                        }
+                        if (tracer != null) {
+                            statement = tracer.trace(statement, (String) args[0]);
+                        }
+                        QueryCancellation.register(statement);
+                        return statement;
+                    }
+                    break;
+                case "setAutoCommit":
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                    dirty = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool", "08003");
+            }
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                inspect(e.getCause());
+                throw e.getCause();
+            }
+            if (tracer != null && result instanceof PreparedStatement prepared && args[0] instanceof String sql) {
+                result = tracer.trace(prepared, sql);
+            }
+            if (result instanceof Statement statement) {
+                QueryCancellation.register(statement);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Tracks the statements a task opens on pooled connections so they can be cancelled from another thread.
+ * A task enters a cancellation scope on its worker thread; every statement created through a pooled
+ * connection on that thread is registered with the scope, and {@link #cancel()} calls
+ * {@link Statement#cancel()} on each of them.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+final class QueryCancellation {
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private final List<Statement> statements = new ArrayList<>();  // Guarded by this
+    private boolean active;  // Whether the task is running inside this scope
+    private boolean cancelled;
+
+    /**
+     * Binds this scope to the current thread.
+     */
+    synchronized void enter() {
+        active = true;
+        CURRENT.set(this);
+    }
+
+    /**
+     * Unbinds this scope from the current thread. Statements are no longer cancelled after this; a cancel already in
+     * progress finishes first, so it never reaches a statement or connection the task has handed back.
+     */
+    synchronized void exit() {
+        active = false;
+        statements.clear();
+        CURRENT.remove();
+    }
+
+    /**
+     * Registers a statement with the scope bound to the current thread, if any.
+     * If that scope has already been cancelled, the statement is closed and the task is aborted.
+     *
+     * @param statement The statement that was just created.
+     * @throws SQLException If the scope bound to the current thread has been cancelled.
+     */
+    static void register(Statement statement) throws SQLException {
+        QueryCancellation current = CURRENT.get();
+        if (current != null) {
+            current.add(statement);
+        }
+    }
+
+    private synchronized void add(Statement statement) throws SQLException {
+        if (cancelled) {
+            statement.close();
+            throw new SQLTimeoutException("Query was cancelled before it started");
+        }
+        statements.add(statement);
+    }
+
+    /**
+     * Cancels every statement the task has opened and aborts any statement it opens afterwards.
+     * Has no effect once the task has left the scope. The scope stays locked while the statements are cancelled,
+     * so the task cannot leave it and hand its connection to another borrower, whose query a MySQL cancel would
+     * kill, until the cancel is done.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        if (!active) {
+            return;
+        }
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // The statement may already have completed or been closed.
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * A sharding strategy that assigns contiguous ranges of CustomerIds to shards. The ranges cover every int, and can
+ * be reassigned while the DAO is in use, which is how a {@link ShardRebalancer} moves customers between shards.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class RangeShardingStrategy implements ShardingStrategy {
+
+    private final int shardCount;
+    private volatile Ranges ranges;  // Replaced as a whole, so a lookup never sees half an assignment
+
+    /**
+     * Constructs a new RangeShardingStrategy that assigns every CustomerId to shard 0. Use
+     * {@link #assign(int, int, int)} to spread them out.
+     *
+     * @param shardCount The number of shards.
+     */
+    public RangeShardingStrategy(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.ranges = new Ranges(new int[]{Integer.MIN_VALUE}, new int[]{0});
+    }
+
+    /**
+     * Creates a strategy that splits the CustomerIds from 1 to maxCustomerId into equal ranges, one per shard.
+     * Lower ids go to the first shard and higher ids to the last.
+     *
+     * @param shardCount    The number of shards.
+     * @param maxCustomerId The highest CustomerId expected.
+     * @return The strategy.
+     */
+    public static RangeShardingStrategy evenly(int shardCount, int maxCustomerId) {
+        if (maxCustomerId < shardCount) {
+            throw new IllegalArgumentException("maxCustomerId must be at least shardCount: " + maxCustomerId);
+        }
+        RangeShardingStrategy strategy = new RangeShardingStrategy(shardCount);
+        long width = ((long) maxCustomerId + shardCount - 1) / shardCount;
+        for (int shard = 1; shard < shardCount; shard++) {
+            strategy.assign((int) (1 + width * shard), Integer.MAX_VALUE, shard);
+        }
+        return strategy;
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public int shardFor(int customerId) {
+        Ranges current = ranges;
+        int index = Arrays.binarySearch(current.starts, customerId);
+        return current.shards[index >= 0 ? index : -index - 2];
+    }
+
+    /**
+     * Assigns a range of CustomerIds to a shard. This only changes where the DAO looks for the customers; move
+     * them first, or use a {@link ShardRebalancer}, which does both.
+     *
+     * @param fromId The first CustomerId of the range.
+     * @param toId   The CustomerId after the range, or {@link Integer#MAX_VALUE} for a range with no upper end.
+     * @param shard  The shard to assign the range to.
+     */
+    public synchronized void assign(int fromId, int toId, int shard) {
+        if (fromId >= toId) {
+            throw new IllegalArgumentException("Empty range: " + fromId + " to " + toId);
+        }
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("No shard " + shard + " among " + shardCount);
+        }
+        TreeMap<Integer, Integer> starts = new TreeMap<>();
+        for (int i = 0; i < ranges.starts.length; i++) {
+            starts.put(ranges.starts[i], ranges.shards[i]);
+        }
+        if (toId != Integer.MAX_VALUE) {
+            starts.put(toId, starts.floorEntry(toId).getValue());
+        }
+        starts.subMap(fromId, true, toId, false).clear();
+        starts.put(fromId, shard);
+
+        // Merge neighbouring ranges on the same shard.
+        List<Map.Entry<Integer, Integer>> merged = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> start : starts.entrySet()) {
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).getValue().equals(start.getValue())) {
+                merged.add(start);
+            }
+        }
+        ranges = new Ranges(merged.stream().mapToInt(Map.Entry::getKey).toArray(),
+                merged.stream().mapToInt(Map.Entry::getValue).toArray());
+    }
+
+    /**
+     * Returns the current assignment, so it can be saved and restored with {@link #assign(int, int, int)}.
+     *
+     * @return The ranges in ascending order, together covering every int.
+     */
+    public List<Range> getRanges() {
+        Ranges current = ranges;
+        List<Range> list = new ArrayList<>(current.starts.length);
+        for (int i = 0; i < current.starts.length; i++) {
+            int toId = i + 1 < current.starts.length ? current.starts[i + 1] : Integer.MAX_VALUE;
+            list.add(new Range(current.starts[i], toId, current.shards[i]));
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeShardingStrategy" + getRanges();
+    }
+
+    /**
+     * A range of CustomerIds and the shard it is assigned to.
+     *
+     * @param fromId The first CustomerId of the range.
+     * @param toId   The CustomerId after the range; {@link Integer#MAX_VALUE} for the last range, which includes it.
+     * @param shard  The shard the range is assigned to.
+     */
+    public record Range(int fromId, int toId, int shard) {
+    }
+
+    // Start of each range, ascending from Integer.MIN_VALUE, and the shard it is assigned to
+    private record Ranges(int[] starts, int[] shards) {
+    }
+}
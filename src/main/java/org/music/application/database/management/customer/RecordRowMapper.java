@@ -0,0 +1,97 @@
+/**
+ * Maps result set rows to Java records by matching each record component to the column with the same name,
+ * ignoring case. The record's canonical constructor is looked up once per record type and the column
+ * positions once per result set.
+ */
+package org.music.application.database.management.customer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class RecordRowMapper<R extends Record> implements RowMapper.Factory<R> {
+
+    private static final Map<Class<?>, RecordRowMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    private final Constructor<R> constructor;  // Canonical constructor of the record
+    private final String[] componentNames;  // Record component names, in constructor order
+    private final Class<?>[] componentTypes;  // Record component types, in constructor order
+
+    private RecordRowMapper(Class<R> recordType) {
+        RecordComponent[] components = recordType.getRecordComponents();
+        componentNames = Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new);
+        componentTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+        try {
+            constructor = recordType.getDeclaredConstructor(componentTypes);
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("No canonical constructor on " + recordType.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the mapper factory for the given record type.
+     *
+     * @param recordType The record type rows are mapped to.
+     * @param <R>        The record type.
+     * @return The mapper factory.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R extends Record> RecordRowMapper<R> of(Class<R> recordType) {
+        return (RecordRowMapper<R>) MAPPERS.computeIfAbsent(recordType, type -> new RecordRowMapper<>(recordType));
+    }
+
+    /**
+     * Returns the names of the record components, which are also the column labels the mapper reads.
+     *
+     * @return The component names, in declaration order.
+     */
+    public List<String> getComponentNames() {
+        return List.of(componentNames);
+    }
+
+    @Override
+    public RowMapper<R> forColumns(ResultSetMetaData metaData) throws SQLException {
+        int[] positions = RowMapper.resolveColumns(metaData, componentNames);
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == 0) {
+                throw new SQLException("Result set has no column for record component " + componentNames[i]);
+            }
+        }
+        return resultSet -> {
+            Object[] values = new Object[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                values[i] = read(resultSet, positions[i], componentTypes[i]);
+            }
+            try {
+                return constructor.newInstance(values);
+            } catch (InvocationTargetException e) {
+                throw new SQLException("Could not construct " + constructor.getDeclaringClass().getName(), e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new SQLException("Could not construct " + constructor.getDeclaringClass().getName(), e);
+            }
+        };
+    }
+
+    private static Object read(ResultSet resultSet, int position, Class<?> type) throws SQLException {
+        if (type == String.class) {
+            return resultSet.getString(position);
+        } else if (type == int.class) {
+            return resultSet.getInt(position);
+        } else if (type == long.class) {
+            return resultSet.getLong(position);
+        } else if (type == boolean.class) {
+            return resultSet.getBoolean(position);
+        } else if (type == double.class) {
+            return resultSet.getDouble(position);
+        }
+        return resultSet.getObject(position, type);
+    }
+}
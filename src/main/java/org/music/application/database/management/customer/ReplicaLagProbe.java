@@ -0,0 +1,43 @@
+package org.music.application.database.management.customer;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Measures how far a read replica is behind its primary, so that {@link RoutingCustomerDAO} can stop sending reads
+ * to a replica that has fallen too far behind.
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * Measures the replication lag of the replica the connection is open to.
+     *
+     * @param replica A connection to the replica.
+     * @return The lag in milliseconds, or {@link Long#MAX_VALUE} if the replica is not replicating.
+     * @throws SQLException If an SQL exception occurs while measuring.
+     */
+    long lagMillis(Connection replica) throws SQLException;
+
+    /**
+     * Returns a probe that reads {@code Seconds_Behind_Source} from {@code SHOW REPLICA STATUS} (MySQL 8.0.22 and
+     * later). A server that reports no replica status, or a stopped replication thread, counts as not replicating.
+     * The value has a resolution of one second.
+     *
+     * @return A probe for MySQL replicas.
+     */
+    static ReplicaLagProbe mysql() {
+        return replica -> {
+            try (Statement statement = replica.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (!resultSet.next()) {
+                    return Long.MAX_VALUE;
+                }
+                long seconds = resultSet.getLong("Seconds_Behind_Source");
+                return resultSet.wasNull() ? Long.MAX_VALUE : seconds * 1_000;
+            }
+        };
+    }
+}
@@ -0,0 +1,449 @@
+/**
+ * A CustomerDAO that sends writes to a primary database and spreads reads over its read replicas, so read-heavy
+ * traffic does not compete with writes on the primary. Replicas are picked round-robin or by the fewest reads in
+ * flight. A thread that has just written reads from the primary for a while afterwards, so it sees its own writes
+ * even though the replicas receive them late. A {@link ReplicaLagProbe} can take a replica that falls too far behind
+ * out of rotation until it catches up. A read that fails on a replica is retried once on the primary, and the
+ * replica is left out until it is next probed. When no replica can serve a read, it goes to the primary. Reads
+ * made inside a {@link Transaction} always go to the primary, so they see the transaction's own writes and take
+ * part in its locks and snapshot.
+ *
+ * {@link #getChangedSince(String)} always reads the primary. The change log's settle window assumes a reader sees
+ * changes soon after they are committed, which a lagging replica does not guarantee.
+ */
+package org.music.application.database.management.customer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+public class RoutingCustomerDAO extends ForwardingCustomerDAO {
+    private static final Logger logger = Logger.getLogger(RoutingCustomerDAO.class.getName());
+
+    /**
+     * How a read replica is picked for each read.
+     */
+    public enum Balancing {
+        /** Each read goes to the next replica in turn. */
+        ROUND_ROBIN,
+        /** Each read goes to the replica with the fewest reads in flight, taking turns between equally busy ones. */
+        LEAST_LOADED
+    }
+
+    private final Replica[] replicas;  // The read replicas, in the order given
+    private final AtomicInteger nextReplica = new AtomicInteger();  // Where the next replica search starts
+    private final ThreadLocal<Long> stickyUntilNanos = new ThreadLocal<>();  // Until when a writer reads the primary
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private volatile Balancing balancing = Balancing.ROUND_ROBIN;
+    private volatile long readYourWritesNanos = TimeUnit.SECONDS.toNanos(1);  // How long a writer reads the primary
+    private volatile ReplicaLagProbe lagProbe;  // Measures replica lag, or null to assume replicas are current
+    private volatile long maxLagMillis = 1_000;  // Lag beyond which a replica is left out
+    private volatile long lagProbeIntervalNanos = TimeUnit.SECONDS.toNanos(1);  // How often each replica is probed
+    private volatile LongSupplier nanoClock = System::nanoTime;  // Time source of stickiness and probing
+
+    /**
+     * Constructs a new RoutingCustomerDAO that accesses each database through a {@link CustomerDAOImplementation}.
+     *
+     * @param primary  The data source of the primary database, which receives all writes.
+     * @param replicas The data sources of the read replicas; may be empty.
+     */
+    public RoutingCustomerDAO(DataSource primary, List<? extends DataSource> replicas) {
+        this(primary, replicas, CustomerDAOImplementation::new);
+    }
+
+    /**
+     * Constructs a new RoutingCustomerDAO.
+     *
+     * @param primary    The data source of the primary database, which receives all writes.
+     * @param replicas   The data sources of the read replicas; may be empty.
+     * @param daoFactory Creates the DAO that accesses each data source.
+     */
+    public RoutingCustomerDAO(DataSource primary, List<? extends DataSource> replicas,
+                              Function<DataSource, ? extends CustomerDAO> daoFactory) {
+        super(daoFactory.apply(primary));
+        this.replicas = new Replica[replicas.size()];
+        for (int i = 0; i < this.replicas.length; i++) {
+            DataSource dataSource = replicas.get(i);
+            this.replicas[i] = new Replica(i, dataSource, daoFactory.apply(dataSource));
+        }
+    }
+
+    public Balancing getBalancing() {
+        return balancing;
+    }
+
+    public void setBalancing(Balancing balancing) {
+        if (balancing == null) {
+            throw new IllegalArgumentException("balancing must not be null");
+        }
+        this.balancing = balancing;
+    }
+
+    public long getReadYourWritesMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(readYourWritesNanos);
+    }
+
+    /**
+     * Sets how long a thread reads from the primary after it last wrote through this DAO. Set it above the
+     * replicas' usual lag. Zero sends reads to the replicas straight after a write.
+     *
+     * @param readYourWritesMillis The time in milliseconds.
+     */
+    public void setReadYourWritesMillis(long readYourWritesMillis) {
+        if (readYourWritesMillis < 0) {
+            throw new IllegalArgumentException("readYourWritesMillis must not be negative: " + readYourWritesMillis);
+        }
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+    }
+
+    // Replaces System.nanoTime, so tests can move time forward instead of sleeping.
+    void setNanoClock(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    public ReplicaLagProbe getLagProbe() {
+        return lagProbe;
+    }
+
+    /**
+     * Sets the probe that measures each replica's lag. A replica found more than {@link #getMaxLagMillis()} behind,
+     * or that cannot be probed, gets no reads until a later probe finds it caught up. Without a probe, replicas
+     * are assumed to be current.
+     *
+     * @param lagProbe The probe, or null for none.
+     */
+    public void setLagProbe(ReplicaLagProbe lagProbe) {
+        this.lagProbe = lagProbe;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public void setMaxLagMillis(long maxLagMillis) {
+        if (maxLagMillis < 0) {
+            throw new IllegalArgumentException("maxLagMillis must not be negative: " + maxLagMillis);
+        }
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public long getLagProbeIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lagProbeIntervalNanos);
+    }
+
+    /**
+     * Sets how often each replica is probed. The probe runs on the first read that finds the last probe older than
+     * this, so that read waits for it; the reads that arrive meanwhile use the previous result. This interval also
+     * sets how long a replica is left out after a failed read.
+     *
+     * @param lagProbeIntervalMillis The interval in milliseconds.
+     */
+    public void setLagProbeIntervalMillis(long lagProbeIntervalMillis) {
+        if (lagProbeIntervalMillis < 0) {
+            throw new IllegalArgumentException("lagProbeIntervalMillis must not be negative: "
+                    + lagProbeIntervalMillis);
+        }
+        this.lagProbeIntervalNanos = TimeUnit.MILLISECONDS.toNanos(lagProbeIntervalMillis);
+    }
+
+    /**
+     * Returns the number of reads served by the primary, including retries of reads that failed on a replica.
+     *
+     * @return The number of primary reads.
+     */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    // Retrieve - routed to a replica
+
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        return read(dao -> dao.get(customerId));
+    }
+
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        return read(dao -> dao.getMany(ids));
+    }
+
+    @Override
+    public List<Customer> getAll() throws SQLException {
+        return read(CustomerDAO::getAll);
+    }
+
+    @Override
+    public Stream<Customer> streamAll() throws SQLException {
+        return readStream(CustomerDAO::streamAll);
+    }
+
+    @Override
+    public List<Customer> getAll(Set<CustomerColumn> columns) throws SQLException {
+        return read(dao -> dao.getAll(columns));
+    }
+
+    @Override
+    public <R extends Record> R get(int customerId, Class<R> recordType) throws SQLException {
+        return read(dao -> dao.get(customerId, recordType));
+    }
+
+    @Override
+    public <R extends Record> List<R> getAll(Class<R> recordType) throws SQLException {
+        return read(dao -> dao.getAll(recordType));
+    }
+
+    @Override
+    public <R extends Record> Stream<R> streamAll(Class<R> recordType) throws SQLException {
+        return readStream(dao -> dao.streamAll(recordType));
+    }
+
+    @Override
+    public Customer findByEmail(String email) throws SQLException {
+        return read(dao -> dao.findByEmail(email));
+    }
+
+    @Override
+    public List<Customer> findByCountry(String country) throws SQLException {
+        return read(dao -> dao.findByCountry(country));
+    }
+
+    @Override
+    public List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        return read(dao -> dao.findBySupportRepId(supportRepId));
+    }
+
+    @Override
+    public Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) throws SQLException {
+        return read(dao -> dao.getPage(pageToken, pageSize, filter));
+    }
+
+    // CRUD - Writes go to the primary and make the writing thread read from it for a while
+
+    @Override
+    public int save(Customer customer) throws SQLException {
+        try {
+            return delegate.save(customer);
+        } finally {
+            stick();
+        }
+    }
+
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        try {
+            return delegate.insert(customer);
+        } finally {
+            stick();
+        }
+    }
+
+    @Override
+    public int update(Customer customer) throws SQLException {
+        try {
+            return delegate.update(customer);
+        } finally {
+            stick();
+        }
+    }
+
+    @Override
+    public int delete(Customer customer) {
+        try {
+            return delegate.delete(customer);
+        } finally {
+            stick();
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.insertAll(customers);
+        } finally {
+            stick();
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.saveAll(customers);
+        } finally {
+            stick();
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.updateAll(customers);
+        } finally {
+            stick();
+        }
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        try {
+            return delegate.deleteAll(customers);
+        } finally {
+            stick();
+        }
+    }
+
+    // A write that failed may still have committed part of its rows, so it makes the thread sticky as well.
+    private void stick() {
+        long window = readYourWritesNanos;
+        if (window > 0) {
+            stickyUntilNanos.set(nanoClock.getAsLong() + window);
+        }
+    }
+
+    private <T> T read(Read<T> read) throws SQLException {
+        Replica replica = route();
+        if (replica == null) {
+            primaryReads.increment();
+            return read.from(delegate);
+        }
+        T result;
+        replica.inFlight.incrementAndGet();
+        try {
+            result = read.from(replica.dao);
+        } catch (SQLException e) {
+            replica.inFlight.decrementAndGet();
+            return fallBack(replica, e, read);
+        }
+        replica.inFlight.decrementAndGet();
+        replicaReads.increment();
+        return result;
+    }
+
+    // Counts the replica's read as in flight until the stream is closed.
+    private <T> Stream<T> readStream(Read<Stream<T>> read) throws SQLException {
+        Replica replica = route();
+        if (replica == null) {
+            primaryReads.increment();
+            return read.from(delegate);
+        }
+        Stream<T> result;
+        replica.inFlight.incrementAndGet();
+        try {
+            result = read.from(replica.dao);
+        } catch (SQLException e) {
+            replica.inFlight.decrementAndGet();
+            return fallBack(replica, e, read);
+        }
+        replicaReads.increment();
+        return result.onClose(replica.inFlight::decrementAndGet);
+    }
+
+    private <T> T fallBack(Replica replica, SQLException e, Read<T> read) throws SQLException {
+        logger.log(Level.WARNING, "Read failed on replica " + replica.index + "; retrying on the primary", e);
+        replica.lagMillis = Long.MAX_VALUE;
+        replica.probedAtNanos = nanoClock.getAsLong();
+        replica.probed = true;
+        primaryReads.increment();
+        return read.from(delegate);
+    }
+
+    // Returns the replica to read from, or null to read from the primary.
+    private Replica route() {
+        if (replicas.length == 0 || Transaction.current() != null) {
+            return null;
+        }
+        Long stickyUntil = stickyUntilNanos.get();
+        if (stickyUntil != null) {
+            if (nanoClock.getAsLong() - stickyUntil < 0) {
+                return null;
+            }
+            stickyUntilNanos.remove();
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.length);
+        boolean leastLoaded = balancing == Balancing.LEAST_LOADED;
+        Replica chosen = null;
+        int chosenLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.length; i++) {
+            Replica replica = replicas[(start + i) % replicas.length];
+            if (!isCurrent(replica)) {
+                continue;
+            }
+            if (!leastLoaded) {
+                return replica;
+            }
+            int load = replica.inFlight.get();
+            if (load < chosenLoad) {
+                chosen = replica;
+                chosenLoad = load;
+            }
+        }
+        return chosen;
+    }
+
+    // Probes the replica if its last probe is due for renewal, and reports whether it is within the allowed lag.
+    private boolean isCurrent(Replica replica) {
+        long now = nanoClock.getAsLong();
+        if ((!replica.probed || now - replica.probedAtNanos >= lagProbeIntervalNanos)
+                && replica.probing.compareAndSet(false, true)) {
+            try {
+                replica.lagMillis = measureLag(replica);
+            } finally {
+                replica.probedAtNanos = now;
+                replica.probed = true;
+                replica.probing.set(false);
+            }
+        }
+        return replica.lagMillis <= maxLagMillis;
+    }
+
+    private long measureLag(Replica replica) {
+        ReplicaLagProbe probe = lagProbe;
+        if (probe == null) {
+            return 0;
+        }
+        try (Connection conn = replica.dataSource.getConnection()) {
+            return probe.lagMillis(conn);
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to probe replica " + replica.index, e);
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Read<T> {
+        T from(CustomerDAO dao) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final int index;  // Position in the list of replicas given, to name it in log messages
+        private final DataSource dataSource;
+        private final CustomerDAO dao;  // DAO reading this replica
+        private final AtomicInteger inFlight = new AtomicInteger();  // Reads and open streams on this replica
+        private final AtomicBoolean probing = new AtomicBoolean();  // Whether a thread is probing this replica
+        private volatile boolean probed;  // Whether lagMillis holds a measurement yet
+        private volatile long probedAtNanos;  // When lagMillis was last measured or the replica last failed
+        private volatile long lagMillis;  // Last measured lag, or Long.MAX_VALUE if unavailable
+
+        private Replica(int index, DataSource dataSource, CustomerDAO dao) {
+            this.index = index;
+            this.dataSource = dataSource;
+            this.dao = dao;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.music.application.database.management.customer;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object of type T.
+ * Mappers are created once per result set by a {@link Factory}, which resolves the column positions from the
+ * result set metadata up front so that each row is read by index rather than by label.
+ *
+ * @param <T> The type of object each row is mapped to.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the current row of the result set.
+     *
+     * @param resultSet The result set, positioned on the row to map.
+     * @return The object built from the row.
+     * @throws SQLException If an SQL exception occurs while reading the row.
+     */
+    T mapRow(ResultSet resultSet) throws SQLException;
+
+    /**
+     * Creates row mappers bound to the columns of a particular result set.
+     *
+     * @param <T> The type of object each row is mapped to.
+     */
+    @FunctionalInterface
+    interface Factory<T> {
+
+        /**
+         * Resolves the columns the mapper needs against the given metadata.
+         *
+         * @param metaData The metadata of the result set the mapper will read.
+         * @return A mapper that reads the resolved column positions.
+         * @throws SQLException If an SQL exception occurs while reading the metadata.
+         */
+        RowMapper<T> forColumns(ResultSetMetaData metaData) throws SQLException;
+
+        /**
+         * Creates a mapper bound to the columns of the given result set.
+         *
+         * @param resultSet The result set the mapper will read.
+         * @return A mapper that reads the resolved column positions.
+         * @throws SQLException If an SQL exception occurs while reading the metadata.
+         */
+        default RowMapper<T> forResultSet(ResultSet resultSet) throws SQLException {
+            return forColumns(resultSet.getMetaData());
+        }
+    }
+
+    /**
+     * Resolves column labels to their 1-based positions in a result set.
+     * Labels are matched case-insensitively; labels the result set does not contain resolve to 0.
+     *
+     * @param metaData The metadata of the result set.
+     * @param labels   The column labels to look up.
+     * @return The position of each label, in the order the labels were given.
+     * @throws SQLException If an SQL exception occurs while reading the metadata.
+     */
+    static int[] resolveColumns(ResultSetMetaData metaData, String... labels) throws SQLException {
+        int[] positions = new int[labels.length];
+        int columnCount = metaData.getColumnCount();
+        for (int column = 1; column <= columnCount; column++) {
+            String columnLabel = metaData.getColumnLabel(column);
+            for (int i = 0; i < labels.length; i++) {
+                if (positions[i] == 0 && labels[i].equalsIgnoreCase(columnLabel)) {
+                    positions[i] = column;
+                }
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Moves ranges of CustomerIds between the shards of a {@link ShardedCustomerDAO} that uses a
+ * {@link RangeShardingStrategy}, while the DAO stays in use.
+ *
+ * A move first copies the range to the target shard without blocking anyone. It then blocks the DAO's calls
+ * while it copies the rows changed since, removes copies of rows deleted since, and assigns the range to the target.
+ * Once the blocked calls resume against the target, the rows are deleted from their old shards. The blocking step
+ * reads the whole range again but writes only what changed. Calls from other processes are not blocked, so writes
+ * to the range from elsewhere must be paused while it moves.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ShardRebalancer {
+    private static final Logger logger = Logger.getLogger(ShardRebalancer.class.getName());
+
+    private final ShardedCustomerDAO shardedDao;
+    private final RangeShardingStrategy strategy;  // The DAO's strategy, which a move reassigns
+    private int pageSize = 1_000;  // Rows read and written per statement
+
+    /**
+     * Constructs a new ShardRebalancer.
+     *
+     * @param shardedDao The DAO whose shards to rebalance; its strategy must be a {@link RangeShardingStrategy}.
+     */
+    public ShardRebalancer(ShardedCustomerDAO shardedDao) {
+        if (!(shardedDao.getStrategy() instanceof RangeShardingStrategy rangeStrategy)) {
+            throw new IllegalArgumentException("Only range-sharded DAOs can be rebalanced: "
+                    + shardedDao.getStrategy());
+        }
+        this.shardedDao = shardedDao;
+        this.strategy = rangeStrategy;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1: " + pageSize);
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Moves a range of CustomerIds to a shard. Parts of the range may be on different shards, or already on the
+     * target. If the move fails before the range is reassigned, the range stays where it was, and the copies left
+     * on the target are hidden and removed by the next move of the range.
+     *
+     * @param fromId      The first CustomerId of the range.
+     * @param toId        The CustomerId after the range, or {@link Integer#MAX_VALUE} for a range with no upper end.
+     * @param targetShard The shard to move the range to.
+     * @return The number of customers moved.
+     * @throws SQLException If an SQL exception occurs while copying.
+     */
+    public int moveRange(int fromId, int toId, int targetShard) throws SQLException {
+        if (fromId >= toId) {
+            throw new IllegalArgumentException("Empty range: " + fromId + " to " + toId);
+        }
+        if (targetShard < 0 || targetShard >= shardedDao.getShardCount()) {
+            throw new IllegalArgumentException("No shard " + targetShard + " among " + shardedDao.getShardCount());
+        }
+        CustomerDAO target = shardedDao.getShard(targetShard);
+        for (int shard = 0; shard < shardedDao.getShardCount(); shard++) {
+            if (shard != targetShard) {
+                copyOwned(shard, fromId, toId, target, false);
+            }
+        }
+
+        int moved;
+        Lock lock = shardedDao.routingWriteLock();
+        lock.lock();
+        try {
+            int[] copied = new int[0];
+            for (int shard = 0; shard < shardedDao.getShardCount(); shard++) {
+                if (shard != targetShard) {
+                    int[] ids = copyOwned(shard, fromId, toId, target, true);
+                    int length = copied.length;
+                    copied = Arrays.copyOf(copied, length + ids.length);
+                    System.arraycopy(ids, 0, copied, length, ids.length);
+                }
+            }
+            Arrays.sort(copied);
+            removeStaleCopies(target, targetShard, fromId, toId, copied);
+            strategy.assign(fromId, toId, targetShard);
+            moved = copied.length;
+        } finally {
+            lock.unlock();
+        }
+
+        // The old shards no longer own the range, so their rows are already hidden; deleting them only saves space.
+        for (int shard = 0; shard < shardedDao.getShardCount(); shard++) {
+            if (shard != targetShard) {
+                CustomerDAO source = shardedDao.getShard(shard);
+                try {
+                    forEachPage(source, fromId, toId, rows -> source.deleteAll(rows));
+                } catch (SQLException e) {
+                    logger.log(Level.WARNING, "Moved rows were left on shard " + shard, e);
+                }
+            }
+        }
+        logger.info("Moved " + moved + " customers from " + fromId + " to " + toId + " to shard " + targetShard);
+        return moved;
+    }
+
+    // Copies the rows of the range that a shard owns to the target, and returns their CustomerIds. With onlyChanged,
+    // rows the target already holds unchanged are not written again.
+    private int[] copyOwned(int shard, int fromId, int toId, CustomerDAO target, boolean onlyChanged)
+            throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        forEachPage(shardedDao.getShard(shard), fromId, toId, rows -> {
+            List<Customer> owned = new ArrayList<>(rows.size());
+            for (Customer customer : rows) {
+                if (strategy.shardFor(customer.getCustomerId()) == shard) {
+                    owned.add(customer);
+                    ids.add(customer.getCustomerId());
+                }
+            }
+            if (onlyChanged && !owned.isEmpty()) {
+                IntObjectMap<Customer> current = target.getMany(owned.stream()
+                        .mapToInt(Customer::getCustomerId).toArray());
+                owned.removeIf(customer -> sameColumns(customer, current.get(customer.getCustomerId())));
+            }
+            if (!owned.isEmpty()) {
+                BatchResult<Customer> result = target.saveAll(owned);
+                if (result.hasFailures()) {
+                    throw result.getFailures().get(0).cause();
+                }
+            }
+        });
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Whether the target's copy holds the same value in every column. Customer.equals compares only CustomerId,
+    // Phone and Email, which would let a change to any other column between the two passes go uncopied.
+    private static boolean sameColumns(Customer customer, Customer copy) {
+        return copy != null
+                && customer.getCustomerId() == copy.getCustomerId()
+                && customer.getSupportRepId() == copy.getSupportRepId()
+                && Objects.equals(customer.getFirstName(), copy.getFirstName())
+                && Objects.equals(customer.getLastName(), copy.getLastName())
+                && Objects.equals(customer.getCompany(), copy.getCompany())
+                && Objects.equals(customer.getAddress(), copy.getAddress())
+                && Objects.equals(customer.getCity(), copy.getCity())
+                && Objects.equals(customer.getState(), copy.getState())
+                && Objects.equals(customer.getCountry(), copy.getCountry())
+                && Objects.equals(customer.getPostalCode(), copy.getPostalCode())
+                && Objects.equals(customer.getPhone(), copy.getPhone())
+                && Objects.equals(customer.getFax(), copy.getFax())
+                && Objects.equals(customer.getEmail(), copy.getEmail());
+    }
+
+    // Deletes rows of the range from the target that it does not own and that were not just copied to it: copies
+    // left by an earlier move, or by this move's first pass, of rows deleted since.
+    private void removeStaleCopies(CustomerDAO target, int targetShard, int fromId, int toId, int[] copied)
+            throws SQLException {
+        forEachPage(target, fromId, toId, rows -> {
+            List<Customer> stale = rows.stream()
+                    .filter(customer -> strategy.shardFor(customer.getCustomerId()) != targetShard)
+                    .filter(customer -> Arrays.binarySearch(copied, customer.getCustomerId()) < 0)
+                    .toList();
+            if (!stale.isEmpty()) {
+                BatchResult<Customer> result = target.deleteAll(stale);
+                if (result.hasFailures()) {
+                    throw result.getFailures().get(0).cause();
+                }
+            }
+        });
+    }
+
+    // Pages through the rows of the range on one shard in CustomerId order.
+    private void forEachPage(CustomerDAO dao, int fromId, int toId, PageAction action) throws SQLException {
+        String token = fromId == Integer.MIN_VALUE ? null : PageToken.after(fromId - 1);
+        while (true) {
+            Page<Customer> page = dao.getPage(token, pageSize);
+            List<Customer> rows = page.getItems().stream()
+                    .filter(customer -> customer.getCustomerId() < toId || toId == Integer.MAX_VALUE)
+                    .toList();
+            if (!rows.isEmpty()) {
+                action.accept(rows);
+            }
+            if (!page.hasNext() || rows.size() < page.getItems().size()) {
+                return;
+            }
+            token = page.getNextPageToken();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageAction {
+        void accept(List<Customer> rows) throws SQLException;
+    }
+}
@@ -0,0 +1,598 @@
+/**
+ * A CustomerDAO that spreads customers over several databases by CustomerId. A {@link ShardingStrategy} maps each
+ * CustomerId to one shard, so reads and writes of one customer touch only that shard. Reads across customers
+ * query every shard in parallel and merge the results. Batch writes are split by shard and the parts run in
+ * parallel.
+ *
+ * While a {@link ShardRebalancer} moves a range, a customer can have a copy on more than one shard. Merged
+ * reads keep a customer only from the shard the strategy currently assigns it to, so copies are never returned
+ * twice. Streams are the one exception: they are read while the move goes on, so a stream open during a move may
+ * miss a moving customer or return it from its old shard. Record projections carry no CustomerId to check, so they
+ * may return a moving customer twice.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class ShardedCustomerDAO implements CustomerDAO, AutoCloseable {
+
+    private static final int STREAM_BUFFER_SIZE = 1024;  // Rows the shards of a merged stream may read ahead
+    private static final Object END_OF_SHARD = new Object();  // Queued by a stream's shard once it is exhausted
+
+    private final CustomerDAO[] shards;  // The DAO of each shard, by shard index
+    private final ShardingStrategy strategy;
+    private final ExecutorService executor;  // Runs the per-shard parts of cross-shard calls
+    private final boolean ownsExecutor;  // Whether close() shuts the executor down
+    // Held shared by every call except streams, and exclusively by a rebalancer switching a range to another shard
+    private final ReadWriteLock routingLock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructs a new ShardedCustomerDAO that runs cross-shard calls on its own daemon threads.
+     *
+     * @param shards   The DAO of each shard, by shard index.
+     * @param strategy The strategy that assigns customers to the shards.
+     */
+    public ShardedCustomerDAO(List<? extends CustomerDAO> shards, ShardingStrategy strategy) {
+        this(shards, strategy, newDefaultExecutor(), true);
+    }
+
+    /**
+     * Constructs a new ShardedCustomerDAO that runs cross-shard calls on the given executor. Each open stream
+     * keeps one task per shard running until it is closed, so the executor must not be bounded below that.
+     * The executor is not shut down when this DAO is closed.
+     *
+     * @param shards   The DAO of each shard, by shard index.
+     * @param strategy The strategy that assigns customers to the shards.
+     * @param executor The executor to run the per-shard parts of cross-shard calls on.
+     */
+    public ShardedCustomerDAO(List<? extends CustomerDAO> shards, ShardingStrategy strategy,
+                              ExecutorService executor) {
+        this(shards, strategy, executor, false);
+    }
+
+    private ShardedCustomerDAO(List<? extends CustomerDAO> shards, ShardingStrategy strategy,
+                               ExecutorService executor, boolean ownsExecutor) {
+        if (shards.size() != strategy.shardCount()) {
+            throw new IllegalArgumentException("The strategy has " + strategy.shardCount() + " shards, not "
+                    + shards.size());
+        }
+        this.shards = shards.toArray(new CustomerDAO[0]);
+        this.strategy = strategy;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    private static ExecutorService newDefaultExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sharded-customer-dao-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ShardingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the DAO of one shard, for maintenance that must address a shard directly.
+     *
+     * @param shard The shard index.
+     * @return The shard's DAO.
+     */
+    public CustomerDAO getShard(int shard) {
+        return shards[shard];
+    }
+
+    // The lock a rebalancer takes exclusively while it switches a range over.
+    Lock routingWriteLock() {
+        return routingLock.writeLock();
+    }
+
+    // Retrieve - one shard
+
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        return onShard(customerId, dao -> dao.get(customerId));
+    }
+
+    @Override
+    public <R extends Record> R get(int customerId, Class<R> recordType) throws SQLException {
+        return onShard(customerId, dao -> dao.get(customerId, recordType));
+    }
+
+    /**
+     * Retrieves the given customers, querying each shard that holds some of them in parallel.
+     *
+     * @param ids The unique identifiers of the customers to retrieve.
+     * @return The customers that exist, keyed by CustomerId.
+     * @throws SQLException If an SQL exception occurs on any shard.
+     */
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            int[][] idsByShard = new int[shards.length][];
+            int[] counts = new int[shards.length];
+            int[] shardOf = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                shardOf[i] = strategy.shardFor(ids[i]);
+                counts[shardOf[i]]++;
+            }
+            for (int shard = 0; shard < shards.length; shard++) {
+                idsByShard[shard] = new int[counts[shard]];
+                counts[shard] = 0;
+            }
+            for (int i = 0; i < ids.length; i++) {
+                idsByShard[shardOf[i]][counts[shardOf[i]]++] = ids[i];
+            }
+            List<IntObjectMap<Customer>> parts = scatter((shard, dao) ->
+                    idsByShard[shard].length == 0 ? null : dao.getMany(idsByShard[shard]));
+            IntObjectMap<Customer> found = new IntObjectMap<>(ids.length);
+            for (IntObjectMap<Customer> part : parts) {
+                if (part != null) {
+                    part.forEach(found::put);
+                }
+            }
+            return found;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Retrieve - all shards
+
+    @Override
+    public List<Customer> getAll() throws SQLException {
+        return gatherOwned(CustomerDAO::getAll);
+    }
+
+    @Override
+    public List<Customer> getAll(Set<CustomerColumn> columns) throws SQLException {
+        return gatherOwned(dao -> dao.getAll(columns));
+    }
+
+    @Override
+    public <R extends Record> List<R> getAll(Class<R> recordType) throws SQLException {
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            List<R> all = new ArrayList<>();
+            for (List<R> part : scatter((shard, dao) -> dao.getAll(recordType))) {
+                all.addAll(part);
+            }
+            return all;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Streams all customers. Every shard is read in parallel into a bounded buffer, and rows are returned in the
+     * order they arrive, so the stream is as fast as the slowest shard rather than the sum of them.
+     *
+     * @return A stream of all customers; close it to stop the shards' queries and release their resources.
+     * @throws SQLException Never; errors from the shards are thrown by the stream as RuntimeExceptions.
+     */
+    @Override
+    public Stream<Customer> streamAll() throws SQLException {
+        return merge(CustomerDAO::streamAll, Customer::getCustomerId);
+    }
+
+    @Override
+    public <R extends Record> Stream<R> streamAll(Class<R> recordType) throws SQLException {
+        return merge(dao -> dao.streamAll(recordType), null);
+    }
+
+    @Override
+    public Customer findByEmail(String email) throws SQLException {
+        return gatherOwned(dao -> {
+            Customer customer = dao.findByEmail(email);
+            return customer == null ? List.of() : List.of(customer);
+        }).stream().min(Comparator.comparingInt(Customer::getCustomerId)).orElse(null);
+    }
+
+    @Override
+    public List<Customer> findByCountry(String country) throws SQLException {
+        List<Customer> customers = gatherOwned(dao -> dao.findByCountry(country));
+        customers.sort(Comparator.comparingInt(Customer::getCustomerId));
+        return customers;
+    }
+
+    @Override
+    public List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        List<Customer> customers = gatherOwned(dao -> dao.findBySupportRepId(supportRepId));
+        customers.sort(Comparator.comparingInt(Customer::getCustomerId));
+        return customers;
+    }
+
+    /**
+     * Retrieves one page of customers by asking every shard for a page after the same CustomerId in parallel and
+     * merging them. The page ends no later than the last row of any shard that has more rows, so the rows it has
+     * not yet returned cannot fall inside the page.
+     *
+     * @param pageToken The token of the previous page, or null for the first page.
+     * @param pageSize  The maximum number of customers on the page.
+     * @param filter    The conditions the customers must match.
+     * @return The page, with a token for the next page if there may be more.
+     * @throws SQLException If an SQL exception occurs on any shard.
+     */
+    @Override
+    public Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) throws SQLException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1: " + pageSize);
+        }
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            List<Page<Customer>> pages = scatter((shard, dao) -> dao.getPage(pageToken, pageSize, filter));
+            long limit = Long.MAX_VALUE;  // Highest CustomerId every shard has returned all rows up to
+            List<Customer> merged = new ArrayList<>();
+            for (int shard = 0; shard < pages.size(); shard++) {
+                List<Customer> items = pages.get(shard).getItems();
+                if (pages.get(shard).hasNext()) {
+                    limit = Math.min(limit, items.get(items.size() - 1).getCustomerId());
+                }
+                for (Customer customer : items) {
+                    if (strategy.shardFor(customer.getCustomerId()) == shard) {
+                        merged.add(customer);
+                    }
+                }
+            }
+            merged.sort(Comparator.comparingInt(Customer::getCustomerId));
+
+            List<Customer> page = new ArrayList<>(Math.min(pageSize, merged.size()));
+            for (Customer customer : merged) {
+                if (page.size() == pageSize || customer.getCustomerId() > limit) {
+                    break;
+                }
+                page.add(customer);
+            }
+            if (page.size() == pageSize) {
+                return new Page<>(page, PageToken.after(page.get(pageSize - 1).getCustomerId()));
+            }
+            if (limit != Long.MAX_VALUE) {
+                // A shard has more rows after the limit; continue from there, even if this page is empty.
+                return new Page<>(page, PageToken.after((int) limit));
+            }
+            return new Page<>(page, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the changes made since a sync token, reading every shard's change log in parallel. The token
+     * combines a position in each shard's log, so it is only valid for the same number of shards. A customer
+     * moved by a {@link ShardRebalancer} shows up as changed on its new shard; its deletion from the old shard
+     * is not reported.
+     *
+     * @param syncToken The token of the previous sync, or null for a full sync.
+     * @return The changes, with a token to continue from.
+     * @throws SQLException If an SQL exception occurs on any shard.
+     */
+    @Override
+    public CustomerChanges getChangedSince(String syncToken) throws SQLException {
+        String[] shardTokens = syncToken == null ? new String[shards.length]
+                : SyncToken.shardTokens(syncToken, shards.length);
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            List<CustomerChanges> parts = scatter((shard, dao) -> dao.getChangedSince(shardTokens[shard]));
+            List<Customer> upserted = new ArrayList<>();
+            int[] deletedIds = new int[0];
+            boolean hasMore = false;
+            String[] nextTokens = new String[shards.length];
+            for (int shard = 0; shard < parts.size(); shard++) {
+                CustomerChanges part = parts.get(shard);
+                for (Customer customer : part.getUpserted()) {
+                    if (strategy.shardFor(customer.getCustomerId()) == shard) {
+                        upserted.add(customer);
+                    }
+                }
+                int owner = shard;
+                int[] deleted = Arrays.stream(part.getDeletedIds())
+                        .filter(customerId -> strategy.shardFor(customerId) == owner)
+                        .toArray();
+                int length = deletedIds.length;
+                deletedIds = Arrays.copyOf(deletedIds, length + deleted.length);
+                System.arraycopy(deleted, 0, deletedIds, length, deleted.length);
+                nextTokens[shard] = part.getSyncToken();
+                hasMore |= part.hasMore();
+            }
+            return new CustomerChanges(upserted, deletedIds, SyncToken.ofShards(nextTokens), hasMore);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // CRUD - one shard
+
+    @Override
+    public int save(Customer customer) throws SQLException {
+        return onShard(customer.getCustomerId(), dao -> dao.save(customer));
+    }
+
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        return onShard(customer.getCustomerId(), dao -> dao.insert(customer));
+    }
+
+    @Override
+    public int update(Customer customer) throws SQLException {
+        return onShard(customer.getCustomerId(), dao -> dao.update(customer));
+    }
+
+    @Override
+    public int delete(Customer customer) {
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            return shards[strategy.shardFor(customer.getCustomerId())].delete(customer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // CRUD - split by shard
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        return splitBatch(customers, CustomerDAO::insertAll);
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        return splitBatch(customers, CustomerDAO::saveAll);
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        return splitBatch(customers, CustomerDAO::updateAll);
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        return splitBatch(customers, CustomerDAO::deleteAll);
+    }
+
+    /**
+     * Shuts down the threads cross-shard calls run on, if this DAO created them. The shards' DAOs are not closed.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> T onShard(int customerId, DAOCall<T> call) throws SQLException {
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            return call.on(shards[strategy.shardFor(customerId)]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs a call on every shard in parallel and keeps only the customers each shard owns.
+    private List<Customer> gatherOwned(DAOCall<List<Customer>> call) throws SQLException {
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            List<List<Customer>> parts = scatter((shard, dao) -> call.on(dao));
+            List<Customer> all = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+            for (int shard = 0; shard < parts.size(); shard++) {
+                for (Customer customer : parts.get(shard)) {
+                    if (strategy.shardFor(customer.getCustomerId()) == shard) {
+                        all.add(customer);
+                    }
+                }
+            }
+            return all;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs a call on every shard in parallel; the results are in shard order.
+    private <T> List<T> scatter(ShardCall<T> call) throws SQLException {
+        List<Future<T>> futures = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            int index = shard;
+            futures.add(executor.submit(() -> call.on(index, shards[index])));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        SQLException failure = null;
+        for (int shard = 0; shard < futures.size(); shard++) {
+            try {
+                results.add(futures.get(shard).get());
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the shards", e);
+            } catch (ExecutionException e) {
+                results.add(null);
+                Throwable cause = e.getCause();
+                SQLException shardFailure = cause instanceof SQLException sqlException ? sqlException
+                        : new SQLException("Shard " + shard + " failed", cause);
+                if (failure == null) {
+                    failure = shardFailure;
+                } else {
+                    failure.addSuppressed(shardFailure);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    // Splits a batch by shard, runs the parts in parallel and puts the results back in the batch's order.
+    private BatchResult<Customer> splitBatch(Collection<Customer> customers, BatchCall call) throws SQLException {
+        List<List<Customer>> parts = new ArrayList<>(shards.length);
+        List<List<Integer>> positions = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            parts.add(new ArrayList<>());
+            positions.add(new ArrayList<>());
+        }
+        Lock lock = routingLock.readLock();
+        lock.lock();
+        try {
+            int index = 0;
+            for (Customer customer : customers) {
+                int shard = strategy.shardFor(customer.getCustomerId());
+                parts.get(shard).add(customer);
+                positions.get(shard).add(index++);
+            }
+            List<BatchResult<Customer>> results = scatter((shard, dao) ->
+                    parts.get(shard).isEmpty() ? null : call.on(dao, parts.get(shard)));
+
+            int[] updateCounts = new int[index];
+            List<BatchResult.Failure<Customer>> failures = new ArrayList<>();
+            for (int shard = 0; shard < shards.length; shard++) {
+                BatchResult<Customer> result = results.get(shard);
+                if (result == null) {
+                    continue;
+                }
+                List<Integer> shardPositions = positions.get(shard);
+                int[] shardCounts = result.getUpdateCounts();
+                for (int i = 0; i < shardPositions.size(); i++) {
+                    updateCounts[shardPositions.get(i)] = i < shardCounts.length ? shardCounts[i]
+                            : Statement.EXECUTE_FAILED;
+                }
+                for (BatchResult.Failure<Customer> failure : result.getFailures()) {
+                    failures.add(new BatchResult.Failure<>(shardPositions.get(failure.index()), failure.item(),
+                            failure.cause()));
+                }
+            }
+            failures.sort(Comparator.comparingInt(BatchResult.Failure::index));
+            return new BatchResult<>(updateCounts, failures);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Reads every shard's stream on its own task into a shared buffer. With idOf given, rows a shard does not own
+    // are skipped.
+    private <T> Stream<T> merge(DAOCall<Stream<T>> open, ToIntFunction<T> idOf) {
+        BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(STREAM_BUFFER_SIZE);
+        AtomicBoolean closed = new AtomicBoolean();
+        List<Future<?>> readers = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            int owner = shard;
+            readers.add(executor.submit(() -> {
+                Object last = END_OF_SHARD;
+                try (Stream<T> rows = open.on(shards[owner])) {
+                    Iterator<T> iterator = rows.iterator();
+                    while (!closed.get() && iterator.hasNext()) {
+                        T row = iterator.next();
+                        if (idOf == null || strategy.shardFor(idOf.applyAsInt(row)) == owner) {
+                            buffer.put(row);
+                        }
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    last = new ShardFailure(owner, e);
+                }
+                buffer.put(last);
+                return null;
+            }));
+        }
+
+        Iterator<T> iterator = new Iterator<>() {
+            private int finished;  // Shards that have queued their last row
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && finished < shards.length) {
+                    Object taken;
+                    try {
+                        taken = buffer.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(new SQLException("Interrupted while streaming the shards", e));
+                    }
+                    if (taken == END_OF_SHARD) {
+                        finished++;
+                    } else if (taken instanceof ShardFailure failure) {
+                        finished = shards.length;
+                        throw failure.cause instanceof RuntimeException runtime ? runtime
+                                : new RuntimeException(failure.cause);
+                    } else {
+                        @SuppressWarnings("unchecked")
+                        T row = (T) taken;
+                        next = row;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T row = next;
+                next = null;
+                return row;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    closed.set(true);
+                    readers.forEach(reader -> reader.cancel(true));
+                });
+    }
+
+    @FunctionalInterface
+    private interface ShardCall<T> {
+        T on(int shard, CustomerDAO dao) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface DAOCall<T> {
+        T on(CustomerDAO dao) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface BatchCall {
+        BatchResult<Customer> on(CustomerDAO dao, Collection<Customer> customers) throws SQLException;
+    }
+
+    private record ShardFailure(int shard, Exception cause) {
+    }
+}
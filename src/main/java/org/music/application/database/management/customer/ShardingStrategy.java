@@ -0,0 +1,59 @@
+package org.music.application.database.management.customer;
+
+/**
+ * Decides which shard of a {@link ShardedCustomerDAO} holds each customer.
+ */
+public interface ShardingStrategy {
+
+    /**
+     * Returns the number of shards customers are spread over.
+     *
+     * @return The number of shards.
+     */
+    int shardCount();
+
+    /**
+     * Returns the shard that holds the given customer.
+     *
+     * @param customerId The CustomerId.
+     * @return The shard index, from 0 to {@link #shardCount()} - 1.
+     */
+    int shardFor(int customerId);
+
+    /**
+     * Returns a strategy that spreads customers evenly by a hash of their CustomerId. Consecutive ids land on
+     * different shards, so inserts of new customers are spread out too. Adding a shard moves most customers, so
+     * a hash-sharded table is resized by copying it rather than with a {@link ShardRebalancer}.
+     *
+     * @param shardCount The number of shards.
+     * @return The hash strategy.
+     */
+    static ShardingStrategy hash(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1: " + shardCount);
+        }
+        return new ShardingStrategy() {
+            @Override
+            public int shardCount() {
+                return shardCount;
+            }
+
+            @Override
+            public int shardFor(int customerId) {
+                // The finalizer of MurmurHash3, so ids that differ only in their high bits still spread out.
+                int hash = customerId;
+                hash ^= hash >>> 16;
+                hash *= 0x85ebca6b;
+                hash ^= hash >>> 13;
+                hash *= 0xc2b2ae35;
+                hash ^= hash >>> 16;
+                return Math.floorMod(hash, shardCount);
+            }
+
+            @Override
+            public String toString() {
+                return "hash(" + shardCount + ")";
+            }
+        };
+    }
+}
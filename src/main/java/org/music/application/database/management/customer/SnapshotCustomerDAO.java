@@ -0,0 +1,379 @@
+/**
+ * A CustomerDAO decorator that serves {@link #get(int)} and {@link #getMany(int[])} from a memory-mapped
+ * {@link CustomerSnapshot} file, so a restarted process can serve lookups as soon as the file is mapped instead of
+ * after reloading the table. {@link #open()} maps the file, writing it from a full sync first if there is none,
+ * and then catches up with the changes made since the snapshot was written through
+ * {@link CustomerDAO#getChangedSince(String)}; the underlying DAO must track changes. Changes since the snapshot,
+ * whether caught up or written through this DAO, are held on the heap in front of the mapping until
+ * {@link #checkpoint()} writes them into a new snapshot file. All other operations are forwarded unchanged.
+ *
+ * A write made inside a {@link Transaction} reaches the overlay only once the transaction commits, so lookups never
+ * see uncommitted rows, including lookups made inside the transaction itself. If it rolls back, the write is
+ * dropped; a write that committed regardless, because its DAO uses another pool, is picked up by the next refresh.
+ */
+package org.music.application.database.management.customer;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class SnapshotCustomerDAO extends ForwardingCustomerDAO {
+    private static final Logger logger = Logger.getLogger(SnapshotCustomerDAO.class.getName());
+
+    // Marks a customer deleted since the snapshot was written
+    private static final Customer DELETED = new Customer(0, null, null, null, null, null, null, null, null, null,
+            null, null, 0);
+
+    private final Path file;  // The snapshot file
+    private final Lock checkpointLock = new ReentrantLock();  // Lets one checkpoint write the file at a time
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();  // Guards the fields below
+    private CustomerSnapshot snapshot;  // The mapped snapshot, or null until opened
+    private IntObjectMap<Customer> overlay = new IntObjectMap<>();  // Customers changed since the snapshot
+    private String syncToken;  // Where the next refresh continues the change log
+    private long overlayVersion;  // Incremented on every change to the overlay
+
+    /**
+     * Constructs a new SnapshotCustomerDAO. Call {@link #open()} before the first lookup.
+     *
+     * @param delegate The DAO to catch up from and to forward all calls to; it must track changes.
+     * @param file     The snapshot file, which need not exist yet.
+     */
+    public SnapshotCustomerDAO(CustomerDAO delegate, Path file) {
+        super(delegate);
+        this.file = file;
+    }
+
+    /**
+     * Maps the snapshot file and catches up with the changes made since it was written. If the file does not
+     * exist or cannot be read, it is first written from a full sync of the underlying DAO.
+     *
+     * @throws SQLException If an SQL exception occurs while syncing.
+     * @throws IOException  If the snapshot file cannot be written or mapped.
+     */
+    public void open() throws SQLException, IOException {
+        CustomerSnapshot mapped = null;
+        try {
+            mapped = CustomerSnapshot.open(file);
+        } catch (NoSuchFileException e) {
+            logger.info("No customer snapshot at " + file + "; writing one from a full sync");
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unreadable customer snapshot at " + file + "; writing a new one", e);
+        }
+        if (mapped == null || mapped.getSyncToken() == null) {
+            CustomerChanges full = delegate.getChangedSince(null);
+            List<Customer> customers = new ArrayList<>(full.getUpserted());
+            customers.sort(Comparator.comparingInt(Customer::getCustomerId));
+            CustomerSnapshot.write(file, customers.iterator(), full.getSyncToken());
+            mapped = CustomerSnapshot.open(file);
+        }
+        lock.writeLock().lock();
+        try {
+            snapshot = mapped;
+            overlay = new IntObjectMap<>();
+            syncToken = mapped.getSyncToken();
+            overlayVersion++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        refresh();
+    }
+
+    /**
+     * Retrieves a customer from the changes held on the heap or, failing that, from the mapped snapshot.
+     *
+     * @param customerId The unique identifier of the customer to retrieve.
+     * @return A new customer, or null if there is no customer with that identifier.
+     */
+    @Override
+    public Customer get(int customerId) {
+        lock.readLock().lock();
+        try {
+            return lookup(customerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) {
+        IntObjectMap<Customer> customers = new IntObjectMap<>(ids.length);
+        lock.readLock().lock();
+        try {
+            for (int id : ids) {
+                Customer customer = lookup(id);
+                if (customer != null) {
+                    customers.put(id, customer);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return customers;
+    }
+
+    // The caller holds a lock.
+    private Customer lookup(int customerId) {
+        if (snapshot == null) {
+            throw new IllegalStateException("The customer snapshot has not been opened");
+        }
+        Customer changed = overlay.get(customerId);
+        if (changed != null) {
+            return changed == DELETED ? null : new Customer(changed);
+        }
+        return snapshot.get(customerId);
+    }
+
+    /**
+     * Catches up with the changes made since the last refresh, holding them on the heap in front of the snapshot.
+     *
+     * @throws SQLException If an SQL exception occurs while reading the changes.
+     */
+    public void refresh() throws SQLException {
+        String token;
+        lock.readLock().lock();
+        try {
+            token = syncToken;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (token == null) {
+            throw new IllegalStateException("The customer snapshot has not been opened");
+        }
+        CustomerChanges changes;
+        do {
+            changes = delegate.getChangedSince(token);
+            lock.writeLock().lock();
+            try {
+                if (!token.equals(syncToken)) {
+                    return;  // Refreshed or reopened by another thread meanwhile
+                }
+                for (Customer customer : changes.getUpserted()) {
+                    overlay.put(customer.getCustomerId(), new Customer(customer));
+                }
+                for (int customerId : changes.getDeletedIds()) {
+                    overlay.put(customerId, DELETED);
+                }
+                overlayVersion++;
+                syncToken = changes.getSyncToken();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            token = changes.getSyncToken();
+        } while (changes.hasMore());
+    }
+
+    /**
+     * Writes the snapshot and the changes held on the heap into a new snapshot file and maps it, so that the next
+     * {@link #open()} has less to catch up and the heap holds fewer changes. Lookups continue from the old mapping
+     * while the file is written; refreshes and writes through this DAO wait. Concurrent checkpoints run one after
+     * the other, so an older state never replaces a newer one.
+     *
+     * @throws IOException If the snapshot file cannot be written or mapped.
+     */
+    public void checkpoint() throws IOException {
+        checkpointLock.lock();
+        try {
+            checkpointLocked();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private void checkpointLocked() throws IOException {
+        long version;
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                throw new IllegalStateException("The customer snapshot has not been opened");
+            }
+            version = overlayVersion;
+            CustomerSnapshot.write(file, new MergingIterator(snapshot, overlay), syncToken);
+        } finally {
+            lock.readLock().unlock();
+        }
+        CustomerSnapshot mapped = CustomerSnapshot.open(file);
+        lock.writeLock().lock();
+        try {
+            snapshot = mapped;
+            if (overlayVersion == version) {
+                overlay = new IntObjectMap<>();
+            }
+            // Otherwise keep the overlay: it holds the latest state of every customer it has, so it stays correct
+            // in front of the new snapshot and is folded in by the next checkpoint.
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of changed customers held on the heap in front of the snapshot.
+     *
+     * @return The number of customers changed since the snapshot file was written.
+     */
+    public int getPendingChanges() {
+        lock.readLock().lock();
+        try {
+            return overlay.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int save(Customer customer) throws SQLException {
+        int rows = delegate.save(customer);
+        apply(customer, false);  // Saving leaves the row as given even when nothing changed
+        return rows;
+    }
+
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        int rows = delegate.insert(customer);
+        if (rows > 0) {
+            apply(customer, false);
+        }
+        return rows;
+    }
+
+    @Override
+    public int update(Customer customer) throws SQLException {
+        int rows = delegate.update(customer);
+        if (rows > 0) {
+            apply(customer, false);
+        }
+        return rows;
+    }
+
+    @Override
+    public int delete(Customer customer) {
+        int rows = delegate.delete(customer);
+        apply(customer, true);
+        return rows;
+    }
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        return applyAll(customers, delegate.insertAll(customers), false, false);
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        return applyAll(customers, delegate.saveAll(customers), true, false);
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        return applyAll(customers, delegate.updateAll(customers), false, false);
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        return applyAll(customers, delegate.deleteAll(customers), false, true);
+    }
+
+    // Records a write the underlying DAO accepted. A write that failed is left to the next refresh to pick up.
+    private void apply(Customer customer, boolean deleted) {
+        IntObjectMap<Customer> written = new IntObjectMap<>(1);
+        written.put(customer.getCustomerId(), deleted ? DELETED : new Customer(customer));
+        applyOnCommit(written);
+    }
+
+    // Records the rows of a batch write that the underlying DAO reports as written.
+    private BatchResult<Customer> applyAll(Collection<Customer> customers, BatchResult<Customer> result,
+                                           boolean unconditional, boolean deleted) {
+        int[] updateCounts = result.getUpdateCounts();
+        IntObjectMap<Customer> written = new IntObjectMap<>(customers.size());
+        int index = 0;
+        for (Customer customer : customers) {
+            int count = index < updateCounts.length ? updateCounts[index] : Statement.EXECUTE_FAILED;
+            index++;
+            if (count != Statement.EXECUTE_FAILED && (count != 0 || unconditional || deleted)) {
+                written.put(customer.getCustomerId(), deleted ? DELETED : new Customer(customer));
+            }
+        }
+        applyOnCommit(written);
+        return result;
+    }
+
+    // Puts written customers into the overlay now or, inside a transaction, once it commits.
+    private void applyOnCommit(IntObjectMap<Customer> written) {
+        Transaction tx = Transaction.current();
+        if (tx != null) {
+            tx.afterCommit(() -> applyOnCommit(written));
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            written.forEach(overlay::put);
+            overlayVersion++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Walks the snapshot and the overlay together in CustomerId order, letting the overlay win.
+    private static final class MergingIterator implements Iterator<Customer> {
+        private final CustomerSnapshot snapshot;
+        private final IntObjectMap<Customer> overlay;
+        private final int[] changedIds;  // The overlay's CustomerIds, ascending
+        private int position;  // Next position in the snapshot
+        private int changed;  // Next index in changedIds
+        private Customer next;
+
+        MergingIterator(CustomerSnapshot snapshot, IntObjectMap<Customer> overlay) {
+            this.snapshot = snapshot;
+            this.overlay = overlay;
+            this.changedIds = overlay.keys();
+            Arrays.sort(changedIds);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Customer next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Customer current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && (position < snapshot.size() || changed < changedIds.length)) {
+                int snapshotId = position < snapshot.size() ? snapshot.idAt(position) : Integer.MAX_VALUE;
+                int changedId = changed < changedIds.length ? changedIds[changed] : Integer.MAX_VALUE;
+                if (changed < changedIds.length && changedId <= snapshotId) {
+                    if (changedId == snapshotId) {
+                        position++;
+                    }
+                    changed++;
+                    Customer customer = overlay.get(changedId);
+                    next = customer == DELETED ? null : customer;
+                } else {
+                    next = snapshot.customerAt(position++);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * A least-recently-used cache of prepared statements belonging to one {@link PooledConnection}.
+ * Statements are keyed by their SQL text. Borrowers receive a handle whose {@code close()} clears the
+ * parameters, restores the fetch size, row limits and query timeout the driver prepared the statement with,
+ * and keeps the statement prepared for the next borrower of the same connection.
+ */
+package org.music.application.database.management.customer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+class StatementCache {
+
+    private final int maxSize;  // Maximum number of statements kept prepared
+    private final LongAdder hits;  // Shared hit counter of the owning pool
+    private final LongAdder misses;  // Shared miss counter of the owning pool
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing a cached one when it is not already in use.
+     *
+     * @param owner    The borrower-facing connection handle, returned by {@code getConnection()} on the statement.
+     * @param physical The physical connection to prepare new statements on.
+     * @param sql      The SQL text of the statement.
+     * @return A statement handle; closing it returns the statement to the cache.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    PreparedStatement prepare(Connection owner, Connection physical, String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && cached.evicted && !cached.inUse) {
+            // The statement could not be reset when it was last released and has been closed.
+            statements.remove(sql);
+            cached = null;
+        }
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            cached.inUse = true;
+            return cached.newHandle(owner);
+        }
+        misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql);
+        if (cached != null) {
+            // The same SQL is already open on this connection; hand out an uncached statement.
+            return statement;
+        }
+        CachedStatement created;
+        try {
+            created = new CachedStatement(statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        created.inUse = true;
+        statements.put(sql, created);
+        evictOverflow();
+        return created.newHandle(owner);
+    }
+
+    // Removes least recently used statements beyond the size limit. Statements still in use are closed on release.
+    private void evictOverflow() {
+        Iterator<CachedStatement> leastRecentFirst = statements.values().iterator();
+        while (statements.size() > maxSize && leastRecentFirst.hasNext()) {
+            CachedStatement eldest = leastRecentFirst.next();
+            leastRecentFirst.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    /**
+     * Closes every cached statement. Called before the physical connection is closed.
+     */
+    void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement cached : all) {
+            cached.evicted = true;
+            cached.closeQuietly();
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;  // Driver defaults captured when the statement was prepared
+        private final int defaultFetchDirection;
+        private final int defaultMaxRows;
+        private final int defaultMaxFieldSize;
+        private final int defaultQueryTimeout;
+        private boolean inUse;  // Whether a borrower currently holds a handle to the statement
+        private boolean evicted;  // Whether the statement left the cache and must be closed on release
+        private boolean dirty;  // Whether a borrower changed a setting that must be restored on release
+
+        private CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultFetchDirection = statement.getFetchDirection();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultMaxFieldSize = statement.getMaxFieldSize();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+        }
+
+        private PreparedStatement newHandle(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new Handle(owner));
+        }
+
+        private void release() {
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                if (dirty) {
+                    // Rows before fetch size: some drivers reject a fetch size above the row limit.
+                    statement.setMaxRows(defaultMaxRows);
+                    statement.setMaxFieldSize(defaultMaxFieldSize);
+                    statement.setFetchSize(defaultFetchSize);
+                    statement.setFetchDirection(defaultFetchDirection);
+                    statement.setQueryTimeout(defaultQueryTimeout);
+                    dirty = false;
+                }
+            } catch (SQLException e) {
+                evicted = true;
+            }
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // The statement is being discarded anyway.
+            }
+        }
+
+        // Borrower-facing view of a cached statement.
+        private final class Handle implements InvocationHandler {
+            private final Connection owner;
+            private ResultSet lastResultSet;  // Closed together with the handle, as a real statement would
+            private boolean closed;
+
+            private Handle(Connection owner) {
+                this.owner = owner;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            try {
+                                if (lastResultSet != null) {
+                                    lastResultSet.close();
+                                }
+                            } finally {
+                                release();
+                            }
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "getConnection":
+                        return owner;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "CachedStatement[" + statement + (closed ? ", closed]" : "]");
+                    case "setFetchSize":
+                    case "setFetchDirection":
+                    case "setMaxRows":
+                    case "setLargeMaxRows":
+                    case "setMaxFieldSize":
+                    case "setQueryTimeout":
+                        dirty = true;
+                        break;
+                    default:
+                        break;
+                }
+                if (closed) {
+                    throw new SQLException("Statement has already been closed");
+                }
+                try {
+                    Object result = method.invoke(statement, args);
+                    if (result instanceof ResultSet resultSet) {
+                        lastResultSet = resultSet;
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
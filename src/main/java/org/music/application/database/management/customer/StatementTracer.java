@@ -0,0 +1,391 @@
+/**
+ * Traces a sample of the prepared statements borrowers run on a {@link ConnectionPool}.
+ * A traced statement records its SQL, its bind values, the rows it returned or affected and how long it took.
+ * Every traced execution is logged at DEBUG to {@code org.music.application.database.sql.trace}; executions
+ * slower than the threshold are logged at WARN to {@code org.music.application.database.sql.slow}.
+ * Values bound to redacted columns, and any value that looks like an email address, are logged as
+ * {@code <redacted>}. Statements that are not sampled are handed out untouched and cost nothing.
+ */
+package org.music.application.database.management.customer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+final class StatementTracer {
+
+    static final String TRACE_LOGGER = "org.music.application.database.sql.trace";
+    static final String SLOW_LOGGER = "org.music.application.database.sql.slow";
+
+    private static final Logger traceLogger = LoggerFactory.getLogger(TRACE_LOGGER);
+    private static final Logger slowLogger = LoggerFactory.getLogger(SLOW_LOGGER);
+    private static final String REDACTED = "<redacted>";
+    private static final int MAX_CACHED_SQL = 1_000;  // Bounds the parameter name cache for ad hoc SQL
+    private static final Set<String> OPERATORS = Set.of("=", "<", ">", "<=", ">=", "<>", "!=", "LIKE");
+
+    private final double sampleRate;  // Fraction of prepared statements traced
+    private final long slowThresholdNanos;  // Executions at least this slow go to the slow-query log
+    private final Set<String> redactedColumns;  // Upper-cased names of the columns whose values are hidden
+    private final ConcurrentHashMap<String, String[]> parameterNames = new ConcurrentHashMap<>();  // By SQL text
+
+    StatementTracer(double sampleRate, long slowThresholdMillis, Set<String> redactedColumns) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.redactedColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        this.redactedColumns.addAll(redactedColumns);
+    }
+
+    /**
+     * Returns the statement wrapped in a tracing proxy if it is sampled, or the statement itself otherwise.
+     *
+     * @param statement The statement a borrower prepared.
+     * @param sql       The SQL of the statement.
+     * @return The statement to hand to the borrower.
+     */
+    PreparedStatement trace(PreparedStatement statement, String sql) {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return statement;
+        }
+        String[] names = parameterNames.get(sql);
+        if (names == null) {
+            names = parameterNames(sql);
+            if (parameterNames.size() < MAX_CACHED_SQL) {
+                parameterNames.put(sql, names);
+            }
+        }
+        // Stored procedure calls come from prepareCall and must keep their CallableStatement type.
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+        return (PreparedStatement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new TracedStatement(statement, sql, names));
+    }
+
+    /**
+     * Works out which column each {@code ?} placeholder of the SQL is compared with or inserted into, so that
+     * bind values can be redacted by column. Placeholders whose column cannot be told are named null.
+     *
+     * @param sql The SQL text.
+     * @return The column name of each placeholder, in order.
+     */
+    static String[] parameterNames(String sql) {
+        List<String> tokens = tokenize(sql);
+        List<String> names = new ArrayList<>();
+        List<String> insertColumns = null;
+        int valuesDepth = -1;  // Parenthesis depth of the open VALUES list, or -1 outside one
+        int valuesIndex = 0;
+        int depth = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            String upper = token.toUpperCase(Locale.ROOT);
+            if (upper.equals("INTO") && i + 2 < tokens.size() && tokens.get(i + 2).equals("(")) {
+                insertColumns = new ArrayList<>();
+                int j = i + 3;
+                while (j < tokens.size() && !tokens.get(j).equals(")")) {
+                    if (!tokens.get(j).equals(",")) {
+                        insertColumns.add(lastSegment(tokens.get(j)));
+                    }
+                    j++;
+                }
+                i = j;
+                continue;
+            }
+            if (token.equals("(")) {
+                depth++;
+                if (i > 0 && (tokens.get(i - 1).equalsIgnoreCase("VALUES")
+                        || valuesDepth == -2 && tokens.get(i - 1).equals(","))) {
+                    valuesDepth = depth;
+                    valuesIndex = 0;
+                }
+            } else if (token.equals(")")) {
+                if (depth == valuesDepth) {
+                    valuesDepth = -2;  // Between rows of a multi-row VALUES list
+                }
+                depth--;
+            } else if (token.equals(",") && depth == valuesDepth) {
+                valuesIndex++;
+            } else if (token.equals("?")) {
+                if (depth == valuesDepth) {
+                    names.add(insertColumns != null && valuesIndex < insertColumns.size()
+                            ? insertColumns.get(valuesIndex) : null);
+                } else {
+                    names.add(comparedColumn(tokens, i));
+                }
+            } else if (valuesDepth == -2 && !token.equals(",")) {
+                valuesDepth = -1;
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    // The column a placeholder outside a VALUES list is compared with: "col = ?", "col IN (?, ?)", "LIMIT ?".
+    private static String comparedColumn(List<String> tokens, int index) {
+        int i = index - 1;
+        if (i >= 0 && (tokens.get(i).equals("(") || tokens.get(i).equals(","))) {
+            // Walk back to the opening parenthesis of an IN list.
+            while (i >= 0 && !tokens.get(i).equals("(")) {
+                i--;
+            }
+            if (i >= 2 && tokens.get(i - 1).equalsIgnoreCase("IN")) {
+                return lastSegment(tokens.get(i - 2));
+            }
+            return null;
+        }
+        if (i >= 1 && OPERATORS.contains(tokens.get(i).toUpperCase(Locale.ROOT))) {
+            return lastSegment(tokens.get(i - 1));
+        }
+        if (i >= 0 && isWord(tokens.get(i))) {
+            return tokens.get(i).toUpperCase(Locale.ROOT);  // LIMIT, OFFSET
+        }
+        return null;
+    }
+
+    // Splits SQL into words, quoted literals, placeholders, parentheses, commas and operators.
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"' || c == '`') {
+                int end = sql.indexOf(c, i + 1);
+                end = end < 0 ? sql.length() : end + 1;
+                tokens.add(c == '\'' ? "'literal'" : sql.substring(i + 1, Math.max(i + 1, end - 1)));
+                i = end;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                int start = i;
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'
+                        || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i));
+            } else if ((c == '<' || c == '>' || c == '!') && i + 1 < sql.length()
+                    && (sql.charAt(i + 1) == '=' || sql.charAt(i + 1) == '>')) {
+                tokens.add(sql.substring(i, i + 2));
+                i += 2;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWord(String token) {
+        return !token.isEmpty() && Character.isLetter(token.charAt(0));
+    }
+
+    private static String lastSegment(String identifier) {
+        return identifier.substring(identifier.lastIndexOf('.') + 1);
+    }
+
+    // The loggable form of a bind value.
+    private String describe(String name, Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (name != null && redactedColumns.contains(name)) {
+            return REDACTED;
+        }
+        if (value instanceof String text) {
+            return text.indexOf('@') > 0 ? REDACTED : "'" + text + "'";
+        }
+        return String.valueOf(value);
+    }
+
+    // Records the binds and timing of one sampled statement and logs each of its executions.
+    private final class TracedStatement implements InvocationHandler {
+        private final PreparedStatement statement;  // The statement being traced
+        private final String sql;  // Its SQL text
+        private final String[] names;  // Column of each placeholder, or null
+        private final Object[] binds;  // Current bind values, by placeholder
+        private int batchSize;  // Rows added to the current batch
+        private long queryStartNanos = -1;  // When the open result set's query started, or -1
+        private long queryExecuteNanos;  // How long executing that query took
+        private long rowsRead;  // Rows read from the open result set
+        private String queryBinds;  // Binds of that query, described when it executed
+
+        TracedStatement(PreparedStatement statement, String sql, String[] names) {
+            this.statement = statement;
+            this.sql = sql;
+            this.names = names;
+            this.binds = new Object[names.length];
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && method.getParameterTypes()[0] == int.class) {
+                if (index >= 1 && index <= binds.length) {
+                    binds[index - 1] = name.equals("setNull") ? null : args[1];
+                }
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(binds, null);
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (name.equals("close")) {
+                finishQuery();
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            boolean executing = name.startsWith("execute") && (args == null || args.length == 0);
+            if (executing) {
+                finishQuery();
+            }
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                if (executing) {
+                    log(System.nanoTime() - start, -1, describeBinds(), e.getCause());
+                    batchSize = 0;
+                }
+                throw e.getCause();
+            }
+            if (!executing) {
+                return result;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (result instanceof ResultSet resultSet) {
+                queryStartNanos = start;
+                queryExecuteNanos = elapsed;
+                rowsRead = 0;
+                queryBinds = describeBinds();
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        new TracedResultSet(resultSet, this));
+            }
+            log(elapsed, affectedRows(result), describeBinds(), null);
+            batchSize = 0;
+            return result;
+        }
+
+        // Logs the query whose result set is open, once it is closed or its statement is reused.
+        void finishQuery() {
+            if (queryStartNanos >= 0) {
+                long total = System.nanoTime() - queryStartNanos;
+                queryStartNanos = -1;
+                logQuery(total, queryExecuteNanos, rowsRead, queryBinds);
+            }
+        }
+
+        private long affectedRows(Object result) {
+            if (result instanceof Integer count) {
+                return count;
+            }
+            if (result instanceof Long count) {
+                return count;
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+
+        private String describeBinds() {
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < binds.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(describe(names[i], binds[i]));
+            }
+            builder.append(']');
+            if (batchSize > 0) {
+                builder.append(" (last of a batch of ").append(batchSize).append(')');
+            }
+            return builder.toString();
+        }
+
+        private void log(long elapsedNanos, long rows, String binds, Throwable error) {
+            double millis = elapsedNanos / 1_000_000.0;
+            if (elapsedNanos >= slowThresholdNanos) {
+                slowLogger.warn("Slow statement took {} ms, {} rows affected: {} binds {}",
+                        format(millis), rows, sql, binds, error);
+            } else if (traceLogger.isDebugEnabled()) {
+                traceLogger.debug("Statement took {} ms, {} rows affected: {} binds {}",
+                        format(millis), rows, sql, binds, error);
+            }
+        }
+
+        private void logQuery(long totalNanos, long executeNanos, long rows, String binds) {
+            double millis = totalNanos / 1_000_000.0;
+            double executeMillis = executeNanos / 1_000_000.0;
+            if (totalNanos >= slowThresholdNanos) {
+                slowLogger.warn("Slow query took {} ms ({} ms to execute), {} rows read: {} binds {}",
+                        format(millis), format(executeMillis), rows, sql, binds);
+            } else if (traceLogger.isDebugEnabled()) {
+                traceLogger.debug("Query took {} ms ({} ms to execute), {} rows read: {} binds {}",
+                        format(millis), format(executeMillis), rows, sql, binds);
+            }
+        }
+
+        private String format(double millis) {
+            return String.format(Locale.ROOT, "%.3f", millis);
+        }
+    }
+
+    // Counts the rows read from a traced query and finishes the trace when closed.
+    private static final class TracedResultSet implements InvocationHandler {
+        private final ResultSet resultSet;  // The result set being counted
+        private final TracedStatement owner;  // The statement that produced it
+
+        TracedResultSet(ResultSet resultSet, TracedStatement owner) {
+            this.resultSet = resultSet;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    owner.finishQuery();
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                owner.rowsRead++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Maps equal strings to one canonical instance, so that values repeated across many rows, such as countries
+ * and cities, are held in memory once. The dictionary stops growing at its maximum size; values seen after
+ * that are returned as they are, which keeps a column that turns out not to repeat from filling the heap.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class StringDictionary {
+
+    private final ConcurrentHashMap<String, String> canonical = new ConcurrentHashMap<>();  // Value to its canonical instance
+    private final int maxSize;  // Maximum number of canonical instances
+
+    /**
+     * Constructs a new StringDictionary.
+     *
+     * @param maxSize The maximum number of distinct values to hold.
+     */
+    public StringDictionary(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the canonical instance of the given value, adding it if the dictionary has room.
+     *
+     * @param value The value, or null.
+     * @return The canonical instance, the value itself if the dictionary is full, or null for null.
+     */
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = canonical.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (canonical.size() >= maxSize) {
+            return value;
+        }
+        existing = canonical.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    /**
+     * Returns the number of canonical instances held.
+     *
+     * @return The dictionary size.
+     */
+    public int size() {
+        return canonical.size();
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Encodes and decodes the watermarks of incremental customer syncs.
+ * A token records the last CustomerChange entry a caller has caught up to; the next sync reads the entries after it.
+ */
+package org.music.application.database.management.customer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class SyncToken {
+
+    private static final String PREFIX = "CustomerChange:";
+    private static final String SHARDS_PREFIX = "Shards:";
+    private static final String SHARD_SEPARATOR = ".";  // Not in the URL-safe Base64 alphabet of shard tokens
+
+    private SyncToken() {
+    }
+
+    /**
+     * Encodes a token that continues after the given change.
+     *
+     * @param lastChangeId The ChangeId of the last change the caller has caught up to; 0 if there is none.
+     * @return The sync token.
+     */
+    public static String after(long lastChangeId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastChangeId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes the ChangeId a token continues after.
+     *
+     * @param token The sync token.
+     * @return The ChangeId to read after.
+     * @throws IllegalArgumentException If the token is malformed.
+     */
+    public static long lastChangeId(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid sync token: " + token);
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token: " + token, e);
+        }
+    }
+
+    /**
+     * Combines the tokens of several shards into one, so a sharded DAO can continue each shard's sync.
+     *
+     * @param shardTokens The token of each shard, by shard index; an entry is null if that shard has not synced.
+     * @return The combined sync token.
+     */
+    public static String ofShards(String[] shardTokens) {
+        StringBuilder joined = new StringBuilder(SHARDS_PREFIX);
+        for (int shard = 0; shard < shardTokens.length; shard++) {
+            if (shard > 0) {
+                joined.append(SHARD_SEPARATOR);
+            }
+            if (shardTokens[shard] != null) {
+                joined.append(shardTokens[shard]);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joined.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Splits a token made by {@link #ofShards(String[])} back into the tokens of its shards.
+     *
+     * @param token      The combined sync token.
+     * @param shardCount The number of shards the token must cover.
+     * @return The token of each shard, by shard index; null for a shard that had not synced.
+     * @throws IllegalArgumentException If the token is malformed or covers a different number of shards.
+     */
+    public static String[] shardTokens(String token, int shardCount) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token: " + token, e);
+        }
+        if (!decoded.startsWith(SHARDS_PREFIX)) {
+            throw new IllegalArgumentException("Invalid sync token: " + token);
+        }
+        String[] shardTokens = decoded.substring(SHARDS_PREFIX.length()).split("\\" + SHARD_SEPARATOR, -1);
+        if (shardTokens.length != shardCount) {
+            throw new IllegalArgumentException("Sync token covers " + shardTokens.length + " shards, not "
+                    + shardCount + ": " + token);
+        }
+        for (int shard = 0; shard < shardTokens.length; shard++) {
+            if (shardTokens[shard].isEmpty()) {
+                shardTokens[shard] = null;
+            }
+        }
+        return shardTokens;
+    }
+}
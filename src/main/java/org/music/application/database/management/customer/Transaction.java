@@ -0,0 +1,323 @@
+/**
+ * A transaction started by {@link ConnectionPool#inTransaction(TransactionOptions, TransactionWork)}.
+ * While the work runs, every connection its thread borrows from the pool is the transaction's connection, so DAO
+ * calls inside the work share one connection and commit together. The DAOs close that connection as usual; the
+ * transaction only returns it to the pool once it has committed or rolled back.
+ *
+ * A transaction that fails with a deadlock (MySQL error 1213), a lock wait timeout (error 1205) or a serialization
+ * failure (SQLState 40001) is rolled back and its work run again on a fresh connection, up to the configured
+ * number of retries. A transaction started while another one on the same pool is open on the thread joins it:
+ * its work runs on the outer connection and is committed, rolled back and retried with the outer work.
+ *
+ * Code that keeps state derived from the database, such as a cache in front of a DAO, can register actions with
+ * {@link #afterCommit(Runnable)} and {@link #afterRollback(Runnable)} so that writes made inside the transaction only
+ * reach that state once they are visible to other connections. {@link #current()} returns the transaction the
+ * calling thread is running in.
+ */
+package org.music.application.database.management.customer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class Transaction {
+    private static final Logger logger = Logger.getLogger(Transaction.class.getName());
+
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final String SERIALIZATION_FAILURE = "40001";
+
+    private static final ThreadLocal<Transaction> current = new ThreadLocal<>();  // Innermost transaction per thread
+
+    private final Connection connection;  // The pool handle the transaction runs on
+    private final Connection enlisted;  // Handle given to the work and to DAO calls inside it
+    private final int attempt;  // 1 for the first run of the work, 2 for the first retry, and so on
+    private final List<Runnable> afterCommit = new ArrayList<>();  // Run in order once the transaction commits
+    private final List<Runnable> afterRollback = new ArrayList<>();  // Run in order once it rolls back
+    private boolean ended;  // Whether the transaction has committed or rolled back
+
+    private Transaction(Connection connection, int attempt) {
+        this.connection = connection;
+        this.attempt = attempt;
+        this.enlisted = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Enlisted());
+    }
+
+    /**
+     * Returns the transaction the calling thread is running in, on any pool. When transactions on different pools
+     * are nested, this is the innermost one.
+     *
+     * @return The transaction open on the calling thread, or null if there is none.
+     */
+    public static Transaction current() {
+        return current.get();
+    }
+
+    /**
+     * Returns the transaction's connection. Closing it has no effect, and committing or rolling it back as a whole
+     * is refused; use savepoints to undo part of the work.
+     *
+     * @return The connection the transaction runs on.
+     */
+    public Connection getConnection() {
+        return enlisted;
+    }
+
+    /**
+     * Returns which run of the work this is.
+     *
+     * @return 1 for the first run, 2 for the first retry, and so on.
+     */
+    public int getAttempt() {
+        return attempt;
+    }
+
+    /**
+     * Sets an unnamed savepoint in the transaction.
+     *
+     * @return The new savepoint.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public Savepoint setSavepoint() throws SQLException {
+        return enlisted.setSavepoint();
+    }
+
+    /**
+     * Sets a named savepoint in the transaction.
+     *
+     * @param name The name of the savepoint.
+     * @return The new savepoint.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public Savepoint setSavepoint(String name) throws SQLException {
+        return enlisted.setSavepoint(name);
+    }
+
+    /**
+     * Undoes the work done since the savepoint was set. The transaction stays open.
+     *
+     * @param savepoint The savepoint to roll back to.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void rollback(Savepoint savepoint) throws SQLException {
+        enlisted.rollback(savepoint);
+    }
+
+    /**
+     * Removes a savepoint from the transaction, keeping the work done since it was set.
+     *
+     * @param savepoint The savepoint to release.
+     * @throws SQLException If an SQL exception occurs.
+     */
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        enlisted.releaseSavepoint(savepoint);
+    }
+
+    /**
+     * Registers an action to run once the transaction has committed and its connection is back in the pool. Actions
+     * run on the thread that started the transaction, in the order they were registered, after
+     * {@link #current()} no longer returns this transaction. An action that throws is logged and does not stop the
+     * others. If the transaction rolls back instead, including before a retry, the action is dropped; the retried
+     * work registers its actions again.
+     *
+     * @param action The action to run after the commit.
+     * @throws IllegalStateException If the transaction has already ended.
+     */
+    public void afterCommit(Runnable action) {
+        checkOpen();
+        afterCommit.add(action);
+    }
+
+    /**
+     * Registers an action to run once the transaction has rolled back and its connection is back in the pool, in
+     * the same way as {@link #afterCommit(Runnable)}. A transaction whose commit fails rolls back, so these actions
+     * run in that case too.
+     *
+     * @param action The action to run after the rollback.
+     * @throws IllegalStateException If the transaction has already ended.
+     */
+    public void afterRollback(Runnable action) {
+        checkOpen();
+        afterRollback.add(action);
+    }
+
+    private void checkOpen() {
+        if (ended) {
+            throw new IllegalStateException("Transaction has already ended");
+        }
+    }
+
+    /**
+     * Runs work in a new transaction on a connection from the pool, retrying it after retryable failures.
+     *
+     * @param pool    The pool to borrow the connection from.
+     * @param options How to run the transaction.
+     * @param work    The work to run.
+     * @param <T>     The type of the work's result.
+     * @return The result of the work.
+     * @throws SQLException If the work or the commit failed, after any retries.
+     */
+    static <T> T run(ConnectionPool pool, TransactionOptions options, TransactionWork<T> work) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return runOnce(pool, options, work, attempt);
+            } catch (SQLException | RuntimeException e) {
+                if (attempt > options.getMaxRetries() || !isRetryable(e)) {
+                    throw e;
+                }
+                pool.recordTransactionRetry();
+                logger.log(Level.FINE, "Retrying transaction after attempt " + attempt, e);
+                if (!backOff(options, attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static <T> T runOnce(ConnectionPool pool, TransactionOptions options, TransactionWork<T> work,
+                                 int attempt) throws SQLException {
+        Connection conn = pool.getConnection();
+        Transaction tx = new Transaction(conn, attempt);
+        boolean committed = false;
+        try {
+            if (options.getIsolation() != TransactionOptions.DEFAULT_ISOLATION) {
+                conn.setTransactionIsolation(options.getIsolation());
+            }
+            if (options.isReadOnly()) {
+                conn.setReadOnly(true);
+            }
+            conn.setAutoCommit(false);
+            T result;
+            Transaction enclosing = current.get();
+            current.set(tx);
+            pool.bind(tx);
+            try {
+                result = work.execute(tx);
+            } finally {
+                pool.unbind();
+                if (enclosing == null) {
+                    current.remove();
+                } else {
+                    current.set(enclosing);
+                }
+            }
+            conn.commit();
+            committed = true;
+            return result;
+        } catch (Throwable e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        } finally {
+            tx.ended = true;
+            conn.close();
+            runAll(committed ? tx.afterCommit : tx.afterRollback);
+        }
+    }
+
+    private static void runAll(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Transaction completion action failed", e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a failure, or any exception that caused it, is a deadlock, a lock wait timeout or a
+     * serialization failure, after which the database has rolled back the statement or the whole transaction and
+     * running the transaction again can succeed.
+     *
+     * @param failure The failure.
+     * @return Whether the failure is worth retrying.
+     */
+    static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && (sqlException.getErrorCode() == ER_LOCK_DEADLOCK
+                    || sqlException.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+                    || SERIALIZATION_FAILURE.equals(sqlException.getSQLState()))) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Waits before a retry, doubling the base wait per attempt and adding up to half again at random. Returns false
+    // if the thread was interrupted, in which case no retry should follow.
+    private static boolean backOff(TransactionOptions options, int attempt) {
+        long wait = options.getRetryBackoffMillis() << Math.min(attempt - 1, 16);
+        wait += ThreadLocalRandom.current().nextLong(wait / 2 + 1);
+        try {
+            Thread.sleep(wait);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // View of the transaction's connection for code running inside it. DAO calls open and close it as if it were
+    // a connection of their own, so closing it and turning auto-commit off are ignored, while ending the
+    // transaction early is refused.
+    private final class Enlisted implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null;
+                case "isClosed":
+                    return ended || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Transaction[" + connection + (ended ? ", ended]" : "]");
+                case "setAutoCommit":
+                    if (!(Boolean) args[0]) {
+                        return null;
+                    }
+                    throw new SQLException("Auto-commit cannot be turned on inside a transaction", "25000");
+                case "commit":
+                case "setTransactionIsolation":
+                case "setReadOnly":
+                    throw new SQLException(method.getName() + " is not allowed inside a transaction", "25000");
+                case "rollback":
+                    if (args == null) {
+                        throw new SQLException("rollback is not allowed inside a transaction; throw to roll back "
+                                + "or use a savepoint", "25000");
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (ended) {
+                throw new SQLException("Transaction has already ended", "08003");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
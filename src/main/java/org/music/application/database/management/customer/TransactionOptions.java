@@ -0,0 +1,87 @@
+/**
+ * Controls how {@link ConnectionPool#inTransaction(TransactionOptions, TransactionWork)} runs a transaction: its
+ * isolation level, whether it is read-only, and how often it is retried after a deadlock, a lock wait timeout or a
+ * serialization failure.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.Connection;
+
+public class TransactionOptions {
+
+    /**
+     * Isolation value that keeps the connection's own isolation level.
+     */
+    public static final int DEFAULT_ISOLATION = -1;
+
+    private int isolation = DEFAULT_ISOLATION;  // A Connection.TRANSACTION_* level, or DEFAULT_ISOLATION
+    private boolean readOnly;  // Whether the connection is marked read-only for the transaction
+    private int maxRetries = 3;  // Retries after the first attempt fails with a retryable error
+    private long retryBackoffMillis = 20;  // Base wait before a retry, doubled on each further retry
+
+    public int getIsolation() {
+        return isolation;
+    }
+
+    /**
+     * Sets the isolation level of the transaction.
+     *
+     * @param isolation One of the {@code Connection.TRANSACTION_*} levels other than
+     *                  {@link Connection#TRANSACTION_NONE}, or {@link #DEFAULT_ISOLATION}.
+     */
+    public void setIsolation(int isolation) {
+        if (isolation != DEFAULT_ISOLATION && isolation != Connection.TRANSACTION_READ_UNCOMMITTED
+                && isolation != Connection.TRANSACTION_READ_COMMITTED
+                && isolation != Connection.TRANSACTION_REPEATABLE_READ
+                && isolation != Connection.TRANSACTION_SERIALIZABLE) {
+            throw new IllegalArgumentException("Not a transaction isolation level: " + isolation);
+        }
+        this.isolation = isolation;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative: " + maxRetries);
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    /**
+     * Sets the base wait before a retry. The wait doubles with each further retry and is randomized by up to half,
+     * so transactions that deadlocked with each other do not retry in lockstep.
+     *
+     * @param retryBackoffMillis The base wait in milliseconds.
+     */
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        if (retryBackoffMillis < 0) {
+            throw new IllegalArgumentException("retryBackoffMillis must not be negative: " + retryBackoffMillis);
+        }
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionOptions{" +
+                "isolation=" + isolation +
+                ", readOnly=" + readOnly +
+                ", maxRetries=" + maxRetries +
+                ", retryBackoffMillis=" + retryBackoffMillis +
+                '}';
+    }
+}
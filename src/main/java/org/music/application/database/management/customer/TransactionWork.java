@@ -0,0 +1,24 @@
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+
+/**
+ * The work done inside a transaction started by {@link ConnectionPool#inTransaction(TransactionWork)}.
+ * The work may run more than once when the transaction is retried, so it should have no effects outside the
+ * database, or only ones that are safe to repeat.
+ *
+ * @param <T> The type of the work's result.
+ */
+@FunctionalInterface
+public interface TransactionWork<T> {
+
+    /**
+     * Does the work. DAO calls made on this thread while it runs use the transaction's connection.
+     *
+     * @param tx The transaction, for savepoints and direct access to its connection.
+     * @return The result of the work.
+     * @throws SQLException If an SQL exception occurs; the transaction is rolled back, and retried if the error
+     *                      is a deadlock, a lock wait timeout or a serialization failure.
+     */
+    T execute(Transaction tx) throws SQLException;
+}
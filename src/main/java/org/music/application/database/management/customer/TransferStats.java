@@ -0,0 +1,32 @@
+/**
+ * The outcome of a {@link CustomerTransfer} export, import or load.
+ *
+ * @param rows         Rows written to the file or inserted into the table.
+ * @param failedRows   Rows the database rejected during an import, such as duplicates.
+ * @param elapsedNanos Time the transfer took.
+ */
+package org.music.application.database.management.customer;
+
+import java.util.Locale;
+
+public record TransferStats(long rows, long failedRows, long elapsedNanos) {
+
+    /**
+     * Returns the throughput of the transfer.
+     *
+     * @return The rows transferred per second; 0 if no time was measured.
+     */
+    public double rowsPerSecond() {
+        return rowsPerSecond(rows, elapsedNanos);
+    }
+
+    static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "TransferStats{rows=%d, failedRows=%d, elapsed=%.1f s, rowsPerSecond=%.0f}",
+                rows, failedRows, elapsedNanos / 1e9, rowsPerSecond());
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * What an upsert ({@code INSERT ... ON DUPLICATE KEY UPDATE}) did to a row, decoded from its update count.
+ * MySQL reports 1 for an inserted row, 2 for an updated row and 0 for a row that already held the same values.
+ * The last case is only reported by pools that opt in with {@link PoolConfig#setUseAffectedRows(boolean)}, which
+ * also makes updates that change nothing report 0 rows. Otherwise the driver reports 1 for an unchanged row as
+ * well, and an {@link #INSERTED} outcome may be an unchanged row.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
+
+public enum UpsertOutcome {
+    INSERTED,
+    UPDATED,
+    UNCHANGED,
+    UNKNOWN;  // The server did not report a count for the row, e.g. for rows of a multi-row upsert
+
+    /**
+     * Decodes the update count of a single-row upsert.
+     *
+     * @param updateCount The update count reported for the row.
+     * @return What the upsert did to the row.
+     */
+    public static UpsertOutcome of(int updateCount) {
+        return switch (updateCount) {
+            case 0 -> UNCHANGED;
+            case 1 -> INSERTED;
+            case 2 -> UPDATED;
+            default -> UNKNOWN;
+        };
+    }
+
+    /**
+     * Counts the outcomes of the successful rows of a bulk upsert.
+     *
+     * @param result The result of the bulk upsert.
+     * @return The number of rows with each outcome; failed rows are not counted.
+     */
+    public static Map<UpsertOutcome, Integer> tally(BatchResult<?> result) {
+        Map<UpsertOutcome, Integer> counts = new EnumMap<>(UpsertOutcome.class);
+        for (UpsertOutcome outcome : values()) {
+            counts.put(outcome, 0);
+        }
+        for (int updateCount : result.getUpdateCounts()) {
+            if (updateCount != Statement.EXECUTE_FAILED) {
+                counts.merge(of(updateCount), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
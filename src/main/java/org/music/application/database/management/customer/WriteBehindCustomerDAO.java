@@ -0,0 +1,598 @@
+/**
+ * A CustomerDAO decorator that buffers updates, saves and deletes and writes them to the underlying DAO later, in
+ * batches. The buffer keeps one pending write per customer, so a customer updated many times between flushes costs
+ * one row in one batch. A background thread flushes the buffer when it holds the flush size or when the flush
+ * interval has passed. The buffer holds at most a set number of customers; writers wait for a flush when it is
+ * full. {@link #get(int)} and {@link #getMany(int[])} see pending writes. Other reads flush the buffer first.
+ *
+ * A buffered write cannot know its outcome, so it reports one row affected, and batch writes report
+ * {@link java.sql.Statement#SUCCESS_NO_INFO}. A buffered update of a customer that does not exist still shows up
+ * in {@link #get(int)} until it is flushed, and then has no effect. A row the underlying DAO rejects during a flush
+ * is logged and dropped. When a whole flush fails, its rows go back into the buffer and are retried on the next
+ * flush. Inserts are not buffered, so duplicate keys are still reported to the caller.
+ *
+ * Inside a {@link Transaction}, writes are buffered only once the transaction commits and are dropped if it rolls
+ * back, so the flusher never writes what the transaction did not commit. Reads there go to the underlying DAO
+ * without flushing, as a flush on the transaction's connection would be rolled back with it; {@link #flush()} and
+ * inserts that need one flush from another thread instead.
+ *
+ * {@link #close()} flushes what is left. Use {@link #closeOnShutdown()} to have that happen when the JVM exits.
+ */
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+public class WriteBehindCustomerDAO extends ForwardingCustomerDAO implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(WriteBehindCustomerDAO.class.getName());
+
+    private final int flushSize;  // Pending customers at which the flusher runs without waiting for the interval
+    private final long flushIntervalNanos;  // Longest a write waits in the buffer while the flusher keeps up
+    private final Map<Integer, PendingWrite> pending = new ConcurrentHashMap<>();  // Writes waiting to be flushed
+    private final Map<Integer, PendingWrite> flushing = new ConcurrentHashMap<>();  // Writes being flushed now
+    private final Semaphore capacity;  // One permit per customer the buffer may hold, pending or being flushed
+    private final ReentrantLock flushLock = new ReentrantLock();  // Serializes flushes
+    private final ReentrantLock wakeLock = new ReentrantLock();  // Guards flushRequested
+    private final Condition wake = wakeLock.newCondition();  // Signalled when a flush is wanted early
+    private boolean flushRequested;
+    private final Thread flusher;
+    private volatile boolean closed;
+    private Thread shutdownHook;  // Registered by closeOnShutdown, or null
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rowsFlushed = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+
+    /**
+     * Constructs a new WriteBehindCustomerDAO and starts its flusher thread.
+     *
+     * @param delegate      The DAO to flush writes to and to forward all other calls to.
+     * @param maxPending    The most customers the buffer holds before writers wait for a flush.
+     * @param flushSize     The number of pending customers at which a flush starts without waiting for the
+     *                      interval; at most maxPending.
+     * @param flushInterval How long a write may wait in the buffer before it is flushed.
+     */
+    public WriteBehindCustomerDAO(CustomerDAO delegate, int maxPending, int flushSize, Duration flushInterval) {
+        super(delegate);
+        if (flushSize < 1 || flushSize > maxPending) {
+            throw new IllegalArgumentException("flushSize must be between 1 and maxPending (" + maxPending + "): "
+                    + flushSize);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+        }
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.capacity = new Semaphore(maxPending);
+        this.flusher = new Thread(this::runFlusher, "write-behind-customer-dao");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Retrieve - pending writes first
+
+    /**
+     * Retrieves a customer, as last written through this DAO if that write has not been flushed yet.
+     *
+     * @param customerId The unique identifier of the customer to retrieve.
+     * @return The customer, or null if no customer with the given identifier exists or it is pending deletion.
+     * @throws SQLException If an SQL exception occurs while reading the underlying DAO.
+     */
+    @Override
+    public Customer get(int customerId) throws SQLException {
+        PendingWrite write = pendingWrite(customerId);
+        if (write != null) {
+            return write.kind == WriteKind.DELETE ? null : new Customer(write.customer);
+        }
+        return delegate.get(customerId);
+    }
+
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        int[] distinctIds = Arrays.stream(ids).distinct().toArray();
+        IntObjectMap<Customer> found = new IntObjectMap<>(distinctIds.length);
+        int[] unbuffered = new int[distinctIds.length];
+        int unbufferedCount = 0;
+        for (int id : distinctIds) {
+            PendingWrite write = pendingWrite(id);
+            if (write == null) {
+                unbuffered[unbufferedCount++] = id;
+            } else if (write.kind != WriteKind.DELETE) {
+                found.put(id, new Customer(write.customer));
+            }
+        }
+        if (unbufferedCount > 0) {
+            delegate.getMany(Arrays.copyOf(unbuffered, unbufferedCount)).forEach(found::put);
+        }
+        return found;
+    }
+
+    // The latest write of a customer that the underlying DAO may not have yet. A write is added to flushing before
+    // it leaves pending, so it is always in one of them until the underlying DAO has it.
+    private PendingWrite pendingWrite(int customerId) {
+        PendingWrite write = pending.get(customerId);
+        return write != null ? write : flushing.get(customerId);
+    }
+
+    // Retrieve - flushed first
+
+    @Override
+    public List<Customer> getAll() throws SQLException {
+        flushBeforeRead();
+        return delegate.getAll();
+    }
+
+    @Override
+    public Stream<Customer> streamAll() throws SQLException {
+        flushBeforeRead();
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Customer> getAll(Set<CustomerColumn> columns) throws SQLException {
+        flushBeforeRead();
+        return delegate.getAll(columns);
+    }
+
+    @Override
+    public <R extends Record> R get(int customerId, Class<R> recordType) throws SQLException {
+        flushBeforeRead();
+        return delegate.get(customerId, recordType);
+    }
+
+    @Override
+    public <R extends Record> List<R> getAll(Class<R> recordType) throws SQLException {
+        flushBeforeRead();
+        return delegate.getAll(recordType);
+    }
+
+    @Override
+    public <R extends Record> Stream<R> streamAll(Class<R> recordType) throws SQLException {
+        flushBeforeRead();
+        return delegate.streamAll(recordType);
+    }
+
+    @Override
+    public Customer findByEmail(String email) throws SQLException {
+        flushBeforeRead();
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<Customer> findByCountry(String country) throws SQLException {
+        flushBeforeRead();
+        return delegate.findByCountry(country);
+    }
+
+    @Override
+    public List<Customer> findBySupportRepId(int supportRepId) throws SQLException {
+        flushBeforeRead();
+        return delegate.findBySupportRepId(supportRepId);
+    }
+
+    @Override
+    public Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) throws SQLException {
+        flushBeforeRead();
+        return delegate.getPage(pageToken, pageSize, filter);
+    }
+
+    @Override
+    public CustomerChanges getChangedSince(String syncToken) throws SQLException {
+        flushBeforeRead();
+        return delegate.getChangedSince(syncToken);
+    }
+
+    // CRUD - buffered
+
+    /**
+     * Buffers an upsert of the customer, replacing any pending write of it.
+     *
+     * @param customer The customer to save.
+     * @return 1; the outcome is only known once the write is flushed.
+     * @throws SQLException If interrupted while waiting for room in the buffer.
+     */
+    @Override
+    public int save(Customer customer) throws SQLException {
+        bufferOnCommit(customer.getCustomerId(), new PendingWrite(WriteKind.SAVE, new Customer(customer)));
+        return 1;
+    }
+
+    /**
+     * Buffers an update of the customer, replacing any pending write of it. An update following a pending save
+     * stays a save, and one following a pending delete is dropped, as it would have no effect.
+     *
+     * @param customer The customer to update.
+     * @return 1; the outcome is only known once the write is flushed.
+     * @throws SQLException If interrupted while waiting for room in the buffer.
+     */
+    @Override
+    public int update(Customer customer) throws SQLException {
+        bufferOnCommit(customer.getCustomerId(), new PendingWrite(WriteKind.UPDATE, new Customer(customer)));
+        return 1;
+    }
+
+    /**
+     * Buffers a delete of the customer, replacing any pending write of it.
+     *
+     * @param customer The customer to delete.
+     * @return 1; the outcome is only known once the write is flushed.
+     * @throws RuntimeException If interrupted while waiting for room in the buffer.
+     */
+    @Override
+    public int delete(Customer customer) {
+        try {
+            bufferOnCommit(customer.getCustomerId(), new PendingWrite(WriteKind.DELETE, null));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return 1;
+    }
+
+    @Override
+    public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+        for (Customer customer : customers) {
+            bufferOnCommit(customer.getCustomerId(), new PendingWrite(WriteKind.SAVE, new Customer(customer)));
+        }
+        return buffered(customers.size());
+    }
+
+    @Override
+    public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+        for (Customer customer : customers) {
+            bufferOnCommit(customer.getCustomerId(), new PendingWrite(WriteKind.UPDATE, new Customer(customer)));
+        }
+        return buffered(customers.size());
+    }
+
+    @Override
+    public BatchResult<Customer> deleteAll(Collection<Customer> customers) throws SQLException {
+        for (Customer customer : customers) {
+            bufferOnCommit(customer.getCustomerId(), new PendingWrite(WriteKind.DELETE, null));
+        }
+        return buffered(customers.size());
+    }
+
+    private static BatchResult<Customer> buffered(int rows) {
+        int[] updateCounts = new int[rows];
+        Arrays.fill(updateCounts, Statement.SUCCESS_NO_INFO);
+        return new BatchResult<>(updateCounts, List.of());
+    }
+
+    // CRUD - written through
+
+    /**
+     * Inserts a customer straight away, after flushing any pending write of it, so that a duplicate key is reported
+     * to the caller.
+     *
+     * @param customer The customer to insert.
+     * @return The number of rows inserted.
+     * @throws SQLException If an SQL exception occurs while flushing or inserting.
+     */
+    @Override
+    public int insert(Customer customer) throws SQLException {
+        checkOpen();
+        if (pendingWrite(customer.getCustomerId()) != null) {
+            flush();
+        }
+        return delegate.insert(customer);
+    }
+
+    @Override
+    public BatchResult<Customer> insertAll(Collection<Customer> customers) throws SQLException {
+        checkOpen();
+        if (customers.stream().anyMatch(customer -> pendingWrite(customer.getCustomerId()) != null)) {
+            flush();
+        }
+        return delegate.insertAll(customers);
+    }
+
+    // Buffers a write now or, inside a transaction, once it commits.
+    private void bufferOnCommit(int customerId, PendingWrite write) throws SQLException {
+        checkOpen();
+        Transaction tx = Transaction.current();
+        if (tx == null) {
+            buffer(customerId, write);
+            return;
+        }
+        tx.afterCommit(() -> {
+            try {
+                buffer(customerId, write);
+            } catch (SQLException | IllegalStateException e) {
+                logger.log(Level.WARNING, "Dropped the committed write of customer " + customerId, e);
+            }
+        });
+    }
+
+    // Adds a write to the buffer, coalescing it with a pending write of the same customer. A new customer needs
+    // room in the buffer; when there is none, the flusher is woken and the writer waits for it.
+    private void buffer(int customerId, PendingWrite write) throws SQLException {
+        checkOpen();
+        writes.increment();
+        if (pending.computeIfPresent(customerId, (id, older) -> coalesce(older, write)) != null) {
+            coalesced.increment();
+            return;
+        }
+        if (!capacity.tryAcquire()) {
+            requestFlush();
+            try {
+                capacity.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for room in the write-behind buffer", e);
+            }
+        }
+        boolean[] added = new boolean[1];
+        pending.compute(customerId, (id, older) -> {
+            added[0] = older == null;
+            return older == null ? write : coalesce(older, write);
+        });
+        if (!added[0]) {
+            capacity.release();  // Another writer added the customer while this one waited
+            coalesced.increment();
+        }
+        if (closed) {
+            flush();  // Closed while this writer waited, perhaps after the final flush
+        } else if (pending.size() >= flushSize) {
+            requestFlush();
+        }
+    }
+
+    // The single write with the same effect as the older write followed by the newer one.
+    private static PendingWrite coalesce(PendingWrite older, PendingWrite newer) {
+        if (newer.kind != WriteKind.UPDATE) {
+            return newer;
+        }
+        return switch (older.kind) {
+            case SAVE -> new PendingWrite(WriteKind.SAVE, newer.customer);
+            case DELETE -> older;
+            case UPDATE -> newer;
+        };
+    }
+
+    /**
+     * Writes every pending write to the underlying DAO now, with one batch call per kind of write. Writes buffered
+     * while the flush runs wait for the next one. Called inside a transaction, the flush runs on another thread so
+     * that it does not use the transaction's connection.
+     *
+     * @throws SQLException If a batch call fails as a whole; its rows stay buffered for the next flush.
+     */
+    public void flush() throws SQLException {
+        if (Transaction.current() == null) {
+            flushNow();
+            return;
+        }
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            flushNow();
+            return null;
+        });
+        new Thread(task, "write-behind-customer-dao-flush").start();
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while flushing the write-behind buffer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Write-behind flush failed", e.getCause());
+        }
+    }
+
+    // Reads that do not consult the buffer see pending writes once they are flushed. Inside a transaction they read
+    // through instead, leaving the buffer to the flusher.
+    private void flushBeforeRead() throws SQLException {
+        if (Transaction.current() == null) {
+            flushNow();
+        }
+    }
+
+    private void flushNow() throws SQLException {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Customer> saves = new ArrayList<>();
+            List<Customer> updates = new ArrayList<>();
+            List<Customer> deletes = new ArrayList<>();
+            for (Integer customerId : pending.keySet()) {
+                PendingWrite write;
+                do {
+                    write = pending.get(customerId);
+                    if (write == null) {
+                        break;
+                    }
+                    flushing.put(customerId, write);
+                } while (!pending.remove(customerId, write));
+                if (write == null) {
+                    continue;
+                }
+                switch (write.kind) {
+                    case SAVE -> saves.add(write.customer);
+                    case UPDATE -> updates.add(write.customer);
+                    case DELETE -> deletes.add(deleted(customerId));
+                }
+            }
+            flushes.increment();
+            int taken = flushing.size();
+            int requeued = 0;
+            try {
+                write(deletes, delegate::deleteAll);
+                deletes = List.of();
+                write(saves, delegate::saveAll);
+                saves = List.of();
+                write(updates, delegate::updateAll);
+                updates = List.of();
+            } finally {
+                // Whatever a failed batch call left unwritten goes back, under any write buffered since.
+                for (List<Customer> unwritten : List.of(deletes, saves, updates)) {
+                    for (Customer customer : unwritten) {
+                        PendingWrite write = flushing.get(customer.getCustomerId());
+                        boolean[] added = new boolean[1];
+                        pending.compute(customer.getCustomerId(), (id, newer) -> {
+                            added[0] = newer == null;
+                            return newer == null ? write : coalesce(write, newer);
+                        });
+                        if (added[0]) {
+                            requeued++;  // Keeps its permit; otherwise the newer write already holds one
+                        }
+                    }
+                }
+                flushing.clear();
+                capacity.release(taken - requeued);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Writes one kind of write in a single batch call, dropping the rows the underlying DAO rejects.
+    private void write(List<Customer> customers, BatchCall call) throws SQLException {
+        if (customers.isEmpty()) {
+            return;
+        }
+        BatchResult<Customer> result = call.write(customers);
+        for (BatchResult.Failure<Customer> failure : result.getFailures()) {
+            logger.log(Level.WARNING, "Dropped the buffered write of customer " + failure.item().getCustomerId(),
+                    failure.cause());
+        }
+        rowsFlushed.add(result.getSucceededCount());
+        failedRows.add(result.getFailures().size());
+    }
+
+    // deleteAll only reads the CustomerId of the customers it is given.
+    private static Customer deleted(int customerId) {
+        return new Customer(customerId, null, null, null, null, null, null, null, null, null, null, null, 0);
+    }
+
+    private void requestFlush() {
+        wakeLock.lock();
+        try {
+            flushRequested = true;
+            wake.signal();
+        } finally {
+            wakeLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (!closed) {
+            wakeLock.lock();
+            try {
+                if (!flushRequested) {
+                    wake.awaitNanos(flushIntervalNanos);
+                }
+                flushRequested = false;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                wakeLock.unlock();
+            }
+            if (closed) {
+                return;  // close() flushes what is left
+            }
+            try {
+                flush();
+            } catch (SQLException | RuntimeException e) {
+                logger.log(Level.WARNING, "Write-behind flush failed; retrying on the next flush", e);
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The write-behind buffer has been closed");
+        }
+    }
+
+    /**
+     * Returns a snapshot of the write-behind counters.
+     *
+     * @return The current write-behind statistics.
+     */
+    public WriteBehindStats getStats() {
+        return new WriteBehindStats(writes.sum(), coalesced.sum(), flushes.sum(), rowsFlushed.sum(),
+                failedRows.sum(), pending.size());
+    }
+
+    /**
+     * Registers a JVM shutdown hook that closes this DAO, so pending writes are flushed when the JVM exits normally.
+     * Closing the DAO removes the hook again.
+     */
+    public synchronized void closeOnShutdown() {
+        if (shutdownHook == null && !closed) {
+            shutdownHook = new Thread(() -> {
+                try {
+                    close();
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Buffered customer writes were lost at shutdown", e);
+                }
+            }, "write-behind-customer-dao-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * Stops the flusher and flushes the pending writes. Later writes are rejected with an IllegalStateException.
+     *
+     * @throws SQLException If the final flush fails; the writes it could not flush stay buffered, and
+     *                      {@link #flush()} may be called again to retry them.
+     */
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            if (!closed) {
+                closed = true;
+                requestFlush();  // Wakes the flusher so it sees it is closed
+                if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                }
+                shutdownHook = null;
+            }
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while stopping the write-behind flusher", e);
+        }
+        flush();
+    }
+
+    private enum WriteKind {
+        SAVE,
+        UPDATE,
+        DELETE
+    }
+
+    @FunctionalInterface
+    private interface BatchCall {
+        BatchResult<Customer> write(Collection<Customer> customers) throws SQLException;
+    }
+
+    // A buffered write; customer is null for a delete.
+    private record PendingWrite(WriteKind kind, Customer customer) {
+    }
+}
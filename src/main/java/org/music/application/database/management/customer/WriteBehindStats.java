@@ -0,0 +1,25 @@
+/**
+ * A point-in-time snapshot of the counters of a {@link WriteBehindCustomerDAO}.
+ *
+ * @param writes      Writes accepted into the buffer.
+ * @param coalesced   Writes that replaced a pending write of the same customer instead of adding one.
+ * @param flushes     Flushes that wrote at least one row, successful or not.
+ * @param rowsFlushed Rows written to the underlying DAO.
+ * @param failedRows  Rows the underlying DAO rejected and that were dropped.
+ * @param pending     Customers with a write waiting to be flushed.
+ */
+package org.music.application.database.management.customer;
+
+public record WriteBehindStats(long writes, long coalesced, long flushes, long rowsFlushed, long failedRows,
+                               int pending) {
+
+    /**
+     * Returns the number of buffered writes per row written, which is how many round trips coalescing saved
+     * per row.
+     *
+     * @return The writes per flushed row; 0 if nothing has been flushed.
+     */
+    public double writesPerRow() {
+        return rowsFlushed == 0 ? 0 : (double) writes / rowsFlushed;
+    }
+}
@@ -0,0 +1,29 @@
+-- Change log behind CustomerDAO.getChangedSince. Every insert, update and delete on Customer appends the
+-- affected CustomerId; sync clients read the entries after their watermark and fetch the current rows.
+-- Entries may be purged once they are older than the longest interval between any client's syncs, for example:
+--   DELETE FROM CustomerChange WHERE ChangedAt < NOW(3) - INTERVAL 7 DAY;
+-- A client whose watermark predates the purged entries must start again with a full sync.
+
+CREATE TABLE CustomerChange
+(
+    ChangeId BIGINT NOT NULL AUTO_INCREMENT,
+    CustomerId INT NOT NULL,
+    Operation CHAR(1) NOT NULL,  -- I, U or D
+    ChangedAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    CONSTRAINT PK_CustomerChange PRIMARY KEY (ChangeId)
+);
+
+CREATE INDEX IFK_CustomerChangeChangedAt ON CustomerChange (ChangedAt);
+
+CREATE TRIGGER Customer_ChangeLog_Insert AFTER INSERT ON Customer FOR EACH ROW
+    INSERT INTO CustomerChange (CustomerId, Operation) VALUES (NEW.CustomerId, 'I');
+
+-- An update that changes the key deletes the old CustomerId as far as sync clients are concerned.
+CREATE TRIGGER Customer_ChangeLog_Update AFTER UPDATE ON Customer FOR EACH ROW
+    INSERT INTO CustomerChange (CustomerId, Operation)
+    SELECT NEW.CustomerId, 'U'
+    UNION ALL
+    SELECT OLD.CustomerId, 'D' FROM DUAL WHERE OLD.CustomerId <> NEW.CustomerId;
+
+CREATE TRIGGER Customer_ChangeLog_Delete AFTER DELETE ON Customer FOR EACH ROW
+    INSERT INTO CustomerChange (CustomerId, Operation) VALUES (OLD.CustomerId, 'D');
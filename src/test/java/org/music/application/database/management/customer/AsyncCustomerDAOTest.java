@@ -0,0 +1,135 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncCustomerDAOTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("async_test");
+        TestDatabase.seed(pool, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void getShouldCompleteWithTheCustomer() throws Exception {
+        try (AsyncCustomerDAO asyncDao = new AsyncCustomerDAO(new CustomerDAOImplementation(pool), pool, null)) {
+            assertEquals(TestDatabase.customer(3), asyncDao.get(3).get());
+        }
+    }
+
+    @Test
+    void concurrentCallsShouldNotExceedTheLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CustomerDAO slowDao = new InMemoryCustomerDAO(5) {
+            @Override
+            public Customer get(int id) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return super.get(id);
+            }
+        };
+
+        try (AsyncCustomerDAO asyncDao = new AsyncCustomerDAO(slowDao, 2, null)) {
+            List<CompletableFuture<Customer>> futures = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                futures.add(asyncDao.get(1 + i % 5));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+        }
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void timeoutShouldCancelTheRunningStatement() throws Exception {
+        AtomicInteger cancelledQueries = new AtomicInteger();
+        CustomerDAO longRunningDao = new CustomerDAOImplementation(pool) {
+            @Override
+            public Customer get(int customerId) throws SQLException {
+                try (Connection conn = pool.getConnection();
+                     PreparedStatement prepStatement = conn.prepareStatement(
+                             "SELECT MAX(A.X + B.X) FROM SYSTEM_RANGE(1, 1000000) A, SYSTEM_RANGE(1, 1000000) B");
+                     ResultSet resultSet = prepStatement.executeQuery()) {
+                    resultSet.next();
+                    return null;
+                } catch (SQLException e) {
+                    cancelledQueries.incrementAndGet();
+                    throw e;
+                }
+            }
+        };
+
+        try (AsyncCustomerDAO asyncDao = new AsyncCustomerDAO(longRunningDao, pool, Duration.ofMillis(200))) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> asyncDao.get(1).get());
+            assertInstanceOf(TimeoutException.class, error.getCause());
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (cancelledQueries.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertEquals(1, cancelledQueries.get());
+    }
+
+    @Test
+    void leavingTheScopeShouldWaitForACancelInProgress() throws Exception {
+        CountDownLatch cancelling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Statement slowToCancel = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("cancel")) {
+                        cancelling.countDown();
+                        release.await();
+                    }
+                    return null;
+                });
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.enter();
+        try {
+            QueryCancellation.register(slowToCancel);
+
+            CompletableFuture<Void> cancel = CompletableFuture.runAsync(cancellation::cancel);
+            assertTrue(cancelling.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Void> exit = CompletableFuture.runAsync(cancellation::exit);
+
+            assertThrows(TimeoutException.class, () -> exit.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            cancel.get(5, TimeUnit.SECONDS);
+            exit.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            cancellation.exit();  // Unbinds the scope from this thread too
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingCustomerDAOTest {
+
+    private static List<Future<Customer>> getConcurrently(CustomerDAO dao, int[] ids, ExecutorService executor) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Customer>> results = new ArrayList<>();
+        for (int id : ids) {
+            Callable<Customer> call = () -> {
+                start.await();
+                return dao.get(id);
+            };
+            results.add(executor.submit(call));
+        }
+        start.countDown();
+        return results;
+    }
+
+    @Test
+    void concurrentGetsShouldShareBatches() throws Exception {
+        InMemoryCustomerDAO delegate = new InMemoryCustomerDAO(20);
+        BatchingCustomerDAO batchingDao = new BatchingCustomerDAO(delegate, Duration.ofMillis(200), 100);
+        int[] ids = new int[32];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i % 8 + 1;  // Eight distinct customers, each asked for four times
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(ids.length);
+        try {
+            List<Future<Customer>> results = getConcurrently(batchingDao, ids, executor);
+            for (int i = 0; i < ids.length; i++) {
+                assertEquals(TestDatabase.customer(ids[i]), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        BatchStats stats = batchingDao.getStats();
+        assertEquals(32, stats.requests());
+        assertEquals(stats.batches(), delegate.getManyCalls.get());
+        assertTrue(stats.batches() < 8, "batches: " + stats.batches());
+        assertEquals(stats.keysLoaded(), delegate.getCalls.get());
+    }
+
+    @Test
+    void fullBatchShouldLoadWithoutWaitingForTheWindow() throws Exception {
+        InMemoryCustomerDAO delegate = new InMemoryCustomerDAO(10);
+        BatchingCustomerDAO batchingDao = new BatchingCustomerDAO(delegate, Duration.ofSeconds(30), 4);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (Future<Customer> result : getConcurrently(batchingDao, new int[]{1, 2, 3, 4}, executor)) {
+                    assertNotNull(result.get());
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(4, batchingDao.getStats().largestBatch());
+        assertEquals(1, batchingDao.getStats().batchSizeBuckets()[2]);
+    }
+
+    @Test
+    void missingCustomersAndLoneCallersShouldBeServed() throws SQLException {
+        BatchingCustomerDAO batchingDao = new BatchingCustomerDAO(new InMemoryCustomerDAO(3), Duration.ZERO, 10);
+
+        assertEquals(TestDatabase.customer(2), batchingDao.get(2));
+        assertNull(batchingDao.get(42));
+        assertEquals(2, batchingDao.getStats().batches());
+    }
+
+    @Test
+    void loadFailuresShouldReachEveryCaller() throws Exception {
+        CustomerDAO failing = new InMemoryCustomerDAO(3) {
+            @Override
+            public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+                throw new SQLException("boom");
+            }
+        };
+        BatchingCustomerDAO batchingDao = new BatchingCustomerDAO(failing, Duration.ofMillis(50), 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (Future<Customer> result : getConcurrently(batchingDao, new int[]{1, 2, 3}, executor)) {
+                ExecutionException e = assertThrows(ExecutionException.class, result::get);
+                assertInstanceOf(SQLException.class, e.getCause());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void callersInsideATransactionShouldNotShareBatches() throws SQLException {
+        try (ConnectionPool pool = TestDatabase.create("batching_transaction_test")) {
+            TestDatabase.seed(pool, 3);
+            CustomerDAOImplementation customerImpDao = new CustomerDAOImplementation(pool);
+            BatchingCustomerDAO batchingDao = new BatchingCustomerDAO(customerImpDao, Duration.ofSeconds(1), 100);
+
+            Customer outside = pool.inTransaction(tx -> {
+                Customer uncommitted = TestDatabase.customer(1);
+                uncommitted.setCity("Uncommitted");
+                customerImpDao.update(uncommitted);
+                CompletableFuture<Customer> other = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return batchingDao.get(1);
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                assertEquals("Uncommitted", batchingDao.get(1).getCity());
+                Customer seen = other.join();
+                return seen;
+            });
+
+            assertEquals(TestDatabase.customer(1).getCity(), outside.getCity());
+            assertEquals(1, batchingDao.getStats().requests());
+        }
+    }
+}
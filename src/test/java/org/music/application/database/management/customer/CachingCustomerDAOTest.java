@@ -0,0 +1,129 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingCustomerDAOTest {
+    private InMemoryCustomerDAO delegate;
+    private CachingCustomerDAO cachingDao;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new InMemoryCustomerDAO(10);
+        cachingDao = new CachingCustomerDAO(delegate, 3);
+    }
+
+    @Test
+    void repeatedGetShouldBeServedFromTheCache() throws SQLException {
+        assertEquals(TestDatabase.customer(1), cachingDao.get(1));
+        assertEquals(TestDatabase.customer(1), cachingDao.get(1));
+
+        assertEquals(1, delegate.getCalls.get());
+        CacheStats stats = cachingDao.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.hitRatio());
+    }
+
+    @Test
+    void missingCustomersShouldBeCached() throws SQLException {
+        assertNull(cachingDao.get(99));
+        assertNull(cachingDao.get(99));
+        assertEquals(1, delegate.getCalls.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryShouldBeEvicted() throws SQLException {
+        cachingDao.get(1);
+        cachingDao.get(2);
+        cachingDao.get(3);
+        cachingDao.get(1);
+        cachingDao.get(4);  // Evicts 2
+
+        cachingDao.get(1);
+        assertEquals(4, delegate.getCalls.get());
+        cachingDao.get(2);
+        assertEquals(5, delegate.getCalls.get());
+        assertEquals(2, cachingDao.getStats().evictions());
+    }
+
+    @Test
+    void writesShouldInvalidateTheEntry() throws SQLException {
+        Customer customer = cachingDao.get(5);
+        customer.setCity("Newcastle upon Tyne");
+        cachingDao.update(customer);
+
+        assertEquals("Newcastle upon Tyne", cachingDao.get(5).getCity());
+        cachingDao.delete(customer);
+        assertNull(cachingDao.get(5));
+
+        cachingDao.insertAll(List.of(TestDatabase.customer(5)));
+        assertNotNull(cachingDao.get(5));
+        assertEquals(4, delegate.getCalls.get());
+    }
+
+    @Test
+    void changingAReturnedCustomerShouldNotChangeTheCache() throws SQLException {
+        cachingDao.get(6).setEmail("changed@example.com");
+        assertEquals(TestDatabase.customer(6).getEmail(), cachingDao.get(6).getEmail());
+    }
+
+    @Test
+    void expiredEntriesShouldBeReloaded() throws SQLException, InterruptedException {
+        CachingCustomerDAO expiringDao = new CachingCustomerDAO(delegate, 3, Duration.ofMillis(1), false);
+        expiringDao.get(7);
+        Thread.sleep(5);
+        expiringDao.get(7);
+        assertEquals(2, delegate.getCalls.get());
+    }
+
+    @Test
+    void getManyShouldOnlyLoadTheCustomersNotCached() throws SQLException {
+        cachingDao.get(2);
+
+        IntObjectMap<Customer> found = cachingDao.getMany(new int[]{2, 3, 3, 99});
+
+        assertEquals(2, found.size());
+        assertEquals(TestDatabase.customer(3), found.get(3));
+        assertEquals(3, delegate.getCalls.get());  // 2 once, then 3 and 99 through the default getMany
+        assertNull(cachingDao.get(99));
+        assertEquals(3, delegate.getCalls.get());
+    }
+
+    @Test
+    void writeInsideATransactionShouldOnlyReachTheCacheOnceCommitted() throws SQLException {
+        try (ConnectionPool pool = TestDatabase.create("caching_transaction_test")) {
+            TestDatabase.seed(pool, 3);
+            CachingCustomerDAO dao = new CachingCustomerDAO(new CustomerDAOImplementation(pool), 3);
+            Customer renamed = TestDatabase.customer(1);
+            renamed.setFirstName("Renamed");
+
+            assertThrows(IllegalStateException.class, () -> pool.inTransaction(tx -> {
+                dao.update(renamed);
+                assertEquals("Renamed", dao.get(1).getFirstName());  // Sees its own write
+                throw new IllegalStateException("abandon");
+            }));
+            assertEquals(TestDatabase.customer(1), dao.get(1));
+
+            pool.inTransaction(tx -> {
+                dao.update(renamed);
+                CompletableFuture.runAsync(() -> {
+                    try {
+                        dao.get(1);  // Caches the row as last committed
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }).join();
+                return null;
+            });
+            assertEquals("Renamed", dao.get(1).getFirstName());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCustomerTest {
+
+    private static void assertSameDetails(Customer expected, Customer actual) {
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void gettersShouldReturnTheOriginalDetails() {
+        Customer original = new Customer(1, "Luís", "Gonçalves", "Embraer - Empresa Brasileira de Aeronáutica S.A.",
+                "Av. Brigadeiro Faria Lima, 2170", "São José dos Campos", "SP", "Brazil", "12227-000",
+                "+55 (12) 3923-5555", null, "luisg@embraer.com.br", 3);
+
+        CompactCustomer compact = new CompactCustomer(original);
+
+        assertSameDetails(original, compact);
+        assertEquals(original, compact);
+        assertEquals(original.hashCode(), compact.hashCode());
+        assertSameDetails(original, new Customer(compact));
+    }
+
+    @Test
+    void lowCardinalityColumnsShouldShareOneInstance() {
+        CompactCustomer first = new CompactCustomer(TestDatabase.customer(1));
+        CompactCustomer sixth = new CompactCustomer(TestDatabase.customer(6));
+
+        assertEquals("USA", first.getCountry());
+        assertSame(first.getCountry(), sixth.getCountry());
+        assertSame(first.getState(), sixth.getState());
+    }
+
+    @Test
+    void settersShouldUpdateOnlyTheirField() {
+        Customer expected = TestDatabase.customer(4);
+        CompactCustomer compact = new CompactCustomer(expected);
+
+        compact.setEmail("x".repeat(300));
+        compact.setFax("+1 555 0100");
+        compact.setCountry("Norway");
+        expected.setEmail("x".repeat(300));
+        expected.setFax("+1 555 0100");
+        expected.setCountry("Norway");
+
+        assertSameDetails(expected, compact);
+        compact.setFirstName(null);
+        assertNull(compact.getFirstName());
+        assertEquals(expected.getLastName(), compact.getLastName());
+    }
+
+    @Test
+    void dictionaryShouldStopGrowingWhenFull() {
+        StringDictionary dictionary = new StringDictionary(2);
+        String a = dictionary.canonicalize(new String("a"));
+        dictionary.canonicalize("b");
+
+        assertSame(a, dictionary.canonicalize(new String("a")));
+        String c = new String("c");
+        assertSame(c, dictionary.canonicalize(c));
+        assertEquals(2, dictionary.size());
+        assertNull(dictionary.canonicalize(null));
+    }
+}
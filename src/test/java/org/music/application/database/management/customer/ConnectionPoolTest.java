@@ -0,0 +1,74 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        PoolConfig config = new PoolConfig("jdbc:h2:mem:pool_test;DB_CLOSE_DELAY=-1", "sa", "");
+        config.setMinIdle(0);
+        config.setMaxSize(2);
+        config.setMaxWaitMillis(100);
+        pool = new ConnectionPool(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void closingAConnectionShouldReturnItToThePool() throws SQLException {
+        Connection physical;
+        try (Connection conn = pool.getConnection()) {
+            physical = conn.unwrap(Connection.class);
+        }
+        assertEquals(1, pool.getIdleConnections());
+
+        try (Connection conn = pool.getConnection()) {
+            assertSame(physical, conn.unwrap(Connection.class));
+        }
+        assertEquals(1, pool.getTotalConnections());
+    }
+
+    @Test
+    void borrowingFromAnExhaustedPoolShouldTimeOut() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        try {
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+        } finally {
+            first.close();
+            second.close();
+        }
+        assertEquals(2, pool.getIdleConnections());
+    }
+
+    @Test
+    void returnedConnectionShouldNotBeUsable() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+    }
+
+    @Test
+    void returnedConnectionShouldBeResetToAutoCommit() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+}
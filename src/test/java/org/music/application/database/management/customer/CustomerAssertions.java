@@ -0,0 +1,55 @@
+package org.music.application.database.management.customer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Assertions that compare customers column by column. {@link Customer#equals(Object)} only looks at CustomerId,
+ * Phone and Email, so it cannot show that names, addresses and nulls survived an export, an encoding or a copy.
+ */
+final class CustomerAssertions {
+
+    private CustomerAssertions() {
+    }
+
+    /**
+     * Asserts that two customers hold the same value in every column.
+     *
+     * @param expected The expected customer.
+     * @param actual   The customer to check.
+     */
+    static void assertSameColumns(Customer expected, Customer actual) {
+        assertNotNull(actual, () -> "No customer " + expected.getCustomerId());
+        String id = "CustomerId " + expected.getCustomerId() + ": ";
+        assertAll(
+                () -> assertEquals(expected.getCustomerId(), actual.getCustomerId(), id + "CustomerId"),
+                () -> assertEquals(expected.getFirstName(), actual.getFirstName(), id + "FirstName"),
+                () -> assertEquals(expected.getLastName(), actual.getLastName(), id + "LastName"),
+                () -> assertEquals(expected.getCompany(), actual.getCompany(), id + "Company"),
+                () -> assertEquals(expected.getAddress(), actual.getAddress(), id + "Address"),
+                () -> assertEquals(expected.getCity(), actual.getCity(), id + "City"),
+                () -> assertEquals(expected.getState(), actual.getState(), id + "State"),
+                () -> assertEquals(expected.getCountry(), actual.getCountry(), id + "Country"),
+                () -> assertEquals(expected.getPostalCode(), actual.getPostalCode(), id + "PostalCode"),
+                () -> assertEquals(expected.getPhone(), actual.getPhone(), id + "Phone"),
+                () -> assertEquals(expected.getFax(), actual.getFax(), id + "Fax"),
+                () -> assertEquals(expected.getEmail(), actual.getEmail(), id + "Email"),
+                () -> assertEquals(expected.getSupportRepId(), actual.getSupportRepId(), id + "SupportRepId"));
+    }
+
+    /**
+     * Asserts that two lists hold customers with the same values in every column, in the same order.
+     *
+     * @param expected The expected customers.
+     * @param actual   The customers to check.
+     */
+    static void assertSameColumns(List<Customer> expected, List<Customer> actual) {
+        assertEquals(expected.size(), actual.size(), "Number of customers");
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameColumns(expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.music.application.database.management.customer;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * H2 stand-in for the MySQL triggers in {@code db/customer_change_log.sql}: appends the CustomerId of every
+ * inserted, updated or deleted customer to the CustomerChange log.
+ */
+public class CustomerChangeTrigger implements Trigger {
+
+    private static final String INSERT_CHANGE_SQL = "INSERT INTO CustomerChange (CustomerId, Operation) VALUES (?, ?)";
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (newRow != null) {
+            log(conn, (Integer) newRow[0], oldRow == null ? "I" : "U");
+        }
+        if (oldRow != null && (newRow == null || !oldRow[0].equals(newRow[0]))) {
+            log(conn, (Integer) oldRow[0], "D");
+        }
+    }
+
+    private static void log(Connection conn, int customerId, String operation) throws SQLException {
+        try (PreparedStatement prepStatement = conn.prepareStatement(INSERT_CHANGE_SQL)) {
+            prepStatement.setInt(1, customerId);
+            prepStatement.setString(2, operation);
+            prepStatement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.music.application.database.management.customer.CustomerAssertions.assertSameColumns;
+
+class CustomerCodecTest {
+
+    @Test
+    void customerShouldRoundTrip() {
+        Customer customer = TestDatabase.customer(4711);
+        assertSameColumns(customer, CustomerCodec.fromBytes(CustomerCodec.toBytes(customer)));
+    }
+
+    @Test
+    void nullsNegativesAndNonAsciiTextShouldRoundTrip() {
+        Customer customer = new Customer(-7, "Zoë", "", null, "東京 🎵", null, null, "Brasil", null, null,
+                "\ud800 unpaired", "zoe@example.com", Integer.MIN_VALUE);
+        byte[] bytes = CustomerCodec.toBytes(customer);
+
+        assertEquals(CustomerCodec.encodedSize(customer), bytes.length);
+        assertEquals(customer.getFax().replace('\ud800', '?'), CustomerCodec.fromBytes(bytes).getFax());
+        customer.setFax(null);
+        assertSameColumns(customer, CustomerCodec.fromBytes(CustomerCodec.toBytes(customer)));
+    }
+
+    @Test
+    void encodingShouldBeSmallerThanJavaSerialization() throws IOException {
+        Customer customer = TestDatabase.customer(4711);
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(customer);
+        }
+        assertTrue(CustomerCodec.toBytes(customer).length * 3 < serialized.size());
+    }
+
+    @Test
+    void recordsShouldBeReadBackToBackFromDirectBuffers() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4_096);
+        for (int id = 1; id <= 10; id++) {
+            CustomerCodec.encode(TestDatabase.customer(id), buffer);
+        }
+        buffer.flip();
+        for (int id = 1; id <= 10; id++) {
+            assertEquals(CustomerCodec.encodedSize(TestDatabase.customer(id)), CustomerCodec.recordLength(buffer));
+            assertSameColumns(TestDatabase.customer(id), CustomerCodec.decode(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void decodingIntoTheSameCustomerShouldReuseItAndItsUnchangedStrings() {
+        Customer held = TestDatabase.customer(5);
+        String country = held.getCountry();
+        Customer changed = TestDatabase.customer(5);
+        changed.setCity("Lisbon");
+        changed.setCompany(null);
+
+        Customer decoded = CustomerCodec.decode(ByteBuffer.wrap(CustomerCodec.toBytes(changed)), held);
+
+        assertSame(held, decoded);
+        assertSame(country, held.getCountry());
+        assertSameColumns(changed, held);
+        assertNotSame(held, CustomerCodec.decode(ByteBuffer.wrap(CustomerCodec.toBytes(changed)),
+                TestDatabase.customer(6)));
+    }
+
+    @Test
+    void unknownFieldsShouldBeSkippedAndMissingFieldsLeftNull() {
+        // A record from a newer writer: CustomerId 9, an unknown varint field 20, FirstName "Ann",
+        // an unknown string field 21, and no other fields.
+        byte[] body = {1, 1 << 1, 18, 20 << 1, 5, 2 << 1 | 1, 3, 'A', 'n', 'n', (byte) (21 << 1 | 1), 2, 'x', 'y'};
+        ByteBuffer buffer = ByteBuffer.allocate(body.length + 1).put((byte) body.length).put(body).flip();
+
+        Customer customer = CustomerCodec.decode(buffer);
+
+        assertEquals(9, customer.getCustomerId());
+        assertEquals("Ann", customer.getFirstName());
+        assertNull(customer.getEmail());
+        assertEquals(0, customer.getSupportRepId());
+    }
+
+    @Test
+    void newerVersionsAndBadBuffersShouldBeRejected() {
+        byte[] bytes = CustomerCodec.toBytes(TestDatabase.customer(1));
+        byte[] newer = bytes.clone();
+        newer[1] = CustomerCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> CustomerCodec.fromBytes(newer));
+
+        ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, bytes.length - 1);
+        assertThrows(BufferUnderflowException.class, () -> CustomerCodec.decode(truncated));
+
+        ByteBuffer small = ByteBuffer.allocate(bytes.length - 1);
+        assertThrows(BufferOverflowException.class, () -> CustomerCodec.encode(TestDatabase.customer(1), small));
+        assertEquals(0, small.position());
+    }
+}
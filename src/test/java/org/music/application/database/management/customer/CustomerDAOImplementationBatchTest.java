@@ -0,0 +1,92 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationBatchTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("batch_test");
+        customerImpDao = new CustomerDAOImplementation(pool);
+        BatchOptions options = new BatchOptions();
+        options.setBatchSize(50);
+        options.setRowsPerTransaction(120);
+        customerImpDao.setBatchOptions(options);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static List<Customer> customers(int from, int to) {
+        List<Customer> customers = new ArrayList<>();
+        for (int id = from; id <= to; id++) {
+            customers.add(TestDatabase.customer(id));
+        }
+        return customers;
+    }
+
+    @Test
+    void insertAllShouldInsertEveryCustomer() throws SQLException {
+        BatchResult<Customer> result = customerImpDao.insertAll(customers(1, 333));
+
+        assertFalse(result.hasFailures());
+        assertEquals(333, result.getRowCount());
+        assertEquals(333, result.getAffectedRows());
+        assertEquals(333, customerImpDao.getAll().size());
+        assertEquals(TestDatabase.customer(250), customerImpDao.get(250));
+    }
+
+    @Test
+    void insertAllShouldReportDuplicateRowsAndKeepTheRest() throws SQLException {
+        customerImpDao.insert(TestDatabase.customer(7));
+
+        BatchResult<Customer> result = customerImpDao.insertAll(customers(1, 10));
+
+        assertEquals(1, result.getFailures().size());
+        BatchResult.Failure<Customer> failure = result.getFailures().get(0);
+        assertEquals(6, failure.index());
+        assertEquals(7, failure.item().getCustomerId());
+        assertNotNull(failure.cause());
+        assertEquals(10, customerImpDao.getAll().size());
+    }
+
+    @Test
+    void updateAllAndDeleteAllShouldAffectEveryCustomer() throws SQLException {
+        customerImpDao.insertAll(customers(1, 100));
+        List<Customer> changed = customers(1, 100);
+        changed.forEach(customer -> customer.setCity("Newcastle upon Tyne"));
+
+        BatchResult<Customer> updated = customerImpDao.updateAll(changed);
+        assertEquals(100, updated.getAffectedRows());
+        assertEquals("Newcastle upon Tyne", customerImpDao.get(42).getCity());
+
+        BatchResult<Customer> deleted = customerImpDao.deleteAll(changed.subList(0, 60));
+        assertEquals(60, deleted.getAffectedRows());
+        assertEquals(40, customerImpDao.getAll().size());
+    }
+
+    @Test
+    void rowByRowFallbackShouldReportFailuresPerRow() {
+        BatchResult<Customer> result = BatchResult.ofEach(customers(1, 4), customer -> {
+            if (customer.getCustomerId() % 2 == 0) {
+                throw new SQLException("rejected");
+            }
+            return 1;
+        });
+
+        assertEquals(2, result.getSucceededCount());
+        assertEquals(List.of(1, 3), result.getFailures().stream().map(BatchResult.Failure::index).toList());
+    }
+}
@@ -0,0 +1,113 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationChangesTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("customer_changes_test");
+        TestDatabase.createChangeLog(pool);
+        TestDatabase.seed(pool, 5);
+        customerImpDao = new CustomerDAOImplementation(pool);
+        customerImpDao.setChangeSettleMillis(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void fullSyncShouldReturnEveryCustomer() throws SQLException {
+        CustomerChanges changes = customerImpDao.getChangedSince(null);
+
+        assertEquals(5, changes.getUpserted().size());
+        assertEquals(0, changes.getDeletedIds().length);
+        assertFalse(changes.hasMore());
+        assertTrue(customerImpDao.getChangedSince(changes.getSyncToken()).isEmpty());
+    }
+
+    @Test
+    void deltaShouldHoldOnlyChangedCustomers() throws SQLException {
+        String token = customerImpDao.getChangedSince(null).getSyncToken();
+        Customer updated = TestDatabase.customer(2);
+        updated.setCity("Lisbon");
+        customerImpDao.update(updated);
+        customerImpDao.update(updated);
+        customerImpDao.delete(TestDatabase.customer(4));
+        customerImpDao.insert(TestDatabase.customer(6));
+        customerImpDao.insert(TestDatabase.customer(7));
+        customerImpDao.delete(TestDatabase.customer(7));
+
+        CustomerChanges changes = customerImpDao.getChangedSince(token);
+
+        assertEquals(List.of(updated, TestDatabase.customer(6)), changes.getUpserted());
+        assertArrayEquals(new int[]{4, 7}, changes.getDeletedIds());
+        assertTrue(customerImpDao.getChangedSince(changes.getSyncToken()).isEmpty());
+    }
+
+    @Test
+    void batchesShouldContinueUntilCaughtUp() throws SQLException {
+        String token = customerImpDao.getChangedSince(null).getSyncToken();
+        for (int id = 6; id <= 10; id++) {
+            customerImpDao.insert(TestDatabase.customer(id));
+        }
+        customerImpDao.setChangeBatchSize(2);
+
+        CustomerChanges first = customerImpDao.getChangedSince(token);
+        CustomerChanges second = customerImpDao.getChangedSince(first.getSyncToken());
+        CustomerChanges third = customerImpDao.getChangedSince(second.getSyncToken());
+
+        assertTrue(first.hasMore());
+        assertTrue(second.hasMore());
+        assertFalse(third.hasMore());
+        assertEquals(List.of(TestDatabase.customer(10)), third.getUpserted());
+    }
+
+    @Test
+    void unsettledChangesShouldBeReturnedAgain() throws SQLException {
+        String token = customerImpDao.getChangedSince(null).getSyncToken();
+        customerImpDao.setChangeSettleMillis(60_000);
+        customerImpDao.insert(TestDatabase.customer(6));
+
+        CustomerChanges first = customerImpDao.getChangedSince(token);
+        CustomerChanges second = customerImpDao.getChangedSince(first.getSyncToken());
+
+        assertEquals(token, first.getSyncToken());
+        assertEquals(List.of(TestDatabase.customer(6)), second.getUpserted());
+    }
+
+    @Test
+    void indexedDaoShouldRefreshIncrementally() throws SQLException {
+        IndexedCustomerDAO indexed = new IndexedCustomerDAO(customerImpDao);
+        indexed.setIncrementalRefresh(true);
+        assertEquals(TestDatabase.customer(4), indexed.get(4));
+
+        customerImpDao.delete(TestDatabase.customer(4));
+        customerImpDao.insert(TestDatabase.customer(6));
+        assertNotNull(indexed.get(4));
+
+        indexed.refresh();
+
+        assertNull(indexed.get(4));
+        assertEquals(TestDatabase.customer(6), indexed.get(6));
+        assertEquals(TestDatabase.customer(6), indexed.findByEmail("customer6@example.com"));
+    }
+
+    @Test
+    void malformedTokenShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> customerImpDao.getChangedSince("not a token"));
+        assertThrows(IllegalArgumentException.class,
+                () -> customerImpDao.getChangedSince(PageToken.after(3)));
+    }
+}
@@ -0,0 +1,45 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationFindTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("find_test");
+        TestDatabase.seed(pool, 40);
+        customerImpDao = new CustomerDAOImplementation(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void findByEmailShouldReturnTheMatchingCustomer() throws SQLException {
+        assertEquals(TestDatabase.customer(23), customerImpDao.findByEmail("customer23@example.com"));
+        assertNull(customerImpDao.findByEmail("nobody@example.com"));
+    }
+
+    @Test
+    void findsShouldAgreeWithTheDefaultScan() throws SQLException {
+        CustomerDAO scanning = new InMemoryCustomerDAO(40);
+
+        List<Customer> inGermany = customerImpDao.findByCountry("Germany");
+        List<Customer> ofRepFive = customerImpDao.findBySupportRepId(5);
+
+        assertEquals(8, inGermany.size());
+        assertEquals(scanning.findByCountry("Germany"), inGermany);
+        assertEquals(scanning.findBySupportRepId(5), ofRepFive);
+    }
+}
@@ -0,0 +1,55 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationGetManyTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("get_many_test");
+        TestDatabase.seed(pool, 400);
+        customerImpDao = new CustomerDAOImplementation(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void getManyShouldReturnEveryExistingCustomerOnce() throws SQLException {
+        int[] ids = IntStream.concat(IntStream.rangeClosed(1, 350), IntStream.of(7, 7, 1000, -1)).toArray();
+
+        IntObjectMap<Customer> customers = customerImpDao.getMany(ids);
+
+        assertEquals(350, customers.size());
+        assertEquals(TestDatabase.customer(123), customers.get(123));
+        assertFalse(customers.containsKey(1000));
+    }
+
+    @Test
+    void chunksShouldReuseTheSameFewStatements() throws SQLException {
+        customerImpDao.getMany(IntStream.rangeClosed(1, 300).toArray());  // Chunks of 256 and 64
+        customerImpDao.getMany(new int[]{5, 9, 11});  // One chunk of 4
+        long misses = pool.getStatementCacheMisses();
+
+        customerImpDao.getMany(IntStream.rangeClosed(50, 345).toArray());
+        customerImpDao.getMany(new int[]{20, 2});
+
+        assertEquals(misses, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void emptyIdsShouldNotQuery() throws SQLException {
+        assertTrue(customerImpDao.getMany(new int[0]).isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationPageTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("page_test");
+        TestDatabase.seed(pool, 95);
+        customerImpDao = new CustomerDAOImplementation(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void pagesShouldCoverEveryCustomerOnceInOrder() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            Page<Customer> page = customerImpDao.getPage(token, 20);
+            page.getItems().forEach(customer -> ids.add(customer.getCustomerId()));
+            token = page.getNextPageToken();
+            pages++;
+        } while (token != null);
+
+        assertEquals(5, pages);
+        assertEquals(95, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, ids.get(i));
+        }
+    }
+
+    @Test
+    void exactlyFullLastPageShouldHaveNoNextToken() throws SQLException {
+        Page<Customer> first = customerImpDao.getPage(null, 90);
+        Page<Customer> last = customerImpDao.getPage(first.getNextPageToken(), 5);
+
+        assertEquals(5, last.getItems().size());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void filtersShouldApplyAcrossPages() throws SQLException {
+        CustomerFilter filter = new CustomerFilter();
+        filter.setCountry("Brazil");
+        filter.setSupportRepId(4);
+
+        List<Customer> matched = new ArrayList<>();
+        String token = null;
+        do {
+            Page<Customer> page = customerImpDao.getPage(token, 2, filter);
+            matched.addAll(page.getItems());
+            token = page.getNextPageToken();
+        } while (token != null);
+
+        List<Customer> expected = customerImpDao.getAll().stream().filter(filter::matches).toList();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, matched);
+    }
+
+    @Test
+    void malformedTokenShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> customerImpDao.getPage("not-a-token", 10));
+    }
+}
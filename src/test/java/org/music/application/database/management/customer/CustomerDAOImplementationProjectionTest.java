@@ -0,0 +1,77 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationProjectionTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    public record CustomerName(int customerId, String firstName, String lastName) {
+    }
+
+    public record Unmapped(int customerId, String nickname) {
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("projection_test");
+        TestDatabase.seed(pool, 30);
+        customerImpDao = new CustomerDAOImplementation(pool);
+        customerImpDao.setStreamFetchSize(16);  // H2 rejects the MySQL streaming fetch size
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void columnProjectionShouldPopulateOnlyTheSelectedColumns() throws SQLException {
+        List<Customer> customers = customerImpDao.getAll(EnumSet.of(CustomerColumn.EMAIL, CustomerColumn.COUNTRY));
+
+        assertEquals(30, customers.size());
+        Customer customer = customers.get(11);
+        Customer expected = TestDatabase.customer(12);
+        assertEquals(12, customer.getCustomerId());
+        assertEquals(expected.getEmail(), customer.getEmail());
+        assertEquals(expected.getCountry(), customer.getCountry());
+        assertNull(customer.getFirstName());
+        assertNull(customer.getCity());
+        assertEquals(0, customer.getSupportRepId());
+    }
+
+    @Test
+    void contactProjectionShouldMatchTheFullCustomer() throws SQLException {
+        Customer expected = TestDatabase.customer(7);
+
+        CustomerContact contact = customerImpDao.get(7, CustomerContact.class);
+
+        assertEquals(new CustomerContact(7, expected.getEmail(), expected.getSupportRepId()), contact);
+        assertNull(customerImpDao.get(999, CustomerContact.class));
+    }
+
+    @Test
+    void recordProjectionsShouldCoverEveryCustomer() throws SQLException {
+        List<CustomerName> names = customerImpDao.getAll(CustomerName.class);
+
+        assertEquals(30, names.size());
+        assertEquals(new CustomerName(3, "First3", "Last3"), names.get(2));
+        try (Stream<CustomerContact> contacts = customerImpDao.streamAll(CustomerContact.class)) {
+            assertEquals(customerImpDao.getAll(CustomerContact.class), contacts.toList());
+        }
+    }
+
+    @Test
+    void componentsWithoutAColumnShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> customerImpDao.getAll(Unmapped.class));
+    }
+}
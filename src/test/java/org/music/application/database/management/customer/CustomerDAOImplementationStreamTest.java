@@ -0,0 +1,53 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationStreamTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("stream_test");
+        TestDatabase.seed(pool, 250);
+        customerImpDao = new CustomerDAOImplementation(pool);
+        customerImpDao.setStreamFetchSize(64);  // H2 rejects the MySQL streaming fetch size
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void streamAllShouldReturnTheSameCustomersAsGetAll() throws SQLException {
+        List<Customer> expected = customerImpDao.getAll();
+        try (Stream<Customer> customers = customerImpDao.streamAll()) {
+            assertEquals(expected, customers.toList());
+        }
+    }
+
+    @Test
+    void closingAPartiallyReadStreamShouldReturnTheConnection() throws SQLException {
+        try (Stream<Customer> customers = customerImpDao.streamAll()) {
+            assertEquals(10, customers.limit(10).count());
+            assertEquals(0, pool.getIdleConnections());
+        }
+        assertEquals(pool.getTotalConnections(), pool.getIdleConnections());
+    }
+
+    @Test
+    void exhaustingTheStreamShouldReturnTheConnection() throws SQLException {
+        Stream<Customer> customers = customerImpDao.streamAll();
+        assertEquals(250, customers.count());
+        assertEquals(pool.getTotalConnections(), pool.getIdleConnections());
+    }
+}
@@ -0,0 +1,143 @@
+package org.music.application.database.management.customer;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplementationUpsertTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("upsert_test");
+        TestDatabase.seed(pool, 3);
+        customerImpDao = new CustomerDAOImplementation(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void saveShouldInsertANewCustomer() throws SQLException {
+        Customer customer = TestDatabase.customer(60);
+        assertEquals(UpsertOutcome.INSERTED, UpsertOutcome.of(customerImpDao.save(customer)));
+        assertEquals(customer.toString(), customerImpDao.get(60).toString());
+    }
+
+    @Test
+    void saveShouldUpdateAnExistingCustomer() throws SQLException {
+        Customer customer = TestDatabase.customer(2);
+        customer.setCompany("Newcastle University");
+        customerImpDao.save(customer);
+
+        assertEquals("Newcastle University", customerImpDao.get(2).getCompany());
+        assertEquals(3, customerImpDao.getAll().size());
+    }
+
+    @Test
+    void saveAllShouldInsertAndUpdateInOneCall() throws SQLException {
+        Customer existing = TestDatabase.customer(3);
+        existing.setCity("Tyne and Wear");
+
+        BatchResult<Customer> result = customerImpDao.saveAll(List.of(existing, TestDatabase.customer(4),
+                TestDatabase.customer(5)));
+
+        assertFalse(result.hasFailures());
+        assertEquals(5, customerImpDao.getAll().size());
+        assertEquals("Tyne and Wear", customerImpDao.get(3).getCity());
+        assertEquals(3, UpsertOutcome.tally(result).get(UpsertOutcome.UNKNOWN));  // Written by one statement
+    }
+
+    @Test
+    void saveAllShouldSendOneStatementPerBatch() throws SQLException {
+        ListAppender<ILoggingEvent> traced = new ListAppender<>();
+        traced.start();
+        Logger slowLogger = (Logger) LoggerFactory.getLogger(StatementTracer.SLOW_LOGGER);
+        slowLogger.addAppender(traced);
+        try (ConnectionPool tracedPool = TestDatabase.create("upsert_traced_test", config -> {
+            config.setTraceSampleRate(1);
+            config.setSlowQueryThresholdMillis(0);
+        })) {
+            CustomerDAOImplementation tracedDao = new CustomerDAOImplementation(tracedPool);
+            BatchOptions options = new BatchOptions();
+            options.setBatchSize(4);
+            tracedDao.setBatchOptions(options);
+            List<Customer> customers = new ArrayList<>();
+            for (int id = 1; id <= 10; id++) {
+                customers.add(TestDatabase.customer(id));
+            }
+            traced.list.clear();
+
+            assertFalse(tracedDao.saveAll(customers).hasFailures());
+
+            assertEquals(3, traced.list.stream().filter(event -> event.getFormattedMessage().contains("INSERT"))
+                    .count());
+            assertEquals(10, tracedDao.getAll().size());
+        } finally {
+            slowLogger.detachAppender(traced);
+        }
+    }
+
+    @Test
+    void rejectedRowsShouldFailAloneInAMultiRowUpsert() throws SQLException {
+        Customer renamed = TestDatabase.customer(2);
+        renamed.setFirstName("Renamed");
+        Customer invalid = TestDatabase.customer(5);
+        invalid.setFirstName(null);
+
+        BatchResult<Customer> result = customerImpDao.saveAll(List.of(renamed, invalid, TestDatabase.customer(4)));
+
+        assertEquals(1, result.getFailures().size());
+        assertEquals(invalid, result.getFailures().get(0).item());
+        assertEquals("Renamed", customerImpDao.get(2).getFirstName());
+        assertEquals(TestDatabase.customer(4), customerImpDao.get(4));
+        assertNull(customerImpDao.get(5));
+        assertEquals(1, UpsertOutcome.tally(result).get(UpsertOutcome.INSERTED));
+    }
+
+    @Test
+    void outcomesShouldBeDecodedFromUpdateCounts() {
+        assertEquals(UpsertOutcome.UNCHANGED, UpsertOutcome.of(0));
+        assertEquals(UpsertOutcome.UPDATED, UpsertOutcome.of(2));
+        assertEquals(UpsertOutcome.UNKNOWN, UpsertOutcome.of(Statement.SUCCESS_NO_INFO));
+
+        BatchResult<Customer> result = new BatchResult<>(new int[]{1, 2, 2, 0, Statement.EXECUTE_FAILED}, List.of());
+        Map<UpsertOutcome, Integer> tally = UpsertOutcome.tally(result);
+        assertEquals(1, tally.get(UpsertOutcome.INSERTED));
+        assertEquals(2, tally.get(UpsertOutcome.UPDATED));
+        assertEquals(1, tally.get(UpsertOutcome.UNCHANGED));
+        assertEquals(0, tally.get(UpsertOutcome.UNKNOWN));
+    }
+
+    @Test
+    void rowAliasShouldOnlyBeUsedWhereTheServerSupportsIt() {
+        assertTrue(CustomerDAOImplementation.supportsRowAlias("MySQL", "8.0.19"));
+        assertTrue(CustomerDAOImplementation.supportsRowAlias("MySQL", "8.4.2-commercial"));
+        assertTrue(CustomerDAOImplementation.supportsRowAlias("MySQL", "9.0.1"));
+        assertFalse(CustomerDAOImplementation.supportsRowAlias("MySQL", "8.0.18"));
+        assertFalse(CustomerDAOImplementation.supportsRowAlias("MySQL", "5.7.44-log"));
+        assertFalse(CustomerDAOImplementation.supportsRowAlias("MySQL", "5.5.5-10.11.6-MariaDB"));
+        assertFalse(CustomerDAOImplementation.supportsRowAlias("H2", "2.2.224 (2023-09-17)"));
+    }
+
+    @Test
+    void defaultPoolShouldReportMatchedRows() throws SQLException {
+        assertFalse(PoolConfig.defaults().isUseAffectedRows());
+        assertEquals(1, customerImpDao.update(TestDatabase.customer(1)));  // Matched, though nothing changed
+    }
+}
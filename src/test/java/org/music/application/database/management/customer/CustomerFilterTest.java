@@ -0,0 +1,26 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerFilterTest {
+
+    @Test
+    void countryShouldMatchIgnoringCase() {
+        CustomerFilter filter = new CustomerFilter();
+        filter.setCountry("brazil");
+
+        assertTrue(filter.matches(TestDatabase.customer(2)));  // Country "Brazil"
+        assertFalse(filter.matches(TestDatabase.customer(3)));
+    }
+
+    @Test
+    void unsetCriteriaShouldMatchEveryCustomer() {
+        CustomerFilter filter = new CustomerFilter();
+        filter.setSupportRepId(TestDatabase.customer(2).getSupportRepId());
+
+        assertTrue(filter.matches(TestDatabase.customer(2)));
+        assertTrue(new CustomerFilter().matches(TestDatabase.customer(1)));
+    }
+}
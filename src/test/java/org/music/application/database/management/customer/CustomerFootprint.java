@@ -0,0 +1,60 @@
+package org.music.application.database.management.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Measures the retained heap per customer of {@link Customer} and {@link CompactCustomer}, by building a large
+ * list of each and comparing the used heap before and after. Each customer is built from freshly allocated
+ * strings, as rows read from a result set are. Run with an optional customer count argument.
+ */
+public class CustomerFootprint {
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        double plain = bytesPerCustomer(count, CustomerFootprint::freshCustomer);
+        double compact = bytesPerCustomer(count, id -> new CompactCustomer(freshCustomer(id)));
+
+        System.out.printf("customers=%d Customer: %.0f bytes, CompactCustomer: %.0f bytes (%.0f%%)%n",
+                count, plain, compact, 100 * compact / plain);
+    }
+
+    private static double bytesPerCustomer(int count, IntFunction<Customer> factory) throws InterruptedException {
+        long before = usedHeap();
+        List<Customer> customers = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            customers.add(factory.apply(id));
+        }
+        long after = usedHeap();
+        // Keep the list reachable until measured, and leave out the list's own array.
+        long listBytes = 16 + 4L * count;
+        return (after - before - listBytes) / (double) customers.size();
+    }
+
+    // A customer whose strings are distinct instances, with Chinook-like repetition in the location columns.
+    private static Customer freshCustomer(int id) {
+        Customer template = TestDatabase.customer(id);
+        return new Customer(id, copy(template.getFirstName()), copy(template.getLastName()),
+                copy(template.getCompany()), copy(template.getAddress()), copy(template.getCity()),
+                copy(template.getState()), copy(template.getCountry()), copy(template.getPostalCode()),
+                copy(template.getPhone()), copy(template.getFax()), copy(template.getEmail()),
+                template.getSupportRepId());
+    }
+
+    private static String copy(String value) {
+        return value == null ? null : new String(value.toCharArray());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
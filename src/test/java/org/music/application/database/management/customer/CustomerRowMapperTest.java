@@ -0,0 +1,55 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerRowMapperTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("row_mapper_test");
+        TestDatabase.seed(pool, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void shouldMapColumnsRegardlessOfTheirOrder() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(
+                     "SELECT Email, SupportRepId, LastName, CustomerId, FirstName, Company, Address, City, State, "
+                             + "Country, PostalCode, Phone, Fax FROM Customer WHERE CustomerId = 2");
+             ResultSet resultSet = prepStatement.executeQuery()) {
+            assertTrue(resultSet.next());
+            Customer customer = CustomerRowMapper.FACTORY.forResultSet(resultSet).mapRow(resultSet);
+            assertEquals(TestDatabase.customer(2).toString(), customer.toString());
+        }
+    }
+
+    @Test
+    void missingColumnsShouldBeLeftEmpty() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement prepStatement = conn.prepareStatement(
+                     "SELECT customerid, email FROM Customer WHERE CustomerId = 1");
+             ResultSet resultSet = prepStatement.executeQuery()) {
+            assertTrue(resultSet.next());
+            Customer customer = CustomerRowMapper.FACTORY.forResultSet(resultSet).mapRow(resultSet);
+            assertEquals(1, customer.getCustomerId());
+            assertEquals("customer1@example.com", customer.getEmail());
+            assertNull(customer.getFirstName());
+            assertEquals(0, customer.getSupportRepId());
+        }
+    }
+}
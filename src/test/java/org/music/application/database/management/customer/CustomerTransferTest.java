@@ -0,0 +1,126 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.music.application.database.management.customer.CustomerAssertions.assertSameColumns;
+
+class CustomerTransferTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+    private CustomerTransfer transfer;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("customer_transfer_test");
+        TestDatabase.seed(pool, 1_000);
+        customerImpDao = new CustomerDAOImplementation(pool);
+        customerImpDao.setStreamFetchSize(64);  // H2 rejects the MySQL streaming fetch size
+        transfer = new CustomerTransfer(customerImpDao, pool);
+        transfer.setChunkSize(64);
+        transfer.setLoaderThreads(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void csvExportShouldRoundTrip() throws SQLException, IOException {
+        roundTrip(CustomerTransfer.Format.CSV);
+    }
+
+    @Test
+    void binaryExportShouldRoundTrip() throws SQLException, IOException {
+        roundTrip(CustomerTransfer.Format.BINARY);
+    }
+
+    @Test
+    void csvShouldQuoteAwkwardValuesAndKeepNulls() throws SQLException, IOException {
+        Customer awkward = new Customer(1_001, "Zoë \"Z\"", "O'Neil", null, "1 Rue, Apt 2\nBack door",
+                "Zürich", null, "Switzerland", "8001", null, null, "zoe@example.com", 0);
+        customerImpDao.insert(awkward);
+        Path file = directory.resolve("customers.csv");
+        transfer.export(file, CustomerTransfer.Format.CSV);
+
+        String csv = Files.readString(file, StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("CustomerId,FirstName,"));
+        assertTrue(csv.contains("1001,\"Zoë \"\"Z\"\"\",\"O'Neil\",NULL,\"1 Rue, Apt 2\nBack door\""));
+
+        deleteAll();
+        transfer.importFile(file, CustomerTransfer.Format.CSV);
+        assertSameColumns(awkward, customerImpDao.get(1_001));
+    }
+
+    @Test
+    void importShouldCountRejectedRowsAndReportProgress() throws SQLException, IOException {
+        Path file = directory.resolve("customers.bin");
+        transfer.export(file, CustomerTransfer.Format.BINARY);
+        List<Long> reported = new ArrayList<>();
+        transfer.setProgressInterval(250);
+        transfer.setListener((phase, rows, elapsedNanos) -> {
+            synchronized (reported) {
+                reported.add(rows);
+            }
+        });
+        customerImpDao.delete(TestDatabase.customer(500));
+
+        TransferStats stats = transfer.importFile(file, CustomerTransfer.Format.BINARY);
+
+        assertEquals(1, stats.rows());
+        assertEquals(999, stats.failedRows());
+        assertEquals(List.of(1L), reported);
+        assertSameColumns(TestDatabase.customer(500), customerImpDao.get(500));
+    }
+
+    @Test
+    void malformedFileShouldBeRejected() throws IOException {
+        Path file = directory.resolve("not-customers.csv");
+        Files.writeString(file, "id,name\n1,x\n");
+        assertThrows(IOException.class, () -> transfer.importFile(file, CustomerTransfer.Format.CSV));
+        assertThrows(IOException.class, () -> transfer.importFile(file, CustomerTransfer.Format.BINARY));
+    }
+
+    private void roundTrip(CustomerTransfer.Format format) throws SQLException, IOException {
+        customerImpDao.insert(new Customer(1_001, "Zoë \"Z\"", "O'Neil", null, "1 Rue, Apt 2\nBack door",
+                "東京 🎵", null, "Switzerland", "", null, null, "zoe@example.com", 0));
+        List<Customer> expected = customerImpDao.getAll();
+        Path file = directory.resolve("customers." + format);
+        List<Long> reported = new ArrayList<>();
+        transfer.setProgressInterval(400);
+        transfer.setListener((phase, rows, elapsedNanos) -> reported.add(rows));
+
+        TransferStats exported = transfer.export(file, format);
+        deleteAll();
+        TransferStats imported = transfer.importFile(file, format);
+
+        assertEquals(1_001, exported.rows());
+        assertEquals(List.of(400L, 800L, 1_001L), reported.subList(0, 3));
+        assertEquals(1_001, imported.rows());
+        assertEquals(0, imported.failedRows());
+        assertSameColumns(expected, customerImpDao.getAll());
+    }
+
+    private void deleteAll() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement statement = conn.createStatement()) {
+            statement.executeUpdate("DELETE FROM Customer");
+        }
+    }
+}
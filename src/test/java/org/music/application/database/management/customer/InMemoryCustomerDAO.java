@@ -0,0 +1,109 @@
+package org.music.application.database.management.customer;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A CustomerDAO backed by a map, for testing decorators without a database.
+ * Counts how often each read is made so tests can tell whether a decorator reached the underlying DAO.
+ */
+class InMemoryCustomerDAO implements CustomerDAO {
+    final Map<Integer, Customer> customers = new TreeMap<>();
+    final AtomicInteger getCalls = new AtomicInteger();
+    final AtomicInteger getAllCalls = new AtomicInteger();
+    final AtomicInteger getManyCalls = new AtomicInteger();
+
+    InMemoryCustomerDAO(int count) {
+        for (int id = 1; id <= count; id++) {
+            customers.put(id, TestDatabase.customer(id));
+        }
+    }
+
+    @Override
+    public synchronized Customer get(int id) {
+        getCalls.incrementAndGet();
+        Customer customer = customers.get(id);
+        return customer == null ? null : new Customer(customer);
+    }
+
+    @Override
+    public IntObjectMap<Customer> getMany(int[] ids) throws SQLException {
+        getManyCalls.incrementAndGet();
+        return CustomerDAO.super.getMany(ids);
+    }
+
+    @Override
+    public synchronized List<Customer> getAll() {
+        getAllCalls.incrementAndGet();
+        return customers.values().stream().map(Customer::new).toList();
+    }
+
+    @Override
+    public List<Customer> getAll(Set<CustomerColumn> columns) {
+        return getAll();
+    }
+
+    @Override
+    public <R extends Record> R get(int customerId, Class<R> recordType) {
+        throw new UnsupportedOperationException("Record projections need a database");
+    }
+
+    @Override
+    public <R extends Record> List<R> getAll(Class<R> recordType) {
+        throw new UnsupportedOperationException("Record projections need a database");
+    }
+
+    @Override
+    public CustomerChanges getChangedSince(String syncToken) {
+        throw new UnsupportedOperationException("Change tracking needs a database");
+    }
+
+    @Override
+    public synchronized Page<Customer> getPage(String pageToken, int pageSize, CustomerFilter filter) {
+        int after = PageToken.lastCustomerId(pageToken);
+        List<Customer> page = new ArrayList<>();
+        for (Customer customer : customers.values()) {
+            if (customer.getCustomerId() > after && filter.matches(customer)) {
+                if (page.size() == pageSize) {
+                    return new Page<>(page, PageToken.after(page.get(pageSize - 1).getCustomerId()));
+                }
+                page.add(new Customer(customer));
+            }
+        }
+        return new Page<>(page, null);
+    }
+
+    @Override
+    public synchronized int save(Customer customer) {
+        customers.put(customer.getCustomerId(), new Customer(customer));
+        return 1;
+    }
+
+    @Override
+    public synchronized int insert(Customer customer) {
+        if (customers.containsKey(customer.getCustomerId())) {
+            return 0;
+        }
+        customers.put(customer.getCustomerId(), new Customer(customer));
+        return 1;
+    }
+
+    @Override
+    public synchronized int update(Customer customer) {
+        if (!customers.containsKey(customer.getCustomerId())) {
+            return 0;
+        }
+        customers.put(customer.getCustomerId(), new Customer(customer));
+        return 1;
+    }
+
+    @Override
+    public synchronized int delete(Customer customer) {
+        return customers.remove(customer.getCustomerId()) == null ? 0 : 1;
+    }
+}
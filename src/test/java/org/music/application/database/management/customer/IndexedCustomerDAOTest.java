@@ -0,0 +1,215 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedCustomerDAOTest {
+    private InMemoryCustomerDAO backing;
+    private IndexedCustomerDAO indexedDao;
+
+    @BeforeEach
+    void setUp() {
+        backing = new InMemoryCustomerDAO(50);
+        indexedDao = new IndexedCustomerDAO(backing);
+    }
+
+    @Test
+    void lookupsShouldMatchALinearScanWithoutTouchingTheDelegate() throws SQLException {
+        List<Customer> all = backing.getAll();
+        backing.getAllCalls.set(0);
+
+        assertEquals(TestDatabase.customer(17), indexedDao.findByEmail("Customer17@EXAMPLE.com"));
+        assertEquals(all.stream().filter(c -> c.getCountry().equals("Brazil")).toList(),
+                indexedDao.findByCountry("brazil"));
+        assertEquals(all.stream().filter(c -> c.getSupportRepId() == 4).toList(), indexedDao.findBySupportRepId(4));
+        assertEquals(TestDatabase.customer(9), indexedDao.get(9));
+        assertNull(indexedDao.findByEmail("nobody@example.com"));
+        assertTrue(indexedDao.findBySupportRepId(99).isEmpty());
+
+        assertEquals(1, backing.getAllCalls.get());  // The snapshot load
+        assertEquals(0, backing.getCalls.get());
+    }
+
+    @Test
+    void writesShouldKeepTheIndexesConsistent() throws SQLException {
+        indexedDao.findByCountry("Canada");
+
+        Customer moved = TestDatabase.customer(5);
+        moved.setCountry("Norway");
+        moved.setEmail("moved@example.com");
+        indexedDao.update(moved);
+        indexedDao.insert(TestDatabase.customer(51));
+        indexedDao.delete(TestDatabase.customer(10));
+        indexedDao.saveAll(List.of(TestDatabase.customer(52), TestDatabase.customer(53)));
+
+        assertEquals(List.of(moved), indexedDao.findByCountry("Norway"));
+        assertFalse(indexedDao.findByCountry("Canada").stream().anyMatch(c -> c.getCustomerId() == 5));
+        assertNull(indexedDao.findByEmail("customer5@example.com"));
+        assertEquals(moved, indexedDao.findByEmail("moved@example.com"));
+        assertNull(indexedDao.get(10));
+        assertEquals(TestDatabase.customer(53), indexedDao.findByEmail("customer53@example.com"));
+        assertEquals(1, backing.getAllCalls.get());
+        assertEquals(backing.findBySupportRepId(3), indexedDao.findBySupportRepId(3));
+    }
+
+    @Test
+    void returnedCustomersShouldBeCopies() throws SQLException {
+        indexedDao.findByEmail("customer3@example.com").setCountry("Nowhere");
+
+        assertTrue(indexedDao.findByCountry("Nowhere").isEmpty());
+    }
+
+    @Test
+    void refreshShouldPickUpWritesMadeElsewhere() throws SQLException {
+        indexedDao.get(1);
+        backing.insert(TestDatabase.customer(60));
+
+        assertNull(indexedDao.get(60));
+        indexedDao.refresh();
+        assertEquals(TestDatabase.customer(60), indexedDao.get(60));
+    }
+
+    @Test
+    void compactSnapshotShouldAnswerTheSameLookups() throws SQLException {
+        IndexedCustomerDAO compactDao = new IndexedCustomerDAO(backing, true);
+
+        Customer customer = compactDao.findByEmail("customer21@example.com");
+
+        assertEquals(Customer.class, customer.getClass());
+        assertEquals(TestDatabase.customer(21).toString(), customer.toString());
+        assertEquals(indexedDao.findByCountry("France"), compactDao.findByCountry("France"));
+    }
+
+    @Test
+    void writeDuringTheFirstLoadShouldSurviveIt() throws SQLException {
+        Customer renamed = TestDatabase.customer(7);
+        renamed.setFirstName("Renamed");
+        AtomicBoolean written = new AtomicBoolean();
+        InMemoryCustomerDAO racing = new InMemoryCustomerDAO(50) {
+            @Override
+            public List<Customer> getAll() {
+                List<Customer> loaded = super.getAll();  // Read before the write below commits
+                if (written.compareAndSet(false, true)) {
+                    try {
+                        indexedDao.update(renamed);
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return loaded;
+            }
+        };
+        indexedDao = new IndexedCustomerDAO(racing);
+
+        assertEquals("Renamed", indexedDao.get(7).getFirstName());
+        assertEquals(1, racing.getAllCalls.get());
+    }
+
+    @Test
+    void writeDuringAReloadShouldNotBeWipedByIt() throws SQLException {
+        Customer renamed = TestDatabase.customer(7);
+        renamed.setFirstName("Renamed");
+        AtomicBoolean racingReload = new AtomicBoolean();
+        InMemoryCustomerDAO racing = new InMemoryCustomerDAO(50) {
+            @Override
+            public List<Customer> getAll() {
+                List<Customer> loaded = super.getAll();
+                if (racingReload.get()) {
+                    try {
+                        indexedDao.update(renamed);  // Indexed into the snapshot the reload replaces
+                        indexedDao.delete(TestDatabase.customer(8));
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return loaded;
+            }
+        };
+        indexedDao = new IndexedCustomerDAO(racing);
+        indexedDao.get(1);
+
+        racingReload.set(true);
+        indexedDao.refresh();
+
+        assertEquals("Renamed", indexedDao.get(7).getFirstName());
+        assertEquals("Renamed", indexedDao.findByEmail("customer7@example.com").getFirstName());
+        assertNull(indexedDao.get(8));
+        assertEquals(1, racing.getManyCalls.get());  // The customers written during the reload, read again
+    }
+
+    @Test
+    void concurrentFirstLookupsShouldShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryCustomerDAO slow = new InMemoryCustomerDAO(50) {
+            @Override
+            public List<Customer> getAll() {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getAll();
+            }
+        };
+        IndexedCustomerDAO shared = new IndexedCustomerDAO(slow);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Customer> first = executor.submit(() -> shared.get(1));
+            loading.await();
+            Future<Customer> second = executor.submit(() -> shared.get(2));
+            Thread.sleep(50);  // Let the second lookup reach the load in progress
+            release.countDown();
+
+            assertEquals(TestDatabase.customer(1), first.get(5, TimeUnit.SECONDS));
+            assertEquals(TestDatabase.customer(2), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, slow.getAllCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void writeInsideATransactionShouldOnlyReachTheIndexesOnceCommitted() throws SQLException {
+        try (ConnectionPool pool = TestDatabase.create("indexed_transaction_test")) {
+            TestDatabase.seed(pool, 10);
+            IndexedCustomerDAO dao = new IndexedCustomerDAO(new CustomerDAOImplementation(pool));
+            Customer moved = TestDatabase.customer(1);
+            moved.setSupportRepId(99);
+
+            assertThrows(IllegalStateException.class, () -> pool.inTransaction(tx -> {
+                dao.update(moved);
+                dao.delete(TestDatabase.customer(2));
+                dao.saveAll(List.of(TestDatabase.customer(60)));
+                throw new IllegalStateException("abandon");
+            }));
+            assertEquals(TestDatabase.customer(1), dao.get(1));
+            assertTrue(dao.findBySupportRepId(99).isEmpty());
+            assertNotNull(dao.get(2));
+            assertNull(dao.get(60));
+
+            pool.inTransaction(tx -> {
+                dao.update(moved);
+                dao.delete(TestDatabase.customer(2));
+                dao.saveAll(List.of(TestDatabase.customer(60)));
+                assertTrue(dao.findBySupportRepId(99).isEmpty());
+                return null;
+            });
+            assertEquals(List.of(moved), dao.findBySupportRepId(99));
+            assertNull(dao.get(2));
+            assertEquals(TestDatabase.customer(60), dao.get(60));
+        }
+    }
+}
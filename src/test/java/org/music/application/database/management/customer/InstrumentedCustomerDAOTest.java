@@ -0,0 +1,89 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedCustomerDAOTest {
+    private ConnectionPool pool;
+    private DAOMetrics metrics;
+    private InstrumentedCustomerDAO instrumentedDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("instrumented_test");
+        TestDatabase.seed(pool, 20);
+        CustomerDAOImplementation dao = new CustomerDAOImplementation(pool);
+        dao.setStreamFetchSize(8);  // H2 rejects the MySQL streaming fetch size
+        metrics = new DAOMetrics(pool);
+        instrumentedDao = new InstrumentedCustomerDAO(dao, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void callsShouldBeRecordedPerOperation() throws SQLException {
+        instrumentedDao.get(1);
+        instrumentedDao.get(999);
+        instrumentedDao.getAll();
+        try (Stream<Customer> customers = instrumentedDao.streamAll()) {
+            assertEquals(5, customers.limit(5).count());
+        }
+        instrumentedDao.insertAll(List.of(TestDatabase.customer(21), TestDatabase.customer(22)));
+        instrumentedDao.update(TestDatabase.customer(3));
+
+        OperationStats get = metrics.getOperation(DAOOperation.GET);
+        assertEquals(2, get.getCalls());
+        assertEquals(1, get.getRowsRead());
+        assertEquals(20, metrics.getOperation(DAOOperation.GET_ALL).getRowsRead());
+        assertEquals(5, metrics.getOperation(DAOOperation.STREAM_ALL).getRowsRead());
+        assertEquals(2, metrics.getOperation(DAOOperation.INSERT_ALL).getRowsWritten());
+        assertEquals(3, metrics.getRowsWritten());
+        assertTrue(get.getLatency().getMaxMicros() > 0);
+        assertTrue(metrics.getConnectionWait().getCount() >= 5);
+        assertFalse(metrics.getOperations().containsKey("DELETE"));
+    }
+
+    @Test
+    void failuresShouldBeCountedAndRethrown() throws SQLException {
+        instrumentedDao.insert(TestDatabase.customer(30));
+
+        assertThrows(SQLException.class, () -> instrumentedDao.insert(TestDatabase.customer(30)));
+
+        OperationStats insert = metrics.getOperation(DAOOperation.INSERT);
+        assertEquals(2, insert.getCalls());
+        assertEquals(1, insert.getErrors());
+        assertEquals(1, metrics.getErrors());
+    }
+
+    @Test
+    void metricsShouldBeReadableThroughJmx() throws Exception {
+        instrumentedDao.get(2);
+        ObjectName name = metrics.register("instrumented-test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "RowsRead"));
+            TabularData operations = (TabularData) server.getAttribute(name, "Operations");
+            CompositeData get = (CompositeData) operations.get(new Object[]{"GET"}).get("value");
+            assertEquals(1L, get.get("calls"));
+            CompositeData wait = (CompositeData) server.getAttribute(name, "ConnectionWait");
+            assertTrue((Long) wait.get("count") >= 1);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
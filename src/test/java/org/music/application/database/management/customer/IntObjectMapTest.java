@@ -0,0 +1,36 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void shouldBehaveLikeAHashMapAcrossResizes() {
+        IntObjectMap<String> map = new IntObjectMap<>(2);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            int key = random.nextInt(5_000) - 2_500;
+            assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        assertNull(map.get(9_999));
+        Map<Integer, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertEquals(expected.size(), map.keys().length);
+    }
+
+    @Test
+    void nullValuesShouldBeRejected() {
+        assertThrows(NullPointerException.class, () -> new IntObjectMap<String>().put(1, null));
+    }
+}
@@ -0,0 +1,46 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsShouldCoverEveryValueWithinTheirPrecision() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucket(value);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue(upper >= value, "value " + value);
+            assertTrue(upper - value <= Math.max(0, value / 16), "value " + value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBound(bucket - 1) < value, "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void percentilesShouldBeWithinSixPercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros * 1_000L);
+        }
+
+        LatencyStats stats = histogram.snapshot();
+
+        assertEquals(1_000, stats.getCount());
+        assertEquals(500.5, stats.getMeanMicros(), 0.001);
+        assertEquals(500, stats.getP50Micros(), 500 * 0.0625);
+        assertEquals(990, stats.getP99Micros(), 990 * 0.0625);
+        assertTrue(stats.getP99Micros() >= 990);
+        assertEquals(1_000, stats.getMaxMicros());
+    }
+
+    @Test
+    void emptyHistogramShouldReportZeros() {
+        LatencyStats stats = new LatencyHistogram().snapshot();
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getP999Micros());
+    }
+}
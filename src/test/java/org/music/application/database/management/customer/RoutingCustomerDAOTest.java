@@ -0,0 +1,187 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingCustomerDAOTest {
+    private ConnectionPool primary;
+    private ConnectionPool replica;
+    private RoutingCustomerDAO routingDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = TestDatabase.create("routing_primary");
+        replica = TestDatabase.create("routing_replica");
+        TestDatabase.seed(primary, 10);
+        TestDatabase.seed(replica, 10);
+        markCity(replica, 1, "Replica");
+        routingDao = new RoutingCustomerDAO(primary, List.of(replica), RoutingCustomerDAOTest::streamingDao);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readsShouldGoToTheReplicaAndWritesToThePrimary() throws SQLException {
+        assertEquals("Replica", routingDao.get(1).getCity());
+        assertEquals(10, routingDao.getAll().size());
+        try (Stream<Customer> customers = routingDao.streamAll()) {
+            assertEquals(10, customers.count());
+        }
+
+        routingDao.insert(TestDatabase.customer(11));
+
+        assertEquals(TestDatabase.customer(11), new CustomerDAOImplementation(primary).get(11));
+        assertNull(new CustomerDAOImplementation(replica).get(11));
+        assertEquals(3, routingDao.getReplicaReads());
+        assertEquals(0, routingDao.getPrimaryReads());
+    }
+
+    @Test
+    void writerShouldReadItsOwnWritesFromThePrimary() throws Exception {
+        routingDao.insert(TestDatabase.customer(11));
+
+        assertEquals(TestDatabase.customer(11), routingDao.get(11));
+        assertEquals(TestDatabase.customer(1), routingDao.get(1));
+        // Other threads have not written, so they still read the replica.
+        assertNull(CompletableFuture.supplyAsync(() -> getUnchecked(11)).get());
+        assertEquals(2, routingDao.getPrimaryReads());
+        assertEquals(1, routingDao.getReplicaReads());
+    }
+
+    @Test
+    void readsInsideATransactionShouldGoToThePrimary() throws SQLException {
+        Customer read = primary.inTransaction(tx -> routingDao.get(1));
+
+        assertEquals(TestDatabase.customer(1), read);
+        assertEquals(1, routingDao.getPrimaryReads());
+        assertEquals(0, routingDao.getReplicaReads());
+        assertEquals("Replica", routingDao.get(1).getCity());
+    }
+
+    @Test
+    void stickinessShouldExpire() throws SQLException {
+        AtomicLong now = new AtomicLong();
+        routingDao.setNanoClock(now::get);
+        routingDao.setReadYourWritesMillis(50);
+        routingDao.update(TestDatabase.customer(2));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(49));
+        assertEquals(TestDatabase.customer(1), routingDao.get(1));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals("Replica", routingDao.get(1).getCity());
+    }
+
+    @Test
+    void readsShouldTakeTurnsBetweenReplicas() throws SQLException {
+        try (ConnectionPool second = TestDatabase.create("routing_second_replica")) {
+            TestDatabase.seed(second, 10);
+            markCity(second, 1, "Second");
+            routingDao = new RoutingCustomerDAO(primary, List.of(replica, second));
+
+            assertEquals("Replica", routingDao.get(1).getCity());
+            assertEquals("Second", routingDao.get(1).getCity());
+            assertEquals("Replica", routingDao.get(1).getCity());
+        }
+    }
+
+    @Test
+    void leastLoadedShouldAvoidTheBusyReplica() throws SQLException {
+        try (ConnectionPool second = TestDatabase.create("routing_second_replica")) {
+            TestDatabase.seed(second, 10);
+            markCity(second, 1, "Second");
+            routingDao = new RoutingCustomerDAO(primary, List.of(replica, second),
+                    RoutingCustomerDAOTest::streamingDao);
+            routingDao.setBalancing(RoutingCustomerDAO.Balancing.LEAST_LOADED);
+
+            try (Stream<Customer> open = routingDao.streamAll()) {  // Keeps the first replica busy
+                open.findFirst();
+                assertEquals("Second", routingDao.get(1).getCity());
+                assertEquals("Second", routingDao.get(1).getCity());
+            }
+            // Closing the stream frees the first replica, so the two take turns again.
+            assertEquals(Set.of("Replica", "Second"), Set.of(routingDao.get(1).getCity(), routingDao.get(1).getCity()));
+        }
+    }
+
+    @Test
+    void laggingReplicaShouldBeLeftOutUntilItCatchesUp() throws SQLException {
+        AtomicLong lag = new AtomicLong(5_000);
+        routingDao.setLagProbe(conn -> lag.get());
+        routingDao.setLagProbeIntervalMillis(0);
+
+        assertEquals(TestDatabase.customer(1), routingDao.get(1));
+        lag.set(10);
+        assertEquals("Replica", routingDao.get(1).getCity());
+        assertEquals(1, routingDao.getPrimaryReads());
+        assertEquals(1, routingDao.getReplicaReads());
+    }
+
+    @Test
+    void replicaThatCannotBeProbedShouldBeLeftOut() throws SQLException {
+        routingDao.setLagProbe(conn -> {
+            throw new SQLException("SHOW REPLICA STATUS failed");
+        });
+
+        assertEquals(TestDatabase.customer(1), routingDao.get(1));
+        assertEquals(0, routingDao.getReplicaReads());
+    }
+
+    @Test
+    void failedReplicaReadShouldBeRetriedOnThePrimary() throws SQLException {
+        replica.close();
+
+        assertEquals(TestDatabase.customer(1), routingDao.get(1));
+        assertEquals(TestDatabase.customer(2), routingDao.get(2));
+        assertEquals(2, routingDao.getPrimaryReads());
+        assertEquals(0, routingDao.getReplicaReads());
+    }
+
+    @Test
+    void changesShouldAlwaysBeReadFromThePrimary() throws SQLException {
+        TestDatabase.createChangeLog(primary);  // The replica has no change log, so reading it would fail
+        new CustomerDAOImplementation(primary).update(TestDatabase.customer(3));
+
+        CustomerChanges changes = routingDao.getChangedSince(null);
+
+        assertEquals(10, changes.getUpserted().size());
+        assertEquals(0, routingDao.getReplicaReads());
+        assertEquals(0, routingDao.getPrimaryReads());  // Not routed, so not retried from a failed replica read
+    }
+
+    private Customer getUnchecked(int customerId) {
+        try {
+            return routingDao.get(customerId);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CustomerDAO streamingDao(DataSource dataSource) {
+        CustomerDAOImplementation dao = new CustomerDAOImplementation(dataSource);
+        dao.setStreamFetchSize(64);
+        return dao;
+    }
+
+    private static void markCity(ConnectionPool pool, int customerId, String city) throws SQLException {
+        Customer customer = TestDatabase.customer(customerId);
+        customer.setCity(city);
+        new CustomerDAOImplementation(pool).update(customer);
+    }
+}
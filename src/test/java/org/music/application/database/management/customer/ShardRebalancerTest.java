@@ -0,0 +1,118 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.music.application.database.management.customer.CustomerAssertions.assertSameColumns;
+
+class ShardRebalancerTest {
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<CustomerDAOImplementation> shards = new ArrayList<>();
+    private RangeShardingStrategy strategy;
+    private ShardedCustomerDAO shardedDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        for (int shard = 0; shard < 2; shard++) {
+            ConnectionPool pool = TestDatabase.create("rebalanced_" + shard);
+            pools.add(pool);
+            shards.add(new CustomerDAOImplementation(pool));
+        }
+        strategy = RangeShardingStrategy.evenly(2, 20);
+        shardedDao = new ShardedCustomerDAO(shards, strategy);
+        for (int id = 1; id <= 20; id++) {
+            shardedDao.insert(TestDatabase.customer(id));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedDao.close();
+        pools.forEach(ConnectionPool::close);
+    }
+
+    @Test
+    void moveShouldCopyReassignAndDeleteTheRange() throws SQLException {
+        assertEquals(10, shards.get(0).getAll().size());
+
+        ShardRebalancer rebalancer = new ShardRebalancer(shardedDao);
+        rebalancer.setPageSize(3);
+        assertEquals(5, rebalancer.moveRange(6, 11, 1));
+
+        assertEquals(5, shards.get(0).getAll().size());
+        assertEquals(15, shards.get(1).getAll().size());
+        assertEquals(1, strategy.shardFor(6));
+        assertEquals(0, strategy.shardFor(5));
+        for (int id = 1; id <= 20; id++) {
+            assertSameColumns(TestDatabase.customer(id), shardedDao.get(id));
+        }
+        assertEquals(20, shardedDao.getAll().size());
+    }
+
+    @Test
+    void moveShouldDropStaleCopiesOnTheTarget() throws SQLException {
+        shardedDao.delete(TestDatabase.customer(8));
+        shards.get(1).insert(TestDatabase.customer(8));  // Left behind by an earlier, failed move
+
+        assertEquals(4, new ShardRebalancer(shardedDao).moveRange(6, 11, 1));
+
+        assertNull(shardedDao.get(8));
+        assertNull(shards.get(1).get(8));
+        assertEquals(19, shardedDao.getAll().size());
+    }
+
+    @Test
+    void moveShouldOverwriteOutdatedCopiesOnTheTarget() throws SQLException {
+        Customer outdated = TestDatabase.customer(9);
+        outdated.setCity("Outdated");
+        shards.get(1).insert(outdated);
+
+        new ShardRebalancer(shardedDao).moveRange(1, Integer.MAX_VALUE, 1);
+
+        assertSameColumns(TestDatabase.customer(9), shardedDao.get(9));
+        assertTrue(shards.get(0).getAll().isEmpty());
+        assertEquals(List.of(new RangeShardingStrategy.Range(Integer.MIN_VALUE, 1, 0),
+                new RangeShardingStrategy.Range(1, Integer.MAX_VALUE, 1)), strategy.getRanges());
+    }
+
+    @Test
+    void moveShouldCopyRowsChangedBetweenItsPasses() throws SQLException {
+        Customer renamed = TestDatabase.customer(7);
+        renamed.setFirstName("Renamed");
+        renamed.setSupportRepId(9);
+        CustomerDAO target = new ForwardingCustomerDAO(shards.get(1)) {
+            private boolean firstPass = true;
+
+            @Override
+            public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+                BatchResult<Customer> result = delegate.saveAll(customers);
+                if (firstPass) {
+                    firstPass = false;
+                    shards.get(0).update(renamed);  // A write the first pass has already copied past
+                }
+                return result;
+            }
+        };
+        try (ShardedCustomerDAO racing = new ShardedCustomerDAO(List.of(shards.get(0), target), strategy)) {
+            assertEquals(5, new ShardRebalancer(racing).moveRange(6, 11, 1));
+
+            assertSameColumns(renamed, racing.get(7));
+            assertSameColumns(renamed, shards.get(1).get(7));
+            assertNull(shards.get(0).get(7));
+        }
+    }
+
+    @Test
+    void hashShardedDaoShouldBeRejected() {
+        try (ShardedCustomerDAO hashed = new ShardedCustomerDAO(shards, ShardingStrategy.hash(2))) {
+            assertThrows(IllegalArgumentException.class, () -> new ShardRebalancer(hashed));
+        }
+    }
+}
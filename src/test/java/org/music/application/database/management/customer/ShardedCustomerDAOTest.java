@@ -0,0 +1,168 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedCustomerDAOTest {
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<CustomerDAOImplementation> shards = new ArrayList<>();
+    private ShardingStrategy strategy;
+    private ShardedCustomerDAO shardedDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        for (int shard = 0; shard < 3; shard++) {
+            ConnectionPool pool = TestDatabase.create("sharded_" + shard);
+            TestDatabase.createChangeLog(pool);
+            CustomerDAOImplementation dao = new CustomerDAOImplementation(pool);
+            dao.setStreamFetchSize(64);
+            dao.setChangeSettleMillis(0);
+            pools.add(pool);
+            shards.add(dao);
+        }
+        strategy = ShardingStrategy.hash(3);
+        shardedDao = new ShardedCustomerDAO(shards, strategy);
+        for (int id = 1; id <= 30; id++) {
+            shardedDao.insert(TestDatabase.customer(id));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedDao.close();
+        pools.forEach(ConnectionPool::close);
+    }
+
+    @Test
+    void eachCustomerShouldBeStoredOnItsShardOnly() throws SQLException {
+        int total = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            List<Customer> rows = shards.get(shard).getAll();
+            assertFalse(rows.isEmpty());
+            for (Customer customer : rows) {
+                assertEquals(shard, strategy.shardFor(customer.getCustomerId()));
+            }
+            total += rows.size();
+        }
+        assertEquals(30, total);
+    }
+
+    @Test
+    void singleCustomerCallsShouldUseItsShard() throws SQLException {
+        Customer customer = shardedDao.get(7);
+        assertEquals(TestDatabase.customer(7), customer);
+        customer.setCity("Oslo");
+        assertEquals(1, shardedDao.update(customer));
+        assertEquals(customer, shards.get(strategy.shardFor(7)).get(7));
+
+        assertEquals(1, shardedDao.delete(customer));
+        assertNull(shardedDao.get(7));
+        assertNull(shardedDao.get(99));
+    }
+
+    @Test
+    void crossShardReadsShouldMergeEveryShard() throws SQLException {
+        assertEquals(30, shardedDao.getAll().size());
+        assertEquals(30, shardedDao.getAll(EnumSet.of(CustomerColumn.EMAIL)).size());
+        IntObjectMap<Customer> found = shardedDao.getMany(new int[]{1, 2, 3, 4, 5, 99});
+        assertEquals(5, found.size());
+        assertEquals(TestDatabase.customer(4), found.get(4));
+
+        List<Customer> canadians = shardedDao.findByCountry("Canada");
+        assertEquals(List.of(5, 10, 15, 20, 25, 30), canadians.stream().map(Customer::getCustomerId).toList());
+        assertEquals(TestDatabase.customer(12), shardedDao.findByEmail("customer12@example.com"));
+        assertEquals(10, shardedDao.findBySupportRepId(3).size());
+    }
+
+    @Test
+    void streamShouldMergeTheShardsAndStopWhenClosed() throws SQLException {
+        try (Stream<Customer> customers = shardedDao.streamAll()) {
+            assertEquals(IntStream.rangeClosed(1, 30).boxed().collect(Collectors.toSet()),
+                    customers.map(Customer::getCustomerId).collect(Collectors.toSet()));
+        }
+        try (Stream<Customer> customers = shardedDao.streamAll()) {
+            assertEquals(5, customers.limit(5).count());
+        }
+    }
+
+    @Test
+    void pagesShouldWalkAllShardsInCustomerIdOrder() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        String token = null;
+        do {
+            Page<Customer> page = shardedDao.getPage(token, 7);
+            assertTrue(page.getItems().size() <= 7);
+            page.getItems().forEach(customer -> ids.add(customer.getCustomerId()));
+            token = page.getNextPageToken();
+        } while (token != null);
+
+        assertEquals(IntStream.rangeClosed(1, 30).boxed().toList(), ids);
+    }
+
+    @Test
+    void copiesOnOtherShardsShouldBeHidden() throws SQLException {
+        int owner = strategy.shardFor(11);
+        shards.get((owner + 1) % 3).insert(TestDatabase.customer(11));  // As left behind by a move
+
+        assertEquals(30, shardedDao.getAll().size());
+        assertEquals(TestDatabase.customer(11), shardedDao.findByEmail("customer11@example.com"));
+        assertEquals(30, shardedDao.getPage(null, 100).getItems().size());
+        try (Stream<Customer> customers = shardedDao.streamAll()) {
+            assertEquals(30, customers.count());
+        }
+    }
+
+    @Test
+    void batchesShouldBeSplitByShardAndKeepTheirOrder() throws SQLException {
+        List<Customer> batch = List.of(TestDatabase.customer(31), TestDatabase.customer(5),
+                TestDatabase.customer(32), TestDatabase.customer(33));
+
+        BatchResult<Customer> result = shardedDao.insertAll(batch);
+
+        int[] counts = result.getUpdateCounts();
+        assertEquals(4, counts.length);
+        assertEquals(Statement.EXECUTE_FAILED, counts[1]);
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).index());
+        assertEquals(TestDatabase.customer(5), result.getFailures().get(0).item());
+        assertEquals(33, shardedDao.getAll().size());
+
+        assertEquals(4, shardedDao.deleteAll(batch).getSucceededCount());
+        assertEquals(29, shardedDao.getAll().size());
+    }
+
+    @Test
+    void changesShouldBeTrackedAcrossShards() throws SQLException {
+        CustomerChanges full = shardedDao.getChangedSince(null);
+        assertEquals(30, full.getUpserted().size());
+
+        Customer updated = TestDatabase.customer(3);
+        updated.setCity("Lima");
+        shardedDao.update(updated);
+        shardedDao.delete(TestDatabase.customer(4));
+        CustomerChanges changes = shardedDao.getChangedSince(full.getSyncToken());
+
+        assertEquals(List.of(updated), changes.getUpserted());
+        assertArrayEquals(new int[]{4}, changes.getDeletedIds());
+        assertTrue(shardedDao.getChangedSince(changes.getSyncToken()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> shardedDao.getChangedSince(SyncToken.after(1)));
+    }
+
+    @Test
+    void strategyShouldMatchTheShards() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardedCustomerDAO(shards.subList(0, 2), ShardingStrategy.hash(3)));
+    }
+}
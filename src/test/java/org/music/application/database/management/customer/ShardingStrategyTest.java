@@ -0,0 +1,55 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingStrategyTest {
+
+    @Test
+    void hashShouldSpreadConsecutiveIdsEvenly() {
+        ShardingStrategy strategy = ShardingStrategy.hash(4);
+        int[] counts = new int[4];
+        for (int id = 1; id <= 40_000; id++) {
+            counts[strategy.shardFor(id)]++;
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 10_000) < 500, "Uneven shard: " + count);
+        }
+        assertEquals(strategy.shardFor(17), strategy.shardFor(17));
+    }
+
+    @Test
+    void evenRangesShouldSplitTheIds() {
+        RangeShardingStrategy strategy = RangeShardingStrategy.evenly(3, 30);
+
+        assertEquals(0, strategy.shardFor(Integer.MIN_VALUE));
+        assertEquals(0, strategy.shardFor(10));
+        assertEquals(1, strategy.shardFor(11));
+        assertEquals(1, strategy.shardFor(20));
+        assertEquals(2, strategy.shardFor(21));
+        assertEquals(2, strategy.shardFor(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void assigningShouldSplitAndMergeRanges() {
+        RangeShardingStrategy strategy = new RangeShardingStrategy(2);
+
+        strategy.assign(100, 200, 1);
+        assertEquals(List.of(new RangeShardingStrategy.Range(Integer.MIN_VALUE, 100, 0),
+                new RangeShardingStrategy.Range(100, 200, 1),
+                new RangeShardingStrategy.Range(200, Integer.MAX_VALUE, 0)), strategy.getRanges());
+        assertEquals(0, strategy.shardFor(99));
+        assertEquals(1, strategy.shardFor(100));
+        assertEquals(1, strategy.shardFor(199));
+        assertEquals(0, strategy.shardFor(200));
+
+        strategy.assign(100, 200, 0);
+        assertEquals(List.of(new RangeShardingStrategy.Range(Integer.MIN_VALUE, Integer.MAX_VALUE, 0)),
+                strategy.getRanges());
+        assertThrows(IllegalArgumentException.class, () -> strategy.assign(5, 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> strategy.assign(5, 6, 2));
+    }
+}
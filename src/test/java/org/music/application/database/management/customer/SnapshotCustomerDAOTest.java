@@ -0,0 +1,211 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.music.application.database.management.customer.CustomerAssertions.assertSameColumns;
+
+class SnapshotCustomerDAOTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+    private Path file;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("snapshot_test");
+        TestDatabase.createChangeLog(pool);
+        TestDatabase.seed(pool, 50);
+        customerImpDao = new CustomerDAOImplementation(pool);
+        customerImpDao.setChangeSettleMillis(0);
+        file = directory.resolve("customers.snapshot");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void snapshotShouldRoundTripEveryCustomer() throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        for (int id = 1; id <= 1_000; id++) {
+            customers.add(TestDatabase.customer(id));
+        }
+        customers.add(new Customer(1_001, "Zoë", "", null, "東京 🎵", null, null, null, null, null, null,
+                "zoe@example.com", 0));
+
+        CustomerSnapshot.write(file, customers.iterator(), "token");
+        CustomerSnapshot snapshot = CustomerSnapshot.open(file);
+
+        assertEquals(1_001, snapshot.size());
+        assertEquals("token", snapshot.getSyncToken());
+        for (Customer customer : customers) {
+            assertSameColumns(customer, snapshot.get(customer.getCustomerId()));
+        }
+        assertNull(snapshot.get(0));
+        assertNull(snapshot.get(1_002));
+        List<Customer> iterated = new ArrayList<>();
+        snapshot.iterator().forEachRemaining(iterated::add);
+        assertSameColumns(customers, iterated);
+    }
+
+    @Test
+    void repeatedStringsShouldBeStoredOnce() throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        for (int id = 1; id <= 1_000; id++) {
+            Customer customer = TestDatabase.customer(1);
+            customers.add(new Customer(id, customer.getFirstName(), customer.getLastName(), customer.getCompany(),
+                    customer.getAddress(), customer.getCity(), customer.getState(), customer.getCountry(),
+                    customer.getPostalCode(), customer.getPhone(), customer.getFax(), customer.getEmail(),
+                    customer.getSupportRepId()));
+        }
+        CustomerSnapshot.write(file, customers.iterator(), null);
+
+        assertTrue(Files.size(file) < 1_000 * 100 + 1_000);
+        assertNull(CustomerSnapshot.open(file).getSyncToken());
+    }
+
+    @Test
+    void unorderedOrCorruptSnapshotsShouldBeRejected() throws IOException {
+        List<Customer> unordered = List.of(TestDatabase.customer(2), TestDatabase.customer(1));
+        assertThrows(IllegalArgumentException.class, () -> CustomerSnapshot.write(file, unordered.iterator(), null));
+        assertFalse(Files.exists(file));
+
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> CustomerSnapshot.open(file));
+    }
+
+    @Test
+    void openShouldWriteASnapshotAndServeGetsFromIt() throws SQLException, IOException {
+        SnapshotCustomerDAO snapshotDao = new SnapshotCustomerDAO(customerImpDao, file);
+        snapshotDao.open();
+
+        assertTrue(Files.exists(file));
+        pool.close();  // Lookups no longer touch the database
+        assertSameColumns(TestDatabase.customer(7), snapshotDao.get(7));
+        assertNull(snapshotDao.get(51));
+        assertEquals(2, snapshotDao.getMany(new int[]{1, 2, 99}).size());
+    }
+
+    @Test
+    void reopeningShouldCatchUpWithChangesSinceTheSnapshot() throws SQLException, IOException {
+        new SnapshotCustomerDAO(customerImpDao, file).open();
+        Customer updated = TestDatabase.customer(3);
+        updated.setCity("Lisbon");
+        customerImpDao.update(updated);
+        customerImpDao.delete(TestDatabase.customer(4));
+        customerImpDao.insert(TestDatabase.customer(51));
+
+        SnapshotCustomerDAO restarted = new SnapshotCustomerDAO(customerImpDao, file);
+        restarted.open();
+
+        assertSameColumns(updated, restarted.get(3));
+        assertNull(restarted.get(4));
+        assertSameColumns(TestDatabase.customer(51), restarted.get(51));
+        assertEquals(3, restarted.getPendingChanges());
+    }
+
+    @Test
+    void writesAndCheckpointShouldFoldChangesIntoTheFile() throws SQLException, IOException {
+        SnapshotCustomerDAO snapshotDao = new SnapshotCustomerDAO(customerImpDao, file);
+        snapshotDao.open();
+        snapshotDao.insert(TestDatabase.customer(60));
+        snapshotDao.delete(TestDatabase.customer(1));
+        snapshotDao.insertAll(List.of(TestDatabase.customer(61), TestDatabase.customer(2)));
+        assertSameColumns(TestDatabase.customer(60), snapshotDao.get(60));
+        assertSameColumns(TestDatabase.customer(61), snapshotDao.get(61));
+        assertNull(snapshotDao.get(1));
+
+        snapshotDao.checkpoint();
+
+        assertEquals(0, snapshotDao.getPendingChanges());
+        CustomerSnapshot snapshot = CustomerSnapshot.open(file);
+        assertEquals(51, snapshot.size());
+        assertSameColumns(TestDatabase.customer(61), snapshot.get(61));
+        assertNull(snapshot.get(1));
+        SnapshotCustomerDAO restarted = new SnapshotCustomerDAO(customerImpDao, file);
+        restarted.open();
+        assertEquals(3, restarted.getPendingChanges());  // The change log still reports the three writes
+        assertSameColumns(customerImpDao.get(60), restarted.get(60));
+    }
+
+    @Test
+    void concurrentCheckpointsShouldLeaveAValidSnapshot() throws Exception {
+        SnapshotCustomerDAO snapshotDao = new SnapshotCustomerDAO(customerImpDao, file);
+        snapshotDao.open();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> checkpoints = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                int id = 100 + i;
+                checkpoints.add(executor.submit(() -> {
+                    snapshotDao.insert(TestDatabase.customer(id));
+                    snapshotDao.checkpoint();
+                    return null;
+                }));
+            }
+            for (Future<?> checkpoint : checkpoints) {
+                checkpoint.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CustomerSnapshot snapshot = CustomerSnapshot.open(file);
+        assertEquals(66, snapshot.size());
+        for (int id = 100; id < 116; id++) {
+            assertSameColumns(TestDatabase.customer(id), snapshot.get(id));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());  // No temporary files left behind
+        }
+    }
+
+    @Test
+    void writeInsideATransactionShouldOnlyReachTheOverlayOnceCommitted() throws SQLException, IOException {
+        SnapshotCustomerDAO snapshotDao = new SnapshotCustomerDAO(customerImpDao, file);
+        snapshotDao.open();
+        Customer renamed = TestDatabase.customer(1);
+        renamed.setFirstName("Renamed");
+
+        assertThrows(IllegalStateException.class, () -> pool.inTransaction(tx -> {
+            snapshotDao.update(renamed);
+            snapshotDao.delete(TestDatabase.customer(2));
+            snapshotDao.insertAll(List.of(TestDatabase.customer(60)));
+            throw new IllegalStateException("abandon");
+        }));
+        assertSameColumns(TestDatabase.customer(1), snapshotDao.get(1));
+        assertSameColumns(TestDatabase.customer(2), snapshotDao.get(2));
+        assertNull(snapshotDao.get(60));
+        assertEquals(0, snapshotDao.getPendingChanges());
+
+        pool.inTransaction(tx -> {
+            snapshotDao.update(renamed);
+            snapshotDao.delete(TestDatabase.customer(2));
+            snapshotDao.insertAll(List.of(TestDatabase.customer(60)));
+            assertSameColumns(TestDatabase.customer(1), snapshotDao.get(1));
+            return null;
+        });
+        assertSameColumns(renamed, snapshotDao.get(1));
+        assertNull(snapshotDao.get(2));
+        assertSameColumns(TestDatabase.customer(60), snapshotDao.get(60));
+    }
+}
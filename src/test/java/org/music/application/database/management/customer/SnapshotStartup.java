@@ -0,0 +1,78 @@
+package org.music.application.database.management.customer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Measures how long a restarted process takes before it can serve its first lookup, and the heap it then retains,
+ * for {@link IndexedCustomerDAO} loading the whole table and for {@link SnapshotCustomerDAO} mapping an existing
+ * snapshot file. Both run against an embedded H2 database with the change log. Run with an optional customer count
+ * argument.
+ */
+public class SnapshotStartup {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path file = Files.createTempFile("customers", ".snapshot");
+        Files.delete(file);
+        try (ConnectionPool pool = TestDatabase.create("snapshot_startup")) {
+            TestDatabase.createChangeLog(pool);
+            TestDatabase.seed(pool, count);
+            CustomerDAOImplementation customerImpDao = new CustomerDAOImplementation(pool);
+            customerImpDao.setChangeSettleMillis(0);
+            new SnapshotCustomerDAO(customerImpDao, file).open();  // The previous run's snapshot
+
+            // Warm both paths up once so class loading and JIT are not counted against either.
+            startIndexed(customerImpDao);
+            startSnapshot(customerImpDao, file);
+
+            long before = usedHeap();
+            long started = System.nanoTime();
+            IndexedCustomerDAO indexed = startIndexed(customerImpDao);
+            long indexedNanos = System.nanoTime() - started;
+            long indexedHeap = usedHeap() - before;
+
+            before = usedHeap();
+            started = System.nanoTime();
+            SnapshotCustomerDAO snapshot = startSnapshot(customerImpDao, file);
+            long snapshotNanos = System.nanoTime() - started;
+            long snapshotHeap = usedHeap() - before;
+
+            System.out.printf("customers=%d file=%d KiB%n", count, Files.size(file) / 1024);
+            System.out.printf("IndexedCustomerDAO:  first lookup after %.1f ms, %d KiB heap%n",
+                    indexedNanos / 1e6, indexedHeap / 1024);
+            System.out.printf("SnapshotCustomerDAO: first lookup after %.1f ms, %d KiB heap%n",
+                    snapshotNanos / 1e6, snapshotHeap / 1024);
+            // Keep both reachable until measured.
+            indexed.get(1);
+            snapshot.get(1);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static IndexedCustomerDAO startIndexed(CustomerDAO customerDao) throws SQLException {
+        IndexedCustomerDAO indexed = new IndexedCustomerDAO(customerDao);
+        indexed.get(1);
+        return indexed;
+    }
+
+    private static SnapshotCustomerDAO startSnapshot(CustomerDAO customerDao, Path file) throws Exception {
+        SnapshotCustomerDAO snapshot = new SnapshotCustomerDAO(customerDao, file);
+        snapshot.open();
+        snapshot.get(1);
+        return snapshot;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
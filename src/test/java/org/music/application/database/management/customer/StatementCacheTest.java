@@ -0,0 +1,115 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCacheTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("statement_cache_test");
+        TestDatabase.seed(pool, 3);
+        customerImpDao = new CustomerDAOImplementation(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void repeatedGetShouldReuseThePreparedStatement() throws SQLException {
+        customerImpDao.get(1);
+        long misses = pool.getStatementCacheMisses();
+        long hits = pool.getStatementCacheHits();
+
+        assertEquals(TestDatabase.customer(2), customerImpDao.get(2));
+        assertEquals(TestDatabase.customer(3), customerImpDao.get(3));
+
+        assertEquals(misses, pool.getStatementCacheMisses());
+        assertEquals(hits + 2, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void sameSqlOpenTwiceShouldNotShareAStatement() throws SQLException {
+        String sql = "SELECT FirstName FROM Customer WHERE CustomerId = ?";
+        try (Connection conn = pool.getConnection();
+             PreparedStatement first = conn.prepareStatement(sql);
+             PreparedStatement second = conn.prepareStatement(sql)) {
+            first.setInt(1, 1);
+            second.setInt(1, 2);
+            try (ResultSet firstResult = first.executeQuery(); ResultSet secondResult = second.executeQuery()) {
+                assertTrue(firstResult.next());
+                assertTrue(secondResult.next());
+                assertEquals("First1", firstResult.getString(1));
+                assertEquals("First2", secondResult.getString(1));
+            }
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedStatementShouldBeEvicted() throws SQLException {
+        LongAdder hits = new LongAdder();
+        LongAdder misses = new LongAdder();
+        StatementCache cache = new StatementCache(2, hits, misses);
+        try (Connection conn = pool.getConnection()) {
+            Connection physical = conn.unwrap(Connection.class);
+            cache.prepare(conn, physical, "SELECT 1").close();
+            cache.prepare(conn, physical, "SELECT 2").close();
+            cache.prepare(conn, physical, "SELECT 1").close();
+            cache.prepare(conn, physical, "SELECT 3").close();  // Evicts SELECT 2
+            assertEquals(2, cache.size());
+
+            cache.prepare(conn, physical, "SELECT 1").close();
+            assertEquals(2, hits.sum());
+            cache.prepare(conn, physical, "SELECT 2").close();
+            assertEquals(4, misses.sum());
+            cache.closeAll();
+        }
+    }
+
+    @Test
+    void returnedStatementShouldBeResetToTheDriverDefaults() throws SQLException {
+        String sql = "SELECT FirstName FROM Customer WHERE CustomerId = ?";
+        int fetchSize;
+        int maxRows;
+        int queryTimeout;
+        try (Connection conn = pool.getConnection(); PreparedStatement statement = conn.prepareStatement(sql)) {
+            fetchSize = statement.getFetchSize();
+            maxRows = statement.getMaxRows();
+            queryTimeout = statement.getQueryTimeout();
+            statement.setFetchSize(fetchSize + 64);
+            statement.setMaxRows(maxRows + 1);
+            statement.setQueryTimeout(queryTimeout + 30);
+        }
+        long hits = pool.getStatementCacheHits();
+
+        try (Connection conn = pool.getConnection(); PreparedStatement statement = conn.prepareStatement(sql)) {
+            assertEquals(hits + 1, pool.getStatementCacheHits());
+            assertEquals(fetchSize, statement.getFetchSize());
+            assertEquals(maxRows, statement.getMaxRows());
+            assertEquals(queryTimeout, statement.getQueryTimeout());
+        }
+    }
+
+    @Test
+    void closedStatementHandleShouldRejectFurtherUse() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement statement = conn.prepareStatement("SELECT 1");
+            statement.close();
+            assertTrue(statement.isClosed());
+            assertThrows(SQLException.class, statement::executeQuery);
+        }
+    }
+}
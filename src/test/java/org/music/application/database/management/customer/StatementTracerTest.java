@@ -0,0 +1,121 @@
+package org.music.application.database.management.customer;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementTracerTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+    private ListAppender<ILoggingEvent> slowLog;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("statement_tracer_test", config -> {
+            config.setTraceSampleRate(1);
+            config.setSlowQueryThresholdMillis(0);
+        });
+        TestDatabase.seed(pool, 3);
+        customerImpDao = new CustomerDAOImplementation(pool);
+        slowLog = new ListAppender<>();
+        slowLog.start();
+        ((Logger) LoggerFactory.getLogger(StatementTracer.SLOW_LOGGER)).addAppender(slowLog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(StatementTracer.SLOW_LOGGER)).detachAppender(slowLog);
+        pool.close();
+    }
+
+    @Test
+    void slowQueryShouldBeLoggedWithRowsAndBinds() throws SQLException {
+        assertEquals(TestDatabase.customer(2), customerImpDao.get(2));
+
+        String message = lastMessage();
+        assertTrue(message.contains("SELECT"), message);
+        assertTrue(message.contains("1 rows read"), message);
+        assertTrue(message.contains("binds [2]"), message);
+    }
+
+    @Test
+    void insertShouldRedactEmailAndPhone() throws SQLException {
+        customerImpDao.insert(TestDatabase.customer(4));
+
+        String message = lastMessage();
+        assertTrue(message.contains("INSERT"), message);
+        assertTrue(message.contains("1 rows affected"), message);
+        assertTrue(message.contains("'First4'"), message);
+        assertFalse(message.contains("customer4@example.com"), message);
+        assertFalse(message.contains("555 4"), message);
+        assertTrue(message.contains("<redacted>"), message);
+    }
+
+    @Test
+    void emailLikeValueShouldBeRedactedInAnyColumn() throws SQLException {
+        assertNull(customerImpDao.findByEmail("nobody@example.com"));
+
+        String message = lastMessage();
+        assertTrue(message.contains("0 rows read"), message);
+        assertFalse(message.contains("nobody@example.com"), message);
+    }
+
+    @Test
+    void parameterNamesShouldFollowColumns() {
+        assertArrayEquals(new String[]{"CustomerId", "Email", "Country"},
+                StatementTracer.parameterNames("SELECT * FROM Customer WHERE CustomerId = ? AND c.Email LIKE ? "
+                        + "OR Country <> ?"));
+        assertArrayEquals(new String[]{"CustomerId", "CustomerId", "LIMIT"},
+                StatementTracer.parameterNames("SELECT * FROM Customer WHERE CustomerId IN (?, ?) LIMIT ?"));
+        assertArrayEquals(new String[]{"CustomerId", "Email", "CustomerId", "Email"},
+                StatementTracer.parameterNames("INSERT INTO Customer (CustomerId, Email) VALUES (?, ?), (?, ?)"));
+        assertArrayEquals(new String[]{"FirstName", "Phone", "CustomerId"},
+                StatementTracer.parameterNames("UPDATE Customer SET FirstName = ?, Phone = ? WHERE CustomerId = ?"));
+    }
+
+    @Test
+    void tracedCallShouldStayACallableStatement() throws SQLException {
+        try (Connection conn = pool.getConnection(); CallableStatement call = conn.prepareCall("CALL ABS(?)")) {
+            assertTrue(Proxy.isProxyClass(call.getClass()));
+            call.setInt(1, -5);
+            try (ResultSet resultSet = call.executeQuery()) {
+                assertTrue(resultSet.next());
+                assertEquals(5, resultSet.getInt(1));
+            }
+        }
+
+        String message = lastMessage();
+        assertTrue(message.contains("CALL ABS(?)"), message);
+        assertTrue(message.contains("binds [-5]"), message);
+    }
+
+    @Test
+    void unsampledStatementsShouldNotBeWrapped() throws SQLException {
+        try (ConnectionPool untraced = TestDatabase.create("statement_tracer_untraced_test");
+             Connection conn = untraced.getConnection();
+             PreparedStatement statement = conn.prepareStatement("SELECT 1")) {
+            assertFalse(Proxy.isProxyClass(statement.getClass())
+                    && Proxy.getInvocationHandler(statement).getClass().getEnclosingClass() == StatementTracer.class);
+        }
+    }
+
+    private String lastMessage() {
+        List<ILoggingEvent> events = slowLog.list;
+        assertFalse(events.isEmpty());
+        return events.get(events.size() - 1).getFormattedMessage();
+    }
+}
@@ -0,0 +1,105 @@
+package org.music.application.database.management.customer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * Creates embedded H2 databases in MySQL compatibility mode with the Chinook Customer table,
+ * so DAO tests can run without a live MySQL server.
+ */
+final class TestDatabase {
+
+    static final String CREATE_CUSTOMER_TABLE = "CREATE TABLE Customer ("
+            + "CustomerId INT NOT NULL, FirstName VARCHAR(40) NOT NULL, LastName VARCHAR(20) NOT NULL, "
+            + "Company VARCHAR(80), Address VARCHAR(70), City VARCHAR(40), State VARCHAR(40), "
+            + "Country VARCHAR(40), PostalCode VARCHAR(10), Phone VARCHAR(24), Fax VARCHAR(24), "
+            + "Email VARCHAR(60) NOT NULL, SupportRepId INT, PRIMARY KEY (CustomerId))";
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Creates a fresh in-memory database with an empty Customer table and a pool connected to it.
+     *
+     * @param name A name unique to the calling test.
+     * @return A pool connected to the new database.
+     * @throws SQLException If the schema could not be created.
+     */
+    static ConnectionPool create(String name) throws SQLException {
+        return create(name, config -> {
+        });
+    }
+
+    /**
+     * Creates a fresh in-memory database with an empty Customer table and a pool connected to it,
+     * letting the caller adjust the pool configuration first.
+     *
+     * @param name      A name unique to the calling test.
+     * @param customize Adjusts the pool configuration before the pool is created.
+     * @return A pool connected to the new database.
+     * @throws SQLException If the schema could not be created.
+     */
+    static ConnectionPool create(String name, Consumer<PoolConfig> customize) throws SQLException {
+        PoolConfig config = new PoolConfig("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_UPPER=FALSE"
+                + ";CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        config.setMinIdle(0);
+        config.setMaxSize(4);
+        config.setMaxWaitMillis(1_000);
+        customize.accept(config);
+        ConnectionPool pool = new ConnectionPool(config);
+        try (Connection conn = pool.getConnection(); Statement statement = conn.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS Customer");
+            statement.execute(CREATE_CUSTOMER_TABLE);
+        }
+        return pool;
+    }
+
+    /**
+     * Adds the CustomerChange log behind {@link CustomerDAO#getChangedSince(String)}, with H2 triggers standing in
+     * for the MySQL ones in {@code db/customer_change_log.sql}.
+     *
+     * @param pool The pool of the database to add the change log to.
+     * @throws SQLException If the change log could not be created.
+     */
+    static void createChangeLog(ConnectionPool pool) throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement statement = conn.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS CustomerChange");
+            statement.execute("CREATE TABLE CustomerChange (ChangeId BIGINT NOT NULL AUTO_INCREMENT, "
+                    + "CustomerId INT NOT NULL, Operation CHAR(1) NOT NULL, "
+                    + "ChangedAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3), PRIMARY KEY (ChangeId))");
+            for (String event : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+                statement.execute("CREATE TRIGGER Customer_ChangeLog_" + event + " AFTER " + event
+                        + " ON Customer FOR EACH ROW CALL '" + CustomerChangeTrigger.class.getName() + "'");
+            }
+        }
+    }
+
+    /**
+     * Inserts customers with identifiers 1 to count.
+     *
+     * @param pool  The pool of the database to seed.
+     * @param count The number of customers to insert.
+     * @throws SQLException If the customers could not be inserted.
+     */
+    static void seed(ConnectionPool pool, int count) throws SQLException {
+        CustomerDAOImplementation dao = new CustomerDAOImplementation(pool);
+        for (int id = 1; id <= count; id++) {
+            dao.insert(customer(id));
+        }
+    }
+
+    /**
+     * Builds a deterministic Chinook-style customer for the given identifier.
+     *
+     * @param id The customer identifier.
+     * @return The customer.
+     */
+    static Customer customer(int id) {
+        String[] countries = {"Canada", "USA", "Brazil", "Germany", "France"};
+        return new Customer(id, "First" + id, "Last" + id, id % 3 == 0 ? null : "Company" + (id % 7),
+                id + " Main Street", "City" + (id % 11), "ST", countries[id % countries.length],
+                "P" + (10000 + id), "+1 555 " + id, null, "customer" + id + "@example.com", 3 + id % 3);
+    }
+}
@@ -0,0 +1,281 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("transaction_test");
+        customerImpDao = new CustomerDAOImplementation(pool);
+        BatchOptions options = new BatchOptions();
+        options.setBatchSize(10);
+        options.setRowsPerTransaction(10);
+        customerImpDao.setBatchOptions(options);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static List<Customer> customers(int from, int to) {
+        List<Customer> customers = new ArrayList<>();
+        for (int id = from; id <= to; id++) {
+            customers.add(TestDatabase.customer(id));
+        }
+        return customers;
+    }
+
+    private static TransactionOptions fastRetries(int maxRetries) {
+        TransactionOptions options = new TransactionOptions();
+        options.setMaxRetries(maxRetries);
+        options.setRetryBackoffMillis(1);
+        return options;
+    }
+
+    @Test
+    void daoCallsInsideATransactionShouldShareOneConnection() throws SQLException {
+        Connection physical = pool.inTransaction(tx -> {
+            Connection first;
+            try (Connection conn = pool.getConnection()) {
+                first = conn.unwrap(Connection.class);
+            }
+            try (Connection conn = pool.getConnection()) {
+                assertSame(tx.getConnection(), conn);
+                assertSame(first, conn.unwrap(Connection.class));
+                assertFalse(conn.isClosed());
+            }
+            customerImpDao.insert(TestDatabase.customer(1));
+            customerImpDao.insertAll(customers(2, 30));
+            return first;
+        });
+
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(30, customerImpDao.getAll().size());
+        try (Connection conn = pool.getConnection()) {
+            assertSame(physical, conn.unwrap(Connection.class));
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void failedWorkShouldRollBackEveryCall() throws SQLException {
+        TestDatabase.seed(pool, 3);
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> pool.inTransaction(tx -> {
+            customerImpDao.insertAll(customers(4, 40));
+            Customer renamed = customerImpDao.get(1);
+            renamed.setFirstName("Renamed");
+            customerImpDao.update(renamed);
+            customerImpDao.delete(customerImpDao.get(2));
+            throw new IllegalStateException("abandon");
+        }));
+
+        assertEquals("abandon", thrown.getMessage());
+        assertEquals(3, customerImpDao.getAll().size());
+        assertEquals(TestDatabase.customer(1), customerImpDao.get(1));
+        assertEquals(TestDatabase.customer(2), customerImpDao.get(2));
+    }
+
+    @Test
+    void uncommittedWorkShouldNotBeVisibleToOtherConnections() throws SQLException {
+        pool.inTransaction(tx -> {
+            customerImpDao.insertAll(customers(1, 25));
+            CompletableFuture<Integer> seenElsewhere = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return customerImpDao.getAll().size();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            assertEquals(0, seenElsewhere.join());
+            return null;
+        });
+
+        assertEquals(25, customerImpDao.getAll().size());
+    }
+
+    @Test
+    void savepointShouldUndoPartOfTheWork() throws SQLException {
+        pool.inTransaction(tx -> {
+            customerImpDao.insert(TestDatabase.customer(1));
+            Savepoint savepoint = tx.setSavepoint("before_second");
+            customerImpDao.insert(TestDatabase.customer(2));
+            tx.rollback(savepoint);
+            customerImpDao.insert(TestDatabase.customer(3));
+            return null;
+        });
+
+        assertNotNull(customerImpDao.get(1));
+        assertNull(customerImpDao.get(2));
+        assertNotNull(customerImpDao.get(3));
+    }
+
+    @Test
+    void isolationShouldApplyToTheTransactionOnly() throws SQLException {
+        TransactionOptions options = new TransactionOptions();
+        options.setIsolation(Connection.TRANSACTION_SERIALIZABLE);
+
+        int isolation = pool.inTransaction(options, tx -> tx.getConnection().getTransactionIsolation());
+
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE, isolation);
+        try (Connection conn = pool.getConnection()) {
+            assertNotEquals(Connection.TRANSACTION_SERIALIZABLE, conn.getTransactionIsolation());
+        }
+    }
+
+    @Test
+    void endingTheTransactionFromInsideShouldBeRefused() throws SQLException {
+        pool.inTransaction(tx -> {
+            Connection conn = tx.getConnection();
+            assertThrows(SQLException.class, conn::commit);
+            assertThrows(SQLException.class, conn::rollback);
+            assertThrows(SQLException.class, () -> conn.setAutoCommit(true));
+            return null;
+        });
+    }
+
+    @Test
+    void deadlockShouldRetryTheWholeTransaction() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+
+        int result = pool.inTransaction(fastRetries(3), tx -> {
+            customerImpDao.insert(TestDatabase.customer(tx.getAttempt()));
+            if (attempts.incrementAndGet() < 3) {
+                throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+            }
+            return tx.getAttempt();
+        });
+
+        assertEquals(3, result);
+        assertEquals(2, pool.getTransactionRetries());
+        assertNull(customerImpDao.get(1));
+        assertNull(customerImpDao.get(2));
+        assertNotNull(customerImpDao.get(3));
+    }
+
+    @Test
+    void lockWaitTimeoutWrappedByTheWorkShouldBeRetried() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+
+        pool.inTransaction(fastRetries(1), tx -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RuntimeException(new SQLException("Lock wait timeout exceeded", "HY000", 1205));
+            }
+            return null;
+        });
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void retriesShouldStopAtTheConfiguredMaximum() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        SQLException thrown = assertThrows(SQLException.class, () -> pool.inTransaction(fastRetries(2), tx -> {
+            attempts.incrementAndGet();
+            throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+        }));
+
+        assertEquals(1213, thrown.getErrorCode());
+        assertEquals(3, attempts.get());
+        assertEquals(0, pool.getTotalConnections() - pool.getIdleConnections());
+    }
+
+    @Test
+    void otherErrorsShouldNotBeRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(SQLException.class, () -> pool.inTransaction(fastRetries(3), tx -> {
+            attempts.incrementAndGet();
+            throw new SQLException("Duplicate entry", "23000", 1062);
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, pool.getTransactionRetries());
+    }
+
+    @Test
+    void nestedTransactionShouldJoinTheOuterOne() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> pool.inTransaction(outer -> {
+            pool.inTransaction(inner -> {
+                assertSame(outer, inner);
+                return customerImpDao.insert(TestDatabase.customer(1));
+            });
+            assertNotNull(customerImpDao.get(1));
+            throw new IllegalStateException("abandon");
+        }));
+
+        assertNull(customerImpDao.get(1));
+    }
+
+    @Test
+    void afterCommitActionsShouldRunOnceTheWorkIsVisible() throws SQLException {
+        List<String> events = new ArrayList<>();
+
+        pool.inTransaction(outer -> {
+            assertSame(outer, Transaction.current());
+            pool.inTransaction(inner -> {
+                customerImpDao.insert(TestDatabase.customer(1));
+                inner.afterCommit(() -> {
+                    assertNull(Transaction.current());
+                    try {
+                        events.add("committed " + customerImpDao.get(1).getCustomerId());
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                inner.afterRollback(() -> events.add("rolled back"));
+                return null;
+            });
+            outer.afterCommit(() -> {
+                throw new IllegalStateException("ignored");
+            });
+            outer.afterCommit(() -> events.add("second"));
+            assertTrue(events.isEmpty());
+            return null;
+        });
+
+        assertEquals(List.of("committed 1", "second"), events);
+        assertNull(Transaction.current());
+    }
+
+    @Test
+    void afterRollbackActionsShouldRunForEveryFailedAttempt() throws SQLException {
+        List<String> events = new ArrayList<>();
+
+        pool.inTransaction(fastRetries(2), tx -> {
+            tx.afterCommit(() -> events.add("committed " + tx.getAttempt()));
+            tx.afterRollback(() -> events.add("rolled back " + tx.getAttempt()));
+            if (tx.getAttempt() < 3) {
+                throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+            }
+            return null;
+        });
+
+        assertEquals(List.of("rolled back 1", "rolled back 2", "committed 3"), events);
+    }
+
+    @Test
+    void actionsShouldNotBeRegisteredOnceTheTransactionHasEnded() throws SQLException {
+        Transaction ended = pool.inTransaction(tx -> tx);
+
+        assertThrows(IllegalStateException.class, () -> ended.afterCommit(() -> { }));
+        assertThrows(IllegalStateException.class, () -> ended.afterRollback(() -> { }));
+    }
+}
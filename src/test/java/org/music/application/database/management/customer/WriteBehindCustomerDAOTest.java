@@ -0,0 +1,291 @@
+package org.music.application.database.management.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindCustomerDAOTest {
+    private ConnectionPool pool;
+    private CustomerDAOImplementation customerImpDao;
+    private WriteBehindCustomerDAO writeBehindDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("write_behind_test");
+        TestDatabase.seed(pool, 10);
+        customerImpDao = new CustomerDAOImplementation(pool);
+        writeBehindDao = new WriteBehindCustomerDAO(customerImpDao, 100, 100, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        writeBehindDao.close();
+        pool.close();
+    }
+
+    @Test
+    void repeatedUpdatesShouldBeCoalescedIntoOneRow() throws SQLException {
+        Customer customer = TestDatabase.customer(1);
+        for (String city : List.of("Porto", "Faro", "Braga")) {
+            customer.setCity(city);
+            assertEquals(1, writeBehindDao.update(customer));
+        }
+
+        assertEquals("Braga", writeBehindDao.get(1).getCity());
+        assertEquals(TestDatabase.customer(1), customerImpDao.get(1));  // Not flushed yet
+
+        writeBehindDao.flush();
+
+        assertEquals("Braga", customerImpDao.get(1).getCity());
+        WriteBehindStats stats = writeBehindDao.getStats();
+        assertEquals(3, stats.writes());
+        assertEquals(2, stats.coalesced());
+        assertEquals(1, stats.rowsFlushed());
+        assertEquals(0, stats.pending());
+        assertEquals(3.0, stats.writesPerRow());
+    }
+
+    @Test
+    void readsShouldSeePendingWrites() throws SQLException {
+        writeBehindDao.delete(TestDatabase.customer(2));
+        writeBehindDao.save(TestDatabase.customer(11));
+
+        assertNull(writeBehindDao.get(2));
+        assertEquals(TestDatabase.customer(11), writeBehindDao.get(11));
+        IntObjectMap<Customer> found = writeBehindDao.getMany(new int[]{1, 2, 11, 11});
+        assertEquals(2, found.size());
+        assertNull(found.get(2));
+        assertEquals(TestDatabase.customer(11), found.get(11));
+
+        // Queries the buffer cannot answer flush it first.
+        assertEquals(10, writeBehindDao.getAll().size());
+        assertNull(customerImpDao.get(2));
+    }
+
+    @Test
+    void writesToOneCustomerShouldCombineIntoTheirNetEffect() throws SQLException {
+        Customer saved = TestDatabase.customer(12);
+        writeBehindDao.save(saved);
+        saved.setCity("Quito");
+        writeBehindDao.update(saved);  // Still inserts 12
+        writeBehindDao.delete(TestDatabase.customer(3));
+        writeBehindDao.update(TestDatabase.customer(3));  // Would update nothing after the delete
+        writeBehindDao.delete(TestDatabase.customer(4));
+        writeBehindDao.save(TestDatabase.customer(4));
+
+        writeBehindDao.flush();
+
+        assertEquals(saved, customerImpDao.get(12));
+        assertNull(customerImpDao.get(3));
+        assertEquals(TestDatabase.customer(4), customerImpDao.get(4));
+    }
+
+    @Test
+    void batchWritesShouldBeBuffered() throws SQLException {
+        BatchResult<Customer> result = writeBehindDao.saveAll(List.of(TestDatabase.customer(11),
+                TestDatabase.customer(12)));
+
+        assertArrayEquals(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}, result.getUpdateCounts());
+        assertNull(customerImpDao.get(11));
+        writeBehindDao.deleteAll(List.of(TestDatabase.customer(11)));
+        writeBehindDao.flush();
+        assertNull(customerImpDao.get(11));
+        assertEquals(TestDatabase.customer(12), customerImpDao.get(12));
+    }
+
+    @Test
+    void insertShouldFlushAPendingWriteOfTheSameCustomerFirst() throws SQLException {
+        writeBehindDao.delete(TestDatabase.customer(5));
+
+        assertEquals(1, writeBehindDao.insert(TestDatabase.customer(5)));
+        assertThrows(SQLException.class, () -> writeBehindDao.insert(TestDatabase.customer(6)));
+    }
+
+    @Test
+    void reachingTheFlushSizeShouldFlush() throws Exception {
+        writeBehindDao.close();
+        writeBehindDao = new WriteBehindCustomerDAO(customerImpDao, 10, 3, Duration.ofHours(1));
+
+        for (int id = 1; id <= 3; id++) {
+            Customer customer = TestDatabase.customer(id);
+            customer.setCity("Flushed");
+            writeBehindDao.update(customer);
+        }
+
+        awaitFlushed(3);
+        assertEquals("Flushed", customerImpDao.get(3).getCity());
+    }
+
+    @Test
+    void theFlushIntervalShouldFlush() throws Exception {
+        writeBehindDao.close();
+        writeBehindDao = new WriteBehindCustomerDAO(customerImpDao, 10, 10, Duration.ofMillis(20));
+
+        writeBehindDao.save(TestDatabase.customer(11));
+
+        awaitFlushed(1);
+        assertEquals(TestDatabase.customer(11), customerImpDao.get(11));
+    }
+
+    @Test
+    void writersShouldWaitWhileTheBufferIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CustomerDAO slow = new ForwardingCustomerDAO(customerImpDao) {
+            @Override
+            public BatchResult<Customer> updateAll(Collection<Customer> customers) throws SQLException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return super.updateAll(customers);
+            }
+        };
+        writeBehindDao.close();
+        writeBehindDao = new WriteBehindCustomerDAO(slow, 2, 2, Duration.ofHours(1));
+        writeBehindDao.update(TestDatabase.customer(1));
+        writeBehindDao.update(TestDatabase.customer(2));  // Starts a flush that blocks on the latch
+
+        CompletableFuture<Integer> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return writeBehindDao.update(TestDatabase.customer(3));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertEquals(1, blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedFlushShouldKeepTheWritesForTheNextOne() throws SQLException {
+        AtomicInteger failures = new AtomicInteger(1);
+        CustomerDAO flaky = new ForwardingCustomerDAO(customerImpDao) {
+            @Override
+            public BatchResult<Customer> saveAll(Collection<Customer> customers) throws SQLException {
+                if (failures.getAndDecrement() > 0) {
+                    throw new SQLException("Communications link failure");
+                }
+                return super.saveAll(customers);
+            }
+        };
+        writeBehindDao.close();
+        writeBehindDao = new WriteBehindCustomerDAO(flaky, 10, 10, Duration.ofHours(1));
+        writeBehindDao.save(TestDatabase.customer(11));
+
+        assertThrows(SQLException.class, () -> writeBehindDao.flush());
+        assertEquals(TestDatabase.customer(11), writeBehindDao.get(11));
+        assertEquals(1, writeBehindDao.getStats().pending());
+
+        writeBehindDao.flush();
+        assertEquals(TestDatabase.customer(11), customerImpDao.get(11));
+    }
+
+    @Test
+    void rejectedRowsShouldBeDropped() throws SQLException {
+        Customer invalid = TestDatabase.customer(11);
+        invalid.setFirstName(null);  // FirstName is NOT NULL
+        writeBehindDao.save(invalid);
+        writeBehindDao.save(TestDatabase.customer(12));
+
+        writeBehindDao.flush();
+
+        assertNull(customerImpDao.get(11));
+        assertEquals(TestDatabase.customer(12), customerImpDao.get(12));
+        assertEquals(1, writeBehindDao.getStats().failedRows());
+        assertEquals(0, writeBehindDao.getStats().pending());
+    }
+
+    @Test
+    void closeShouldFlushAndRejectLaterWrites() throws SQLException {
+        writeBehindDao.closeOnShutdown();
+        writeBehindDao.delete(TestDatabase.customer(7));
+
+        writeBehindDao.close();
+
+        assertNull(customerImpDao.get(7));
+        assertThrows(IllegalStateException.class, () -> writeBehindDao.update(TestDatabase.customer(1)));
+    }
+
+    private void awaitFlushed(long rows) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writeBehindDao.getStats().rowsFlushed() < rows && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(rows, writeBehindDao.getStats().rowsFlushed());
+    }
+
+    @Test
+    void readInsideATransactionShouldNotFlushIntoIt() throws SQLException {
+        Customer moved = TestDatabase.customer(3);
+        moved.setCity("Porto");
+        CompletableFuture.runAsync(() -> {
+            try {
+                writeBehindDao.update(moved);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }).join();
+
+        assertThrows(IllegalStateException.class, () -> pool.inTransaction(tx -> {
+            assertEquals(10, writeBehindDao.getAll().size());
+            throw new IllegalStateException("abandon");
+        }));
+        assertEquals(1, writeBehindDao.getStats().pending());
+
+        writeBehindDao.flush();
+        assertEquals("Porto", customerImpDao.get(3).getCity());
+    }
+
+    @Test
+    void writesInsideATransactionShouldOnlyBeBufferedOnceCommitted() throws SQLException {
+        Customer moved = TestDatabase.customer(4);
+        moved.setCity("Porto");
+
+        assertThrows(IllegalStateException.class, () -> pool.inTransaction(tx -> {
+            writeBehindDao.update(moved);
+            writeBehindDao.deleteAll(List.of(TestDatabase.customer(5)));
+            throw new IllegalStateException("abandon");
+        }));
+        assertEquals(0, writeBehindDao.getStats().pending());
+
+        pool.inTransaction(tx -> {
+            writeBehindDao.update(moved);
+            writeBehindDao.deleteAll(List.of(TestDatabase.customer(5)));
+            assertEquals(0, writeBehindDao.getStats().pending());
+            return null;
+        });
+        assertEquals(2, writeBehindDao.getStats().pending());
+        writeBehindDao.flush();
+        assertEquals("Porto", customerImpDao.get(4).getCity());
+        assertNull(customerImpDao.get(5));
+    }
+
+    @Test
+    void insertInsideATransactionShouldFlushOutsideIt() throws SQLException {
+        writeBehindDao.delete(TestDatabase.customer(6));
+
+        assertThrows(IllegalStateException.class, () -> pool.inTransaction(tx -> {
+            assertEquals(1, writeBehindDao.insert(TestDatabase.customer(6)));
+            throw new IllegalStateException("abandon");
+        }));
+
+        assertNull(customerImpDao.get(6));  // The pending delete stayed flushed; only the insert rolled back
+        assertEquals(0, writeBehindDao.getStats().pending());
+    }
+}